@@ -25,7 +25,6 @@ import static org.hamcrest.Matchers.allOf;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.RecyclerView.Adapter;
 import androidx.recyclerview.widget.RecyclerView.ViewHolder;
-import android.util.SparseArray;
 import android.view.View;
 import android.widget.AdapterView;
 import androidx.test.espresso.Espresso;
@@ -33,8 +32,6 @@ import androidx.test.espresso.PerformException;
 import androidx.test.espresso.UiController;
 import androidx.test.espresso.ViewAction;
 import androidx.test.espresso.util.HumanReadables;
-import java.util.ArrayList;
-import java.util.List;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeMatcher;
@@ -78,6 +75,25 @@ public final class RecyclerViewActions {
     public PositionableRecyclerViewAction atPosition(int position);
   }
 
+  /**
+   * Gives access to the data an adapter binds to its items, similar to {@link
+   * androidx.test.espresso.action.AdapterViewProtocol} for {@link AdapterView}s.
+   *
+   * <p>Actions which match adapter data instead of item views, like {@link
+   * #scrollToData(AdapterDataProvider, Matcher)}, don't need to create and bind a {@link
+   * ViewHolder} for every item they look at, which makes searching large adapters much faster.
+   */
+  public interface AdapterDataProvider {
+
+    /**
+     * Returns the data the given adapter binds to the item at the given position.
+     *
+     * @param adapter the adapter of the {@link RecyclerView} the action is performed on.
+     * @param position an adapter position, from 0 to {@code adapter.getItemCount() - 1}.
+     */
+    Object getDataAtPosition(Adapter<?> adapter, int position);
+  }
+
   /**
    * Returns a {@link ViewAction} which scrolls {@link RecyclerView} to the view matched by
    * viewHolderMatcher.
@@ -95,7 +111,25 @@ public final class RecyclerViewActions {
    */
   public static <VH extends ViewHolder> PositionableRecyclerViewAction scrollToHolder(
       final Matcher<VH> viewHolderMatcher) {
-    return new ScrollToViewAction<VH>(viewHolderMatcher);
+    return new ScrollToViewAction(RecyclerViewItemSearch.ofViewHolders(viewHolderMatcher));
+  }
+
+  /**
+   * Returns a {@link ViewAction} which scrolls {@link RecyclerView} to the item whose adapter data
+   * is matched by dataMatcher.
+   *
+   * <p>Unlike {@link #scrollTo(Matcher)}, no {@link ViewHolder} is created or bound while looking
+   * for the item.
+   *
+   * @param dataProvider provides the adapter data of every item in the {@link RecyclerView}
+   * @param dataMatcher a <a
+   *     href="http://hamcrest.org/JavaHamcrest/javadoc/1.3/org/hamcrest/Matcher.html"><code>Matcher
+   *     </code></a> that matches the data of an item in {@link RecyclerView}
+   * @throws PerformException if there are more than one items matching given dataMatcher.
+   */
+  public static PositionableRecyclerViewAction scrollToData(
+      AdapterDataProvider dataProvider, Matcher<? extends Object> dataMatcher) {
+    return new ScrollToViewAction(RecyclerViewItemSearch.ofData(dataProvider, dataMatcher));
   }
 
   /**
@@ -115,7 +149,7 @@ public final class RecyclerViewActions {
   public static <VH extends ViewHolder> PositionableRecyclerViewAction scrollTo(
       final Matcher<View> itemViewMatcher) {
     Matcher<VH> viewHolderMatcher = viewHolderMatcher(itemViewMatcher);
-    return new ScrollToViewAction<VH>(viewHolderMatcher);
+    return new ScrollToViewAction(RecyclerViewItemSearch.ofViewHolders(viewHolderMatcher));
   }
 
   /**
@@ -144,7 +178,8 @@ public final class RecyclerViewActions {
   public static <VH extends ViewHolder> PositionableRecyclerViewAction actionOnItem(
       final Matcher<View> itemViewMatcher, final ViewAction viewAction) {
     Matcher<VH> viewHolderMatcher = viewHolderMatcher(itemViewMatcher);
-    return new ActionOnItemViewAction<VH>(viewHolderMatcher, viewAction);
+    return new ActionOnItemViewAction(
+        RecyclerViewItemSearch.ofViewHolders(viewHolderMatcher), viewAction);
   }
 
   /**
@@ -166,26 +201,52 @@ public final class RecyclerViewActions {
    */
   public static <VH extends ViewHolder> PositionableRecyclerViewAction actionOnHolderItem(
       final Matcher<VH> viewHolderMatcher, final ViewAction viewAction) {
-    return new ActionOnItemViewAction<VH>(viewHolderMatcher, viewAction);
+    return new ActionOnItemViewAction(
+        RecyclerViewItemSearch.ofViewHolders(viewHolderMatcher), viewAction);
+  }
+
+  /**
+   * Performs a {@link ViewAction} on the item whose adapter data is matched by dataMatcher.
+   *
+   * <ol>
+   *   <li>Scroll Recycler View to the item whose data is matched by dataMatcher
+   *   <li>Perform an action on the view of the matched item
+   * </ol>
+   *
+   * Unlike {@link #actionOnItem(Matcher, ViewAction)}, no {@link ViewHolder} is created or bound
+   * while looking for the item.
+   *
+   * @param dataProvider provides the adapter data of every item in the {@link RecyclerView}
+   * @param dataMatcher a <a
+   *     href="http://hamcrest.org/JavaHamcrest/javadoc/1.3/org/hamcrest/Matcher.html"><code>Matcher
+   *     </code></a> that matches the data of an item in {@link RecyclerView}
+   * @param viewAction the action that is performed on the view of the matched item
+   * @throws PerformException if there are more than one items matching given dataMatcher.
+   */
+  public static PositionableRecyclerViewAction actionOnData(
+      AdapterDataProvider dataProvider,
+      Matcher<? extends Object> dataMatcher,
+      ViewAction viewAction) {
+    return new ActionOnItemViewAction(
+        RecyclerViewItemSearch.ofData(dataProvider, dataMatcher), viewAction);
   }
 
-  private static final class ActionOnItemViewAction<VH extends ViewHolder>
-      implements PositionableRecyclerViewAction {
-    private final Matcher<VH> viewHolderMatcher;
+  private static final class ActionOnItemViewAction implements PositionableRecyclerViewAction {
+    private final RecyclerViewItemSearch itemSearch;
     private final ViewAction viewAction;
     private final int atPosition;
-    private final ScrollToViewAction<VH> scroller;
+    private final ScrollToViewAction scroller;
 
-    private ActionOnItemViewAction(Matcher<VH> viewHolderMatcher, ViewAction viewAction) {
-      this(viewHolderMatcher, viewAction, NO_POSITION);
+    private ActionOnItemViewAction(RecyclerViewItemSearch itemSearch, ViewAction viewAction) {
+      this(itemSearch, viewAction, NO_POSITION);
     }
 
     private ActionOnItemViewAction(
-        Matcher<VH> viewHolderMatcher, ViewAction viewAction, int atPosition) {
-      this.viewHolderMatcher = checkNotNull(viewHolderMatcher);
+        RecyclerViewItemSearch itemSearch, ViewAction viewAction, int atPosition) {
+      this.itemSearch = checkNotNull(itemSearch);
       this.viewAction = checkNotNull(viewAction);
       this.atPosition = atPosition;
-      this.scroller = new ScrollToViewAction<VH>(viewHolderMatcher, atPosition);
+      this.scroller = new ScrollToViewAction(itemSearch, atPosition);
     }
 
     @SuppressWarnings("unchecked")
@@ -197,7 +258,7 @@ public final class RecyclerViewActions {
     @Override
     public PositionableRecyclerViewAction atPosition(int position) {
       checkArgument(position >= 0, "%d is used as an index - must be >= 0", position);
-      return new ActionOnItemViewAction<VH>(viewHolderMatcher, viewAction, position);
+      return new ActionOnItemViewAction(itemSearch, viewAction, position);
     }
 
     @Override
@@ -205,12 +266,12 @@ public final class RecyclerViewActions {
       if (atPosition == NO_POSITION) {
         return String.format(
             "performing ViewAction: %s on item matching: %s",
-            viewAction.getDescription(), viewHolderMatcher);
+            viewAction.getDescription(), itemSearch);
 
       } else {
         return String.format(
             "performing ViewAction: %s on %d-th item matching: %s",
-            viewAction.getDescription(), atPosition, viewHolderMatcher);
+            viewAction.getDescription(), atPosition, itemSearch);
       }
     }
 
@@ -218,14 +279,10 @@ public final class RecyclerViewActions {
     public void perform(UiController uiController, View root) {
       RecyclerView recyclerView = (RecyclerView) root;
       try {
-        scroller.perform(uiController, root);
+        // the scroller checks bounds, dupes (maybe) and brings the element into screen.
+        int position = scroller.scrollToMatchingItem(uiController, recyclerView);
         uiController.loopMainThreadUntilIdle();
-        // the above scroller has checked bounds, dupes (maybe) and brought the element into screen.
-        int max = atPosition == NO_POSITION ? 2 : atPosition + 1;
-        int selectIndex = atPosition == NO_POSITION ? 0 : atPosition;
-        List<MatchedItem> matchedItems = itemsMatching(recyclerView, viewHolderMatcher, max);
-        actionOnItemAtPosition(matchedItems.get(selectIndex).position, viewAction)
-            .perform(uiController, root);
+        actionOnItemAtPosition(position, viewAction).perform(uiController, root);
         uiController.loopMainThreadUntilIdle();
       } catch (RuntimeException e) {
         throw new PerformException.Builder()
@@ -311,24 +368,23 @@ public final class RecyclerViewActions {
    * {@link ViewAction} which scrolls {@link RecyclerView} to the view matched by itemViewMatcher.
    * See {@link RecyclerViewActions#scrollTo(Matcher)} for more details.
    */
-  private static final class ScrollToViewAction<VH extends ViewHolder>
-      implements PositionableRecyclerViewAction {
-    private final Matcher<VH> viewHolderMatcher;
+  private static final class ScrollToViewAction implements PositionableRecyclerViewAction {
+    private final RecyclerViewItemSearch itemSearch;
     private final int atPosition;
 
-    private ScrollToViewAction(Matcher<VH> viewHolderMatcher) {
-      this(viewHolderMatcher, NO_POSITION);
+    private ScrollToViewAction(RecyclerViewItemSearch itemSearch) {
+      this(itemSearch, NO_POSITION);
     }
 
-    private ScrollToViewAction(Matcher<VH> viewHolderMatcher, int atPosition) {
-      this.viewHolderMatcher = viewHolderMatcher;
+    private ScrollToViewAction(RecyclerViewItemSearch itemSearch, int atPosition) {
+      this.itemSearch = itemSearch;
       this.atPosition = atPosition;
     }
 
     @Override
     public PositionableRecyclerViewAction atPosition(int position) {
       checkArgument(position >= 0, "%d is used as an index - must be >= 0", position);
-      return new ScrollToViewAction<VH>(viewHolderMatcher, position);
+      return new ScrollToViewAction(itemSearch, position);
     }
 
     @SuppressWarnings("unchecked")
@@ -340,43 +396,49 @@ public final class RecyclerViewActions {
     @Override
     public String getDescription() {
       if (atPosition == NO_POSITION) {
-        return "scroll RecyclerView to: " + viewHolderMatcher;
+        return "scroll RecyclerView to: " + itemSearch;
       } else {
         return String.format(
-            "scroll RecyclerView to the: %dth matching %s.", atPosition, viewHolderMatcher);
+            "scroll RecyclerView to the: %dth matching %s.", atPosition, itemSearch);
       }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void perform(UiController uiController, View view) {
-      RecyclerView recyclerView = (RecyclerView) view;
+      scrollToMatchingItem(uiController, (RecyclerView) view);
+    }
+
+    /** Scrolls to the selected matching item and returns its adapter position. */
+    private int scrollToMatchingItem(UiController uiController, RecyclerView recyclerView) {
       try {
         int maxMatches = atPosition == NO_POSITION ? 2 : atPosition + 1;
         int selectIndex = atPosition == NO_POSITION ? 0 : atPosition;
-        List<MatchedItem> matchedItems = itemsMatching(recyclerView, viewHolderMatcher, maxMatches);
+        int[] matchedPositions = itemSearch.findMatches(recyclerView, maxMatches);
 
-        if (selectIndex >= matchedItems.size()) {
+        if (selectIndex >= matchedPositions.length) {
           throw new RuntimeException(
               String.format(
                   "Found %d items matching %s, but position %d was requested.",
-                  matchedItems.size(), viewHolderMatcher.toString(), atPosition));
+                  matchedPositions.length, itemSearch.toString(), atPosition));
         }
-        if (atPosition == NO_POSITION && matchedItems.size() == 2) {
+        if (atPosition == NO_POSITION && matchedPositions.length == 2) {
           StringBuilder ambiguousViewError = new StringBuilder();
           ambiguousViewError.append(
-              String.format("Found more than one sub-view matching %s", viewHolderMatcher));
-          for (MatchedItem item : matchedItems) {
-            ambiguousViewError.append(item + "\n");
+              String.format("Found more than one sub-view matching %s", itemSearch));
+          // matched items are only described now that the search failed.
+          for (int position : matchedPositions) {
+            ambiguousViewError.append(
+                RecyclerViewItemSearch.describeItem(recyclerView, position) + "\n");
           }
           throw new RuntimeException(ambiguousViewError.toString());
         }
-        recyclerView.scrollToPosition(matchedItems.get(selectIndex).position);
+        recyclerView.scrollToPosition(matchedPositions[selectIndex]);
         uiController.loopMainThreadUntilIdle();
+        return matchedPositions[selectIndex];
       } catch (RuntimeException e) {
         throw new PerformException.Builder()
             .withActionDescription(this.getDescription())
-            .withViewDescription(HumanReadables.describe(view))
+            .withViewDescription(HumanReadables.describe(recyclerView))
             .withCause(e)
             .build();
       }
@@ -413,73 +475,6 @@ public final class RecyclerViewActions {
     }
   }
 
-  /**
-   * Finds positions of items in {@link RecyclerView} which is matching given viewHolderMatcher.
-   * This is similar to positionMatching(RecyclerView, Matcher<VH>), except that it returns list of
-   * multiple positions if there are, rather than throwing Ambiguous view error exception.
-   *
-   * @param recyclerView recycler view which is hosting items.
-   * @param viewHolderMatcher a <a
-   *     href="http://hamcrest.org/JavaHamcrest/javadoc/1.3/org/hamcrest/Matcher.html"><code>Matcher
-   *     </code></a> that matches an item view in {@link RecyclerView}
-   * @return list of MatchedItem which contains position and description of items in recyclerView.
-   * @throws RuntimeException if more than one item or item could not be found.
-   */
-  @SuppressWarnings("unchecked")
-  private static <T extends VH, VH extends ViewHolder> List<MatchedItem> itemsMatching(
-      final RecyclerView recyclerView, final Matcher<VH> viewHolderMatcher, int max) {
-    final Adapter<T> adapter = recyclerView.getAdapter();
-    SparseArray<VH> viewHolderCache = new SparseArray<VH>();
-    List<MatchedItem> matchedItems = new ArrayList<MatchedItem>();
-    for (int position = 0; position < adapter.getItemCount(); position++) {
-      int itemType = adapter.getItemViewType(position);
-      VH cachedViewHolder = viewHolderCache.get(itemType);
-      // Create a view holder per type if not exists
-      if (null == cachedViewHolder) {
-        cachedViewHolder = adapter.createViewHolder(recyclerView, itemType);
-        viewHolderCache.put(itemType, cachedViewHolder);
-      }
-      // Bind data to ViewHolder and apply matcher to view descendants.
-      adapter.bindViewHolder((T) cachedViewHolder, position);
-      if (viewHolderMatcher.matches(cachedViewHolder)) {
-        matchedItems.add(
-            new MatchedItem(
-                position,
-                HumanReadables.getViewHierarchyErrorMessage(
-                    cachedViewHolder.itemView,
-                    null,
-                    "\n\n*** Matched ViewHolder item at position: " + position + " ***",
-                    null)));
-        adapter.onViewRecycled((T) cachedViewHolder);
-        if (matchedItems.size() == max) {
-          break;
-        }
-      } else {
-        adapter.onViewRecycled((T) cachedViewHolder);
-      }
-    }
-    return matchedItems;
-  }
-
-  /**
-   * Wrapper for matched items in recycler view which contains position and description of matched
-   * view.
-   */
-  private static class MatchedItem {
-    public final int position;
-    public final String description;
-
-    private MatchedItem(int position, String description) {
-      this.position = position;
-      this.description = description;
-    }
-
-    @Override
-    public String toString() {
-      return description;
-    }
-  }
-
   /**
    * Creates matcher for view holder with given item view matcher.
    *
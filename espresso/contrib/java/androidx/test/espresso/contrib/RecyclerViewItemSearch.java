@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.contrib;
+
+import static androidx.test.espresso.contrib.Checks.checkNotNull;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.RecyclerView.Adapter;
+import androidx.recyclerview.widget.RecyclerView.ViewHolder;
+import android.util.SparseArray;
+import androidx.test.espresso.contrib.RecyclerViewActions.AdapterDataProvider;
+import androidx.test.espresso.util.HumanReadables;
+import java.util.Arrays;
+import org.hamcrest.Matcher;
+
+/**
+ * Finds the adapter positions of the items of a {@link RecyclerView} which match a matcher.
+ *
+ * <p>Items are visited in adapter order and the search stops as soon as the requested number of
+ * matches is found. Matching items are not described while searching, {@link #describeItem} renders
+ * an item only once it is needed for an error message.
+ */
+abstract class RecyclerViewItemSearch {
+  // the description of every matched item ends up in the error message, so keep it short.
+  private static final int MAX_ITEM_HIERARCHY_LENGTH = 16 * 1024;
+
+  /** Returns a search which binds every item to a {@link ViewHolder} and matches the holder. */
+  static <VH extends ViewHolder> RecyclerViewItemSearch ofViewHolders(
+      final Matcher<VH> viewHolderMatcher) {
+    checkNotNull(viewHolderMatcher);
+    return new RecyclerViewItemSearch() {
+      @Override
+      ItemMatcher newItemMatcher(RecyclerView recyclerView) {
+        return new ViewHolderItemMatcher<VH>(recyclerView, viewHolderMatcher);
+      }
+
+      @Override
+      public String toString() {
+        return viewHolderMatcher.toString();
+      }
+    };
+  }
+
+  /**
+   * Returns a search which matches the adapter data of every item, without creating or binding any
+   * {@link ViewHolder}.
+   */
+  static RecyclerViewItemSearch ofData(
+      final AdapterDataProvider dataProvider, final Matcher<? extends Object> dataMatcher) {
+    checkNotNull(dataProvider);
+    checkNotNull(dataMatcher);
+    return new RecyclerViewItemSearch() {
+      @Override
+      ItemMatcher newItemMatcher(final RecyclerView recyclerView) {
+        final Adapter<?> adapter = recyclerView.getAdapter();
+        return new ItemMatcher() {
+          @Override
+          public boolean matches(int position) {
+            return dataMatcher.matches(dataProvider.getDataAtPosition(adapter, position));
+          }
+        };
+      }
+
+      @Override
+      public String toString() {
+        return "item with data: " + dataMatcher;
+      }
+    };
+  }
+
+  /** Decides whether the item at a position matches, for the duration of a single search. */
+  interface ItemMatcher {
+    boolean matches(int position);
+  }
+
+  abstract ItemMatcher newItemMatcher(RecyclerView recyclerView);
+
+  /**
+   * Returns the positions of the first {@code maxMatches} matching items, in adapter order. Fewer
+   * positions are returned if not enough items match.
+   */
+  final int[] findMatches(RecyclerView recyclerView, int maxMatches) {
+    int itemCount = recyclerView.getAdapter().getItemCount();
+    ItemMatcher itemMatcher = newItemMatcher(recyclerView);
+    int[] positions = new int[Math.min(maxMatches, itemCount)];
+    int matches = 0;
+    for (int position = 0; position < itemCount && matches < positions.length; position++) {
+      if (itemMatcher.matches(position)) {
+        positions[matches++] = position;
+      }
+    }
+    return matches == positions.length ? positions : Arrays.copyOf(positions, matches);
+  }
+
+  /** Binds the item at the given position to a new {@link ViewHolder} and describes its views. */
+  @SuppressWarnings("unchecked")
+  static <VH extends ViewHolder> String describeItem(RecyclerView recyclerView, int position) {
+    Adapter<VH> adapter = recyclerView.getAdapter();
+    VH viewHolder = adapter.createViewHolder(recyclerView, adapter.getItemViewType(position));
+    adapter.bindViewHolder(viewHolder, position);
+    try {
+      return HumanReadables.getViewHierarchyErrorMessage(
+          viewHolder.itemView,
+          null,
+          "\n\n*** Matched ViewHolder item at position: " + position + " ***",
+          null,
+          MAX_ITEM_HIERARCHY_LENGTH,
+          null);
+    } finally {
+      adapter.onViewRecycled(viewHolder);
+    }
+  }
+
+  /**
+   * Binds items to {@link ViewHolder}s and matches the holders. Holders are created once per item
+   * type and recycled right after matching, so they can be reused for every further item.
+   */
+  private static final class ViewHolderItemMatcher<VH extends ViewHolder> implements ItemMatcher {
+    private final RecyclerView recyclerView;
+    private final Adapter<VH> adapter;
+    private final Matcher<VH> viewHolderMatcher;
+    private final SparseArray<VH> viewHoldersByType = new SparseArray<VH>();
+
+    @SuppressWarnings("unchecked")
+    ViewHolderItemMatcher(RecyclerView recyclerView, Matcher<VH> viewHolderMatcher) {
+      this.recyclerView = recyclerView;
+      this.adapter = recyclerView.getAdapter();
+      this.viewHolderMatcher = viewHolderMatcher;
+    }
+
+    @Override
+    public boolean matches(int position) {
+      int itemType = adapter.getItemViewType(position);
+      VH viewHolder = viewHoldersByType.get(itemType);
+      if (null == viewHolder) {
+        viewHolder = adapter.createViewHolder(recyclerView, itemType);
+        viewHoldersByType.put(itemType, viewHolder);
+      }
+      // Bind data to ViewHolder and apply matcher to view descendants.
+      adapter.bindViewHolder(viewHolder, position);
+      try {
+        return viewHolderMatcher.matches(viewHolder);
+      } finally {
+        adapter.onViewRecycled(viewHolder);
+      }
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.contrib;
+
+import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.RecyclerView.Adapter;
+import androidx.recyclerview.widget.RecyclerView.ViewHolder;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.espresso.contrib.RecyclerViewActions.AdapterDataProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.util.Arrays;
+import java.util.Locale;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures how long {@link RecyclerViewActions} take to find items in large adapters, by matching
+ * bound view holders and by matching adapter data. Results are written to logcat.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class RecyclerViewSearchBenchmark {
+  private static final String TAG = "RecyclerViewSearchBM";
+
+  private static final int ITEM_COUNT = 20000;
+  private static final int WARM_UP_ROUNDS = 2;
+  private static final int ROUNDS = 10;
+  private static final String LAST_ITEM = "Item: " + (ITEM_COUNT - 1);
+
+  private static final AdapterDataProvider SYNTHETIC_DATA =
+      (adapter, position) -> ((SyntheticAdapter) adapter).getItem(position);
+
+  private RecyclerView recyclerView;
+
+  @Before
+  public void setUp() {
+    recyclerView =
+        new RecyclerView(InstrumentationRegistry.getInstrumentation().getTargetContext());
+    recyclerView.setAdapter(new SyntheticAdapter());
+  }
+
+  @UiThreadTest
+  @Test
+  public void findLastItem() {
+    measure(
+        "view holders, last item",
+        RecyclerViewItemSearch.ofViewHolders(withItemText(equalTo(LAST_ITEM))),
+        2,
+        ITEM_COUNT - 1);
+    measure(
+        "adapter data, last item",
+        RecyclerViewItemSearch.ofData(SYNTHETIC_DATA, equalTo(LAST_ITEM)),
+        2,
+        ITEM_COUNT - 1);
+  }
+
+  @UiThreadTest
+  @Test
+  public void findFirstOfManyItems() {
+    // "Item: 1", "Item: 10", ... - the search stops at the second match.
+    measure(
+        "view holders, first of many items",
+        RecyclerViewItemSearch.ofViewHolders(withItemText(startsWith("Item: 1"))),
+        2,
+        1);
+    measure(
+        "adapter data, first of many items",
+        RecyclerViewItemSearch.ofData(SYNTHETIC_DATA, startsWith("Item: 1")),
+        2,
+        1);
+  }
+
+  private void measure(
+      String name, RecyclerViewItemSearch itemSearch, int maxMatches, int expectedPosition) {
+    for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+      itemSearch.findMatches(recyclerView, maxMatches);
+    }
+    long[] durations = new long[ROUNDS];
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = SystemClock.elapsedRealtimeNanos();
+      int[] positions = itemSearch.findMatches(recyclerView, maxMatches);
+      durations[i] = SystemClock.elapsedRealtimeNanos() - start;
+      assertEquals(expectedPosition, positions[0]);
+    }
+    Arrays.sort(durations);
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%s (%d items): median %.2f ms, max %.2f ms",
+            name,
+            ITEM_COUNT,
+            durations[ROUNDS / 2] / 1e6,
+            durations[ROUNDS - 1] / 1e6));
+  }
+
+  private static Matcher<ViewHolder> withItemText(final Matcher<String> textMatcher) {
+    final Matcher<View> itemViewMatcher = withText(textMatcher);
+    return new TypeSafeMatcher<ViewHolder>() {
+      @Override
+      public boolean matchesSafely(ViewHolder viewHolder) {
+        return itemViewMatcher.matches(viewHolder.itemView);
+      }
+
+      @Override
+      public void describeTo(Description description) {
+        description.appendText("holder with view: ");
+        itemViewMatcher.describeTo(description);
+      }
+    };
+  }
+
+  /** An adapter of {@link #ITEM_COUNT} text items, with a separate view type every 100 items. */
+  private static final class SyntheticAdapter extends Adapter<ViewHolder> {
+
+    String getItem(int position) {
+      return "Item: " + position;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+      return position % 100 == 0 ? 1 : 0;
+    }
+
+    @Override
+    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+      return new ViewHolder(new TextView(parent.getContext())) {};
+    }
+
+    @Override
+    public void onBindViewHolder(ViewHolder holder, int position) {
+      ((TextView) holder.itemView).setText(getItem(position));
+    }
+
+    @Override
+    public int getItemCount() {
+      return ITEM_COUNT;
+    }
+  }
+}
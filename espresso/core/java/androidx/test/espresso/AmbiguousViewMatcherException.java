@@ -20,10 +20,14 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import android.view.View;
 import androidx.test.espresso.util.HumanReadables;
+import androidx.test.espresso.util.LazyViewHierarchyMessage;
 import androidx.test.internal.platform.util.TestOutputEmitter;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.hamcrest.Matcher;
 
 /**
@@ -42,11 +46,19 @@ import org.hamcrest.Matcher;
 public final class AmbiguousViewMatcherException extends RuntimeException
     implements EspressoException {
 
-  private Matcher<? super View> viewMatcher;
-  private View rootView;
-  private View view1;
-  private View view2;
-  private View[] others;
+  // keeps huge hierarchies out of the message; the complete one goes to a test output file.
+  private static final int MAX_HIERARCHY_LENGTH = 256 * 1024;
+  private static final AtomicInteger hierarchyOutputCount = new AtomicInteger();
+
+  // views and matchers can't be serialized, the rendered message stands in for them.
+  private transient Matcher<? super View> viewMatcher;
+  private transient View rootView;
+  private transient View view1;
+  private transient View view2;
+  private transient View[] others;
+  private transient LazyViewHierarchyMessage lazyMessage;
+  // only set when serialized.
+  private String renderedMessage;
 
   private AmbiguousViewMatcherException(String description) {
     super(description);
@@ -54,37 +66,58 @@ public final class AmbiguousViewMatcherException extends RuntimeException
   }
 
   private AmbiguousViewMatcherException(Builder builder) {
-    super(getErrorMessage(builder));
+    super(builder.includeViewHierarchy ? null : getShortErrorMessage(builder.viewMatcher));
     this.viewMatcher = builder.viewMatcher;
     this.rootView = builder.rootView;
     this.view1 = builder.view1;
     this.view2 = builder.view2;
     this.others = builder.others;
+    if (builder.includeViewHierarchy) {
+      // the view hierarchy is only rendered if someone is interested in the message.
+      this.lazyMessage =
+          new LazyViewHierarchyMessage() {
+            @Override
+            protected String renderWithHierarchy() {
+              return getErrorMessage();
+            }
+
+            @Override
+            protected String renderWithoutHierarchy() {
+              return getShortErrorMessage(viewMatcher);
+            }
+          };
+    }
   }
 
-  private static String getErrorMessage(Builder builder) {
-    String errorMessage = "";
-    if (builder.includeViewHierarchy) {
-      ImmutableSet<View> ambiguousViews =
-          ImmutableSet.<View>builder()
-              .add(builder.view1, builder.view2)
-              .add(builder.others)
-              .build();
-      errorMessage =
-          HumanReadables.getViewHierarchyErrorMessage(
-              builder.rootView,
-              Lists.newArrayList(ambiguousViews),
-              String.format(
-                  Locale.ROOT,
-                  "'%s' matches multiple views in the hierarchy.",
-                  builder.viewMatcher),
-              "****MATCHES****");
-    } else {
-      errorMessage =
-          String.format(
-              Locale.ROOT, "Multiple Ambiguous Views found for matcher %s", builder.viewMatcher);
+  @Override
+  public String getMessage() {
+    if (lazyMessage != null) {
+      return lazyMessage.get();
     }
-    return errorMessage;
+    return renderedMessage != null ? renderedMessage : super.getMessage();
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    renderedMessage = getMessage();
+    out.defaultWriteObject();
+  }
+
+  private String getErrorMessage() {
+    ImmutableSet<View> ambiguousViews =
+        ImmutableSet.<View>builder().add(view1, view2).add(others).build();
+    return HumanReadables.getViewHierarchyErrorMessage(
+        rootView,
+        Lists.newArrayList(ambiguousViews),
+        String.format(Locale.ROOT, "'%s' matches multiple views in the hierarchy.", viewMatcher),
+        "****MATCHES****",
+        MAX_HIERARCHY_LENGTH,
+        "view-hierarchy-AmbiguousViewMatcherException-"
+            + hierarchyOutputCount.incrementAndGet()
+            + ".txt");
+  }
+
+  private static String getShortErrorMessage(Matcher<? super View> viewMatcher) {
+    return String.format(Locale.ROOT, "Multiple Ambiguous Views found for matcher %s", viewMatcher);
   }
 
   /** Builder for {@link AmbiguousViewMatcherException}. */
@@ -84,6 +84,36 @@ public final class Espresso {
     return BASE.plus(new ViewInteractionModule(viewMatcher)).viewInteraction();
   }
 
+  /**
+   * Creates an empty {@link ViewInteractionBatch}, which runs a sequence of actions and assertions
+   * on views of one root while only waiting for the application to idle at its start and end.
+   *
+   * <p>This method builds a ViewInteractionBatch object - it does not interact with the application
+   * under test until {@link ViewInteractionBatch#run()} is called.
+   *
+   * @see #onView(Matcher)
+   */
+  @CheckReturnValue
+  @CheckResult
+  public static ViewInteractionBatch batch() {
+    return BASE.plus(new ViewInteractionModule(isRoot())).viewInteractionBatch();
+  }
+
+  /**
+   * Creates a {@link ViewStateWaiter}, which waits until the view selected by the given matcher
+   * reaches a state, re-evaluating the state only when the UI signals a possible change.
+   *
+   * <p>This method builds a ViewStateWaiter object - it does not interact with the application
+   * under test until one of its {@code until} methods is called.
+   *
+   * @param viewMatcher used to select the view.
+   */
+  @CheckReturnValue
+  @CheckResult
+  public static ViewStateWaiter waitFor(final Matcher<View> viewMatcher) {
+    return BASE.plus(new ViewInteractionModule(viewMatcher)).viewStateWaiter();
+  }
+
   /**
    * Creates an {@link DataInteraction} for a data object displayed by the application. Use this
    * method to load (into the view hierarchy) items from AdapterView widgets (e.g. ListView).
@@ -92,6 +122,10 @@ public final class Espresso {
    * under test at all. It is expected that the caller use the ViewInteraction object to perform an
    * action or assertion.
    *
+   * <p>The adapter has to notify its observers, e.g. by {@code notifyDataSetChanged()}, whenever
+   * its data changes. Data matched by value is looked up in an index of the adapter's data, which
+   * doesn't notice changes the adapter doesn't notify about.
+   *
    * @param dataMatcher a matcher used to find the data object.
    * @return a DataInteraction that will perform an action or assertion.
    */
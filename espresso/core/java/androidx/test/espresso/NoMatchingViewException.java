@@ -21,9 +21,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import android.view.View;
 import androidx.test.espresso.util.EspressoOptional;
 import androidx.test.espresso.util.HumanReadables;
+import androidx.test.espresso.util.LazyViewHierarchyMessage;
 import com.google.common.collect.Lists;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.hamcrest.Matcher;
 
 /**
@@ -40,23 +44,57 @@ import org.hamcrest.Matcher;
  */
 public final class NoMatchingViewException extends RuntimeException implements EspressoException {
 
-  private Matcher<? super View> viewMatcher;
-  private View rootView;
-  private List<View> adapterViews = Lists.newArrayList();
+  // keeps huge hierarchies out of the message; the complete one goes to a test output file.
+  private static final int MAX_HIERARCHY_LENGTH = 256 * 1024;
+  private static final AtomicInteger hierarchyOutputCount = new AtomicInteger();
+
+  // views and matchers can't be serialized, the rendered strings below stand in for them.
+  private transient Matcher<? super View> viewMatcher;
+  private transient View rootView;
+  private transient List<View> adapterViews = Lists.newArrayList();
   private boolean includeViewHierarchy = true;
-  private EspressoOptional<String> adapterViewWarning = EspressoOptional.<String>absent();
+  private transient EspressoOptional<String> adapterViewWarning = EspressoOptional.<String>absent();
+  private transient LazyViewHierarchyMessage lazyMessage;
+  // only set when serialized.
+  private String renderedMessage;
+  private String renderedViewMatcherDescription;
 
   private NoMatchingViewException(String description) {
     super(description);
   }
 
   private NoMatchingViewException(Builder builder) {
-    super(getErrorMessage(builder), builder.cause);
+    super(
+        builder.includeViewHierarchy ? null : getShortErrorMessage(builder.viewMatcher),
+        builder.cause);
     this.viewMatcher = builder.viewMatcher;
     this.rootView = builder.rootView;
     this.adapterViews = builder.adapterViews;
     this.adapterViewWarning = builder.adapterViewWarning;
     this.includeViewHierarchy = builder.includeViewHierarchy;
+    if (includeViewHierarchy) {
+      // the view hierarchy is only rendered if someone is interested in the message.
+      this.lazyMessage =
+          new LazyViewHierarchyMessage() {
+            @Override
+            protected String renderWithHierarchy() {
+              return getErrorMessage();
+            }
+
+            @Override
+            protected String renderWithoutHierarchy() {
+              return getShortErrorMessage(viewMatcher);
+            }
+          };
+    }
+  }
+
+  @Override
+  public String getMessage() {
+    if (lazyMessage != null) {
+      return lazyMessage.get();
+    }
+    return renderedMessage != null ? renderedMessage : super.getMessage();
   }
 
   /**
@@ -66,27 +104,37 @@ public final class NoMatchingViewException extends RuntimeException implements E
     String viewMatcherDescription = "unknown";
     if (null != viewMatcher) {
       viewMatcherDescription = viewMatcher.toString();
+    } else if (null != renderedViewMatcherDescription) {
+      viewMatcherDescription = renderedViewMatcherDescription;
     }
     return viewMatcherDescription;
   }
 
-  private static String getErrorMessage(Builder builder) {
-    String errorMessage = "";
-    if (builder.includeViewHierarchy) {
-      String message =
-          String.format(
-              Locale.ROOT, "No views in hierarchy found matching: %s", builder.viewMatcher);
-      if (builder.adapterViewWarning.isPresent()) {
-        message = message + builder.adapterViewWarning.get();
-      }
-      errorMessage =
-          HumanReadables.getViewHierarchyErrorMessage(
-              builder.rootView, null /* problemViews */, message, null /* problemViewSuffix */);
-    } else {
-      errorMessage =
-          String.format(Locale.ROOT, "Could not find a view that matches %s", builder.viewMatcher);
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    renderedMessage = getMessage();
+    renderedViewMatcherDescription = getViewMatcherDescription();
+    out.defaultWriteObject();
+  }
+
+  private String getErrorMessage() {
+    String message =
+        String.format(Locale.ROOT, "No views in hierarchy found matching: %s", viewMatcher);
+    if (adapterViewWarning.isPresent()) {
+      message = message + adapterViewWarning.get();
     }
-    return errorMessage;
+    return HumanReadables.getViewHierarchyErrorMessage(
+        rootView,
+        null /* problemViews */,
+        message,
+        null /* problemViewSuffix */,
+        MAX_HIERARCHY_LENGTH,
+        "view-hierarchy-NoMatchingViewException-"
+            + hierarchyOutputCount.incrementAndGet()
+            + ".txt");
+  }
+
+  private static String getShortErrorMessage(Matcher<? super View> viewMatcher) {
+    return String.format(Locale.ROOT, "Could not find a view that matches %s", viewMatcher);
   }
 
   /** Builder for {@link NoMatchingViewException}. */
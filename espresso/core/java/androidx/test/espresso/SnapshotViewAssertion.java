@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso;
+
+import android.view.View;
+
+/**
+ * A {@link ViewAssertion} which is checked against an immutable copy of the state it needs, rather
+ * than against the view itself.
+ *
+ * <p>{@link ViewInteraction#check(ViewAssertion)} calls {@link #capture} on the main thread and
+ * then releases the main thread, evaluating {@link #checkSnapshot} on a background thread. Captures
+ * should only copy what the check needs (e.g. {@link
+ * androidx.test.espresso.util.ViewSnapshot#captureView} rather than the whole hierarchy), as the
+ * main thread is held while they run. Since the snapshot is immutable, checks may block and do not
+ * have to worry about the view changing while they run.
+ *
+ * <p>When used as a plain {@link ViewAssertion}, the snapshot is captured and checked on the
+ * calling thread.
+ *
+ * @param <S> the type of the snapshot, which must not hold on to any view.
+ */
+public abstract class SnapshotViewAssertion<S> implements ViewAssertion {
+
+  /**
+   * Copies the state of the view which {@link #checkSnapshot} needs. Called on the main thread,
+   * only if a view was found.
+   *
+   * @param view the view selected by the view interaction.
+   * @return the snapshot to check.
+   */
+  protected abstract S capture(View view);
+
+  /**
+   * Checks the state of the view as it was when the snapshot was captured.
+   *
+   * @param snapshot the snapshot of the view, if one was found during the view interaction or null
+   *     if it was not (which may be an acceptable option for an assertion)
+   * @param noViewFoundException an exception detailing why the view could not be found or null if
+   *     the view was found
+   */
+  public abstract void checkSnapshot(S snapshot, NoMatchingViewException noViewFoundException);
+
+  @Override
+  public final void check(View view, NoMatchingViewException noViewFoundException) {
+    checkSnapshot(view != null ? capture(view) : null, noViewFoundException);
+  }
+}
@@ -26,21 +26,31 @@ import android.os.RemoteException;
 import android.util.Log;
 import android.view.View;
 import android.widget.AdapterView;
+import androidx.annotation.Nullable;
 import androidx.test.espresso.action.ScrollToAction;
+import androidx.test.espresso.base.IdleWaitProfiler;
 import androidx.test.espresso.base.InterruptableUiController;
 import androidx.test.espresso.base.MainThread;
+import androidx.test.espresso.base.SnapshotExecutor;
 import androidx.test.espresso.matcher.RootMatchers;
 import androidx.test.espresso.remote.Bindable;
 import androidx.test.espresso.remote.IInteractionExecutionStatus;
+import androidx.test.espresso.remote.NoRemoteEspressoInstanceException;
 import androidx.test.espresso.remote.RemoteInteraction;
 import androidx.test.espresso.util.HumanReadables;
 import androidx.test.internal.platform.os.ControlledLooper;
+import androidx.test.internal.platform.util.TestOutputEmitter;
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -76,6 +86,8 @@ public final class ViewInteraction {
   private final AtomicReference<Boolean> needsActivity;
   private final RemoteInteraction remoteInteraction;
   private final ListeningExecutorService remoteExecutor;
+  private final ListeningExecutorService snapshotExecutor;
+  private final IdleWaitProfiler profiler = IdleWaitProfiler.getInstance();
   // test thread only
   private boolean hasRootMatcher = false;
 
@@ -90,7 +102,8 @@ public final class ViewInteraction {
       AtomicReference<Boolean> needsActivity,
       RemoteInteraction remoteInteraction,
       ListeningExecutorService remoteExecutor,
-      ControlledLooper controlledLooper) {
+      ControlledLooper controlledLooper,
+      @SnapshotExecutor ListeningExecutorService snapshotExecutor) {
     this.viewFinder = checkNotNull(viewFinder);
     this.uiController = (InterruptableUiController) checkNotNull(uiController);
     this.failureHandler = checkNotNull(failureHandler);
@@ -101,6 +114,7 @@ public final class ViewInteraction {
     this.remoteInteraction = checkNotNull(remoteInteraction);
     this.remoteExecutor = checkNotNull(remoteExecutor);
     this.controlledLooper = checkNotNull(controlledLooper);
+    this.snapshotExecutor = checkNotNull(snapshotExecutor);
   }
 
   /**
@@ -160,22 +174,31 @@ public final class ViewInteraction {
           }
         };
 
-    ViewAction innerViewAction = va.getInnerViewAction();
+    final ViewAction innerViewAction = va.getInnerViewAction();
+    if (profiler.isEnabled()) {
+      profiler.beginInteraction(
+          String.format(
+              Locale.ROOT, "perform '%s' on view %s", va.getDescription(), viewMatcher));
+    }
 
-    List<ListenableFuture<Void>> interactions = new ArrayList<>();
-    interactions.add(postAsynchronouslyOnUiThread(performInteraction));
+    Supplier<Callable<Void>> remoteInteractionSupplier = null;
     if (!remoteInteraction.isRemoteProcess()) {
       // Only the original process should submit remote interactionsList;
-      interactions.add(
-          remoteExecutor.submit(
-              remoteInteraction.createRemotePerformCallable(
+      remoteInteractionSupplier =
+          new Supplier<Callable<Void>>() {
+            @Override
+            public Callable<Void> get() {
+              return remoteInteraction.createRemotePerformCallable(
                   rootMatcherRef.get(),
                   viewMatcher,
                   getIBindersFromViewActions(va, innerViewAction),
-                  innerViewAction)));
+                  innerViewAction);
+            }
+          };
     }
 
-    waitForAndHandleInteractionResults(interactions);
+    waitForAndHandleInteractionResults(
+        postAsynchronouslyOnUiThread(performInteraction), remoteInteractionSupplier);
   }
 
   /**
@@ -218,9 +241,25 @@ public final class ViewInteraction {
    */
   private void doPerform(final SingleExecutionViewAction viewAction) {
     checkNotNull(viewAction);
-    final Matcher<? extends View> constraints = checkNotNull(viewAction.getConstraints());
     uiController.loopMainThreadUntilIdle();
     View targetView = viewFinder.getView();
+    performOnView(
+        uiController, viewMatcher, viewAction, viewAction.getInnerViewAction(), targetView);
+  }
+
+  /**
+   * Checks the constraints of the action against the target view and then performs it. Should be
+   * executed on the main thread.
+   *
+   * @param innerViewAction the action as provided by the test, used to explain failures.
+   */
+  static void performOnView(
+      UiController uiController,
+      Matcher<View> viewMatcher,
+      ViewAction viewAction,
+      ViewAction innerViewAction,
+      View targetView) {
+    final Matcher<? extends View> constraints = checkNotNull(viewAction.getConstraints());
     Log.i(
         TAG,
         String.format(
@@ -240,7 +279,7 @@ public final class ViewInteraction {
           .appendText("\nTarget view: ")
           .appendValue(HumanReadables.describe(targetView));
 
-      if (viewAction.getInnerViewAction() instanceof ScrollToAction
+      if (innerViewAction instanceof ScrollToAction
           && isDescendantOfA(isAssignableFrom(AdapterView.class)).matches(targetView)) {
         stringDescription.appendText(
             "\nFurther Info: ScrollToAction on a view inside an AdapterView will not work. "
@@ -259,6 +298,9 @@ public final class ViewInteraction {
   /**
    * Checks the given {@link ViewAssertion} on the the view selected by the current view matcher.
    *
+   * <p>A {@link SnapshotViewAssertion} is checked on a background thread against a snapshot of the
+   * view, so the main thread is only held while the view is found and captured.
+   *
    * @param viewAssert the assertion to check.
    * @return this interaction for further perform/verification calls.
    */
@@ -290,20 +332,36 @@ public final class ViewInteraction {
           }
         };
 
-    List<ListenableFuture<Void>> interactions = new ArrayList<>();
-    interactions.add(postAsynchronouslyOnUiThread(checkInteraction));
+    if (profiler.isEnabled()) {
+      profiler.beginInteraction(
+          String.format(Locale.ROOT, "check '%s' on view %s", viewAssert, viewMatcher));
+    }
+
+    ListenableFuture<Void> localInteraction;
+    if (viewAssert instanceof SnapshotViewAssertion) {
+      localInteraction =
+          checkSnapshotAsynchronously(
+              (SnapshotViewAssertion<?>) viewAssert, singleExecutionViewAssertion);
+    } else {
+      localInteraction = postAsynchronouslyOnUiThread(checkInteraction);
+    }
+    Supplier<Callable<Void>> remoteInteractionSupplier = null;
     if (!remoteInteraction.isRemoteProcess()) {
       // Only the original process should submit remote interactionsList;
-      interactions.add(
-          remoteExecutor.submit(
-              remoteInteraction.createRemoteCheckCallable(
+      remoteInteractionSupplier =
+          new Supplier<Callable<Void>>() {
+            @Override
+            public Callable<Void> get() {
+              return remoteInteraction.createRemoteCheckCallable(
                   rootMatcherRef.get(),
                   viewMatcher,
                   getIBindersFromViewAssertions(singleExecutionViewAssertion, viewAssert),
-                  viewAssert)));
+                  viewAssert);
+            }
+          };
     }
 
-    waitForAndHandleInteractionResults(interactions);
+    waitForAndHandleInteractionResults(localInteraction, remoteInteractionSupplier);
     return this;
   }
 
@@ -313,20 +371,132 @@ public final class ViewInteraction {
     return mainThreadInteraction;
   }
 
-  private void waitForAndHandleInteractionResults(List<ListenableFuture<Void>> interactions) {
+  /**
+   * Finds and captures the view on the main thread, then checks the snapshot assertion on the
+   * snapshot executor.
+   */
+  private <S> ListenableFuture<Void> checkSnapshotAsynchronously(
+      final SnapshotViewAssertion<S> snapshotAssertion,
+      final SingleExecutionViewAssertion singleExecutionViewAssertion) {
+    ListenableFutureTask<CapturedView<S>> capture =
+        ListenableFutureTask.create(
+            new Callable<CapturedView<S>>() {
+              @Override
+              public CapturedView<S> call() {
+                uiController.loopMainThreadUntilIdle();
+                if (!singleExecutionViewAssertion.canExecute()) {
+                  return null;
+                }
+                View targetView;
+                try {
+                  targetView = viewFinder.getView();
+                } catch (NoMatchingViewException nsve) {
+                  return new CapturedView<S>(null, nsve);
+                }
+                return new CapturedView<S>(snapshotAssertion.capture(targetView), null);
+              }
+            });
+    mainThreadExecutor.execute(capture);
+    return Futures.transform(
+        capture,
+        new Function<CapturedView<S>, Void>() {
+          @Override
+          public Void apply(CapturedView<S> captured) {
+            if (captured == null) {
+              // Already checked by another process.
+              return null;
+            }
+            Log.i(
+                TAG,
+                String.format(
+                    Locale.ROOT,
+                    "Checking '%s' assertion on snapshot of view %s",
+                    snapshotAssertion,
+                    viewMatcher));
+            snapshotAssertion.checkSnapshot(captured.snapshot, captured.missingViewException);
+            return null;
+          }
+        },
+        snapshotExecutor);
+  }
+
+  /** The outcome of finding and capturing the view on the main thread. */
+  private static final class CapturedView<S> {
+    final S snapshot;
+    final NoMatchingViewException missingViewException;
+
+    CapturedView(S snapshot, NoMatchingViewException missingViewException) {
+      this.snapshot = snapshot;
+      this.missingViewException = missingViewException;
+    }
+  }
+
+  /**
+   * Waits for the local interaction and, if given, the remote one and hands failures to the failure
+   * handler.
+   *
+   * <p>The remote interaction runs concurrently with the local one while remote Espresso instances
+   * are registered. Otherwise it is only created once a remote instance registers while the local
+   * interaction is still running, as the activity under test may be about to start in another
+   * process.
+   *
+   * @param localInteraction the interaction with the local process
+   * @param remoteInteractionSupplier creates the interaction with other processes, or {@code null}
+   *     if this process must not interact remotely
+   */
+  private void waitForAndHandleInteractionResults(
+      ListenableFuture<Void> localInteraction,
+      @Nullable Supplier<Callable<Void>> remoteInteractionSupplier) {
     try {
       controlledLooper.drainMainThreadUntilIdle();
-      // Blocking call
-      InteractionResultsHandler.gatherAnyResult(interactions);
+      if (remoteInteractionSupplier == null) {
+        // Blocking call
+        InteractionResultsHandler.gatherAnyResult(
+            Collections.<ListenableFuture<Void>>singletonList(localInteraction));
+      } else if (remoteInteraction.hasRemoteInstances()) {
+        gatherLocalAndRemoteResults(localInteraction, remoteInteractionSupplier.get());
+      } else {
+        gatherLocalAndRemoteResults(
+            localInteraction, awaitingRemoteInstances(remoteInteractionSupplier));
+      }
     } catch (RuntimeException ee) {
       failureHandler.handle(ee, viewMatcher);
     } catch (Error error) {
       failureHandler.handle(error, viewMatcher);
     } finally {
       uiController.interruptEspressoTasks();
+      Map<String, Serializable> profile = profiler.finishInteraction();
+      if (profile != null) {
+        TestOutputEmitter.addOutputProperties(profile);
+      }
     }
   }
 
+  private void gatherLocalAndRemoteResults(
+      ListenableFuture<Void> localInteraction, Callable<Void> remoteInteraction) {
+    List<ListenableFuture<Void>> interactions = new ArrayList<>();
+    interactions.add(localInteraction);
+    interactions.add(remoteExecutor.submit(remoteInteraction));
+    // Blocking call, which interrupts the remote interaction once the local one succeeds.
+    InteractionResultsHandler.gatherAnyResult(interactions);
+  }
+
+  /** Creates and runs the remote interaction once a remote Espresso instance registers. */
+  private Callable<Void> awaitingRemoteInstances(
+      final Supplier<Callable<Void>> remoteInteractionSupplier) {
+    return new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        remoteInteraction.awaitRemoteInstances();
+        if (!remoteInteraction.hasRemoteInstances()) {
+          throw new NoRemoteEspressoInstanceException(
+              "No remote Espresso instances at this time.");
+        }
+        return remoteInteractionSupplier.get().call();
+      }
+    };
+  }
+
   private static final class SingleExecutionViewAction implements ViewAction, Bindable {
 
     final ViewAction viewAction;
@@ -420,14 +590,20 @@ public final class ViewInteraction {
 
     @Override
     public void check(View view, NoMatchingViewException noViewFoundException) {
+      if (canExecute()) {
+        viewAssertion.check(view, noViewFoundException);
+      }
+    }
+
+    private boolean canExecute() {
       try {
         if (assertionExecutionStatus.canExecute()) {
-          viewAssertion.check(view, noViewFoundException);
-        } else {
-          logDebugWithProcess(
-              TAG,
-              "Attempted to execute a Single Execution Assertion more then once: " + viewAssertion);
+          return true;
         }
+        logDebugWithProcess(
+            TAG,
+            "Attempted to execute a Single Execution Assertion more then once: " + viewAssertion);
+        return false;
       } catch (RemoteException e) {
         throw new RuntimeException("Unable to query interaction execution status", e.getCause());
       }
@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import android.util.Log;
+import android.view.View;
+import androidx.test.espresso.base.InterruptableUiController;
+import androidx.test.espresso.base.MainThread;
+import androidx.test.espresso.base.ViewFinderImpl;
+import androidx.test.internal.platform.os.ControlledLooper;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import org.hamcrest.Matcher;
+
+/**
+ * Runs a sequence of view actions and assertions as a single interaction.
+ *
+ * <p>Every {@link ViewInteraction#perform} and {@link ViewInteraction#check} waits for the
+ * application to idle and picks the root again before it touches the view. A batch picks the root
+ * once, waits for the application to idle once before the first step and once after the last step,
+ * and runs all steps in between in a single main thread task:
+ *
+ * <pre>{@code
+ * Espresso.batch()
+ *     .perform(withId(R.id.name), typeText("Jane"))
+ *     .perform(withId(R.id.email), typeText("jane@example.com"), closeSoftKeyboard())
+ *     .idle() // the submit button is enabled asynchronously
+ *     .check(withId(R.id.submit), matches(isEnabled()))
+ *     .run();
+ * }</pre>
+ *
+ * <p>Actions that start asynchronous work the following steps depend on need an explicit {@link
+ * #idle()} step after them. Steps are matched against the root picked at the start of the batch,
+ * even across {@link #idle()} steps, so a step that opens a new window (e.g. a dialog) should end
+ * the batch.
+ *
+ * <p>A failing step stops the batch and is reported to the failure handler together with the view
+ * matcher of that step, just like a failing {@link ViewInteraction}. Batches only interact with the
+ * local process.
+ */
+public final class ViewInteractionBatch {
+
+  private static final String TAG = ViewInteractionBatch.class.getSimpleName();
+
+  private final InterruptableUiController uiController;
+  private final Executor mainThreadExecutor;
+  private final ControlledLooper controlledLooper;
+  private final Provider<View> rootViewProvider;
+  private final AtomicReference<Matcher<Root>> rootMatcherRef;
+  private final Matcher<View> batchViewMatcher;
+  private final List<Step> steps = new ArrayList<>();
+  private volatile FailureHandler failureHandler;
+
+  @Inject
+  ViewInteractionBatch(
+      UiController uiController,
+      @MainThread Executor mainThreadExecutor,
+      FailureHandler failureHandler,
+      Matcher<View> batchViewMatcher,
+      Provider<View> rootViewProvider,
+      AtomicReference<Matcher<Root>> rootMatcherRef,
+      ControlledLooper controlledLooper) {
+    this.uiController = (InterruptableUiController) checkNotNull(uiController);
+    this.mainThreadExecutor = checkNotNull(mainThreadExecutor);
+    this.failureHandler = checkNotNull(failureHandler);
+    this.batchViewMatcher = checkNotNull(batchViewMatcher);
+    this.rootViewProvider = checkNotNull(rootViewProvider);
+    this.rootMatcherRef = checkNotNull(rootMatcherRef);
+    this.controlledLooper = checkNotNull(controlledLooper);
+  }
+
+  /**
+   * Adds a step which performs the given action(s) on the view selected by the view matcher, with
+   * precondition checks running prior to each action.
+   *
+   * @return this batch for further steps.
+   */
+  public ViewInteractionBatch perform(Matcher<View> viewMatcher, ViewAction... viewActions) {
+    checkNotNull(viewMatcher);
+    checkNotNull(viewActions);
+    for (ViewAction viewAction : viewActions) {
+      steps.add(new PerformStep(viewMatcher, checkNotNull(viewAction)));
+    }
+    return this;
+  }
+
+  /**
+   * Adds a step which checks the given assertion on the view selected by the view matcher.
+   *
+   * @return this batch for further steps.
+   */
+  public ViewInteractionBatch check(Matcher<View> viewMatcher, ViewAssertion viewAssert) {
+    steps.add(new CheckStep(checkNotNull(viewMatcher), checkNotNull(viewAssert)));
+    return this;
+  }
+
+  /**
+   * Adds a step which waits for the application to idle, for actions whose effects the following
+   * steps depend on.
+   *
+   * @return this batch for further steps.
+   */
+  public ViewInteractionBatch idle() {
+    steps.add(new IdleStep());
+    return this;
+  }
+
+  /** Makes this batch scoped to the root selected by the given root matcher. */
+  public ViewInteractionBatch inRoot(Matcher<Root> rootMatcher) {
+    rootMatcherRef.set(checkNotNull(rootMatcher));
+    return this;
+  }
+
+  /** Replaces the default failure handler for this batch. */
+  public ViewInteractionBatch withFailureHandler(FailureHandler failureHandler) {
+    this.failureHandler = checkNotNull(failureHandler);
+    return this;
+  }
+
+  /** Runs the steps of this batch in order, stopping at the first failing step. */
+  public void run() {
+    checkState(!steps.isEmpty(), "Batch has no steps");
+    final List<Step> batchSteps = new ArrayList<>(steps);
+    final AtomicReference<Step> currentStep = new AtomicReference<>();
+    Callable<Void> batchInteraction =
+        new Callable<Void>() {
+          @Override
+          public Void call() {
+            uiController.loopMainThreadUntilIdle();
+            final View root = rootViewProvider.get();
+            Provider<View> resolvedRoot =
+                new Provider<View>() {
+                  @Override
+                  public View get() {
+                    return root;
+                  }
+                };
+            for (int i = 0; i < batchSteps.size(); i++) {
+              Step step = batchSteps.get(i);
+              currentStep.set(step);
+              Log.i(
+                  TAG,
+                  String.format(
+                      Locale.ROOT, "Running step %d/%d: %s", i + 1, batchSteps.size(), step));
+              step.run(uiController, resolvedRoot);
+            }
+            currentStep.set(null);
+            uiController.loopMainThreadUntilIdle();
+            return null;
+          }
+        };
+
+    ListenableFutureTask<Void> mainThreadInteraction =
+        ListenableFutureTask.create(batchInteraction);
+    mainThreadExecutor.execute(mainThreadInteraction);
+    List<ListenableFuture<Void>> interactions =
+        Collections.<ListenableFuture<Void>>singletonList(mainThreadInteraction);
+    try {
+      controlledLooper.drainMainThreadUntilIdle();
+      // Blocking call
+      InteractionResultsHandler.gatherAnyResult(interactions);
+    } catch (RuntimeException ee) {
+      failureHandler.handle(ee, failedViewMatcher(currentStep.get()));
+    } catch (Error error) {
+      failureHandler.handle(error, failedViewMatcher(currentStep.get()));
+    } finally {
+      uiController.interruptEspressoTasks();
+    }
+  }
+
+  /** Returns the view matcher to report a failure with, the batch's own if no view was involved. */
+  private Matcher<View> failedViewMatcher(Step step) {
+    return step != null && step.viewMatcher != null ? step.viewMatcher : batchViewMatcher;
+  }
+
+  private abstract static class Step {
+    final Matcher<View> viewMatcher;
+
+    Step(Matcher<View> viewMatcher) {
+      this.viewMatcher = viewMatcher;
+    }
+
+    /** Runs the step on the main thread, finding views below the given root. */
+    abstract void run(UiController uiController, Provider<View> root);
+  }
+
+  private static final class PerformStep extends Step {
+    private final ViewAction viewAction;
+
+    PerformStep(Matcher<View> viewMatcher, ViewAction viewAction) {
+      super(viewMatcher);
+      this.viewAction = viewAction;
+    }
+
+    @Override
+    void run(UiController uiController, Provider<View> root) {
+      View targetView = new ViewFinderImpl(viewMatcher, root).getView();
+      ViewInteraction.performOnView(uiController, viewMatcher, viewAction, viewAction, targetView);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          Locale.ROOT, "perform '%s' on view %s", viewAction.getDescription(), viewMatcher);
+    }
+  }
+
+  private static final class CheckStep extends Step {
+    private final ViewAssertion viewAssertion;
+
+    CheckStep(Matcher<View> viewMatcher, ViewAssertion viewAssertion) {
+      super(viewMatcher);
+      this.viewAssertion = viewAssertion;
+    }
+
+    @Override
+    void run(UiController uiController, Provider<View> root) {
+      View targetView = null;
+      NoMatchingViewException missingViewException = null;
+      try {
+        targetView = new ViewFinderImpl(viewMatcher, root).getView();
+      } catch (NoMatchingViewException nsve) {
+        missingViewException = nsve;
+      }
+      viewAssertion.check(targetView, missingViewException);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT, "check '%s' on view %s", viewAssertion, viewMatcher);
+    }
+  }
+
+  private static final class IdleStep extends Step {
+    IdleStep() {
+      super(null);
+    }
+
+    @Override
+    void run(UiController uiController, Provider<View> root) {
+      uiController.loopMainThreadUntilIdle();
+    }
+
+    @Override
+    public String toString() {
+      return "idle";
+    }
+  }
+}
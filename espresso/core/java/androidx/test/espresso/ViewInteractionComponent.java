@@ -24,4 +24,8 @@ import dagger.Subcomponent;
 @Subcomponent(modules = ViewInteractionModule.class)
 public interface ViewInteractionComponent {
   ViewInteraction viewInteraction();
+
+  ViewInteractionBatch viewInteractionBatch();
+
+  ViewStateWaiter viewStateWaiter();
 }
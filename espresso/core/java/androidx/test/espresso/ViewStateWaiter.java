@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import androidx.test.espresso.base.ActiveRootLister;
+import androidx.test.espresso.base.MainThread;
+import androidx.test.espresso.base.RootViewPicker.RootViewWithoutFocusException;
+import androidx.test.internal.platform.os.ControlledLooper;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Inject;
+import junit.framework.AssertionFailedError;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+/**
+ * Waits until the view selected by a view matcher reaches a given state, e.g. after asynchronous
+ * work which Espresso does not know about.
+ *
+ * <pre>{@code
+ * Espresso.waitFor(withId(R.id.result))
+ *     .withTimeout(5, TimeUnit.SECONDS)
+ *     .until(withText("Done"));
+ * }</pre>
+ *
+ * <p>Unlike a polling loop, the state is only re-evaluated when something may have changed: when a
+ * window lays out, draws or moves focus (see {@link ViewTreeObserver}), or when the main thread
+ * becomes idle after running other messages than the evaluation itself. An idle main thread is
+ * left alone. Evaluations run on the main thread. The test thread blocks until the state is reached
+ * or the deadline passes, in which case the failure is reported to the failure handler together
+ * with the reason of the last failed evaluation. A missing view or root counts as not reached yet.
+ *
+ * <p>Unlike {@link ViewInteraction}, the waiter does not wait for the application to idle first.
+ */
+public final class ViewStateWaiter {
+
+  private static final String TAG = ViewStateWaiter.class.getSimpleName();
+  private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  private final ViewFinder viewFinder;
+  private final ActiveRootLister activeRootLister;
+  private final Executor mainThreadExecutor;
+  private final Matcher<View> viewMatcher;
+  private final AtomicReference<Matcher<Root>> rootMatcherRef;
+  private final ControlledLooper controlledLooper;
+  private volatile FailureHandler failureHandler;
+  private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+  @Inject
+  ViewStateWaiter(
+      ViewFinder viewFinder,
+      ActiveRootLister activeRootLister,
+      @MainThread Executor mainThreadExecutor,
+      FailureHandler failureHandler,
+      Matcher<View> viewMatcher,
+      AtomicReference<Matcher<Root>> rootMatcherRef,
+      ControlledLooper controlledLooper) {
+    this.viewFinder = checkNotNull(viewFinder);
+    this.activeRootLister = checkNotNull(activeRootLister);
+    this.mainThreadExecutor = checkNotNull(mainThreadExecutor);
+    this.failureHandler = checkNotNull(failureHandler);
+    this.viewMatcher = checkNotNull(viewMatcher);
+    this.rootMatcherRef = checkNotNull(rootMatcherRef);
+    this.controlledLooper = checkNotNull(controlledLooper);
+  }
+
+  /** Sets the hard deadline for the wait, 10 seconds by default. */
+  public ViewStateWaiter withTimeout(long timeout, TimeUnit unit) {
+    checkArgument(timeout > 0, "timeout must be positive: %s", timeout);
+    this.timeoutMillis = checkNotNull(unit).toMillis(timeout);
+    return this;
+  }
+
+  /** Makes this waiter look for the view in the root selected by the given root matcher. */
+  public ViewStateWaiter inRoot(Matcher<Root> rootMatcher) {
+    rootMatcherRef.set(checkNotNull(rootMatcher));
+    return this;
+  }
+
+  /** Replaces the default failure handler for this waiter. */
+  public ViewStateWaiter withFailureHandler(FailureHandler failureHandler) {
+    this.failureHandler = checkNotNull(failureHandler);
+    return this;
+  }
+
+  /**
+   * Waits until the view exists and is matched by the given matcher.
+   *
+   * @return the number of times the state was evaluated.
+   */
+  public int until(final Matcher<? super View> state) {
+    checkNotNull(state);
+    return until(
+        new ViewAssertion() {
+          @Override
+          public void check(View view, NoMatchingViewException noViewFoundException) {
+            if (noViewFoundException != null) {
+              throw noViewFoundException;
+            }
+            if (!state.matches(view)) {
+              StringDescription description = new StringDescription();
+              description.appendText("Expected: ").appendDescriptionOf(state);
+              description.appendText("\n     Got: ");
+              state.describeMismatch(view, description);
+              throw new AssertionFailedError(description.toString());
+            }
+          }
+
+          @Override
+          public String toString() {
+            return StringDescription.toString(state);
+          }
+        });
+  }
+
+  /**
+   * Waits until the given assertion passes for the view selected by the view matcher. The
+   * assertion may be evaluated many times and must not have side effects.
+   *
+   * @return the number of times the assertion was evaluated.
+   */
+  public int until(ViewAssertion state) {
+    checkNotNull(state);
+    Evaluation evaluation = new Evaluation(state);
+    mainThreadExecutor.execute(evaluation);
+    try {
+      controlledLooper.drainMainThreadUntilIdle();
+      int evaluations = evaluation.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      Log.i(
+          TAG,
+          String.format(
+              Locale.ROOT,
+              "'%s' reached on view %s after %d evaluations",
+              state,
+              viewMatcher,
+              evaluations));
+      return evaluations;
+    } catch (TimeoutException te) {
+      AssertionError error =
+          new AssertionError(
+              String.format(
+                  Locale.ROOT,
+                  "'%s' was not reached on view %s within %d ms (%d evaluations)",
+                  state,
+                  viewMatcher,
+                  timeoutMillis,
+                  evaluation.evaluations));
+      error.initCause(evaluation.lastFailure);
+      failureHandler.handle(error, viewMatcher);
+    } catch (ExecutionException ee) {
+      Throwable cause = ee.getCause();
+      failureHandler.handle(cause != null ? cause : ee, viewMatcher);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      failureHandler.handle(new RuntimeException("Interrupted while waiting", ie), viewMatcher);
+    } finally {
+      mainThreadExecutor.execute(evaluation.stopTask());
+    }
+    return evaluation.evaluations;
+  }
+
+  /**
+   * Evaluates the state on the main thread whenever one of the observed windows or the main looper
+   * signals a possible change. Apart from the result, fields are only written on the main thread.
+   */
+  private final class Evaluation
+      implements Runnable,
+          ViewTreeObserver.OnGlobalLayoutListener,
+          ViewTreeObserver.OnGlobalFocusChangeListener,
+          MessageQueue.IdleHandler {
+    private final ViewAssertion state;
+    private final SettableFuture<Integer> result = SettableFuture.create();
+    private final Set<View> observedRoots = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Object onDrawListener;
+    private boolean scheduled;
+    private boolean evaluating;
+    private boolean changedWhileEvaluating;
+    private boolean scheduledByIdle;
+    // set when nothing but an evaluation ran since the main thread was last idle.
+    private boolean idleAfterOwnEvaluation;
+    private boolean stopped;
+    // written on the main thread, read by the test thread once the wait is over.
+    private volatile int evaluations;
+    private volatile Throwable lastFailure;
+
+    Evaluation(ViewAssertion state) {
+      this.state = state;
+      this.onDrawListener = Build.VERSION.SDK_INT >= 16 ? new DrawListener(this) : null;
+    }
+
+    /** Called on the main thread for the first evaluation and for every scheduled one. */
+    @Override
+    public void run() {
+      scheduled = false;
+      if (stopped) {
+        return;
+      }
+      if (evaluating) {
+        // finding the view may loop the main thread, which runs scheduled evaluations.
+        changedWhileEvaluating = true;
+        return;
+      }
+      if (evaluations == 0) {
+        Looper.myQueue().addIdleHandler(this);
+      }
+      boolean evaluationScheduledByIdle = scheduledByIdle;
+      scheduledByIdle = false;
+      evaluating = true;
+      try {
+        evaluate();
+      } finally {
+        evaluating = false;
+      }
+      // the next idle only follows this evaluation, unless other messages are already due.
+      // Without MessageQueue#isIdle, only layouts, draws and focus changes trigger the next
+      // evaluation then.
+      idleAfterOwnEvaluation =
+          evaluationScheduledByIdle
+              && !changedWhileEvaluating
+              && (Build.VERSION.SDK_INT < 23 || Looper.myQueue().isIdle());
+      if (changedWhileEvaluating) {
+        changedWhileEvaluating = false;
+        schedule();
+      }
+    }
+
+    private void evaluate() {
+      observeActiveRoots();
+      evaluations++;
+      try {
+        View view = null;
+        NoMatchingViewException missingViewException = null;
+        try {
+          view = viewFinder.getView();
+        } catch (NoMatchingViewException nsve) {
+          missingViewException = nsve;
+        }
+        state.check(view, missingViewException);
+      } catch (AssertionError
+          | AmbiguousViewMatcherException
+          | NoMatchingViewException
+          | NoMatchingRootException
+          | NoActivityResumedException
+          | RootViewWithoutFocusException e) {
+        // not there yet.
+        lastFailure = e;
+        return;
+      } catch (RuntimeException | Error e) {
+        result.setException(e);
+        stop();
+        return;
+      }
+      result.set(evaluations);
+      stop();
+    }
+
+    private void schedule() {
+      if (!scheduled && !stopped) {
+        scheduled = true;
+        mainThreadExecutor.execute(this);
+      }
+    }
+
+    @Override
+    public void onGlobalLayout() {
+      schedule();
+    }
+
+    @Override
+    public void onGlobalFocusChanged(View oldFocus, View newFocus) {
+      schedule();
+    }
+
+    @Override
+    public boolean queueIdle() {
+      // the looper just ran out of work, which may have changed the state, even if it ran after
+      // our own evaluation. If the evaluation scheduled by the previous idle was all it ran,
+      // nothing changed, and the idle main thread is left alone until the next message.
+      if (stopped) {
+        return false;
+      }
+      if (idleAfterOwnEvaluation) {
+        idleAfterOwnEvaluation = false;
+      } else {
+        scheduledByIdle = true;
+        schedule();
+      }
+      return true;
+    }
+
+    private void observeActiveRoots() {
+      List<Root> roots = activeRootLister.listActiveRoots();
+      for (Root root : roots) {
+        View decorView = root.getDecorView();
+        if (decorView != null && observedRoots.add(decorView)) {
+          ViewTreeObserver observer = decorView.getViewTreeObserver();
+          observer.addOnGlobalLayoutListener(this);
+          observer.addOnGlobalFocusChangeListener(this);
+          if (onDrawListener != null) {
+            observer.addOnDrawListener((ViewTreeObserver.OnDrawListener) onDrawListener);
+          }
+        }
+      }
+    }
+
+    @SuppressWarnings("deprecation") // removeOnGlobalLayoutListener requires API 16
+    private void stop() {
+      if (stopped) {
+        return;
+      }
+      stopped = true;
+      for (View decorView : observedRoots) {
+        ViewTreeObserver observer = decorView.getViewTreeObserver();
+        if (!observer.isAlive()) {
+          continue;
+        }
+        observer.removeGlobalOnLayoutListener(this);
+        observer.removeOnGlobalFocusChangeListener(this);
+        if (onDrawListener != null) {
+          observer.removeOnDrawListener((ViewTreeObserver.OnDrawListener) onDrawListener);
+        }
+      }
+      observedRoots.clear();
+      Looper.myQueue().removeIdleHandler(this);
+    }
+
+    Runnable stopTask() {
+      return new Runnable() {
+        @Override
+        public void run() {
+          stop();
+        }
+      };
+    }
+  }
+
+  /** Kept separate so that {@link ViewTreeObserver.OnDrawListener} is not loaded before API 16. */
+  private static final class DrawListener implements ViewTreeObserver.OnDrawListener {
+    private final Evaluation evaluation;
+
+    DrawListener(Evaluation evaluation) {
+      this.evaluation = evaluation;
+    }
+
+    @Override
+    public void onDraw() {
+      evaluation.schedule();
+    }
+  }
+}
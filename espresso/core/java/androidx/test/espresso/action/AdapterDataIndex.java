@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.action;
+
+import android.database.Cursor;
+import android.database.DataSetObserver;
+import android.util.Log;
+import android.widget.Adapter;
+import android.widget.AdapterView;
+import androidx.test.espresso.matcher.CursorMatchers.CursorMatcher;
+import androidx.test.espresso.matcher.IndexableDataMatchers;
+import androidx.test.espresso.matcher.IndexableDataMatchers.DataKey;
+import androidx.test.espresso.matcher.IndexableDataMatchers.KeyLookup;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.annotation.Nullable;
+import org.hamcrest.Matcher;
+
+/**
+ * Maps keys of adapter data, as recognized by {@link IndexableDataMatchers}, to the positions of
+ * the data in an {@link Adapter}, so that repeated {@code onData} lookups don't have to evaluate
+ * the data matcher against every item.
+ *
+ * <p>An index is built lazily for every data key that is looked up, and is dropped whenever the
+ * adapter notifies its {@link DataSetObserver}s or its item count changes. Other {@link
+ * CursorMatcher}s are answered by scanning the rows of the adapter's cursor directly. Candidates
+ * found either way still have to be checked against the data matcher.
+ *
+ * <p>Adapters have to notify their observers when they change their data, as {@link Adapter}
+ * requires. An index can't notice data which is changed in place while the item count stays the
+ * same, and would then return a stale subset of the matching data, so that e.g. an ambiguous
+ * {@code onData} passes. Only keys with a well defined {@code hashCode}, like strings, boxed
+ * primitives and enums, are indexed, since keys which are equal but hash differently would be
+ * missed the same way.
+ *
+ * <p>Should be accessed only from main thread.
+ */
+final class AdapterDataIndex {
+  private static final String TAG = "AdapterDataIndex";
+
+  // an adapter keeps its index alive through the observer, never the other way round.
+  private static final Map<Adapter, AdapterDataIndex> indexesByAdapter =
+      new WeakHashMap<Adapter, AdapterDataIndex>();
+
+  private final Map<DataKey, Map<Object, List<Integer>>> positionsByKey =
+      new HashMap<DataKey, Map<Object, List<Integer>>>();
+  private int indexedCount;
+
+  private final DataSetObserver invalidatingObserver =
+      new DataSetObserver() {
+        @Override
+        public void onChanged() {
+          positionsByKey.clear();
+        }
+
+        @Override
+        public void onInvalidated() {
+          positionsByKey.clear();
+        }
+      };
+
+  private AdapterDataIndex() {}
+
+  /**
+   * Returns the data of the given adapter view which the data matcher may match, as adapted by
+   * {@link AdapterViewProtocols#standardProtocol()}, or {@code null} if the candidates can't be
+   * looked up in an index or a scan of the adapter's cursor.
+   */
+  @Nullable
+  static List<AdapterViewProtocol.AdaptedData> findCandidates(
+      AdapterView<? extends Adapter> adapterView, Matcher<? extends Object> dataMatcher) {
+    Adapter adapter = adapterView.getAdapter();
+    if (adapter == null) {
+      return null;
+    }
+    List<Integer> positions = null;
+    KeyLookup keyLookup = IndexableDataMatchers.findKeyLookup(dataMatcher);
+    if (keyLookup != null) {
+      AdapterDataIndex index = indexesByAdapter.get(adapter);
+      if (index == null) {
+        index = new AdapterDataIndex();
+        adapter.registerDataSetObserver(index.invalidatingObserver);
+        indexesByAdapter.put(adapter, index);
+      }
+      positions = index.getPositions(adapterView, keyLookup);
+    }
+    if (positions == null && dataMatcher instanceof CursorMatcher) {
+      positions = scanCursorRows(adapterView, dataMatcher);
+    }
+    if (positions == null) {
+      return null;
+    }
+    List<AdapterViewProtocol.AdaptedData> candidates =
+        new ArrayList<AdapterViewProtocol.AdaptedData>(positions.size());
+    for (int position : positions) {
+      candidates.add(AdapterViewProtocols.standardAdaptedData(adapterView, position));
+    }
+    return candidates;
+  }
+
+  /**
+   * Matches the rows of the cursor behind the given adapter view, without adapting the data at
+   * every position, or returns {@code null} if the adapter view doesn't show a single cursor.
+   */
+  @Nullable
+  private static List<Integer> scanCursorRows(
+      AdapterView<? extends Adapter> adapterView, Matcher<? extends Object> dataMatcher) {
+    int count = adapterView.getCount();
+    if (count == 0) {
+      return null;
+    }
+    Object data = adapterView.getItemAtPosition(0);
+    // like the standard protocol, expects row n of the cursor to be shown at position n.
+    if (!(data instanceof Cursor)
+        || ((Cursor) data).getCount() != count
+        || adapterView.getItemAtPosition(count - 1) != data) {
+      return null;
+    }
+    try {
+      return IndexableDataMatchers.scanCursorRows(dataMatcher, (Cursor) data);
+    } catch (RuntimeException e) {
+      // e.g. a missing column, which matching every item reports.
+      return null;
+    }
+  }
+
+  @Nullable
+  private List<Integer> getPositions(
+      AdapterView<? extends Adapter> adapterView, KeyLookup keyLookup) {
+    int count = adapterView.getCount();
+    if (count != indexedCount) {
+      // the adapter changed without notifying its observers.
+      positionsByKey.clear();
+      indexedCount = count;
+    }
+    if (!isValueType(keyLookup.getValue())) {
+      return null;
+    }
+    DataKey dataKey = keyLookup.getDataKey();
+    Map<Object, List<Integer>> positionsByValue = positionsByKey.get(dataKey);
+    if (positionsByValue == null) {
+      positionsByValue = buildIndex(adapterView, dataKey);
+      if (positionsByValue == null) {
+        return null;
+      }
+      positionsByKey.put(dataKey, positionsByValue);
+    }
+    List<Integer> positions = positionsByValue.get(keyLookup.getValue());
+    return positions == null ? Collections.<Integer>emptyList() : positions;
+  }
+
+  @Nullable
+  private static Map<Object, List<Integer>> buildIndex(
+      AdapterView<? extends Adapter> adapterView, DataKey dataKey) {
+    Map<Object, List<Integer>> positionsByValue = new HashMap<Object, List<Integer>>();
+    try {
+      for (int position = 0; position < adapterView.getCount(); position++) {
+        Object data = adapterView.getItemAtPosition(position);
+        if (data instanceof Cursor && !((Cursor) data).moveToPosition(position)) {
+          continue;
+        }
+        Object key = dataKey.keyOf(data);
+        if (key == IndexableDataMatchers.NO_KEY) {
+          continue;
+        }
+        if (!isValueType(key)) {
+          return null;
+        }
+        List<Integer> positions = positionsByValue.get(key);
+        if (positions == null) {
+          positions = new ArrayList<Integer>(1);
+          positionsByValue.put(key, positions);
+        }
+        positions.add(position);
+      }
+    } catch (RuntimeException e) {
+      // e.g. a cursor column which can't be read as the requested type.
+      Log.w(TAG, "Could not index adapter data, matching every item instead", e);
+      return null;
+    }
+    return positionsByValue;
+  }
+
+  /** Returns true if values equal to the given key are only ever of its class. */
+  private static boolean isValueType(@Nullable Object key) {
+    return key == null
+        || key instanceof String
+        || key instanceof Integer
+        || key instanceof Long
+        || key instanceof Short
+        || key instanceof Byte
+        || key instanceof Double
+        || key instanceof Float
+        || key instanceof Boolean
+        || key instanceof Character
+        || key instanceof Enum;
+  }
+}
@@ -76,13 +76,17 @@ public final class AdapterDataLoaderAction implements ViewAction {
     AdapterView<? extends Adapter> adapterView = (AdapterView<? extends Adapter>) view;
     List<AdapterViewProtocol.AdaptedData> matchedDataItems = Lists.newArrayList();
 
-    for (AdapterViewProtocol.AdaptedData data :
-        adapterViewProtocol.getDataInAdapterView(adapterView)) {
-
-      if (dataToLoadMatcher.matches(data.getData())) {
-        matchedDataItems.add(data);
+    if (adapterViewProtocol == AdapterViewProtocols.standardProtocol()) {
+      List<AdapterViewProtocol.AdaptedData> candidates =
+          AdapterDataIndex.findCandidates(adapterView, dataToLoadMatcher);
+      if (candidates != null) {
+        addMatchingData(candidates, matchedDataItems);
       }
     }
+    if (matchedDataItems.isEmpty()) {
+      // also reports failures based on all data of the adapter view.
+      addMatchingData(adapterViewProtocol.getDataInAdapterView(adapterView), matchedDataItems);
+    }
 
     if (matchedDataItems.size() == 0) {
       StringDescription dataMatcherDescription = new StringDescription();
@@ -160,4 +164,14 @@ public final class AdapterDataLoaderAction implements ViewAction {
   public String getDescription() {
     return "load adapter data";
   }
+
+  private void addMatchingData(
+      Iterable<AdapterViewProtocol.AdaptedData> datas,
+      List<AdapterViewProtocol.AdaptedData> matchedDataItems) {
+    for (AdapterViewProtocol.AdaptedData data : datas) {
+      if (dataToLoadMatcher.matches(data.getData())) {
+        matchedDataItems.add(data);
+      }
+    }
+  }
 }
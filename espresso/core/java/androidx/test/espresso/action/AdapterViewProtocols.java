@@ -54,6 +54,12 @@ public final class AdapterViewProtocols {
     return STANDARD_PROTOCOL;
   }
 
+  /** Returns the data at the given position, as the standard protocol adapts it. */
+  static AdapterViewProtocol.AdaptedData standardAdaptedData(
+      AdapterView<? extends Adapter> adapterView, int position) {
+    return StandardAdapterViewProtocol.adaptedDataAt(adapterView, position);
+  }
+
   private static final class StandardAdapterViewProtocol implements AdapterViewProtocol {
 
     private static final String TAG = "StdAdapterViewProtocol";
@@ -86,17 +92,20 @@ public final class AdapterViewProtocols {
     public Iterable<AdaptedData> getDataInAdapterView(AdapterView<? extends Adapter> adapterView) {
       List<AdaptedData> datas = Lists.newArrayList();
       for (int i = 0; i < adapterView.getCount(); i++) {
-        int position = i;
-        Object dataAtPosition = adapterView.getItemAtPosition(position);
-        datas.add(
-            new AdaptedData.Builder()
-                .withDataFunction(new StandardDataFunction(dataAtPosition, position))
-                .withOpaqueToken(position)
-                .build());
+        datas.add(adaptedDataAt(adapterView, i));
       }
       return datas;
     }
 
+    private static AdaptedData adaptedDataAt(
+        AdapterView<? extends Adapter> adapterView, int position) {
+      Object dataAtPosition = adapterView.getItemAtPosition(position);
+      return new AdaptedData.Builder()
+          .withDataFunction(new StandardDataFunction(dataAtPosition, position))
+          .withOpaqueToken(position)
+          .build();
+    }
+
     @Override
     public EspressoOptional<AdaptedData> getDataRenderedByView(
         AdapterView<? extends Adapter> adapterView, View descendantView) {
@@ -21,7 +21,6 @@ import static androidx.test.espresso.matcher.LayoutMatchers.hasEllipsizedText;
 import static androidx.test.espresso.matcher.LayoutMatchers.hasMultilineText;
 import static androidx.test.espresso.matcher.ViewMatchers.isAssignableFrom;
 import static androidx.test.espresso.matcher.ViewMatchers.withEffectiveVisibility;
-import static androidx.test.espresso.util.HumanReadables.describe;
 import static androidx.test.espresso.util.TreeIterables.breadthFirstViewTraversal;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.hamcrest.Matchers.allOf;
@@ -35,14 +34,15 @@ import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.test.espresso.NoMatchingViewException;
+import androidx.test.espresso.SnapshotViewAssertion;
 import androidx.test.espresso.ViewAssertion;
 import androidx.test.espresso.matcher.ViewMatchers.Visibility;
 import androidx.test.espresso.remote.annotation.RemoteMsgConstructor;
 import androidx.test.espresso.remote.annotation.RemoteMsgField;
+import androidx.test.espresso.util.ViewSnapshot;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import junit.framework.AssertionFailedError;
@@ -92,15 +92,12 @@ public final class LayoutAssertions {
             anyOf(isAssignableFrom(TextView.class), isAssignableFrom(ImageView.class))));
   }
 
-  private static Rect getRect(View view) {
-    int[] coords = {0, 0};
-    view.getLocationOnScreen(coords);
-    return new Rect(
-        coords[0], coords[1], coords[0] + view.getWidth() - 1, coords[1] + view.getHeight() - 1);
-  }
-
+  /**
+   * Finds the selected views on the main thread and then looks for overlaps among them off the main
+   * thread. Only the views which overlap are described.
+   */
   @VisibleForTesting
-  static class NoOverlapsViewAssertion implements ViewAssertion {
+  static class NoOverlapsViewAssertion extends SnapshotViewAssertion<List<SelectedView>> {
     @RemoteMsgField(order = 0)
     private final Matcher<View> selector;
 
@@ -109,10 +106,8 @@ public final class LayoutAssertions {
       this.selector = selector;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
-    public void check(View view, NoMatchingViewException noViewException) {
-
+    protected List<SelectedView> capture(View view) {
       final Predicate<View> viewPredicate =
           new Predicate<View>() {
             @Override
@@ -121,39 +116,50 @@ public final class LayoutAssertions {
             }
           };
 
+      List<SelectedView> selectedViews = new ArrayList<>();
+      for (View selectedView : Iterables.filter(breadthFirstViewTraversal(view), viewPredicate)) {
+        if (!(selectedView instanceof TextView
+            && ((TextView) selectedView).getText().length() == 0)) {
+          SelectedView selected =
+              new SelectedView(
+                  ViewSnapshot.captureView(selectedView), selectedView instanceof ImageView);
+          if (!selected.rect.isEmpty()) {
+            selectedViews.add(selected);
+          }
+        }
+      }
+      return selectedViews;
+    }
+
+    @Override
+    public void checkSnapshot(
+        List<SelectedView> selectedViews, NoMatchingViewException noViewException) {
       if (noViewException != null) {
         throw noViewException;
       }
 
-      Iterator<View> selectedViewIterator =
-          Iterables.filter(breadthFirstViewTraversal(view), viewPredicate).iterator();
-
-      List<View> prevViews = new LinkedList<>();
       StringBuilder errorMessage = new StringBuilder();
-      while (selectedViewIterator.hasNext()) {
-        View selectedView = selectedViewIterator.next();
-        Rect viewRect = getRect(selectedView);
-        if (!viewRect.isEmpty()
-            && !(selectedView instanceof TextView
-                && ((TextView) selectedView).getText().length() == 0)) {
-          for (View prevView : prevViews) {
-            // Mutual intersection of ImageViews is acceptable in most cases.
-            if (selectedView instanceof ImageView && prevView instanceof ImageView) {
-              continue;
-            }
-            Rect prevRect = getRect(prevView);
-            if (Rect.intersects(viewRect, prevRect)) {
-              // Overlap detected, add to the error message
-              if (errorMessage.length() > 0) {
-                errorMessage.append(",\n\n");
-              }
-              errorMessage.append(
-                  String.format(
-                      Locale.ROOT, "%s overlaps\n%s", describe(selectedView), describe(prevView)));
-              break;
+      for (int i = 0; i < selectedViews.size(); i++) {
+        SelectedView selectedView = selectedViews.get(i);
+        for (int j = 0; j < i; j++) {
+          SelectedView prevView = selectedViews.get(j);
+          // Mutual intersection of ImageViews is acceptable in most cases.
+          if (selectedView.imageView && prevView.imageView) {
+            continue;
+          }
+          if (Rect.intersects(selectedView.rect, prevView.rect)) {
+            // Overlap detected, add to the error message
+            if (errorMessage.length() > 0) {
+              errorMessage.append(",\n\n");
             }
+            errorMessage.append(
+                String.format(
+                    Locale.ROOT,
+                    "%s overlaps\n%s",
+                    selectedView.snapshot,
+                    prevView.snapshot));
+            break;
           }
-          prevViews.add(selectedView);
         }
       }
 
@@ -167,4 +173,22 @@ public final class LayoutAssertions {
       return String.format(Locale.ROOT, "NoOverlapsViewAssertion{selector=%s}", selector);
     }
   }
+
+  /** The state of a view selected by {@link NoOverlapsViewAssertion}, in screen coordinates. */
+  static final class SelectedView {
+    final ViewSnapshot snapshot;
+    final Rect rect;
+    final boolean imageView;
+
+    SelectedView(ViewSnapshot snapshot, boolean imageView) {
+      this.snapshot = snapshot;
+      this.rect =
+          new Rect(
+              snapshot.getScreenX(),
+              snapshot.getScreenY(),
+              snapshot.getScreenX() + snapshot.getWidth() - 1,
+              snapshot.getScreenY() + snapshot.getHeight() - 1);
+      this.imageView = imageView;
+    }
+  }
 }
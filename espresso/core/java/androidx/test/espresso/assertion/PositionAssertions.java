@@ -27,6 +27,7 @@ import android.view.ViewGroup;
 import android.view.ViewParent;
 import androidx.test.espresso.AmbiguousViewMatcherException;
 import androidx.test.espresso.NoMatchingViewException;
+import androidx.test.espresso.SnapshotViewAssertion;
 import androidx.test.espresso.ViewAssertion;
 import androidx.test.espresso.util.HumanReadables;
 import com.google.common.base.Preconditions;
@@ -264,9 +265,19 @@ public final class PositionAssertions {
   static ViewAssertion relativePositionOf(
       final Matcher<View> viewMatcher, final Position position) {
     checkNotNull(viewMatcher);
-    return new ViewAssertion() {
+    // Finds the other view and copies the bounds of both on the main thread, then compares them
+    // off the main thread.
+    return new SnapshotViewAssertion<CapturedViews>() {
       @Override
-      public void check(final View foundView, NoMatchingViewException noViewException) {
+      protected CapturedViews capture(View foundView) {
+        return new CapturedViews(
+            HumanReadables.describe(foundView),
+            ViewBounds.of(foundView),
+            ViewBounds.of(findView(viewMatcher, getTopViewGroup(foundView))));
+      }
+
+      @Override
+      public void checkSnapshot(CapturedViews views, NoMatchingViewException noViewException) {
         StringDescription description = new StringDescription();
         if (noViewException != null) {
           description.appendText(
@@ -280,15 +291,14 @@ public final class PositionAssertions {
           // TODO: describe the foundView matcher instead of the foundView itself.
           description
               .appendText("View:")
-              .appendText(HumanReadables.describe(foundView))
+              .appendText(views.foundViewDescription)
               .appendText(" is not ")
               .appendText(position.toString())
               .appendText(" view ")
               .appendText(viewMatcher.toString());
           assertThat(
               description.toString(),
-              isRelativePosition(
-                  foundView, findView(viewMatcher, getTopViewGroup(foundView)), position),
+              isRelativePosition(views.foundViewBounds, views.otherViewBounds, position),
               is(true));
         }
       }
@@ -345,41 +355,75 @@ public final class PositionAssertions {
   }
 
   static boolean isRelativePosition(View view1, View view2, Position position) {
-    int[] location1 = new int[2];
-    int[] location2 = new int[2];
-    view1.getLocationOnScreen(location1);
-    view2.getLocationOnScreen(location2);
+    return isRelativePosition(ViewBounds.of(view1), ViewBounds.of(view2), position);
+  }
 
+  static boolean isRelativePosition(ViewBounds view1, ViewBounds view2, Position position) {
     switch (position) {
       case COMPLETELY_LEFT_OF:
-        return location1[0] + view1.getWidth() <= location2[0];
+        return view1.x + view1.width <= view2.x;
       case COMPLETELY_RIGHT_OF:
-        return location2[0] + view2.getWidth() <= location1[0];
+        return view2.x + view2.width <= view1.x;
       case COMPLETELY_ABOVE:
-        return location1[1] + view1.getHeight() <= location2[1];
+        return view1.y + view1.height <= view2.y;
       case COMPLETELY_BELOW:
-        return location2[1] + view2.getHeight() <= location1[1];
+        return view2.y + view2.height <= view1.y;
       case PARTIALLY_LEFT_OF:
-        return location1[0] < location2[0] && location2[0] < location1[0] + view1.getWidth();
+        return view1.x < view2.x && view2.x < view1.x + view1.width;
       case PARTIALLY_RIGHT_OF:
-        return location2[0] < location1[0] && location1[0] < location2[0] + view2.getWidth();
+        return view2.x < view1.x && view1.x < view2.x + view2.width;
       case PARTIALLY_ABOVE:
-        return location1[1] < location2[1] && location2[1] < location1[1] + view1.getHeight();
+        return view1.y < view2.y && view2.y < view1.y + view1.height;
       case PARTIALLY_BELOW:
-        return location2[1] < location1[1] && location1[1] < location2[1] + view2.getHeight();
+        return view2.y < view1.y && view1.y < view2.y + view2.height;
       case LEFT_ALIGNED:
-        return location1[0] == location2[0];
+        return view1.x == view2.x;
       case RIGHT_ALIGNED:
-        return location1[0] + view1.getWidth() == location2[0] + view2.getWidth();
+        return view1.x + view1.width == view2.x + view2.width;
       case TOP_ALIGNED:
-        return location1[1] == location2[1];
+        return view1.y == view2.y;
       case BOTTOM_ALIGNED:
-        return location1[1] + view1.getHeight() == location2[1] + view2.getHeight();
+        return view1.y + view1.height == view2.y + view2.height;
       default:
         return false;
     }
   }
 
+  /** The location on screen and the size of a view. */
+  static final class ViewBounds {
+    final int x;
+    final int y;
+    final int width;
+    final int height;
+
+    private ViewBounds(int x, int y, int width, int height) {
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+    }
+
+    static ViewBounds of(View view) {
+      int[] location = new int[2];
+      view.getLocationOnScreen(location);
+      return new ViewBounds(location[0], location[1], view.getWidth(), view.getHeight());
+    }
+  }
+
+  /** What {@link #relativePositionOf} captures on the main thread. */
+  static final class CapturedViews {
+    final String foundViewDescription;
+    final ViewBounds foundViewBounds;
+    final ViewBounds otherViewBounds;
+
+    CapturedViews(
+        String foundViewDescription, ViewBounds foundViewBounds, ViewBounds otherViewBounds) {
+      this.foundViewDescription = foundViewDescription;
+      this.foundViewBounds = foundViewBounds;
+      this.otherViewBounds = otherViewBounds;
+    }
+  }
+
   enum Position {
     COMPLETELY_LEFT_OF("completely left of"),
     COMPLETELY_RIGHT_OF("completely right of"),
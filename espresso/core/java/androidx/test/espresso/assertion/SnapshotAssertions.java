@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.assertion;
+
+import static androidx.test.espresso.matcher.ViewMatchers.assertThat;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import android.util.Log;
+import android.view.View;
+import androidx.test.espresso.NoMatchingViewException;
+import androidx.test.espresso.SnapshotViewAssertion;
+import androidx.test.espresso.ViewAssertion;
+import androidx.test.espresso.util.ViewSnapshot;
+import java.util.Locale;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+/**
+ * Collection of {@link ViewAssertion ViewAssertions} which are checked against a {@link
+ * ViewSnapshot} off the main thread. See {@link SnapshotViewAssertion}.
+ */
+public final class SnapshotAssertions {
+
+  private static final String TAG = SnapshotAssertions.class.getSimpleName();
+
+  private SnapshotAssertions() {}
+
+  /**
+   * Returns an assertion that ensures a view exists in the view hierarchy and that its snapshot is
+   * matched by the given matcher, e.g. one from {@link
+   * androidx.test.espresso.matcher.SnapshotMatchers}.
+   */
+  public static ViewAssertion snapshotMatches(final Matcher<? super ViewSnapshot> snapshotMatcher) {
+    return new MatchesSnapshotAssertion(checkNotNull(snapshotMatcher));
+  }
+
+  static final class MatchesSnapshotAssertion extends SnapshotViewAssertion<ViewSnapshot> {
+    final Matcher<? super ViewSnapshot> snapshotMatcher;
+
+    private MatchesSnapshotAssertion(Matcher<? super ViewSnapshot> snapshotMatcher) {
+      this.snapshotMatcher = snapshotMatcher;
+    }
+
+    @Override
+    protected ViewSnapshot capture(View view) {
+      // The snapshot matchers only look at the view itself.
+      return ViewSnapshot.captureView(view);
+    }
+
+    @Override
+    public void checkSnapshot(ViewSnapshot snapshot, NoMatchingViewException noViewException) {
+      StringDescription description = new StringDescription();
+      description.appendText("'");
+      snapshotMatcher.describeTo(description);
+      if (noViewException != null) {
+        description.appendText(
+            String.format(
+                Locale.ROOT,
+                "' check could not be performed because view '%s' was not found.\n",
+                noViewException.getViewMatcherDescription()));
+        Log.e(TAG, description.toString());
+        throw noViewException;
+      } else {
+        description.appendText("' doesn't match the selected view.");
+        assertThat(description.toString(), snapshot, snapshotMatcher);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          Locale.ROOT, "MatchesSnapshotAssertion{snapshotMatcher=%s}", snapshotMatcher);
+    }
+  }
+}
@@ -21,7 +21,11 @@ import static com.google.common.base.Preconditions.checkState;
 
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -33,6 +37,12 @@ import java.util.concurrent.atomic.AtomicReference;
  * uses. That is currently possible and easy in Froyo to JB. If it ever becomes impossible, as long
  * as we know the max # of executor threads the AsyncTask framework allows we can still use this
  * interface, just need a different implementation.
+ *
+ * <p>The same mechanism works for other pools whose threads pick up queued tasks, like fixed size
+ * and scheduled thread pools, see {@link ExecutorPoolMonitor}. Delayed tasks of a {@link
+ * ScheduledThreadPoolExecutor} only count as pending work once they are due. It doesn't work for
+ * pools which start a new thread for the blocking tasks instead of queueing them, see {@link
+ * #canMonitor}.
  */
 class AsyncTaskPoolMonitor {
   private final AtomicReference<IdleMonitor> monitor = new AtomicReference<IdleMonitor>(null);
@@ -43,6 +53,21 @@ class AsyncTaskPoolMonitor {
     this.pool = checkNotNull(pool);
   }
 
+  ThreadPoolExecutor getPool() {
+    return pool;
+  }
+
+  /**
+   * Returns whether the pool queues tasks once its core threads are busy. Pools without core
+   * threads, like cached thread pools, or which start more threads instead, would run the blocking
+   * tasks right away, which therefore wouldn't wait for anything.
+   */
+  static boolean canMonitor(ThreadPoolExecutor pool) {
+    return pool.getCorePoolSize() > 0
+        && (pool.getCorePoolSize() == pool.getMaximumPoolSize()
+            || !(pool.getQueue() instanceof SynchronousQueue));
+  }
+
   IdleNotifier<Runnable> asIdleNotifier() {
     return new IdleNotifier<Runnable>() {
       @Override
@@ -68,7 +93,7 @@ class AsyncTaskPoolMonitor {
    * @return true if the pool is idle, false otherwise.
    */
   boolean isIdleNow() {
-    if (!pool.getQueue().isEmpty()) {
+    if (hasQueuedWork()) {
       return false;
     } else {
       int activeCount = pool.getActiveCount();
@@ -128,11 +153,11 @@ class AsyncTaskPoolMonitor {
       this.onIdle = checkNotNull(onIdle);
       this.barrier =
           new CyclicBarrier(
-              pool.getCorePoolSize(),
+              getBarrierParties(),
               new Runnable() {
                 @Override
                 public void run() {
-                  if (pool.getQueue().isEmpty()) {
+                  if (!hasQueuedWork()) {
                     // no one is behind us, so the queue is idle!
                     monitor.compareAndSet(IdleMonitor.this, null);
                     onIdle.run();
@@ -167,7 +192,7 @@ class AsyncTaskPoolMonitor {
         // at this point we can check the pool's queue and verify that there are no new
         // tasks behind us and deem the queue idle.
 
-        int poolSize = pool.getCorePoolSize();
+        int poolSize = getBarrierParties();
         final BarrierRestarter restarter = new BarrierRestarter(barrier, barrierGeneration);
 
         for (int i = 0; i < poolSize; i++) {
@@ -197,6 +222,26 @@ class AsyncTaskPoolMonitor {
     }
   }
 
+  private boolean hasQueuedWork() {
+    if (pool.getQueue().isEmpty()) {
+      return false;
+    }
+    if (!(pool instanceof ScheduledThreadPoolExecutor)) {
+      return true;
+    }
+    // delayed and periodic tasks which are not due yet don't keep the pool busy.
+    for (Runnable task : pool.getQueue()) {
+      if (!(task instanceof Delayed) || ((Delayed) task).getDelay(TimeUnit.NANOSECONDS) <= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int getBarrierParties() {
+    return pool.getCorePoolSize();
+  }
+
   private static class BarrierRestarter {
     private final CyclicBarrier barrier;
     private final AtomicInteger barrierGeneration;
@@ -21,6 +21,7 @@ import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
 import androidx.test.espresso.FailureHandler;
+import androidx.test.espresso.IdlingExecutorProvider;
 import androidx.test.espresso.IdlingRegistry;
 import androidx.test.espresso.base.IdlingResourceRegistry.IdleNotificationCallback;
 import androidx.test.espresso.internal.inject.TargetContext;
@@ -35,6 +36,8 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import dagger.Module;
 import dagger.Provides;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -96,14 +99,36 @@ public class BaseLayerModule {
 
   @Provides
   public IdleNotifier<IdleNotificationCallback> provideDynamicNotifer(
-      IdlingResourceRegistry dynamicRegistry) {
+      IdlingResourceRegistry dynamicRegistry, ExecutorPoolMonitor executorPoolMonitor) {
     // Since a dynamic notifier will be created for each Espresso interaction this is a good time
-    // to sync the IdlingRegistry with IdlingResourceRegistry.
+    // to sync the IdlingRegistry with IdlingResourceRegistry and the monitored executors.
     dynamicRegistry.sync(
         IdlingRegistry.getInstance().getResources(), IdlingRegistry.getInstance().getLoopers());
+    executorPoolMonitor.sync(IdlingRegistry.getInstance().getExecutors());
     return dynamicRegistry.asIdleNotifier();
   }
 
+  @Provides
+  @Singleton
+  ExecutorPoolMonitor provideExecutorPoolMonitor(ThreadPoolExecutorExtractor extractor) {
+    List<ThreadPoolExecutor> asyncTaskPools = new ArrayList<>();
+    asyncTaskPools.add(extractor.getAsyncTaskThreadPool());
+    Optional<ThreadPoolExecutor> compatThreadPool = extractor.getCompatAsyncTaskThreadPool();
+    if (compatThreadPool.isPresent()) {
+      asyncTaskPools.add(compatThreadPool.get());
+    }
+    return new ExecutorPoolMonitor(
+        ServiceLoaderWrapper.loadService(IdlingExecutorProvider.class), asyncTaskPools);
+  }
+
+  @Provides
+  @Singleton
+  @RegisteredExecutors
+  public IdleNotifier<Runnable> provideRegisteredExecutorsMonitor(
+      ExecutorPoolMonitor executorPoolMonitor) {
+    return executorPoolMonitor.asIdleNotifier();
+  }
+
   @Provides
   @Singleton
   @SdkAsyncTask
@@ -180,6 +205,23 @@ public class BaseLayerModule {
             new ThreadFactoryBuilder().setNameFormat("Espresso Remote #%d").build()));
   }
 
+  @Provides
+  @Singleton
+  @SnapshotExecutor
+  public ListeningExecutorService provideSnapshotExecutor() {
+    int poolSize = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            poolSize /*corePoolSize*/,
+            poolSize /*maximumPoolSize*/,
+            10,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder().setNameFormat("Espresso Snapshot #%d").build());
+    executor.allowCoreThreadTimeOut(true);
+    return MoreExecutors.listeningDecorator(executor);
+  }
+
   @Provides
   @Default
   FailureHandler provideFailureHander(DefaultFailureHandler impl) {
@@ -23,12 +23,18 @@ import android.content.ContentResolver;
 import android.content.Context;
 import android.os.Build;
 import android.provider.Settings;
+import android.util.Log;
 import android.view.View;
 import androidx.test.espresso.EspressoException;
 import androidx.test.espresso.FailureHandler;
 import androidx.test.espresso.PerformException;
 import androidx.test.espresso.internal.inject.TargetContext;
 import androidx.test.internal.platform.util.TestOutputEmitter;
+import com.google.common.base.Charsets;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.inject.Inject;
 import junit.framework.AssertionFailedError;
@@ -40,7 +46,9 @@ import org.hamcrest.Matcher;
  */
 public final class DefaultFailureHandler implements FailureHandler {
 
+  private static final String TAG = "DefaultFailureHandler";
   private static final AtomicInteger failureCount = new AtomicInteger(0);
+  private static final int MAX_MESSAGE_LENGTH = 256 * 1024;
   private final Context appContext;
 
   @Inject
@@ -50,14 +58,20 @@ public final class DefaultFailureHandler implements FailureHandler {
 
   @Override
   public void handle(Throwable error, Matcher<View> viewMatcher) {
+    if (error instanceof EspressoException) {
+      // Exceptions such as NoMatchingViewException render their view hierarchy dump on first use,
+      // on the main thread. Render it now, while the hierarchy still looks like it did when the
+      // interaction failed, rather than when the test runner reports the failure after teardown.
+      error.getMessage();
+    }
     int count = failureCount.incrementAndGet();
     TestOutputEmitter.takeScreenshot("view-op-error-" + count + ".png");
     TestOutputEmitter.captureWindowHierarchy("explore-window-hierarchy-" + count + ".xml");
     if (error instanceof EspressoException
         || error instanceof AssertionFailedError
         || error instanceof AssertionError) {
-      throwIfUnchecked(getUserFriendlyError(error, viewMatcher));
-      throw new RuntimeException(getUserFriendlyError(error, viewMatcher));
+      throwIfUnchecked(getUserFriendlyError(error, viewMatcher, count));
+      throw new RuntimeException(getUserFriendlyError(error, viewMatcher, count));
     } else {
       throwIfUnchecked(error);
       throw new RuntimeException(error);
@@ -69,7 +83,7 @@ public final class DefaultFailureHandler implements FailureHandler {
    * assertions 2. swap the stack trace of the error to that of current thread (which will show
    * directly where the actual problem is)
    */
-  private Throwable getUserFriendlyError(Throwable error, Matcher<View> viewMatcher) {
+  private Throwable getUserFriendlyError(Throwable error, Matcher<View> viewMatcher, int count) {
     if (error instanceof PerformException) {
       StringBuilder sb = new StringBuilder();
       if (!isAnimationAndTransitionDisabled(appContext)) {
@@ -90,13 +104,65 @@ public final class DefaultFailureHandler implements FailureHandler {
     if (error instanceof AssertionError) {
       // reports Failure instead of Error.
       // assertThat(...) throws an AssertionFailedError.
-      error = new AssertionFailedWithCauseError(error.getMessage(), error);
+      error =
+          new AssertionFailedWithCauseError(
+              truncateMessage(error.getMessage(), "view-op-error-" + count + ".txt"), error);
     }
 
     error.setStackTrace(Thread.currentThread().getStackTrace());
     return error;
   }
 
+  /**
+   * Assertion messages such as the one of {@code ViewAssertions.selectedDescendantsMatch} embed the
+   * whole view hierarchy. Keeps at most {@link #MAX_MESSAGE_LENGTH} characters of such a message
+   * and writes the complete message to a test output file instead.
+   */
+  private static String truncateMessage(String message, String outputName) {
+    if (message == null || message.length() <= MAX_MESSAGE_LENGTH) {
+      return message;
+    }
+    StringBuilder truncated =
+        new StringBuilder(MAX_MESSAGE_LENGTH + 200)
+            .append(message, 0, MAX_MESSAGE_LENGTH)
+            .append("\n\n... ")
+            .append(message.length() - MAX_MESSAGE_LENGTH)
+            .append(" more characters truncated.");
+    if (writeOutputFile(outputName, message)) {
+      truncated
+          .append(" The complete message was written to test output file '")
+          .append(outputName)
+          .append("'.");
+    }
+    return truncated.toString();
+  }
+
+  private static boolean writeOutputFile(String outputName, String content) {
+    Writer writer = null;
+    try {
+      OutputStream outputStream = TestOutputEmitter.openOutputFile(outputName);
+      if (outputStream == null) {
+        return false;
+      }
+      writer = new OutputStreamWriter(outputStream, Charsets.UTF_8);
+      writer.write(content);
+      writer.close();
+      writer = null;
+      return true;
+    } catch (IOException e) {
+      Log.w(TAG, "Could not write test output file " + outputName, e);
+      return false;
+    } finally {
+      if (writer != null) {
+        try {
+          writer.close();
+        } catch (IOException ignored) {
+          // already failed.
+        }
+      }
+    }
+  }
+
   private static final class AssertionFailedWithCauseError extends AssertionFailedError {
     /* junit hides the cause constructor. */
     public AssertionFailedWithCauseError(String message, Throwable cause) {
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import androidx.test.espresso.IdlingExecutorProvider;
+import androidx.test.espresso.IdlingRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Monitors the thread pools registered with {@link IdlingRegistry} and the ones found by {@link
+ * IdlingExecutorProvider}s, so that Espresso waits until none of them has work pending or
+ * executing.
+ *
+ * <p>Every pool is watched by its own {@link AsyncTaskPoolMonitor}, which waits for idleness by
+ * blocking all threads of the pool with barrier tasks instead of polling the pool. The monitored
+ * pools are synced with the registry once per Espresso interaction. Pools which are shut down are
+ * no longer waited for, since they don't accept the barrier tasks anymore. Pools which don't queue
+ * tasks once their core threads are busy can't be waited for this way and are rejected.
+ */
+final class ExecutorPoolMonitor {
+  private final List<IdlingExecutorProvider> providers;
+  // already monitored through the SdkAsyncTask and CompatAsyncTask notifiers.
+  private final Set<ThreadPoolExecutor> asyncTaskPools;
+
+  // only replaced on the main thread.
+  private volatile ImmutableList<AsyncTaskPoolMonitor> poolMonitors = ImmutableList.of();
+
+  ExecutorPoolMonitor(
+      List<IdlingExecutorProvider> providers, Collection<ThreadPoolExecutor> asyncTaskPools) {
+    this.providers = ImmutableList.copyOf(providers);
+    this.asyncTaskPools = ImmutableSet.copyOf(asyncTaskPools);
+  }
+
+  /**
+   * Updates the monitored pools to the given registered pools and the ones found by the providers.
+   * Must not be called while an idle notification callback is registered.
+   *
+   * @throws IllegalArgumentException if one of the pools doesn't queue tasks once its core threads
+   *     are busy, like a cached thread pool.
+   */
+  void sync(Collection<ThreadPoolExecutor> registeredPools) {
+    Set<ThreadPoolExecutor> pools = new LinkedHashSet<>(registeredPools);
+    for (IdlingExecutorProvider provider : providers) {
+      pools.addAll(provider.getExecutors());
+    }
+    Map<ThreadPoolExecutor, AsyncTaskPoolMonitor> currentMonitors = new IdentityHashMap<>();
+    for (AsyncTaskPoolMonitor monitor : poolMonitors) {
+      currentMonitors.put(monitor.getPool(), monitor);
+    }
+    ImmutableList.Builder<AsyncTaskPoolMonitor> monitors = ImmutableList.builder();
+    for (ThreadPoolExecutor pool : pools) {
+      if (pool == null || pool.isShutdown() || asyncTaskPools.contains(pool)) {
+        continue;
+      }
+      checkArgument(
+          AsyncTaskPoolMonitor.canMonitor(pool),
+          "Executor does not queue tasks once its core threads are busy, use an"
+              + " IdlingThreadPoolExecutor instead: %s",
+          pool);
+      AsyncTaskPoolMonitor monitor = currentMonitors.get(pool);
+      monitors.add(monitor != null ? monitor : new AsyncTaskPoolMonitor(pool));
+    }
+    poolMonitors = monitors.build();
+  }
+
+  IdleNotifier<Runnable> asIdleNotifier() {
+    return new IdleNotifier<Runnable>() {
+      @Override
+      public boolean isIdleNow() {
+        return ExecutorPoolMonitor.this.isIdleNow();
+      }
+
+      @Override
+      public void cancelCallback() {
+        cancelIdleMonitors();
+      }
+
+      @Override
+      public void registerNotificationCallback(Runnable r) {
+        notifyWhenIdle(r);
+      }
+    };
+  }
+
+  /** Checks if all monitored pools are idle at this moment. */
+  boolean isIdleNow() {
+    for (AsyncTaskPoolMonitor monitor : poolMonitors) {
+      if (!monitor.isIdleNow()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Notifies caller once every pool which is busy right now went idle. Pools may become busy again
+   * in the meantime, so the caller should check {@link #isIdleNow()} once notified.
+   *
+   * @param idleCallback called once the pools are idle, on a thread of the last pool to go idle.
+   */
+  void notifyWhenIdle(final Runnable idleCallback) {
+    checkNotNull(idleCallback);
+    ImmutableList<AsyncTaskPoolMonitor> busyMonitors = busyMonitors();
+    if (busyMonitors.isEmpty()) {
+      idleCallback.run();
+      return;
+    }
+    final AtomicInteger remaining = new AtomicInteger(busyMonitors.size());
+    Runnable onPoolIdle =
+        new Runnable() {
+          @Override
+          public void run() {
+            if (remaining.decrementAndGet() == 0) {
+              idleCallback.run();
+            }
+          }
+        };
+    for (AsyncTaskPoolMonitor monitor : busyMonitors) {
+      monitor.notifyWhenIdle(onPoolIdle);
+    }
+  }
+
+  /** Stops the barrier tasks of all pools, the callback may still be invoked afterwards. */
+  void cancelIdleMonitors() {
+    for (AsyncTaskPoolMonitor monitor : poolMonitors) {
+      monitor.cancelIdleMonitor();
+    }
+  }
+
+  private ImmutableList<AsyncTaskPoolMonitor> busyMonitors() {
+    ImmutableList.Builder<AsyncTaskPoolMonitor> busyMonitors = ImmutableList.builder();
+    for (AsyncTaskPoolMonitor monitor : poolMonitors) {
+      if (!monitor.isIdleNow()) {
+        busyMonitors.add(monitor);
+      }
+    }
+    return busyMonitors.build();
+  }
+}
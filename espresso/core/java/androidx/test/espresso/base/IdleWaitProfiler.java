@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records where Espresso spends its time while synchronizing with the application under test.
+ *
+ * <p>When enabled, every {@code ViewInteraction.perform} and {@code ViewInteraction.check} is
+ * profiled: the wall time spent waiting for each idle condition of the {@code UiController}, the
+ * number of main looper messages dispatched while waiting and the time each named {@link
+ * androidx.test.espresso.IdlingResource} spent busy. The result is reported per interaction
+ * through {@code TestOutputEmitter.addOutputProperties} under a key of the form {@code
+ * EspressoIdleWaitProfile-<n>}.
+ *
+ * <p>Profiling is disabled by default and costs a volatile read per recording site in that case.
+ *
+ * <p>This class is thread safe: interactions are started and finished on the test thread while the
+ * recording methods are called from the main thread.
+ */
+public final class IdleWaitProfiler {
+
+  private static final IdleWaitProfiler instance = new IdleWaitProfiler();
+
+  /** Prefix of the output property key under which each interaction profile is emitted. */
+  public static final String PROPERTY_KEY_PREFIX = "EspressoIdleWaitProfile-";
+
+  private static final String KEY_INTERACTION = "interaction";
+  private static final String KEY_TOTAL_SYNC_MS = "totalSyncMs";
+  private static final String KEY_LOOPER_MESSAGES = "mainLooperMessages";
+  private static final String CONDITION_PREFIX = "condition.";
+  private static final String RESOURCE_PREFIX = "resource.";
+
+  private volatile boolean enabled = false;
+
+  // guarded by this
+  private int interactionCount = 0;
+  private String currentInteraction;
+  private long totalSyncMs;
+  private long looperMessages;
+  private final Map<String, Long> conditionWaitMs = new LinkedHashMap<>();
+  private final Map<String, Long> resourceBusyMs = new LinkedHashMap<>();
+
+  IdleWaitProfiler() {}
+
+  /** Returns the process wide instance of the profiler. */
+  public static IdleWaitProfiler getInstance() {
+    return instance;
+  }
+
+  /** Enables or disables profiling of subsequent interactions. */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    if (!enabled) {
+      synchronized (this) {
+        reset();
+      }
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts profiling an interaction. Any data recorded for a previously started interaction which
+   * was not finished is discarded.
+   *
+   * <p>Note: This method is used for Espresso internals and shouldn't be called by external users.
+   */
+  public void beginInteraction(String description) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      reset();
+      currentInteraction = checkNotNull(description);
+    }
+  }
+
+  /**
+   * Finishes profiling the current interaction.
+   *
+   * <p>Note: This method is used for Espresso internals and shouldn't be called by external users.
+   *
+   * @return a single entry map from the output property key to the profile of the interaction, or
+   *     {@code null} if profiling is disabled or no interaction was started.
+   */
+  public Map<String, Serializable> finishInteraction() {
+    if (!enabled) {
+      return null;
+    }
+    synchronized (this) {
+      if (currentInteraction == null) {
+        return null;
+      }
+      LinkedHashMap<String, Serializable> profile = new LinkedHashMap<>();
+      profile.put(KEY_INTERACTION, currentInteraction);
+      profile.put(KEY_TOTAL_SYNC_MS, totalSyncMs);
+      profile.put(KEY_LOOPER_MESSAGES, looperMessages);
+      for (Map.Entry<String, Long> entry : conditionWaitMs.entrySet()) {
+        profile.put(CONDITION_PREFIX + entry.getKey(), entry.getValue());
+      }
+      for (Map.Entry<String, Long> entry : resourceBusyMs.entrySet()) {
+        profile.put(RESOURCE_PREFIX + entry.getKey(), entry.getValue());
+      }
+      Map<String, Serializable> properties = new LinkedHashMap<>();
+      properties.put(PROPERTY_KEY_PREFIX + interactionCount++, profile);
+      reset();
+      return properties;
+    }
+  }
+
+  /** Records that the main looper was interrogated for the given time and number of messages. */
+  void recordMainLooperLoop(long elapsedMs, int messagesDispatched) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      if (currentInteraction != null) {
+        totalSyncMs += elapsedMs;
+        looperMessages += messagesDispatched;
+      }
+    }
+  }
+
+  /** Records that the given idle condition was signaled after being waited on for some time. */
+  void recordConditionWait(String condition, long elapsedMs) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      if (currentInteraction != null) {
+        add(conditionWaitMs, condition, elapsedMs);
+      }
+    }
+  }
+
+  /** Records that the named idling resource was observed busy for some time. */
+  void recordResourceBusy(String resourceName, long elapsedMs) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      if (currentInteraction != null) {
+        add(resourceBusyMs, resourceName, elapsedMs);
+      }
+    }
+  }
+
+  private static void add(Map<String, Long> totals, String key, long elapsedMs) {
+    Long total = totals.get(key);
+    totals.put(key, total == null ? elapsedMs : total + elapsedMs);
+  }
+
+  private void reset() {
+    currentInteraction = null;
+    totalSyncMs = 0;
+    looperMessages = 0;
+    conditionWaitMs.clear();
+    resourceBusyMs.clear();
+  }
+}
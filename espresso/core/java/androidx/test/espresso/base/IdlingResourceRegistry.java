@@ -23,6 +23,7 @@ import static com.google.common.base.Preconditions.checkState;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.os.SystemClock;
 import android.util.Log;
 import androidx.test.espresso.IdlingPolicies;
 import androidx.test.espresso.IdlingPolicy;
@@ -32,9 +33,12 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -69,11 +73,17 @@ public final class IdlingResourceRegistry {
         public void resourcesHaveTimedOut(List<String> busys) {}
       };
 
-  // IdlingStates should only be accessed on main thread
-  private final List<IdlingState> idlingStates = new ArrayList<>();
+  // IdlingStates should only be accessed on main thread. Keyed by resource name, kept in
+  // registration order.
+  private final Map<String, IdlingState> idlingStates = new LinkedHashMap<>();
+  // The subset of idlingStates which are currently marked busy. Resources only leave this set when
+  // they tell us about a busy -> idle transition, so when it is non-empty we can report busy
+  // without asking anybody.
+  private final Set<IdlingState> busyStates = new LinkedHashSet<>();
   private final Looper looper;
   private final Handler handler;
   private final Dispatcher dispatcher;
+  private final IdleWaitProfiler profiler = IdleWaitProfiler.getInstance();
   private IdleNotificationCallback idleNotificationCallback = NO_OP_CALLBACK;
 
   @Inject
@@ -124,7 +134,7 @@ public final class IdlingResourceRegistry {
       // At the same time figure which resources are already registered and shouldn't be attempted
       // to register again.
       List<IdlingResource> resourcesToUnRegister = new ArrayList<>();
-      for (IdlingState oldState : idlingStates) {
+      for (IdlingState oldState : idlingStates.values()) {
         IdlingResource ir = resourcesToRegister.remove(oldState.resource.getName());
         if (null == ir) {
           resourcesToUnRegister.add(oldState.resource);
@@ -161,23 +171,20 @@ public final class IdlingResourceRegistry {
       for (IdlingResource resource : resourceList) {
         checkNotNull(resource.getName(), "IdlingResource.getName() should not be null");
 
-        boolean duplicate = false;
-        for (IdlingState oldState : idlingStates) {
-          if (resource.getName().equals(oldState.resource.getName())) {
-            // This does not throw an error to avoid leaving tests that register resource in test
-            // setup in an undeterministic state (we cannot assume that everyone clears vm state
-            // between each test run)
-            logDuplicateRegistrationError(resource, oldState.resource);
-            duplicate = true;
-            break;
-          }
-        }
-
-        if (!duplicate) {
+        IdlingState oldState = idlingStates.get(resource.getName());
+        if (oldState == null) {
           IdlingState is = new IdlingState(resource, handler);
-          idlingStates.add(is);
+          idlingStates.put(resource.getName(), is);
           is.registerSelf();
+          if (!is.idle) {
+            is.busySinceMs = SystemClock.uptimeMillis();
+            busyStates.add(is);
+          }
         } else {
+          // This does not throw an error to avoid leaving tests that register resource in test
+          // setup in an undeterministic state (we cannot assume that everyone clears vm state
+          // between each test run)
+          logDuplicateRegistrationError(resource, oldState.resource);
           allRegisteredSuccessfully = false;
         }
       }
@@ -203,16 +210,10 @@ public final class IdlingResourceRegistry {
     } else {
       boolean allUnregisteredSuccessfully = true;
       for (IdlingResource resource : resourceList) {
-        boolean found = false;
-        for (int i = 0; i < idlingStates.size(); i++) {
-          if (idlingStates.get(i).resource.getName().equals(resource.getName())) {
-            idlingStates.remove(i);
-            found = true;
-            break;
-          }
-        }
-
-        if (!found) {
+        IdlingState removed = idlingStates.remove(resource.getName());
+        if (removed != null) {
+          busyStates.remove(removed);
+        } else {
           allUnregisteredSuccessfully = false;
           Log.e(
               TAG,
@@ -253,7 +254,7 @@ public final class IdlingResourceRegistry {
           });
     } else {
       ImmutableList.Builder<IdlingResource> irs = ImmutableList.builder();
-      for (IdlingState is : idlingStates) {
+      for (IdlingState is : idlingStates.values()) {
         irs.add(is.resource);
       }
       return irs.build();
@@ -262,19 +263,35 @@ public final class IdlingResourceRegistry {
 
   boolean allResourcesAreIdle() {
     checkState(Looper.myLooper() == looper);
-    for (IdlingState is : idlingStates) {
-      if (is.idle) {
-        // ensure resource has not gone busy.
-        is.idle = is.resource.isIdleNow();
-      }
-
-      if (!is.idle) {
+    if (!busyStates.isEmpty()) {
+      // at least one resource has not yet told us that it transitioned to idle.
+      return false;
+    }
+    for (IdlingState is : idlingStates.values()) {
+      // ensure resource has not gone busy.
+      if (!is.resource.isIdleNow()) {
+        markBusy(is);
         return false;
       }
     }
     return true;
   }
 
+  private void markBusy(IdlingState is) {
+    is.idle = false;
+    if (busyStates.add(is)) {
+      is.busySinceMs = SystemClock.uptimeMillis();
+    }
+  }
+
+  private void markIdle(IdlingState is) {
+    is.idle = true;
+    if (busyStates.remove(is)) {
+      profiler.recordResourceBusy(
+          is.resource.getName(), SystemClock.uptimeMillis() - is.busySinceMs);
+    }
+  }
+
   interface IdleNotificationCallback {
     public void allResourcesIdle();
 
@@ -349,15 +366,13 @@ public final class IdlingResourceRegistry {
     List<String> busyResourceNames = Lists.newArrayList();
     List<IdlingState> racyResources = Lists.newArrayList();
 
-    for (IdlingState state : idlingStates) {
-      if (!state.idle) {
-        if (state.resource.isIdleNow()) {
-          // We have not been notified of a BUSY -> IDLE transition, but the resource is telling us
-          // its that its idle. Either it's a race condition or is this resource buggy.
-          racyResources.add(state);
-        } else {
-          busyResourceNames.add(state.resource.getName());
-        }
+    for (IdlingState state : busyStates) {
+      if (state.resource.isIdleNow()) {
+        // We have not been notified of a BUSY -> IDLE transition, but the resource is telling us
+        // its that its idle. Either it's a race condition or is this resource buggy.
+        racyResources.add(state);
+      } else {
+        busyResourceNames.add(state.resource.getName());
       }
     }
 
@@ -379,6 +394,8 @@ public final class IdlingResourceRegistry {
     final Handler handler;
     // on main
     boolean idle;
+    // on main, only meaningful while busy.
+    long busySinceMs;
 
     private IdlingState(IdlingResource resource, Handler handler) {
       this.resource = resource;
@@ -425,25 +442,12 @@ public final class IdlingResourceRegistry {
 
     private void handleResourceIdled(Message m) {
       IdlingState is = (IdlingState) m.obj;
-      is.idle = true;
-      boolean unknownResource = true;
-      boolean allIdle = true;
-      for (IdlingState state : idlingStates) {
-        allIdle = allIdle && state.idle;
-        if (!unknownResource && !allIdle) {
-          // we've made sure that we are actually monitoring this resource - and we've encountered
-          // a different resource that is currently not idle. Lets stop checking the others.
-          break;
-        }
-        if (unknownResource && state == is) {
-          unknownResource = false;
-        }
-      }
-      if (unknownResource) {
+      if (idlingStates.get(is.resource.getName()) != is) {
         Log.i(TAG, "Ignoring message from unregistered resource: " + is.resource);
         return;
       }
-      if (allIdle) {
+      markIdle(is);
+      if (busyStates.isEmpty()) {
         try {
           idleNotificationCallback.allResourcesIdle();
         } finally {
@@ -20,9 +20,12 @@ import static androidx.test.espresso.matcher.RootMatchers.isDialog;
 import static com.google.common.base.Preconditions.checkState;
 
 import android.app.Activity;
+import android.os.Build;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import androidx.test.espresso.EspressoException;
 import androidx.test.espresso.NoActivityResumedException;
 import androidx.test.espresso.NoMatchingRootException;
@@ -30,10 +33,12 @@ import androidx.test.espresso.Root;
 import androidx.test.espresso.UiController;
 import androidx.test.internal.platform.os.ControlledLooper;
 import androidx.test.internal.util.LogUtil;
+import androidx.test.runner.lifecycle.ActivityLifecycleCallback;
 import androidx.test.runner.lifecycle.ActivityLifecycleMonitor;
 import androidx.test.runner.lifecycle.Stage;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
@@ -59,11 +64,15 @@ public final class RootViewPicker implements Provider<View> {
   private static final ImmutableList<Integer> RESUMED_WAIT_TIMES =
       ImmutableList.of(10, 50, 100, 500, 2000 /* 2sec */, 30000 /* 30sec */);
 
+  private static volatile boolean wakeOnRootChanges = false;
+
   private final UiController uiController;
   private final ActivityLifecycleMonitor activityLifecycleMonitor;
   private final AtomicReference<Boolean> needsActivity;
   private final RootResultFetcher rootResultFetcher;
   private final ControlledLooper controlledLooper;
+  // only set while get() is running.
+  private RootChangeWaker rootChangeWaker;
 
   @Inject
   RootViewPicker(
@@ -79,17 +88,57 @@ public final class RootViewPicker implements Provider<View> {
     this.controlledLooper = controlledLooper;
   }
 
+  /**
+   * Controls how long the picker waits between checks while no activity is resumed or no suitable
+   * root is available.
+   *
+   * <p>By default the picker waits for fixed backoff intervals before checking again. When enabled,
+   * every wait also ends as soon as an activity changes its lifecycle stage, or a window known to
+   * the picker lays out, changes focus or is detached. The backoff intervals and overall timeouts
+   * still bound how long the picker waits.
+   *
+   * @param enabled whether waits should end early on activity and window changes.
+   */
+  public static void setWakeOnRootChanges(boolean enabled) {
+    wakeOnRootChanges = enabled;
+  }
+
   @Override
   public View get() {
     checkState(Looper.getMainLooper().equals(Looper.myLooper()), "must be called on main thread.");
 
-    // TODO(b/34663420): Move Activity waiting logic outside of this class. Not the responsibility
-    // of RVP.
-    if (needsActivity.get()) {
-      waitForAtLeastOneActivityToBeResumed();
+    if (wakeOnRootChanges && uiController instanceof WakeableUiController) {
+      rootChangeWaker = new RootChangeWaker((WakeableUiController) uiController);
+    }
+    try {
+      // TODO(b/34663420): Move Activity waiting logic outside of this class. Not the
+      // responsibility of RVP.
+      if (needsActivity.get()) {
+        waitForAtLeastOneActivityToBeResumed();
+      }
+
+      return pickRootView();
+    } finally {
+      if (rootChangeWaker != null) {
+        rootChangeWaker.stop();
+        rootChangeWaker = null;
+      }
     }
+  }
 
-    return pickRootView();
+  /**
+   * Loops the main thread for the given time, or less if the picker is woken up by an activity or
+   * window change.
+   *
+   * @param rootsToWatch roots whose windows may signal that the picker should check again.
+   */
+  private void backOff(long millisDelay, List<Root> rootsToWatch) {
+    if (rootChangeWaker == null) {
+      uiController.loopMainThreadForAtLeast(millisDelay);
+    } else {
+      rootChangeWaker.watch(rootsToWatch);
+      rootChangeWaker.loopMainThreadForAtMost(millisDelay);
+    }
   }
 
   /**
@@ -104,7 +153,7 @@ public final class RootViewPicker implements Provider<View> {
         return pickedRoot;
       } else {
         controlledLooper.simulateWindowFocus(pickedRoot.getDecorView());
-        uiController.loopMainThreadForAtLeast(rootReadyBackoff.getNextBackoffInMillis());
+        backOff(rootReadyBackoff.getNextBackoffInMillis(), ImmutableList.of(pickedRoot));
       }
     }
 
@@ -129,11 +178,11 @@ public final class RootViewPicker implements Provider<View> {
           return rootResults.getPickedRoot();
         case NO_ROOTS_PRESENT:
           // no active roots yet, but should appear soon.
-          uiController.loopMainThreadForAtLeast(noActiveRootsBackoff.getNextBackoffInMillis());
+          backOff(noActiveRootsBackoff.getNextBackoffInMillis(), rootResults.allRoots);
           break;
         case NO_ROOTS_PICKED:
           // a root which satisfies the matcher should show up eventually.
-          uiController.loopMainThreadForAtLeast(noMatchingRootBackoff.getNextBackoffInMillis());
+          backOff(noMatchingRootBackoff.getNextBackoffInMillis(), rootResults.allRoots);
           break;
       }
       rootResults = rootResultFetcher.fetch();
@@ -160,15 +209,26 @@ public final class RootViewPicker implements Provider<View> {
     if (resumedActivities.isEmpty()) {
       List<Activity> activities = getAllActiveActivities();
       if (activities.isEmpty()) {
-        for (long waitTime : CREATED_WAIT_TIMES) {
-          // wait for Activities to be scheduled by the platform before assuming there are none
-          // and failing the test.
-          Log.w(TAG, "No activities found - waiting: " + waitTime + "ms for one to appear.");
-          uiController.loopMainThreadForAtLeast(waitTime);
-          activities = getAllActiveActivities();
-          if (!activities.isEmpty()) {
-            // found at least one activity in the pipeline
-            break;
+        // wait for Activities to be scheduled by the platform before assuming there are none
+        // and failing the test.
+        if (rootChangeWaker != null) {
+          long giveUpAtMs = SystemClock.uptimeMillis() + totalMillis(CREATED_WAIT_TIMES);
+          long remaining;
+          while (activities.isEmpty()
+              && (remaining = giveUpAtMs - SystemClock.uptimeMillis()) > 0) {
+            Log.w(TAG, "No activities found - waiting at most: " + remaining + "ms for one.");
+            backOff(remaining, ImmutableList.<Root>of());
+            activities = getAllActiveActivities();
+          }
+        } else {
+          for (long waitTime : CREATED_WAIT_TIMES) {
+            Log.w(TAG, "No activities found - waiting: " + waitTime + "ms for one to appear.");
+            uiController.loopMainThreadForAtLeast(waitTime);
+            activities = getAllActiveActivities();
+            if (!activities.isEmpty()) {
+              // found at least one activity in the pipeline
+              break;
+            }
           }
         }
       }
@@ -179,6 +239,25 @@ public final class RootViewPicker implements Provider<View> {
       }
       // well at least there are some activities in the pipeline - lets see if they resume.
 
+      if (rootChangeWaker != null) {
+        long giveUpAtMs = SystemClock.uptimeMillis() + totalMillis(RESUMED_WAIT_TIMES);
+        long remaining;
+        // the change which woke up the wait for created activities may have resumed one already.
+        resumedActivities = activityLifecycleMonitor.getActivitiesInStage(Stage.RESUMED);
+        while (resumedActivities.isEmpty()
+            && (remaining = giveUpAtMs - SystemClock.uptimeMillis()) > 0) {
+          Log.w(TAG, "No activity currently resumed - waiting at most: " + remaining + "ms.");
+          backOff(remaining, ImmutableList.<Root>of());
+          resumedActivities = activityLifecycleMonitor.getActivitiesInStage(Stage.RESUMED);
+        }
+        if (!resumedActivities.isEmpty()) {
+          return; // one of the pending activities has resumed
+        }
+        throw new NoActivityResumedException(
+            "No activities in stage RESUMED. Did you forget to "
+                + "launch the activity. (test.getActivity() or similar)?");
+      }
+
       for (long waitTime : RESUMED_WAIT_TIMES) {
         Log.w(
             TAG, "No activity currently resumed - waiting: " + waitTime + "ms for one to appear.");
@@ -194,6 +273,14 @@ public final class RootViewPicker implements Provider<View> {
     }
   }
 
+  private static long totalMillis(List<Integer> waitTimes) {
+    long total = 0;
+    for (int waitTime : waitTimes) {
+      total += waitTime;
+    }
+    return total;
+  }
+
   /** Returns the list of all non-destroyed activities. */
   private List<Activity> getAllActiveActivities() {
     List<Activity> activities = Lists.newArrayList();
@@ -382,7 +469,114 @@ public final class RootViewPicker implements Provider<View> {
     }
   }
 
-  private static final class RootViewWithoutFocusException extends RuntimeException
+  /**
+   * Wakes up the {@link WakeableUiController} whenever an activity changes its lifecycle stage or a
+   * watched root window lays out, changes focus or is detached.
+   *
+   * <p>Listeners are only registered once the picker actually needs to wait, and must be removed
+   * through {@link #stop()}.
+   */
+  private final class RootChangeWaker
+      implements ActivityLifecycleCallback,
+          ViewTreeObserver.OnGlobalLayoutListener,
+          View.OnAttachStateChangeListener {
+    private final WakeableUiController wakeableUiController;
+    private final List<View> watchedViews = new ArrayList<>();
+    private final List<Object> focusListeners = new ArrayList<>();
+    private boolean lifecycleCallbackAdded;
+
+    private RootChangeWaker(WakeableUiController wakeableUiController) {
+      this.wakeableUiController = wakeableUiController;
+    }
+
+    void loopMainThreadForAtMost(long millisDelay) {
+      wakeableUiController.loopMainThreadForAtMost(millisDelay);
+    }
+
+    void watch(List<Root> roots) {
+      if (!lifecycleCallbackAdded) {
+        activityLifecycleMonitor.addLifecycleCallback(this);
+        lifecycleCallbackAdded = true;
+      }
+      for (Root root : roots) {
+        View decorView = root.getDecorView();
+        if (watchedViews.contains(decorView)) {
+          continue;
+        }
+        watchedViews.add(decorView);
+        decorView.addOnAttachStateChangeListener(this);
+        ViewTreeObserver observer = decorView.getViewTreeObserver();
+        observer.addOnGlobalLayoutListener(this);
+        if (Build.VERSION.SDK_INT >= 18) {
+          WindowFocusWaker focusWaker = new WindowFocusWaker(wakeableUiController);
+          observer.addOnWindowFocusChangeListener(focusWaker);
+          focusListeners.add(focusWaker);
+        } else {
+          focusListeners.add(null);
+        }
+      }
+    }
+
+    @SuppressWarnings("deprecation")
+    void stop() {
+      if (lifecycleCallbackAdded) {
+        activityLifecycleMonitor.removeLifecycleCallback(this);
+      }
+      for (int i = 0; i < watchedViews.size(); i++) {
+        View decorView = watchedViews.get(i);
+        decorView.removeOnAttachStateChangeListener(this);
+        ViewTreeObserver observer = decorView.getViewTreeObserver();
+        if (!observer.isAlive()) {
+          continue;
+        }
+        observer.removeGlobalOnLayoutListener(this);
+        if (Build.VERSION.SDK_INT >= 18) {
+          observer.removeOnWindowFocusChangeListener(
+              (ViewTreeObserver.OnWindowFocusChangeListener) focusListeners.get(i));
+        }
+      }
+      watchedViews.clear();
+      focusListeners.clear();
+    }
+
+    @Override
+    public void onActivityLifecycleChanged(Activity activity, Stage stage) {
+      wakeableUiController.wakeUp();
+    }
+
+    @Override
+    public void onGlobalLayout() {
+      wakeableUiController.wakeUp();
+    }
+
+    @Override
+    public void onViewAttachedToWindow(View view) {
+      wakeableUiController.wakeUp();
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(View view) {
+      wakeableUiController.wakeUp();
+    }
+  }
+
+  /** Kept separate from {@link RootChangeWaker} since the listener only exists on API 18+. */
+  private static final class WindowFocusWaker
+      implements ViewTreeObserver.OnWindowFocusChangeListener {
+    private final WakeableUiController wakeableUiController;
+
+    private WindowFocusWaker(WakeableUiController wakeableUiController) {
+      this.wakeableUiController = wakeableUiController;
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasFocus) {
+      wakeableUiController.wakeUp();
+    }
+  }
+
+  /** Thrown if the picked root doesn't get window focus or keeps requesting layout. */
+  public static final class RootViewWithoutFocusException extends RuntimeException
       implements EspressoException {
 
     private RootViewWithoutFocusException(String message) {
@@ -32,6 +32,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
 /**
  * Provides access to all root views in an application.
@@ -44,8 +45,13 @@ import javax.inject.Inject;
  * handle a list of size 0 by assuming getWindow().getDecorView() on the currently resumed activity
  * is the sole root - this assumption will be correct often enough.
  *
+ * <p>The roots are cached and only rebuilt when the window manager's list of windows has changed
+ * since the last call. Every rebuild increments the roots generation, which allows callers to
+ * cheaply find out whether the roots they picked earlier are still current.
+ *
  * <p>Obviously, you need to be on the main thread to use this.
  */
+@Singleton
 final class RootsOracle implements ActiveRootLister {
 
   private static final String TAG = RootsOracle.class.getSimpleName();
@@ -62,14 +68,48 @@ final class RootsOracle implements ActiveRootLister {
   private Field viewsField;
   private Field paramsField;
 
+  // Snapshot of the window manager state the cached roots were built from. Windows and their
+  // params are compared by identity. Roots keep a reference to the live params object, so params
+  // that are modified in place do not require a rebuild.
+  private Object[] snapshotViews = new Object[0];
+  private Object[] snapshotParams = new Object[0];
+  private List<Root> snapshotRoots = Lists.newArrayList();
+  private int generation = 0;
+
   @Inject
   RootsOracle(Looper mainLooper) {
     this.mainLooper = mainLooper;
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public List<Root> listActiveRoots() {
+    // callers are free to modify the returned list.
+    return Lists.newArrayList(refreshRoots());
+  }
+
+  /**
+   * Returns the generation of the roots last returned by {@link #listActiveRoots()}. The
+   * generation changes whenever the roots are rebuilt because windows were added, removed or
+   * updated.
+   */
+  int getRootsGeneration() {
+    return generation;
+  }
+
+  /**
+   * Checks whether the active roots differ from the roots of the given generation.
+   *
+   * <p>This refreshes the cached roots if necessary and is cheap when nothing has changed.
+   *
+   * @param rootsGeneration a value previously returned by {@link #getRootsGeneration()}.
+   */
+  boolean haveRootsChangedSince(int rootsGeneration) {
+    refreshRoots();
+    return generation != rootsGeneration;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Root> refreshRoots() {
     checkState(mainLooper.equals(Looper.myLooper()), "must be called on main thread.");
 
     if (!initialized) {
@@ -125,16 +165,33 @@ final class RootsOracle implements ActiveRootLister {
       return Lists.newArrayList();
     }
 
-    List<Root> roots = Lists.newArrayList();
-    for (int i = views.size() - 1; i > -1; i--) {
-      roots.add(
-          new Root.Builder()
-              .withDecorView(views.get(i))
-              .withWindowLayoutParams(params.get(i))
-              .build());
+    if (!matchesSnapshot(views, params)) {
+      List<Root> roots = Lists.newArrayList();
+      for (int i = views.size() - 1; i > -1; i--) {
+        roots.add(
+            new Root.Builder()
+                .withDecorView(views.get(i))
+                .withWindowLayoutParams(params.get(i))
+                .build());
+      }
+      snapshotViews = views.toArray();
+      snapshotParams = params.toArray();
+      snapshotRoots = roots;
+      generation++;
     }
+    return snapshotRoots;
+  }
 
-    return roots;
+  private boolean matchesSnapshot(List<View> views, List<LayoutParams> params) {
+    if (views.size() != snapshotViews.length || params.size() != snapshotParams.length) {
+      return false;
+    }
+    for (int i = 0; i < snapshotViews.length; i++) {
+      if (views.get(i) != snapshotViews[i] || params.get(i) != snapshotParams[i]) {
+        return false;
+      }
+    }
+    return true;
   }
 
   private void initialize() {
@@ -52,6 +52,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
@@ -59,7 +60,10 @@ import javax.inject.Singleton;
 /** Implementation of {@link UiController}. */
 @Singleton
 final class UiControllerImpl
-    implements InterruptableUiController, Handler.Callback, IdlingUiController {
+    implements InterruptableUiController,
+        Handler.Callback,
+        IdlingUiController,
+        WakeableUiController {
 
   private static final String TAG = UiControllerImpl.class.getSimpleName();
 
@@ -76,6 +80,7 @@ final class UiControllerImpl
     DELAY_HAS_PAST,
     ASYNC_TASKS_HAVE_IDLED,
     COMPAT_TASKS_HAVE_IDLED,
+    EXECUTOR_TASKS_HAVE_IDLED,
     KEY_INJECT_HAS_COMPLETED,
     MOTION_INJECTION_HAS_COMPLETED,
     DYNAMIC_TASKS_HAVE_IDLED;
@@ -143,19 +148,38 @@ final class UiControllerImpl
 
   private final EventInjector eventInjector;
   private final BitSet conditionSet;
+  // only used on main thread, reused across generations to keep the sync loop allocation free.
+  private final MainThreadInterrogation reusableInterrogation;
+  private final EnumSet<IdleCondition> idleConditionChecks = EnumSet.noneOf(IdleCondition.class);
+  private final EnumSet<IdleCondition> singleConditionCheck = EnumSet.noneOf(IdleCondition.class);
 
   private final ExecutorService keyEventExecutor =
       Executors.newSingleThreadExecutor(
           new ThreadFactoryBuilder().setNameFormat("Espresso Key Event #%d").build());
   private final Looper mainLooper;
   private final IdlingResourceRegistry idlingResourceRegistry;
+  private final IdleWaitProfiler profiler = IdleWaitProfiler.getInstance();
 
   private Handler controllerHandler;
   // only updated on main thread.
   private MainThreadInterrogation interrogation;
+  private long interrogationStartMs;
+  private SignalingTask<Void> pendingDelay;
+  private final AtomicBoolean wakeUpRequested = new AtomicBoolean(false);
+  private final Runnable wakeUpTask =
+      new Runnable() {
+        @Override
+        public void run() {
+          if (pendingDelay != null && wakeUpRequested.getAndSet(false)) {
+            // signals the delay of the generation it was created for.
+            pendingDelay.run();
+          }
+        }
+      };
   private int generation = 0;
   private IdleNotifier<Runnable> asyncIdle;
   private IdleNotifier<Runnable> compatIdle;
+  private IdleNotifier<Runnable> executorIdle;
   private Provider<IdleNotifier<IdleNotificationCallback>> dynamicIdleProvider;
 
   @VisibleForTesting
@@ -164,13 +188,16 @@ final class UiControllerImpl
       EventInjector eventInjector,
       @SdkAsyncTask IdleNotifier<Runnable> asyncIdle,
       @CompatAsyncTask IdleNotifier<Runnable> compatIdle,
+      @RegisteredExecutors IdleNotifier<Runnable> executorIdle,
       Provider<IdleNotifier<IdleNotificationCallback>> dynamicIdle,
       Looper mainLooper,
       IdlingResourceRegistry idlingResourceRegistry) {
     this.eventInjector = checkNotNull(eventInjector);
     this.asyncIdle = checkNotNull(asyncIdle);
     this.compatIdle = checkNotNull(compatIdle);
+    this.executorIdle = checkNotNull(executorIdle);
     this.conditionSet = IdleCondition.createConditionSet();
+    this.reusableInterrogation = new MainThreadInterrogation(conditionSet);
     this.dynamicIdleProvider = checkNotNull(dynamicIdle);
     this.mainLooper = checkNotNull(mainLooper);
     this.idlingResourceRegistry = checkNotNull(idlingResourceRegistry);
@@ -401,9 +428,13 @@ final class UiControllerImpl
   public void loopMainThreadUntilIdle() {
     initialize();
     checkState(Looper.myLooper() == mainLooper, "Expecting to be on main thread!");
+    // Interrogator rejects nested loops anyway. Failing before any callback is registered keeps
+    // the generation and the reused interrogation state of the outer loop intact.
+    checkState(interrogation == null, "Already interrogating!");
     IdleNotifier<IdleNotificationCallback> dynamicIdle = dynamicIdleProvider.get();
     do {
-      EnumSet<IdleCondition> condChecks = EnumSet.noneOf(IdleCondition.class);
+      EnumSet<IdleCondition> condChecks = idleConditionChecks;
+      condChecks.clear();
       if (!asyncIdle.isIdleNow()) {
         asyncIdle.registerNotificationCallback(
             new SignalingTask<Void>(NO_OP, IdleCondition.ASYNC_TASKS_HAVE_IDLED, generation));
@@ -417,6 +448,12 @@ final class UiControllerImpl
         condChecks.add(IdleCondition.COMPAT_TASKS_HAVE_IDLED);
       }
 
+      if (!executorIdle.isIdleNow()) {
+        executorIdle.registerNotificationCallback(
+            new SignalingTask<Void>(NO_OP, IdleCondition.EXECUTOR_TASKS_HAVE_IDLED, generation));
+        condChecks.add(IdleCondition.EXECUTOR_TASKS_HAVE_IDLED);
+      }
+
       if (!dynamicIdle.isIdleNow()) {
         final IdlingPolicy warning = IdlingPolicies.getDynamicIdlingResourceWarningPolicy();
         final IdlingPolicy error = IdlingPolicies.getDynamicIdlingResourceErrorPolicy();
@@ -448,9 +485,13 @@ final class UiControllerImpl
       } finally {
         asyncIdle.cancelCallback();
         compatIdle.cancelCallback();
+        executorIdle.cancelCallback();
         dynamicIdle.cancelCallback();
       }
-    } while (!asyncIdle.isIdleNow() || !compatIdle.isIdleNow() || !dynamicIdle.isIdleNow());
+    } while (!asyncIdle.isIdleNow()
+        || !compatIdle.isIdleNow()
+        || !executorIdle.isIdleNow()
+        || !dynamicIdle.isIdleNow());
   }
 
   @Override
@@ -469,19 +510,60 @@ final class UiControllerImpl
     loopMainThreadUntilIdle();
   }
 
+  @Override
+  public void loopMainThreadForAtMost(long millisDelay) {
+    initialize();
+
+    checkState(Looper.myLooper() == mainLooper, "Expecting to be on main thread!");
+    checkState(!IdleCondition.DELAY_HAS_PAST.isSignaled(conditionSet), "recursion detected!");
+    checkArgument(millisDelay > 0);
+
+    // wake ups which arrived while nothing was waiting must not shorten this delay.
+    wakeUpRequested.set(false);
+    SignalingTask<Void> delay = new SignalingTask<>(NO_OP, IdleCondition.DELAY_HAS_PAST, generation);
+    pendingDelay = delay;
+    controllerHandler.postAtTime(delay, generation, SystemClock.uptimeMillis() + millisDelay);
+    try {
+      loopUntil(IdleCondition.DELAY_HAS_PAST, dynamicIdleProvider.get());
+    } finally {
+      pendingDelay = null;
+      wakeUpRequested.set(false);
+      controllerHandler.removeCallbacks(delay);
+    }
+    loopMainThreadUntilIdle();
+  }
+
+  @Override
+  public void wakeUp() {
+    wakeUpRequested.set(true);
+    Handler handler = controllerHandler;
+    if (handler != null) {
+      // nothing can be waiting if the handler was never created.
+      handler.post(wakeUpTask);
+    }
+  }
+
   @Override
   public boolean handleMessage(Message msg) {
     if (!IdleCondition.handleMessage(msg, conditionSet, generation)) {
       Log.i(TAG, "Unknown message type: " + msg);
       return false;
     } else {
+      if (interrogation != null && msg.arg1 == generation && profiler.isEnabled()) {
+        profiler.recordConditionWait(
+            IdleCondition.values()[msg.what].name(),
+            SystemClock.uptimeMillis() - interrogationStartMs);
+      }
       return true;
     }
   }
 
   private void loopUntil(
       IdleCondition condition, IdleNotifier<IdleNotificationCallback> dynamicIdle) {
-    loopUntil(EnumSet.of(condition), dynamicIdle);
+    checkState(interrogation == null, "Already interrogating!");
+    singleConditionCheck.clear();
+    singleConditionCheck.add(condition);
+    loopUntil(singleConditionCheck, dynamicIdle);
   }
 
   /**
@@ -520,9 +602,12 @@ final class UiControllerImpl
       long start = SystemClock.uptimeMillis();
       long end =
           start + masterIdlePolicy.getIdleTimeoutUnit().toMillis(masterIdlePolicy.getIdleTimeout());
-      interrogation = new MainThreadInterrogation(conditions, conditionSet, end);
+      interrogation = reusableInterrogation;
+      interrogation.reset(conditions, end);
+      interrogationStartMs = start;
 
       InterrogationStatus result = Interrogator.loopAndInterrogate(interrogation);
+      profiler.recordMainLooperLoop(SystemClock.uptimeMillis() - start, interrogation.execCount);
       if (InterrogationStatus.COMPLETED == result) {
         // did not time out, all conditions happy.
         return dynamicIdle;
@@ -556,6 +641,7 @@ final class UiControllerImpl
       for (IdleCondition condition : conditions) {
         condition.reset(conditionSet);
       }
+      reusableInterrogation.clearLastMessage();
       interrogation = null;
     }
     return dynamicIdle;
@@ -578,35 +664,66 @@ final class UiControllerImpl
 
   private static final class MainThreadInterrogation
       implements Interrogator.InterrogationHandler<InterrogationStatus> {
-    private final EnumSet<IdleCondition> conditions;
     private final BitSet conditionSet;
-    private final long giveUpAtMs;
-    private String lastMessage;
+    private EnumSet<IdleCondition> conditions;
+    private long giveUpAtMs;
+
+    // The dispatched message is recycled right after dispatch, so only the fields needed to
+    // describe it are kept. The description is only built if the interrogation times out.
+    private boolean hasLastMessage;
+    private Handler lastMessageTarget;
+    private Runnable lastMessageCallback;
+    private int lastMessageWhat;
+    private long lastMessageWhen;
 
     private InterrogationStatus status = InterrogationStatus.COMPLETED;
     private int execCount = 0;
 
-    MainThreadInterrogation(
-        EnumSet<IdleCondition> conditions, BitSet conditionSet, long giveUpAtMs) {
-      this.conditions = conditions;
+    MainThreadInterrogation(BitSet conditionSet) {
       this.conditionSet = conditionSet;
+    }
+
+    /** Prepares this interrogation for a new generation. */
+    void reset(EnumSet<IdleCondition> conditions, long giveUpAtMs) {
+      this.conditions = conditions;
       this.giveUpAtMs = giveUpAtMs;
+      status = InterrogationStatus.COMPLETED;
+      execCount = 0;
+      hasLastMessage = false;
+      lastMessageTarget = null;
+      lastMessageCallback = null;
+    }
+
+    /** Drops references to application objects once the interrogation is over. */
+    void clearLastMessage() {
+      lastMessageTarget = null;
+      lastMessageCallback = null;
     }
 
     @Override
     public void setMessage(Message m) {
-      try {
-        lastMessage = m.toString();
-      } catch (NullPointerException npe) {
-        // toString can fail with an NPE on getClass()
-        // This field is just for diagnosing Espresso test failures; suppress the error.
-        lastMessage = "NPE calling message toString(): " + npe;
-      }
+      hasLastMessage = true;
+      lastMessageTarget = m.getTarget();
+      lastMessageCallback = m.getCallback();
+      lastMessageWhat = m.what;
+      lastMessageWhen = m.getWhen();
     }
 
     @Override
     public String getMessage() {
-      return lastMessage;
+      if (!hasLastMessage) {
+        return null;
+      }
+      StringBuilder b = new StringBuilder("{ when=").append(lastMessageWhen);
+      if (lastMessageCallback != null) {
+        b.append(" callback=").append(lastMessageCallback.getClass().getName());
+      } else {
+        b.append(" what=").append(lastMessageWhat);
+      }
+      if (lastMessageTarget != null) {
+        b.append(" target=").append(lastMessageTarget.getClass().getName());
+      }
+      return b.append(" }").toString();
     }
 
     @Override
@@ -16,24 +16,22 @@
 
 package androidx.test.espresso.base;
 
-import static androidx.test.espresso.util.TreeIterables.breadthFirstViewTraversal;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import android.os.Looper;
 import android.view.View;
 import android.widget.AdapterView;
+import androidx.annotation.Nullable;
 import androidx.test.espresso.AmbiguousViewMatcherException;
 import androidx.test.espresso.NoMatchingViewException;
 import androidx.test.espresso.ViewFinder;
-import androidx.test.espresso.matcher.ViewMatchers;
+import androidx.test.espresso.matcher.ViewMatcherPlanner;
 import androidx.test.espresso.util.EspressoOptional;
+import androidx.test.espresso.util.TreeIterables;
+import androidx.test.espresso.util.TreeIterables.ViewVisitor;
 import com.google.common.base.Joiner;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Iterators;
-import com.google.common.collect.Lists;
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import javax.inject.Inject;
@@ -49,7 +47,7 @@ public final class ViewFinderImpl implements ViewFinder {
   private final Provider<View> rootViewProvider;
 
   @Inject
-  ViewFinderImpl(Matcher<View> viewMatcher, Provider<View> rootViewProvider) {
+  public ViewFinderImpl(Matcher<View> viewMatcher, Provider<View> rootViewProvider) {
     this.viewMatcher = viewMatcher;
     this.rootViewProvider = rootViewProvider;
   }
@@ -57,35 +55,34 @@ public final class ViewFinderImpl implements ViewFinder {
   @Override
   public View getView() throws AmbiguousViewMatcherException, NoMatchingViewException {
     checkMainThread();
-    final Predicate<View> matcherPredicate =
-        new MatcherPredicateAdapter<View>(checkNotNull(viewMatcher));
+    Matcher<View> plannedMatcher = ViewMatcherPlanner.plan(checkNotNull(viewMatcher));
 
     View root = rootViewProvider.get();
-    Iterator<View> matchedViewIterator =
-        Iterables.filter(breadthFirstViewTraversal(root), matcherPredicate).iterator();
-
-    View matchedView = null;
+    View indexedView = findIndexedView(root);
+    if (indexedView != null) {
+      return indexedView;
+    }
+    // adapter views are collected in the same pass, for the hint in case nothing matches.
+    List<View> adapterViews = new ArrayList<>();
+    List<View> matchedViews = findMatches(root, plannedMatcher, 2, adapterViews);
 
-    while (matchedViewIterator.hasNext()) {
-      if (matchedView != null) {
-        // Ambiguous!
-        throw new AmbiguousViewMatcherException.Builder()
-            .withViewMatcher(viewMatcher)
-            .withRootView(root)
-            .withView1(matchedView)
-            .withView2(matchedViewIterator.next())
-            .withOtherAmbiguousViews(Iterators.toArray(matchedViewIterator, View.class))
-            .build();
-      } else {
-        matchedView = matchedViewIterator.next();
-      }
+    if (matchedViews.size() > 1) {
+      // Ambiguous! Look for the remaining matches to report them all, with the original matcher
+      // whose description may depend on the views it was evaluated against.
+      matchedViews = findMatches(root, viewMatcher, Integer.MAX_VALUE, null);
+      throw new AmbiguousViewMatcherException.Builder()
+          .withViewMatcher(viewMatcher)
+          .withRootView(root)
+          .withView1(matchedViews.get(0))
+          .withView2(matchedViews.get(1))
+          .withOtherAmbiguousViews(
+              matchedViews.subList(2, matchedViews.size()).toArray(new View[0]))
+          .build();
     }
+    View matchedView = matchedViews.isEmpty() ? null : matchedViews.get(0);
     if (null == matchedView) {
-      final Predicate<View> adapterViewPredicate =
-          new MatcherPredicateAdapter<View>(ViewMatchers.isAssignableFrom(AdapterView.class));
-      List<View> adapterViews =
-          Lists.newArrayList(
-              Iterables.filter(breadthFirstViewTraversal(root), adapterViewPredicate).iterator());
+      // evaluates the original matcher like the report expects, see ViewMatcherPlanner.
+      findMatches(root, viewMatcher, Integer.MAX_VALUE, null);
       if (adapterViews.isEmpty()) {
         throw new NoMatchingViewException.Builder()
             .withViewMatcher(viewMatcher)
@@ -107,27 +104,72 @@ public final class ViewFinderImpl implements ViewFinder {
           .withAdapterViewWarning(EspressoOptional.of(warning))
           .build();
     } else {
+      // the original matcher would have been evaluated against the matched view as well.
+      viewMatcher.matches(matchedView);
       return matchedView;
     }
   }
 
+  /**
+   * Returns the first maxMatches views, in breadth first order, which match the given matcher.
+   *
+   * @param adapterViews if not null, receives the {@link AdapterView}s visited on the way. It is
+   *     complete only if fewer than maxMatches views matched.
+   */
+  private static List<View> findMatches(
+      View root,
+      final Matcher<View> matcher,
+      final int maxMatches,
+      @Nullable final List<View> adapterViews) {
+    final List<View> matchedViews = new ArrayList<>(Math.min(maxMatches, 8));
+    TreeIterables.visitBreadthFirst(
+        root,
+        new ViewVisitor() {
+          @Override
+          public boolean visit(View view, int distanceFromRoot) {
+            if (adapterViews != null && view instanceof AdapterView) {
+              adapterViews.add(view);
+            }
+            if (matcher.matches(view)) {
+              matchedViews.add(view);
+            }
+            return matchedViews.size() < maxMatches;
+          }
+        });
+    return matchedViews;
+  }
+
+  /**
+   * Returns the only candidate matched by the view matcher if the {@link ViewHierarchyIndex} can
+   * narrow down the candidates, or {@code null}. No matches and ambiguous matches are left to the
+   * full traversal, which reports them with the complete view hierarchy.
+   */
+  private View findIndexedView(View root) {
+    ViewHierarchyIndex index = ViewHierarchyIndex.getInstance();
+    List<View> candidates = index.findCandidates(root, viewMatcher);
+    if (candidates == null) {
+      return null;
+    }
+    View matchedView = null;
+    for (View candidate : candidates) {
+      if (viewMatcher.matches(candidate)) {
+        if (matchedView != null) {
+          return null;
+        }
+        matchedView = candidate;
+      }
+    }
+    if (matchedView != null && !index.confirmOnlyMatch(root, viewMatcher, matchedView)) {
+      // a view newly matches without a layout pass.
+      return null;
+    }
+    return matchedView;
+  }
+
   private void checkMainThread() {
     checkState(
         Thread.currentThread().equals(Looper.getMainLooper().getThread()),
         "Executing a query on the view hierarchy outside of the main thread (on: %s)",
         Thread.currentThread().getName());
   }
-
-  private static class MatcherPredicateAdapter<T> implements Predicate<T> {
-    private final Matcher<? super T> matcher;
-
-    private MatcherPredicateAdapter(Matcher<? super T> matcher) {
-      this.matcher = checkNotNull(matcher);
-    }
-
-    @Override
-    public boolean apply(T input) {
-      return matcher.matches(input);
-    }
-  }
 }
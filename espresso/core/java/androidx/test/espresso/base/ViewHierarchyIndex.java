@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import android.view.View;
+import android.view.View.OnAttachStateChangeListener;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
+import android.view.ViewTreeObserver.OnGlobalLayoutListener;
+import androidx.annotation.Nullable;
+import androidx.test.espresso.matcher.IndexableViewMatchers;
+import androidx.test.espresso.matcher.IndexableViewMatchers.KeyMatcher;
+import androidx.test.espresso.util.TreeIterables;
+import androidx.test.espresso.util.TreeIterables.ViewVisitor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.hamcrest.Matcher;
+
+/**
+ * An optional index of the views of each root by id, tag and content description, which lets
+ * {@link ViewFinderImpl} evaluate matchers such as {@code withId(...)} against a handful of
+ * candidates instead of the whole view hierarchy.
+ *
+ * <p>The index of a root is built lazily on the first lookup and thrown away on the next layout
+ * pass of that root, or when the root is detached from its window. Views don't report changes of
+ * their id, tag or content description, so a view may newly match without a layout pass. Every
+ * candidate is therefore re-checked against the complete view matcher, a single match is only
+ * used once {@link #confirmOnlyMatch} found no other view with the same key, and any other lookup
+ * falls back to a full traversal.
+ *
+ * <p>The index is disabled by default. All lookups happen on the main thread.
+ */
+public final class ViewHierarchyIndex {
+
+  private static final ViewHierarchyIndex instance = new ViewHierarchyIndex();
+
+  private volatile boolean enabled = false;
+
+  // main thread only, entries are removed when their root is detached from its window.
+  private final Map<View, RootIndex> rootIndexes = new IdentityHashMap<>();
+
+  ViewHierarchyIndex() {}
+
+  /** Returns the process wide instance of the index. */
+  public static ViewHierarchyIndex getInstance() {
+    return instance;
+  }
+
+  /** Enables or disables index based lookups for subsequent view interactions. */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the views below (and including) root which may match the given view matcher, or {@code
+   * null} if the index is disabled or can not narrow down the candidates for this matcher.
+   */
+  @Nullable
+  List<View> findCandidates(View root, Matcher<View> viewMatcher) {
+    if (!enabled) {
+      return null;
+    }
+    List<KeyMatcher> keyMatchers = IndexableViewMatchers.findKeyMatchers(viewMatcher);
+    if (keyMatchers.isEmpty() || root.getWindowToken() == null) {
+      // no point in indexing a root which will never get a layout pass to invalidate it.
+      return null;
+    }
+    RootIndex rootIndex = rootIndexes.get(root);
+    if (rootIndex == null) {
+      rootIndex = new RootIndex(root);
+      rootIndexes.put(root, rootIndex);
+    }
+    rootIndex.ensureBuilt();
+
+    List<View> best = null;
+    for (KeyMatcher keyMatcher : keyMatchers) {
+      List<View> candidates = rootIndex.candidatesFor(keyMatcher);
+      if (best == null || candidates.size() < best.size()) {
+        best = candidates;
+      }
+      if (best.isEmpty()) {
+        break;
+      }
+    }
+    List<View> attached = new ArrayList<>(best.size());
+    for (View candidate : best) {
+      if (isDescendant(root, candidate)) {
+        attached.add(candidate);
+      }
+    }
+    return attached;
+  }
+
+  /**
+   * Returns true if no view below (and including) root other than the given one matches the view
+   * matcher. Only views whose current key matches one of the key matchers of the view matcher are
+   * evaluated against it. If another view matches, the index of the root is thrown away.
+   */
+  boolean confirmOnlyMatch(View root, final Matcher<View> viewMatcher, final View matchedView) {
+    List<KeyMatcher> keyMatchers = IndexableViewMatchers.findKeyMatchers(viewMatcher);
+    if (keyMatchers.isEmpty()) {
+      return false;
+    }
+    // every key matcher has to match, so checking one of them is enough.
+    final KeyMatcher keyMatcher = keyMatchers.get(0);
+    final boolean[] otherMatch = new boolean[1];
+    TreeIterables.visitBreadthFirst(
+        root,
+        new ViewVisitor() {
+          @Override
+          public boolean visit(View view, int distanceFromRoot) {
+            if (view != matchedView
+                && keyMatcher.getValueMatcher().matches(keyOf(view, keyMatcher))
+                && viewMatcher.matches(view)) {
+              otherMatch[0] = true;
+            }
+            return !otherMatch[0];
+          }
+        });
+    if (otherMatch[0]) {
+      RootIndex rootIndex = rootIndexes.get(root);
+      if (rootIndex != null) {
+        rootIndex.invalidate();
+      }
+    }
+    return !otherMatch[0];
+  }
+
+  @Nullable
+  private static Object keyOf(View view, KeyMatcher keyMatcher) {
+    switch (keyMatcher.getKey()) {
+      case ID:
+        return view.getId();
+      case TAG:
+        return view.getTag();
+      case CONTENT_DESCRIPTION:
+        CharSequence contentDescription = view.getContentDescription();
+        return contentDescription != null ? contentDescription.toString() : null;
+    }
+    throw new IllegalArgumentException("Unknown key: " + keyMatcher.getKey());
+  }
+
+  private static boolean isDescendant(View root, View view) {
+    if (view == root) {
+      return true;
+    }
+    ViewParent parent = view.getParent();
+    while (parent != null) {
+      if (parent == root) {
+        return true;
+      }
+      parent = parent.getParent();
+    }
+    return false;
+  }
+
+  private final class RootIndex implements OnGlobalLayoutListener, OnAttachStateChangeListener {
+    private final View root;
+    private final Map<Integer, List<View>> viewsById = new HashMap<>();
+    // tags are compared by identity to stay clear of user defined equals/hashCode.
+    private final Map<Object, List<View>> viewsByTag = new IdentityHashMap<>();
+    private final Map<String, List<View>> viewsByContentDescription = new HashMap<>();
+    private boolean built = false;
+
+    private RootIndex(View root) {
+      this.root = root;
+      root.getViewTreeObserver().addOnGlobalLayoutListener(this);
+      root.addOnAttachStateChangeListener(this);
+    }
+
+    private void ensureBuilt() {
+      if (built) {
+        return;
+      }
+      TreeIterables.visitBreadthFirst(
+          root,
+          new ViewVisitor() {
+            @Override
+            public boolean visit(View view, int distanceFromRoot) {
+              add(viewsById, view.getId(), view);
+              add(viewsByTag, view.getTag(), view);
+              CharSequence contentDescription = view.getContentDescription();
+              add(
+                  viewsByContentDescription,
+                  contentDescription != null ? contentDescription.toString() : null,
+                  view);
+              return true;
+            }
+          });
+      built = true;
+    }
+
+    private List<View> candidatesFor(KeyMatcher keyMatcher) {
+      switch (keyMatcher.getKey()) {
+        case ID:
+          return lookUp(viewsById, keyMatcher);
+        case TAG:
+          // the matcher compares tags by equals, the index by identity, so it has to be scanned.
+          return collect(viewsByTag, keyMatcher.getValueMatcher());
+        case CONTENT_DESCRIPTION:
+          return lookUp(viewsByContentDescription, keyMatcher);
+      }
+      throw new IllegalArgumentException("Unknown key: " + keyMatcher.getKey());
+    }
+
+    private void invalidate() {
+      viewsById.clear();
+      viewsByTag.clear();
+      viewsByContentDescription.clear();
+      built = false;
+    }
+
+    @Override
+    public void onGlobalLayout() {
+      invalidate();
+    }
+
+    @Override
+    public void onViewAttachedToWindow(View v) {}
+
+    @Override
+    @SuppressWarnings("deprecation") // removeOnGlobalLayoutListener requires API 16
+    public void onViewDetachedFromWindow(View v) {
+      invalidate();
+      rootIndexes.remove(root);
+      root.removeOnAttachStateChangeListener(this);
+      ViewTreeObserver observer = root.getViewTreeObserver();
+      if (observer.isAlive()) {
+        observer.removeGlobalOnLayoutListener(this);
+      }
+    }
+  }
+
+  private static <K> void add(Map<K, List<View>> index, K key, View view) {
+    List<View> views = index.get(key);
+    if (views == null) {
+      views = new ArrayList<>(1);
+      index.put(key, views);
+    }
+    views.add(view);
+  }
+
+  /**
+   * Returns the views of the key an equality matcher expects, or the views of every key the value
+   * matcher matches otherwise.
+   */
+  private static <K> List<View> lookUp(Map<K, List<View>> index, KeyMatcher keyMatcher) {
+    if (keyMatcher.hasExpectedValue()) {
+      List<View> views = index.get(keyMatcher.getExpectedValue());
+      return views != null ? views : Collections.<View>emptyList();
+    }
+    return collect(index, keyMatcher.getValueMatcher());
+  }
+
+  private static <K> List<View> collect(Map<K, List<View>> index, Matcher<?> keyMatcher) {
+    List<View> candidates = new ArrayList<>();
+    for (Map.Entry<K, List<View>> entry : index.entrySet()) {
+      if (keyMatcher.matches(entry.getKey())) {
+        candidates.addAll(entry.getValue());
+      }
+    }
+    return candidates;
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import androidx.test.espresso.UiController;
+
+/**
+ * Similar to {@link UiController} but with timed waits which can be ended early when the state the
+ * caller is waiting for may have changed.
+ *
+ * <p>This interface used for Espresso internals and shouldn't be called by external users.
+ */
+interface WakeableUiController extends UiController {
+  /**
+   * Loops the main thread like {@link #loopMainThreadForAtLeast(long)}, but stops waiting for the
+   * delay to pass as soon as {@link #wakeUp()} is called. The main thread is still looped until
+   * idle before returning.
+   *
+   * @param millisDelay the maximum time to wait for a wake up.
+   */
+  void loopMainThreadForAtMost(long millisDelay);
+
+  /**
+   * Ends the delay of the current {@link #loopMainThreadForAtMost(long)} call. Has no effect if no
+   * delay is pending. Can be called from any thread.
+   */
+  void wakeUp();
+}
@@ -23,6 +23,7 @@ import static org.hamcrest.Matchers.is;
 import android.database.Cursor;
 import android.database.CursorIndexOutOfBoundsException;
 import android.widget.AdapterView;
+import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
@@ -59,6 +60,9 @@ public final class CursorMatchers {
     private final MatcherApplier applier;
     private boolean checkColumns = true;
 
+    // the column picked by name for the last cursor, replaced as a whole by any thread.
+    private volatile ChosenColumn lastChosenColumn;
+
     private CursorMatcher(int columnIndex, Matcher<?> valueMatcher, MatcherApplier applier) {
       super(Cursor.class);
       checkArgument(columnIndex >= 0);
@@ -81,7 +85,7 @@ public final class CursorMatchers {
     public boolean matchesSafely(Cursor cursor) {
       int chosenColumn = columnIndex;
       if (chosenColumn < 0) {
-        chosenColumn = findColumnIndex(columnNameMatcher, cursor);
+        chosenColumn = chooseColumn(cursor);
         if (chosenColumn < 0) {
           StringDescription description = new StringDescription();
           columnNameMatcher.describeTo(description);
@@ -143,11 +147,73 @@ public final class CursorMatchers {
       this.checkColumns = checkColumns;
       return this;
     }
+
+    /** Returns the index of the matched column, or a negative value if it is picked by name. */
+    int getColumnIndex() {
+      return columnIndex;
+    }
+
+    /**
+     * Returns the index of the matched column in the given cursor, or a negative value if it can't
+     * be picked. Columns picked by name are only looked up again once the cursor or its column
+     * names change, so that matching every row of a cursor doesn't match every column name. The
+     * column names are still compared for every row, as cursors like {@link
+     * android.database.MergeCursor}, or any cursor wrapping one, may change them from row to row.
+     */
+    int chooseColumn(Cursor cursor) {
+      if (columnIndex >= 0) {
+        return columnIndex;
+      }
+      String[] columnNames = cursor.getColumnNames();
+      ChosenColumn last = lastChosenColumn;
+      if (last != null
+          && last.cursor.get() == cursor
+          && Arrays.equals(last.columnNames, columnNames)) {
+        return last.column;
+      }
+      int chosenColumn = findColumnIndex(columnNameMatcher, columnNames);
+      lastChosenColumn = new ChosenColumn(cursor, columnNames.clone(), chosenColumn);
+      return chosenColumn;
+    }
+
+    Matcher<String> getColumnNameMatcher() {
+      return columnNameMatcher;
+    }
+
+    Matcher<?> getValueMatcher() {
+      return valueMatcher;
+    }
+
+    boolean hasStrictColumnChecks() {
+      return checkColumns;
+    }
+
+    /** Returns the value of the given column which the value matcher is applied to. */
+    Object getValue(Cursor cursor, int chosenColumn) {
+      return applier.getValue(cursor, chosenColumn);
+    }
+
+    /** Returns true if the value matcher is applied to values of the same type as the given one. */
+    boolean readsSameType(CursorMatcher other) {
+      return applier == other.applier;
+    }
+  }
+
+  /** The column picked by name among the column names of a cursor, which isn't kept alive by it. */
+  private static final class ChosenColumn {
+    final WeakReference<Cursor> cursor;
+    final String[] columnNames;
+    final int column;
+
+    ChosenColumn(Cursor cursor, String[] columnNames, int column) {
+      this.cursor = new WeakReference<Cursor>(cursor);
+      this.columnNames = columnNames;
+      this.column = column;
+    }
   }
 
-  private static int findColumnIndex(Matcher<String> nameMatcher, Cursor cursor) {
+  private static int findColumnIndex(Matcher<String> nameMatcher, String[] columnNames) {
     int result = COLUMN_NOT_FOUND;
-    String[] columnNames = cursor.getColumnNames();
     for (int i = 0; i < columnNames.length; i++) {
       String column = columnNames[i];
       if (nameMatcher.matches(column)) {
@@ -164,13 +230,20 @@ public final class CursorMatchers {
 
   private interface MatcherApplier extends SelfDescribing {
     public boolean apply(Cursor cursor, int chosenColumn, Matcher<?> matcher);
+
+    public Object getValue(Cursor cursor, int chosenColumn);
   }
 
   private static final MatcherApplier BLOB_MATCHER_APPLIER =
       new MatcherApplier() {
         @Override
         public boolean apply(Cursor cursor, int chosenColumn, Matcher<?> matcher) {
-          return matcher.matches(cursor.getBlob(chosenColumn));
+          return matcher.matches(getValue(cursor, chosenColumn));
+        }
+
+        @Override
+        public Object getValue(Cursor cursor, int chosenColumn) {
+          return cursor.getBlob(chosenColumn);
         }
 
         @Override
@@ -183,7 +256,12 @@ public final class CursorMatchers {
       new MatcherApplier() {
         @Override
         public boolean apply(Cursor cursor, int chosenColumn, Matcher<?> matcher) {
-          return matcher.matches(cursor.getLong(chosenColumn));
+          return matcher.matches(getValue(cursor, chosenColumn));
+        }
+
+        @Override
+        public Object getValue(Cursor cursor, int chosenColumn) {
+          return cursor.getLong(chosenColumn);
         }
 
         @Override
@@ -196,7 +274,12 @@ public final class CursorMatchers {
       new MatcherApplier() {
         @Override
         public boolean apply(Cursor cursor, int chosenColumn, Matcher<?> matcher) {
-          return matcher.matches(cursor.getShort(chosenColumn));
+          return matcher.matches(getValue(cursor, chosenColumn));
+        }
+
+        @Override
+        public Object getValue(Cursor cursor, int chosenColumn) {
+          return cursor.getShort(chosenColumn);
         }
 
         @Override
@@ -209,7 +292,12 @@ public final class CursorMatchers {
       new MatcherApplier() {
         @Override
         public boolean apply(Cursor cursor, int chosenColumn, Matcher<?> matcher) {
-          return matcher.matches(cursor.getInt(chosenColumn));
+          return matcher.matches(getValue(cursor, chosenColumn));
+        }
+
+        @Override
+        public Object getValue(Cursor cursor, int chosenColumn) {
+          return cursor.getInt(chosenColumn);
         }
 
         @Override
@@ -222,7 +310,12 @@ public final class CursorMatchers {
       new MatcherApplier() {
         @Override
         public boolean apply(Cursor cursor, int chosenColumn, Matcher<?> matcher) {
-          return matcher.matches(cursor.getFloat(chosenColumn));
+          return matcher.matches(getValue(cursor, chosenColumn));
+        }
+
+        @Override
+        public Object getValue(Cursor cursor, int chosenColumn) {
+          return cursor.getFloat(chosenColumn);
         }
 
         @Override
@@ -235,7 +328,12 @@ public final class CursorMatchers {
       new MatcherApplier() {
         @Override
         public boolean apply(Cursor cursor, int chosenColumn, Matcher<?> matcher) {
-          return matcher.matches(cursor.getDouble(chosenColumn));
+          return matcher.matches(getValue(cursor, chosenColumn));
+        }
+
+        @Override
+        public Object getValue(Cursor cursor, int chosenColumn) {
+          return cursor.getDouble(chosenColumn);
         }
 
         @Override
@@ -248,7 +346,12 @@ public final class CursorMatchers {
       new MatcherApplier() {
         @Override
         public boolean apply(Cursor cursor, int chosenColumn, Matcher<?> matcher) {
-          return matcher.matches(cursor.getString(chosenColumn));
+          return matcher.matches(getValue(cursor, chosenColumn));
+        }
+
+        @Override
+        public Object getValue(Cursor cursor, int chosenColumn) {
+          return cursor.getString(chosenColumn);
         }
 
         @Override
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.matcher;
+
+import android.database.Cursor;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.test.espresso.matcher.CursorMatchers.CursorMatcher;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.hamcrest.Matcher;
+import org.hamcrest.collection.IsMapContaining;
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsEqual;
+
+/**
+ * Recognizes adapter data matchers which can only match data with a particular value, so that the
+ * positions of candidate data can be looked up in an index of the adapter instead of evaluating the
+ * matcher against every item.
+ *
+ * <p>{@code is(value)} and {@code equalTo(value)} on the data itself, {@code hasEntry(key, value)}
+ * on {@link Map} data and the {@link CursorMatchers} which compare a column to a value are
+ * recognized.
+ *
+ * @hide
+ */
+public final class IndexableDataMatchers {
+  private static final String TAG = IndexableDataMatchers.class.getSimpleName();
+
+  /** Returned by {@link DataKey#keyOf} for data which has no key. */
+  public static final Object NO_KEY = new Object();
+
+  private static final Field IS_MATCHER = getField(Is.class, "matcher");
+  private static final Field IS_EQUAL_EXPECTED_VALUE = getField(IsEqual.class, "expectedValue");
+  private static final Field MAP_CONTAINING_KEY_MATCHER =
+      getField(IsMapContaining.class, "keyMatcher");
+  private static final Field MAP_CONTAINING_VALUE_MATCHER =
+      getField(IsMapContaining.class, "valueMatcher");
+
+  private IndexableDataMatchers() {}
+
+  /**
+   * The property of adapter data an index can be keyed by. Data keys which are equal extract the
+   * same key from the same data.
+   */
+  public abstract static class DataKey {
+
+    /**
+     * Returns the key of the given data, or {@link #NO_KEY}. Cursors are moved to the position of
+     * the data before.
+     */
+    public abstract Object keyOf(Object data);
+  }
+
+  /** A data matcher can only match data whose {@link #getDataKey() key} equals a value. */
+  public static final class KeyLookup {
+    private final DataKey dataKey;
+    private final Object value;
+
+    private KeyLookup(DataKey dataKey, Object value) {
+      this.dataKey = dataKey;
+      this.value = value;
+    }
+
+    public DataKey getDataKey() {
+      return dataKey;
+    }
+
+    @Nullable
+    public Object getValue() {
+      return value;
+    }
+  }
+
+  /**
+   * Returns the key lookup implied by the given data matcher, or {@code null} if the data matcher
+   * can not be answered from an index.
+   */
+  @Nullable
+  public static KeyLookup findKeyLookup(Matcher<?> dataMatcher) {
+    if (dataMatcher instanceof IsMapContaining) {
+      return mapEntryLookup(dataMatcher);
+    }
+    if (dataMatcher instanceof CursorMatcher) {
+      return cursorColumnLookup((CursorMatcher) dataMatcher);
+    }
+    Object[] expectedValue = expectedValue(dataMatcher);
+    return expectedValue == null ? null : new KeyLookup(DataItself.INSTANCE, expectedValue[0]);
+  }
+
+  /**
+   * Returns the rows of the given cursor which a {@link CursorMatcher} matches, or {@code null} for
+   * any other data matcher.
+   *
+   * <p>The cursor is moved over its rows directly and only the matched column is read from each
+   * row, after picking it once for all rows with the same columns. The position of the cursor is
+   * restored afterwards.
+   *
+   * @throws IllegalArgumentException if the matcher can't pick its column in a row.
+   */
+  @Nullable
+  public static List<Integer> scanCursorRows(Matcher<?> dataMatcher, Cursor cursor) {
+    if (!(dataMatcher instanceof CursorMatcher)) {
+      return null;
+    }
+    CursorMatcher cursorMatcher = (CursorMatcher) dataMatcher;
+    List<Integer> rows = new ArrayList<>();
+    int originalPosition = cursor.getPosition();
+    try {
+      for (int row = 0; cursor.moveToPosition(row); row++) {
+        if (cursorMatcher.matchesSafely(cursor)) {
+          rows.add(row);
+        }
+      }
+    } finally {
+      cursor.moveToPosition(originalPosition);
+    }
+    return rows;
+  }
+
+  @Nullable
+  private static KeyLookup mapEntryLookup(Matcher<?> hasEntry) {
+    Matcher<?> keyMatcher = (Matcher<?>) getFieldValue(MAP_CONTAINING_KEY_MATCHER, hasEntry);
+    Matcher<?> valueMatcher = (Matcher<?>) getFieldValue(MAP_CONTAINING_VALUE_MATCHER, hasEntry);
+    if (keyMatcher == null || valueMatcher == null) {
+      return null;
+    }
+    Object[] expectedKey = expectedValue(keyMatcher);
+    Object[] expectedValue = expectedValue(valueMatcher);
+    if (expectedKey == null || expectedValue == null) {
+      return null;
+    }
+    return new KeyLookup(new MapEntry(expectedKey[0]), expectedValue[0]);
+  }
+
+  @Nullable
+  private static KeyLookup cursorColumnLookup(CursorMatcher cursorMatcher) {
+    if (!cursorMatcher.hasStrictColumnChecks()) {
+      // the column may be missing from some rows, which the index wouldn't notice.
+      return null;
+    }
+    Object[] expectedValue = expectedValue(cursorMatcher.getValueMatcher());
+    if (expectedValue == null) {
+      return null;
+    }
+    if (cursorMatcher.getColumnIndex() >= 0) {
+      return new KeyLookup(
+          new CursorColumn(cursorMatcher, cursorMatcher.getColumnIndex(), null), expectedValue[0]);
+    }
+    Object[] columnName = expectedValue(cursorMatcher.getColumnNameMatcher());
+    if (columnName == null || !(columnName[0] instanceof String)) {
+      return null;
+    }
+    return new KeyLookup(
+        new CursorColumn(cursorMatcher, -1, (String) columnName[0]), expectedValue[0]);
+  }
+
+  /**
+   * Returns the value an {@code is(value)} or {@code equalTo(value)} matcher compares to, wrapped
+   * in an array to tell a {@code null} value apart, or {@code null} for any other matcher. Array
+   * values are not returned, as arrays are compared by their elements.
+   */
+  @Nullable
+  static Object[] expectedValue(Matcher<?> matcher) {
+    while (matcher instanceof Is) {
+      matcher = (Matcher<?>) getFieldValue(IS_MATCHER, matcher);
+    }
+    if (!(matcher instanceof IsEqual) || IS_EQUAL_EXPECTED_VALUE == null) {
+      return null;
+    }
+    Object expectedValue = getFieldValue(IS_EQUAL_EXPECTED_VALUE, matcher);
+    if (expectedValue != null && expectedValue.getClass().isArray()) {
+      return null;
+    }
+    return new Object[] {expectedValue};
+  }
+
+  /** Keys data by the data itself. */
+  private static final class DataItself extends DataKey {
+    static final DataItself INSTANCE = new DataItself();
+
+    @Override
+    public Object keyOf(Object data) {
+      return data;
+    }
+  }
+
+  /** Keys {@link Map} data by the value of one of its entries. */
+  private static final class MapEntry extends DataKey {
+    private final Object entryKey;
+
+    MapEntry(Object entryKey) {
+      this.entryKey = entryKey;
+    }
+
+    @Override
+    public Object keyOf(Object data) {
+      if (data instanceof Map && ((Map<?, ?>) data).containsKey(entryKey)) {
+        return ((Map<?, ?>) data).get(entryKey);
+      }
+      return NO_KEY;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof MapEntry && equal(entryKey, ((MapEntry) o).entryKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return entryKey == null ? 0 : entryKey.hashCode();
+    }
+  }
+
+  /** Keys {@link Cursor} rows by the value of one of their columns. */
+  private static final class CursorColumn extends DataKey {
+    private final CursorMatcher valueReader;
+    private final int columnIndex;
+    private final String columnName;
+
+    CursorColumn(CursorMatcher valueReader, int columnIndex, @Nullable String columnName) {
+      this.valueReader = valueReader;
+      this.columnIndex = columnIndex;
+      this.columnName = columnName;
+    }
+
+    @Override
+    public Object keyOf(Object data) {
+      if (!(data instanceof Cursor)) {
+        return NO_KEY;
+      }
+      Cursor cursor = (Cursor) data;
+      int chosenColumn = valueReader.chooseColumn(cursor);
+      if (chosenColumn < 0 || chosenColumn >= cursor.getColumnCount()) {
+        return NO_KEY;
+      }
+      return valueReader.getValue(cursor, chosenColumn);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof CursorColumn)) {
+        return false;
+      }
+      CursorColumn other = (CursorColumn) o;
+      return columnIndex == other.columnIndex
+          && equal(columnName, other.columnName)
+          && valueReader.readsSameType(other.valueReader);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * columnIndex + (columnName == null ? 0 : columnName.hashCode());
+    }
+  }
+
+  private static boolean equal(@Nullable Object a, @Nullable Object b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  @Nullable
+  private static Object getFieldValue(@Nullable Field field, Object object) {
+    if (field == null) {
+      return null;
+    }
+    try {
+      return field.get(object);
+    } catch (IllegalAccessException | RuntimeException e) {
+      Log.w(TAG, "Could not access " + field.getName() + " of " + object.getClass().getName(), e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Field getField(Class<?> clazz, String name) {
+    try {
+      Field field = clazz.getDeclaredField(name);
+      field.setAccessible(true);
+      return field;
+    } catch (NoSuchFieldException | RuntimeException e) {
+      Log.w(TAG, "No reflective access to " + clazz.getName() + "." + name, e);
+      return null;
+    }
+  }
+}
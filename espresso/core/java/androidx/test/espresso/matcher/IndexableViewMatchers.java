@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.matcher;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.test.espresso.matcher.ViewMatchers.WithContentDescriptionTextMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithIdMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithTagValueMatcher;
+import com.google.common.collect.ImmutableList;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import org.hamcrest.Matcher;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.AnyOf;
+
+/**
+ * Recognizes view matchers which can only match views with a particular id, tag or content
+ * description, so that candidate views can be looked up in an index of the view hierarchy instead
+ * of evaluating the matcher against every view.
+ *
+ * <p>Only the built in {@link ViewMatchers#withId}, {@link ViewMatchers#withTagValue} and {@link
+ * ViewMatchers#withContentDescription(String)} matchers are recognized, either on their own or as
+ * one of the matchers of an {@code allOf}.
+ *
+ * @hide
+ */
+public final class IndexableViewMatchers {
+  private static final String TAG = IndexableViewMatchers.class.getSimpleName();
+
+  private static final Field ALL_OF_MATCHERS = getMatchersField(AllOf.class);
+  private static final Field ANY_OF_MATCHERS = getMatchersField(AnyOf.class);
+
+  private IndexableViewMatchers() {}
+
+  /** The property of a view an index can be keyed by. */
+  public enum Key {
+    /** {@link android.view.View#getId()} */
+    ID,
+    /** {@link android.view.View#getTag()} */
+    TAG,
+    /** {@link android.view.View#getContentDescription()} as a {@link String}. */
+    CONTENT_DESCRIPTION
+  }
+
+  /**
+   * A requirement on a single indexed property: a view can only match if the {@link
+   * #getValueMatcher() value matcher} matches the view's {@link #getKey() key} property.
+   */
+  public static final class KeyMatcher {
+    private final Key key;
+    private final Matcher<?> valueMatcher;
+    @Nullable private final Object[] expectedValue;
+
+    private KeyMatcher(Key key, Matcher<?> valueMatcher) {
+      this.key = key;
+      this.valueMatcher = valueMatcher;
+      this.expectedValue = IndexableDataMatchers.expectedValue(valueMatcher);
+    }
+
+    public Key getKey() {
+      return key;
+    }
+
+    public Matcher<?> getValueMatcher() {
+      return valueMatcher;
+    }
+
+    /**
+     * Returns true if the value matcher is an {@code is(value)} or {@code equalTo(value)} matcher,
+     * so that views can be looked up by {@link #getExpectedValue()} directly.
+     */
+    public boolean hasExpectedValue() {
+      return expectedValue != null;
+    }
+
+    /** Returns the value the value matcher compares to, if {@link #hasExpectedValue()}. */
+    @Nullable
+    public Object getExpectedValue() {
+      checkState(expectedValue != null, "Not an equality matcher: %s", valueMatcher);
+      return expectedValue[0];
+    }
+  }
+
+  /**
+   * Returns all key requirements implied by the given view matcher, or an empty list if the view
+   * matcher can not be answered from an index.
+   */
+  public static List<KeyMatcher> findKeyMatchers(Matcher<?> viewMatcher) {
+    List<KeyMatcher> keyMatchers = new ArrayList<>();
+    collectKeyMatchers(viewMatcher, keyMatchers);
+    return keyMatchers;
+  }
+
+  private static void collectKeyMatchers(Matcher<?> viewMatcher, List<KeyMatcher> keyMatchers) {
+    if (viewMatcher instanceof WithIdMatcher) {
+      keyMatchers.add(new KeyMatcher(Key.ID, ((WithIdMatcher) viewMatcher).viewIdMatcher));
+    } else if (viewMatcher instanceof WithTagValueMatcher) {
+      keyMatchers.add(
+          new KeyMatcher(Key.TAG, ((WithTagValueMatcher) viewMatcher).getTagValueMatcher()));
+    } else if (viewMatcher instanceof WithContentDescriptionTextMatcher) {
+      keyMatchers.add(
+          new KeyMatcher(
+              Key.CONTENT_DESCRIPTION,
+              ((WithContentDescriptionTextMatcher) viewMatcher).getTextMatcher()));
+    } else if (viewMatcher instanceof AllOf) {
+      // every matcher of an allOf has to match, so each of them narrows down the candidates.
+      List<Matcher<?>> matchers = allOfMatchers(viewMatcher);
+      if (matchers != null) {
+        for (Matcher<?> matcher : matchers) {
+          collectKeyMatchers(matcher, keyMatchers);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the matchers combined by an {@code allOf} matcher, or {@code null} if they are not
+   * accessible.
+   */
+  @Nullable
+  static List<Matcher<?>> allOfMatchers(Matcher<?> allOf) {
+    return getMatchers(ALL_OF_MATCHERS, allOf);
+  }
+
+  /**
+   * Returns the matchers combined by an {@code anyOf} matcher, or {@code null} if they are not
+   * accessible.
+   */
+  @Nullable
+  static List<Matcher<?>> anyOfMatchers(Matcher<?> anyOf) {
+    return getMatchers(ANY_OF_MATCHERS, anyOf);
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private static List<Matcher<?>> getMatchers(@Nullable Field matchersField, Matcher<?> matcher) {
+    if (matchersField == null) {
+      return null;
+    }
+    try {
+      return ImmutableList.copyOf((Iterable<Matcher<?>>) matchersField.get(matcher));
+    } catch (IllegalAccessException | RuntimeException e) {
+      Log.w(TAG, "Could not access the matchers of " + matcher.getClass().getName(), e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Field getMatchersField(Class<?> clazz) {
+    try {
+      Field field = clazz.getDeclaredField("matchers");
+      field.setAccessible(true);
+      return field;
+    } catch (NoSuchFieldException | RuntimeException e) {
+      Log.w(TAG, "No reflective access to " + clazz.getName() + ".matchers", e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.matcher;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.hamcrest.Matchers.is;
+
+import androidx.test.espresso.util.ViewSnapshot;
+import java.util.Locale;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+
+/**
+ * Matchers for {@link ViewSnapshot ViewSnapshots}. Unlike {@link ViewMatchers}, these may be
+ * evaluated on any thread.
+ */
+public final class SnapshotMatchers {
+
+  private SnapshotMatchers() {}
+
+  /** Returns a matcher that matches snapshots of views with the given id. */
+  public static Matcher<ViewSnapshot> withId(final int id) {
+    return new TypeSafeMatcher<ViewSnapshot>() {
+      @Override
+      public void describeTo(Description description) {
+        description.appendText("snapshot with id: " + id);
+      }
+
+      @Override
+      protected boolean matchesSafely(ViewSnapshot snapshot) {
+        return snapshot.getId() == id;
+      }
+    };
+  }
+
+  /** Returns a matcher that matches snapshots of {@code TextView}s with the given text. */
+  public static Matcher<ViewSnapshot> withText(String text) {
+    return withText(is(checkNotNull(text)));
+  }
+
+  /** Returns a matcher that matches snapshots of {@code TextView}s whose text matches. */
+  public static Matcher<ViewSnapshot> withText(final Matcher<String> textMatcher) {
+    checkNotNull(textMatcher);
+    return new TypeSafeMatcher<ViewSnapshot>() {
+      @Override
+      public void describeTo(Description description) {
+        description.appendText("snapshot with text: ");
+        textMatcher.describeTo(description);
+      }
+
+      @Override
+      protected boolean matchesSafely(ViewSnapshot snapshot) {
+        return snapshot.getText() != null && textMatcher.matches(snapshot.getText());
+      }
+    };
+  }
+
+  /** Returns a matcher that matches snapshots of views whose content description matches. */
+  public static Matcher<ViewSnapshot> withContentDescription(
+      final Matcher<String> contentDescriptionMatcher) {
+    checkNotNull(contentDescriptionMatcher);
+    return new TypeSafeMatcher<ViewSnapshot>() {
+      @Override
+      public void describeTo(Description description) {
+        description.appendText("snapshot with content description: ");
+        contentDescriptionMatcher.describeTo(description);
+      }
+
+      @Override
+      protected boolean matchesSafely(ViewSnapshot snapshot) {
+        return snapshot.getContentDescription() != null
+            && contentDescriptionMatcher.matches(snapshot.getContentDescription());
+      }
+    };
+  }
+
+  /** Returns a matcher that matches snapshots of views of the given class or a subclass. */
+  public static Matcher<ViewSnapshot> isAssignableFrom(final Class<?> viewClass) {
+    checkNotNull(viewClass);
+    return new TypeSafeMatcher<ViewSnapshot>() {
+      @Override
+      public void describeTo(Description description) {
+        description.appendText("snapshot of a view assignable to " + viewClass.getName());
+      }
+
+      @Override
+      protected boolean matchesSafely(ViewSnapshot snapshot) {
+        try {
+          return viewClass.isAssignableFrom(
+              Class.forName(snapshot.getClassName(), false, viewClass.getClassLoader()));
+        } catch (ClassNotFoundException e) {
+          return false;
+        }
+      }
+    };
+  }
+
+  /** Returns a matcher that matches snapshots of enabled views. */
+  public static Matcher<ViewSnapshot> isEnabled() {
+    return new TypeSafeMatcher<ViewSnapshot>() {
+      @Override
+      public void describeTo(Description description) {
+        description.appendText("snapshot of an enabled view");
+      }
+
+      @Override
+      protected boolean matchesSafely(ViewSnapshot snapshot) {
+        return snapshot.isEnabled();
+      }
+    };
+  }
+
+  /** Returns a matcher that matches snapshots of views which were shown and partly visible. */
+  public static Matcher<ViewSnapshot> isDisplayed() {
+    return new TypeSafeMatcher<ViewSnapshot>() {
+      @Override
+      public void describeTo(Description description) {
+        description.appendText("snapshot of a displayed view");
+      }
+
+      @Override
+      protected boolean matchesSafely(ViewSnapshot snapshot) {
+        return snapshot.isShown() && snapshot.getGlobalVisibleRect() != null;
+      }
+    };
+  }
+
+  /**
+   * Returns a matcher that matches snapshots of views of which at least the given percentage of
+   * the area was visible. See {@link ViewSnapshot#isDisplayingAtLeast(int)}.
+   */
+  public static Matcher<ViewSnapshot> isDisplayingAtLeast(final int areaPercentage) {
+    checkState(areaPercentage <= 100, "Cannot have over 100 percent: %s", areaPercentage);
+    checkState(areaPercentage > 0, "Must have a positive, non-zero value: %s", areaPercentage);
+    return new TypeSafeMatcher<ViewSnapshot>() {
+      @Override
+      public void describeTo(Description description) {
+        description.appendText(
+            String.format(
+                Locale.ROOT,
+                "snapshot of a view with at least %s percent of its area displayed",
+                areaPercentage));
+      }
+
+      @Override
+      protected boolean matchesSafely(ViewSnapshot snapshot) {
+        return snapshot.isDisplayingAtLeast(areaPercentage);
+      }
+    };
+  }
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.matcher;
+
+import android.view.View;
+import android.view.ViewParent;
+import androidx.test.espresso.matcher.ViewMatchers.HasContentDescriptionMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.HasDescendantMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.HasFocusMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.HasSiblingMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.IsAssignableFromMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.IsClickableMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.IsDescendantOfAMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.IsDisplayedMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.IsDisplayingAtLeastMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.IsEnabledMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.IsFocusableMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.IsFocusedMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.IsRootMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.IsSelectedMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithCharSequenceMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithChildMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithClassNameMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithContentDescriptionFromIdMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithContentDescriptionMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithContentDescriptionTextMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithEffectiveVisibilityMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithIdMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithParentMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithResourceNameMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithTagKeyMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithTagValueMatcher;
+import androidx.test.espresso.matcher.ViewMatchers.WithTextMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.AnyOf;
+
+/**
+ * Plans the evaluation of a composite view matcher before it is run against every view of a
+ * hierarchy.
+ *
+ * <p>The built in matchers of {@link ViewMatchers} carry a cost and selectivity hint. Within an
+ * {@code allOf} they are evaluated cheapest and most selective first, within an {@code anyOf}
+ * cheapest and most likely to match first, so that for example {@code withId} rejects a view before
+ * {@code isDisplayed} computes its visible rect. Matchers without a hint (e.g. user defined ones)
+ * are never moved and no matcher is moved across them, since they may depend on the matchers
+ * declared before them to guard against unexpected views.
+ *
+ * <p>{@link ViewMatchers#isDescendantOfA} and {@link ViewMatchers#withParent} remember their result
+ * per ancestor, so siblings share the walk up the tree. A plan therefore must only be used for a
+ * single traversal of a hierarchy which does not change in between.
+ *
+ * <p>The planned matcher matches exactly the same views as the original one, and describes itself
+ * and its mismatches through the original matcher. {@link ViewMatchers#withId} looks up the
+ * resource names in its description through the views it matched, so the plan matches ids without
+ * it, leaving its description to the views the original matcher is run against.
+ *
+ * @hide
+ */
+public final class ViewMatcherPlanner {
+
+  private static final Cost UNKNOWN = new Cost(5, 0.5, false);
+
+  private static final Map<Class<?>, Cost> HINTS = new HashMap<>();
+
+  static {
+    // cost is relative, selectivity is the estimated fraction of views matched.
+    hint(WithIdMatcher.class, 1, 0.01);
+    hint(WithTagKeyMatcher.class, 1, 0.05);
+    hint(WithTagValueMatcher.class, 1, 0.05);
+    hint(IsRootMatcher.class, 1, 0.01);
+    hint(IsEnabledMatcher.class, 1, 0.9);
+    hint(IsFocusableMatcher.class, 1, 0.3);
+    hint(IsFocusedMatcher.class, 1, 0.05);
+    hint(HasFocusMatcher.class, 1, 0.1);
+    hint(IsSelectedMatcher.class, 1, 0.1);
+    hint(IsClickableMatcher.class, 1, 0.3);
+    hint(IsAssignableFromMatcher.class, 1, 0.2);
+    hint(WithClassNameMatcher.class, 2, 0.2);
+    hint(HasContentDescriptionMatcher.class, 1, 0.2);
+    hint(WithContentDescriptionTextMatcher.class, 2, 0.05);
+    hint(WithContentDescriptionMatcher.class, 2, 0.05);
+    hint(WithContentDescriptionFromIdMatcher.class, 3, 0.05);
+    hint(WithResourceNameMatcher.class, 3, 0.01);
+    hint(WithTextMatcher.class, 3, 0.05);
+    hint(WithCharSequenceMatcher.class, 4, 0.05);
+    hint(WithEffectiveVisibilityMatcher.class, 4, 0.7);
+    hint(HasSiblingMatcher.class, 10, 0.2);
+    hint(WithChildMatcher.class, 10, 0.2);
+    hint(IsDisplayedMatcher.class, 20, 0.6);
+    hint(IsDisplayingAtLeastMatcher.class, 25, 0.5);
+    hint(HasDescendantMatcher.class, 50, 0.2);
+  }
+
+  private ViewMatcherPlanner() {}
+
+  private static void hint(Class<?> matcherClass, double cost, double selectivity) {
+    HINTS.put(matcherClass, new Cost(cost, selectivity, true));
+  }
+
+  /**
+   * Returns a matcher which matches the same views as the given one but evaluates its parts in a
+   * cheaper order, or the given matcher itself if there is nothing to plan.
+   */
+  public static Matcher<View> plan(Matcher<View> viewMatcher) {
+    Node root = planNode(viewMatcher);
+    if (root instanceof Leaf) {
+      return viewMatcher;
+    }
+    return new PlannedMatcher(viewMatcher, root);
+  }
+
+  private static Node planNode(Matcher<?> matcher) {
+    if (matcher instanceof AllOf) {
+      List<Matcher<?>> matchers = IndexableViewMatchers.allOfMatchers(matcher);
+      if (matchers != null) {
+        return new AllOfNode(planChildren(matchers, ALL_OF_ORDER));
+      }
+    } else if (matcher instanceof AnyOf) {
+      List<Matcher<?>> matchers = IndexableViewMatchers.anyOfMatchers(matcher);
+      if (matchers != null) {
+        return new AnyOfNode(planChildren(matchers, ANY_OF_ORDER));
+      }
+    } else if (matcher instanceof IsDescendantOfAMatcher) {
+      return new DescendantOfNode(
+          planNode(((IsDescendantOfAMatcher) matcher).getAncestorMatcher()));
+    } else if (matcher instanceof WithParentMatcher) {
+      return new ParentNode(planNode(((WithParentMatcher) matcher).getParentMatcher()));
+    }
+    Cost cost = HINTS.get(matcher.getClass());
+    if (matcher instanceof WithIdMatcher) {
+      return new IdLeaf((WithIdMatcher) matcher, cost);
+    }
+    return new Leaf(matcher, cost != null ? cost : UNKNOWN);
+  }
+
+  /**
+   * Plans each child and sorts the runs of children with known costs, leaving children of unknown
+   * cost in place.
+   */
+  private static List<Node> planChildren(List<Matcher<?>> matchers, Comparator<Node> order) {
+    List<Node> children = new ArrayList<>(matchers.size());
+    for (Matcher<?> matcher : matchers) {
+      children.add(planNode(matcher));
+    }
+    int runStart = 0;
+    for (int i = 0; i <= children.size(); i++) {
+      if (i == children.size() || !children.get(i).cost.known) {
+        // Collections.sort is stable, so equally ranked children keep their declaration order.
+        Collections.sort(children.subList(runStart, i), order);
+        runStart = i + 1;
+      }
+    }
+    return children;
+  }
+
+  private static final Comparator<Node> ALL_OF_ORDER =
+      new Comparator<Node>() {
+        @Override
+        public int compare(Node a, Node b) {
+          // reject as many views as possible per unit of cost.
+          return Double.compare(
+              a.cost.cost / Math.max(1 - a.cost.selectivity, 0.001),
+              b.cost.cost / Math.max(1 - b.cost.selectivity, 0.001));
+        }
+      };
+
+  private static final Comparator<Node> ANY_OF_ORDER =
+      new Comparator<Node>() {
+        @Override
+        public int compare(Node a, Node b) {
+          // accept as many views as possible per unit of cost.
+          return Double.compare(
+              a.cost.cost / Math.max(a.cost.selectivity, 0.001),
+              b.cost.cost / Math.max(b.cost.selectivity, 0.001));
+        }
+      };
+
+  private static final class Cost {
+    final double cost;
+    final double selectivity;
+    final boolean known;
+
+    Cost(double cost, double selectivity, boolean known) {
+      this.cost = cost;
+      this.selectivity = selectivity;
+      this.known = known;
+    }
+  }
+
+  private abstract static class Node {
+    final Cost cost;
+
+    Node(Cost cost) {
+      this.cost = cost;
+    }
+
+    abstract boolean matches(Object item);
+  }
+
+  private static class Leaf extends Node {
+    private final Matcher<?> matcher;
+
+    Leaf(Matcher<?> matcher, Cost cost) {
+      super(cost);
+      this.matcher = matcher;
+    }
+
+    @Override
+    boolean matches(Object item) {
+      return matcher.matches(item);
+    }
+  }
+
+  /** {@link ViewMatchers#withId} without remembering the resources of the matched views. */
+  private static final class IdLeaf extends Leaf {
+    private final Matcher<Integer> viewIdMatcher;
+
+    IdLeaf(WithIdMatcher matcher, Cost cost) {
+      super(matcher, cost);
+      this.viewIdMatcher = matcher.viewIdMatcher;
+    }
+
+    @Override
+    boolean matches(Object item) {
+      return item instanceof View && viewIdMatcher.matches(((View) item).getId());
+    }
+  }
+
+  private static final class AllOfNode extends Node {
+    private final List<Node> children;
+
+    AllOfNode(List<Node> children) {
+      super(allOfCost(children));
+      this.children = children;
+    }
+
+    @Override
+    boolean matches(Object item) {
+      for (int i = 0, size = children.size(); i < size; i++) {
+        if (!children.get(i).matches(item)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static Cost allOfCost(List<Node> children) {
+      double cost = 0;
+      double selectivity = 1;
+      boolean known = true;
+      for (Node child : children) {
+        cost += selectivity * child.cost.cost;
+        selectivity *= child.cost.selectivity;
+        known &= child.cost.known;
+      }
+      return new Cost(cost, selectivity, known);
+    }
+  }
+
+  private static final class AnyOfNode extends Node {
+    private final List<Node> children;
+
+    AnyOfNode(List<Node> children) {
+      super(anyOfCost(children));
+      this.children = children;
+    }
+
+    @Override
+    boolean matches(Object item) {
+      for (int i = 0, size = children.size(); i < size; i++) {
+        if (children.get(i).matches(item)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static Cost anyOfCost(List<Node> children) {
+      double cost = 0;
+      double misses = 1;
+      boolean known = true;
+      for (Node child : children) {
+        cost += misses * child.cost.cost;
+        misses *= 1 - child.cost.selectivity;
+        known &= child.cost.known;
+      }
+      return new Cost(cost, 1 - misses, known);
+    }
+  }
+
+  /** {@link ViewMatchers#isDescendantOfA} with its result remembered per ancestor. */
+  private static final class DescendantOfNode extends Node {
+    private final Node ancestorMatcher;
+    private final Map<ViewParent, Boolean> hasMatchingAncestor = new IdentityHashMap<>();
+    private final List<ViewParent> path = new ArrayList<>();
+
+    DescendantOfNode(Node ancestorMatcher) {
+      super(new Cost(3 + ancestorMatcher.cost.cost, 0.3, ancestorMatcher.cost.known));
+      this.ancestorMatcher = ancestorMatcher;
+    }
+
+    @Override
+    boolean matches(Object item) {
+      if (!(item instanceof View)) {
+        return false;
+      }
+      // walks up like IsDescendantOfAMatcher, stopping at the first ancestor with a known result.
+      boolean result = false;
+      ViewParent parent = ((View) item).getParent();
+      while (parent instanceof View) {
+        Boolean known = hasMatchingAncestor.get(parent);
+        if (known != null) {
+          result = known;
+          break;
+        }
+        path.add(parent);
+        if (ancestorMatcher.matches(parent)) {
+          result = true;
+          break;
+        }
+        parent = parent.getParent();
+      }
+      for (int i = 0, size = path.size(); i < size; i++) {
+        hasMatchingAncestor.put(path.get(i), result);
+      }
+      path.clear();
+      return result;
+    }
+  }
+
+  /** {@link ViewMatchers#withParent} with its result remembered per parent. */
+  private static final class ParentNode extends Node {
+    private final Node parentMatcher;
+    private final Map<ViewParent, Boolean> parentMatches = new IdentityHashMap<>();
+
+    ParentNode(Node parentMatcher) {
+      super(new Cost(1 + parentMatcher.cost.cost, 0.2, parentMatcher.cost.known));
+      this.parentMatcher = parentMatcher;
+    }
+
+    @Override
+    boolean matches(Object item) {
+      if (!(item instanceof View)) {
+        return false;
+      }
+      ViewParent parent = ((View) item).getParent();
+      if (parent == null) {
+        return parentMatcher.matches(null);
+      }
+      Boolean result = parentMatches.get(parent);
+      if (result == null) {
+        result = parentMatcher.matches(parent);
+        parentMatches.put(parent, result);
+      }
+      return result;
+    }
+  }
+
+  private static final class PlannedMatcher extends BaseMatcher<View> {
+    private final Matcher<View> original;
+    private final Node plan;
+
+    PlannedMatcher(Matcher<View> original, Node plan) {
+      this.original = original;
+      this.plan = plan;
+    }
+
+    @Override
+    public boolean matches(Object item) {
+      return plan.matches(item);
+    }
+
+    @Override
+    public void describeTo(Description description) {
+      original.describeTo(description);
+    }
+
+    @Override
+    public void describeMismatch(Object item, Description description) {
+      original.describeMismatch(item, description);
+    }
+  }
+}
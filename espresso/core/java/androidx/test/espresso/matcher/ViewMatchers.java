@@ -1115,6 +1115,10 @@ public final class ViewMatchers {
       this.textMatcher = textMatcher;
     }
 
+    Matcher<String> getTextMatcher() {
+      return textMatcher;
+    }
+
     @Override
     public void describeTo(Description description) {
       description.appendText("with content description text: ");
@@ -1139,6 +1143,10 @@ public final class ViewMatchers {
       this.tagValueMatcher = tagValueMatcher;
     }
 
+    Matcher<Object> getTagValueMatcher() {
+      return tagValueMatcher;
+    }
+
     @Override
     public void describeTo(Description description) {
       description.appendText("with tag value: ");
@@ -1340,6 +1348,10 @@ public final class ViewMatchers {
       this.ancestorMatcher = ancestorMatcher;
     }
 
+    Matcher<View> getAncestorMatcher() {
+      return ancestorMatcher;
+    }
+
     @Override
     public void describeTo(Description description) {
       description.appendText("is descendant of a: ");
@@ -1487,6 +1499,10 @@ public final class ViewMatchers {
       this.parentMatcher = parentMatcher;
     }
 
+    Matcher<View> getParentMatcher() {
+      return parentMatcher;
+    }
+
     @Override
     public void describeTo(Description description) {
       description.appendText("has parent matching: ");
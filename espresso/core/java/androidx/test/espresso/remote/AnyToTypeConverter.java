@@ -47,10 +47,11 @@ final class AnyToTypeConverter<T> implements Converter<Any, T> {
     checkNotNull(any, "any cannot be null!");
     T targetType;
     try {
-      Class<?> targetClass = createRemoteTargetClassFromAny(any);
-      Field fromField = accessFromField(targetClass);
+      RemoteDescriptor remoteDescriptor =
+          remoteDescriptorRegistry.argForRemoteTypeUrl(any.getTypeUrl());
+      Field fromField = accessFromField(remoteDescriptor);
       From<T, MessageLite> remoteMessageFromField = createRemoteMessageFromField(fromField);
-      targetType = createTargetTypeFromRemoteMessage(remoteMessageFromField, any);
+      targetType = createTargetTypeFromRemoteMessage(remoteMessageFromField, any, remoteDescriptor);
     } catch (IllegalAccessException iae) {
       throw new RemoteProtocolException("Cannot unwrap target type instance from any proto: ", iae);
     } catch (RuntimeException re) {
@@ -65,8 +66,10 @@ final class AnyToTypeConverter<T> implements Converter<Any, T> {
   }
 
   private T createTargetTypeFromRemoteMessage(
-      From<T, MessageLite> remoteMessageFromField, Any anyMessage) {
-    MessageLite remoteMessage = anyToProto(anyMessage);
+      From<T, MessageLite> remoteMessageFromField,
+      Any anyMessage,
+      RemoteDescriptor remoteDescriptor) {
+    MessageLite remoteMessage = anyToProto(anyMessage, remoteDescriptor);
     // Create an instance of our remote view Matcher from the remoteMatcherMessage
     return remoteMessageFromField.fromProto(remoteMessage);
   }
@@ -83,10 +86,11 @@ final class AnyToTypeConverter<T> implements Converter<Any, T> {
     }
   }
 
-  private Field accessFromField(Class<?> remoteClass) throws IllegalAccessException {
+  private Field accessFromField(RemoteDescriptor remoteDescriptor) throws IllegalAccessException {
+    Class<?> remoteClass = remoteDescriptor.getRemoteType();
     Field fromField;
     try {
-      fromField = remoteClass.getDeclaredField("FROM");
+      fromField = remoteDescriptor.getRemoteFromField();
     } catch (NoSuchFieldException nsfe) {
       throw new RemoteProtocolException(
           "Cannot unwrap target type from any proto: "
@@ -97,8 +101,6 @@ final class AnyToTypeConverter<T> implements Converter<Any, T> {
               + "fromViewMatcherField exists!",
           nsfe);
     }
-    fromField.setAccessible(true);
-
     if (null == fromField /* should never happen */ || !fromField.isAccessible()) {
       throw new IllegalAccessException(
           "Failed to make EspressoRemoteMessage.From FROM field accessible");
@@ -106,10 +108,6 @@ final class AnyToTypeConverter<T> implements Converter<Any, T> {
     return fromField;
   }
 
-  private Class<?> createRemoteTargetClassFromAny(Any any) {
-    return remoteDescriptorRegistry.argForRemoteTypeUrl(any.getTypeUrl()).getRemoteType();
-  }
-
   private <T extends MessageLite> T anyToProto(Any any, Class<T> expectedType, Parser<?> parser)
       throws InvalidProtocolBufferException {
     checkNotNull(expectedType, "expectedType cannot be null!");
@@ -129,10 +127,7 @@ final class AnyToTypeConverter<T> implements Converter<Any, T> {
   }
 
   @SuppressWarnings("TypeParameterUnusedInFormals") // addressed in anyToProto(Any, Class,// Parser)
-  private <T extends MessageLite> T anyToProto(Any any) {
-    RemoteDescriptor remoteDescriptor =
-        remoteDescriptorRegistry.argForRemoteTypeUrl(any.getTypeUrl());
-
+  private <T extends MessageLite> T anyToProto(Any any, RemoteDescriptor remoteDescriptor) {
     try {
       @SuppressWarnings("unchecked") // safe covariant cast
       Class<T> messageType = (Class<T>) remoteDescriptor.getProtoType();
@@ -31,6 +31,7 @@ import android.os.Looper;
 import android.os.Message;
 import android.os.Messenger;
 import android.os.RemoteException;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
@@ -58,16 +59,15 @@ import androidx.test.internal.runner.tracker.UsageTrackerRegistry;
 import androidx.test.internal.runner.tracker.UsageTrackerRegistry.AxtVersions;
 import androidx.test.internal.util.ParcelableIBinder;
 import com.google.common.base.Throwables;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import org.hamcrest.Matcher;
 
@@ -102,7 +102,6 @@ public final class EspressoRemote implements RemoteInteraction {
   @VisibleForTesting static InstrumentationConnection instrumentationConnection;
 
   private static final int MSG_TERMINATE = 1;
-  private static final int MSG_FORWARD_TO_REMOTE_ESPRESSO = 2;
   @VisibleForTesting static final int MSG_HANDLE_ESPRESSO_REQUEST = 3;
   @VisibleForTesting static final int MSG_HANDLE_ESPRESSO_RESPONSE = 4;
   @VisibleForTesting static final int MSG_HANDLE_EMPTY_REQUEST = 5;
@@ -110,6 +109,25 @@ public final class EspressoRemote implements RemoteInteraction {
   /** Represents whether the current instance is running in a remote process or not */
   private static volatile boolean isRemoteProcess;
 
+  /**
+   * How long a remote interaction waits for a remote Espresso instance to register, matching the
+   * sum of the back-off intervals which were used to poll for one.
+   */
+  private static final long REMOTE_INSTANCE_WAIT_MILLIS = 32660;
+
+  /** Whether remote instances were registered at {@link #cachedClientsVersion}. */
+  private volatile boolean cachedHasRemoteInstances;
+
+  private volatile long cachedClientsVersion = -1;
+
+  /**
+   * Responses to requests which are still in flight, keyed by request id. Requests from different
+   * threads are independent of each other: the sending thread adds its queue and waits on it while
+   * the {@link IncomingHandler} dispatches each response to the queue of its request.
+   */
+  private final ConcurrentHashMap<UUID, BlockingQueue<Bundle>> pendingResponses =
+      new ConcurrentHashMap<>();
+
   /** {@link IncomingHandler} that will handler incoming messages */
   @VisibleForTesting IncomingHandler incomingHandler;
 
@@ -156,6 +174,14 @@ public final class EspressoRemote implements RemoteInteraction {
       HandlerThread handlerThread = new HandlerThread("EspressoRemoteThread");
       handlerThread.start();
       incomingHandler = new IncomingHandler(handlerThread.getLooper());
+      // resolve the serialization handles of all registered types before the first message
+      incomingHandler.post(
+          new Runnable() {
+            @Override
+            public void run() {
+              TypeProtoConverters.warmUp(RemoteDescriptorRegistry.getInstance());
+            }
+          });
       instrumentationConnection.registerClient(TYPE, incomingHandler.messengerHandler);
     }
   }
@@ -175,12 +201,49 @@ public final class EspressoRemote implements RemoteInteraction {
   }
 
   @Override
-  public synchronized boolean isRemoteProcess() {
+  public boolean isRemoteProcess() {
     return isRemoteProcess;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The answer is cached until {@link InstrumentationConnection} reports a change of its
+   * registered clients, so this neither locks nor waits for the connection's handler thread.
+   */
+  @Override
+  public boolean hasRemoteInstances() {
+    long clientsVersion = instrumentationConnection.getClientsVersion();
+    if (clientsVersion != cachedClientsVersion) {
+      // This instance should be ignored from the check
+      cachedHasRemoteInstances = instrumentationConnection.getClientCountForType(TYPE) > 1;
+      cachedClientsVersion = clientsVersion;
+    }
+    return cachedHasRemoteInstances;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Waits as long as the remote callables wait for a remote instance.
+   */
   @Override
-  public synchronized Callable<Void> createRemoteCheckCallable(
+  public void awaitRemoteInstances() throws InterruptedException {
+    long deadline = SystemClock.uptimeMillis() + REMOTE_INSTANCE_WAIT_MILLIS;
+    long clientsVersion = instrumentationConnection.getClientsVersion();
+    while (!hasRemoteInstances()) {
+      long remainingMillis = deadline - SystemClock.uptimeMillis();
+      if (remainingMillis <= 0) {
+        return;
+      }
+      clientsVersion =
+          instrumentationConnection.awaitClientsChange(
+              clientsVersion, remainingMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public Callable<Void> createRemoteCheckCallable(
       final Matcher<Root> rootMatcher,
       final Matcher<View> viewMatcher,
       final Map<String, IBinder> iBinders,
@@ -211,7 +274,7 @@ public final class EspressoRemote implements RemoteInteraction {
   }
 
   @Override
-  public synchronized Callable<Void> createRemotePerformCallable(
+  public Callable<Void> createRemotePerformCallable(
       final Matcher<Root> rootMatcher,
       final Matcher<View> viewMatcher,
       final Map<String, IBinder> iBinders,
@@ -247,20 +310,24 @@ public final class EspressoRemote implements RemoteInteraction {
     return new Callable<Void>() {
       @Override
       public Void call() throws InterruptedException {
-        long[] waitTimes = {
-          10, 50, 100, 500, TimeUnit.SECONDS.toMillis(2), TimeUnit.SECONDS.toMillis(30)
-        };
-
-        for (long waitTime : waitTimes) {
-          Log.i(TAG, "No remote Espresso instance - waiting: " + waitTime + "ms for one to start");
-          Thread.sleep(waitTime);
-
-          if (hasRemoteEspressoInstances()) {
-            runnable.run();
-            return null;
+        long deadline = SystemClock.uptimeMillis() + REMOTE_INSTANCE_WAIT_MILLIS;
+        long clientsVersion = instrumentationConnection.getClientsVersion();
+        while (!hasRemoteInstances()) {
+          long remainingMillis = deadline - SystemClock.uptimeMillis();
+          if (remainingMillis <= 0) {
+            throw new NoRemoteEspressoInstanceException(
+                "No remote Espresso instances at this time.");
           }
+          Log.i(
+              TAG,
+              "No remote Espresso instance - waiting up to: " + remainingMillis + "ms for one");
+          // woken up as soon as the registered clients change, there is no need to poll.
+          clientsVersion =
+              instrumentationConnection.awaitClientsChange(
+                  clientsVersion, remainingMillis, TimeUnit.MILLISECONDS);
         }
-        throw new NoRemoteEspressoInstanceException("No remote Espresso instances at this time.");
+        runnable.run();
+        return null;
       }
     };
   }
@@ -276,9 +343,7 @@ public final class EspressoRemote implements RemoteInteraction {
   void initiateRemoteCall(byte[] data, Map<String, IBinder> iBinders) {
     logDebugWithProcess(TAG, "initiateRemoteCall");
     try {
-      ResponseHolder responseHolder =
-          sendMessageSynchronously(MSG_HANDLE_ESPRESSO_REQUEST, data, iBinders);
-      reportResults(responseHolder);
+      reportResults(sendMessageSynchronously(MSG_HANDLE_ESPRESSO_REQUEST, data, iBinders));
     } catch (InterruptedException ignore) {
       // ignore, already logged a warning
     }
@@ -294,19 +359,22 @@ public final class EspressoRemote implements RemoteInteraction {
     }
   }
 
-  private synchronized ResponseHolder sendMessageSynchronously(
+  /**
+   * Sends a request to all remote Espresso instances at once and waits for their responses.
+   *
+   * <p>Only one remote instance executes a given interaction, the others decline it. Returns the
+   * response of the instance which executed the interaction as soon as it arrives, or {@code null}
+   * once all instances declined it (or, for empty requests, once all of them responded).
+   */
+  @Nullable
+  private InteractionResponse sendMessageSynchronously(
       int what, @Nullable byte[] data, Map<String, IBinder> iBinders) throws InterruptedException {
     UUID uuid = UUID.randomUUID();
 
     logDebugWithProcess(
         TAG, String.format(Locale.ROOT, "Sending sync msg [%s] with uuid [%s]", what, uuid));
 
-    CountDownLatch latch = new CountDownLatch(1);
-    ResponseHolder responseHolder = new ResponseHolder(latch);
-
-    Message msg = incomingHandler.getEspressoMessage(MSG_FORWARD_TO_REMOTE_ESPRESSO);
-    msg.arg1 = what;
-    Bundle bundle = msg.getData();
+    Bundle bundle = new Bundle();
     bundle.putSerializable(BUNDLE_KEY_UUID, uuid);
     if (data != null) {
       bundle.putByteArray(BUNDLE_KEY_PROTO, data);
@@ -315,13 +383,23 @@ public final class EspressoRemote implements RemoteInteraction {
     // Add any iBinders to the bundle that need to be send to the other side
     setIBindersToBundle(iBinders, bundle);
 
-    msg.setData(bundle);
-
-    incomingHandler.associateResponse(uuid, responseHolder);
-    incomingHandler.sendMessage(msg);
+    BlockingQueue<Bundle> responses = new LinkedBlockingQueue<>();
+    pendingResponses.put(uuid, responses);
     try {
-      latch.await();
-      return responseHolder;
+      int recipients = sendMsgToRemoteEspressos(what, bundle);
+      for (int i = 0; i < recipients; i++) {
+        Bundle response = responses.take();
+        if (MSG_HANDLE_EMPTY_REQUEST == what) {
+          continue;
+        }
+        InteractionResponse interactionResponse = parseResponse(response);
+        if (Status.Error != interactionResponse.getStatus()
+            || interactionResponse.hasRemoteError()) {
+          return interactionResponse;
+        }
+        // declined, another instance executed the interaction.
+      }
+      return null;
     } catch (InterruptedException ie) {
       Log.w(
           TAG,
@@ -338,10 +416,48 @@ public final class EspressoRemote implements RemoteInteraction {
       Thread.currentThread().interrupt();
       throw ie;
     } finally {
-      incomingHandler.disassociateResponse(uuid);
+      pendingResponses.remove(uuid);
     }
   }
 
+  /**
+   * Sends a message to each remote Espresso instance (if any).
+   *
+   * @param what User-defined message code so that the recipient can identify what this message is
+   *     about.
+   * @param data A Bundle of arbitrary data associated with this message, copied for each recipient
+   * @return the number of remote Espresso instances the message was sent to
+   */
+  private int sendMsgToRemoteEspressos(int what, Bundle data) {
+    logDebugWithProcess(TAG, "sendMsgToRemoteEspressos called");
+    IncomingHandler handler = checkNotNull(incomingHandler, "EspressoRemote is not initialized");
+
+    Set<Messenger> remoteClients = instrumentationConnection.getClientsForType(TYPE);
+    if (null == remoteClients) {
+      return 0;
+    }
+    int recipients = 0;
+    for (Messenger remoteEspresso : remoteClients) {
+      if (handler.messengerHandler.equals(remoteEspresso)) {
+        // avoid sending message to self
+        continue;
+      }
+      Message msg = handler.getEspressoMessage(what);
+      msg.getData().putAll(data);
+      try {
+        remoteEspresso.send(msg);
+        recipients++;
+      } catch (RemoteException e) {
+        // In this case the remote process was terminated or crashed before we could
+        // even do anything with it; there is nothing we can do other than unregister the
+        // Espresso instance.
+        Log.w(TAG, "The remote process is terminated unexpectedly", e);
+        instrumentationConnection.unregisterClient(TYPE, remoteEspresso);
+      }
+    }
+    return recipients;
+  }
+
   private static void setIBindersToBundle(Map<String, IBinder> iBinders, Bundle bundle) {
     if (iBinders != null && !iBinders.isEmpty()) {
       Iterator<Map.Entry<String, IBinder>> iterator = iBinders.entrySet().iterator();
@@ -352,12 +468,6 @@ public final class EspressoRemote implements RemoteInteraction {
     }
   }
 
-  private synchronized boolean hasRemoteEspressoInstances() {
-    Set<Messenger> clientsForType = instrumentationConnection.getClientsForType(TYPE);
-    // This instance should be ignored from the check
-    return clientsForType.size() > 1;
-  }
-
   private static void initRemoteRegistry() {
     RemoteDescriptorRegistry remoteDescriptorRegistry = RemoteDescriptorRegistry.getInstance();
     RemoteRootMatchers.init(remoteDescriptorRegistry);
@@ -378,62 +488,33 @@ public final class EspressoRemote implements RemoteInteraction {
     RemoteWebMatchers.init(remoteDescriptorRegistry);
   }
 
-  private static void reportResults(ResponseHolder responseHolder) {
-    byte[] protoByteArray = responseHolder.getData().getByteArray(BUNDLE_KEY_PROTO);
+  private static InteractionResponse parseResponse(Bundle response) {
+    byte[] protoByteArray = response.getByteArray(BUNDLE_KEY_PROTO);
     if (null == protoByteArray) {
       throw new IllegalStateException("Espresso remote response doesn't contain a valid response");
     }
 
     try {
-      InteractionResponse interactionResponse =
-          new InteractionResponse.Builder().setResultProto(protoByteArray).build();
-
-      if (Status.Error == interactionResponse.getStatus()) {
-        if (!interactionResponse.hasRemoteError()) {
-          throw new IllegalStateException(
-              "Interaction response reported Status.Error, but no"
-                  + "error message was attached to interaction response: "
-                  + interactionResponse);
-        }
-        throw new RemoteEspressoException(interactionResponse.getRemoteError().getDescription());
-      }
-
+      return new InteractionResponse.Builder().setResultProto(protoByteArray).build();
     } catch (RemoteProtocolException re) {
       Log.e(TAG, "Could not parse Interaction response", re);
       throw new RemoteEspressoException("Could not parse Interaction response", re);
     }
   }
 
-  private static class ResponseHolder {
-    private final CountDownLatch latch;
-    private Bundle data = null;
-
-    public ResponseHolder(CountDownLatch latch) {
-      this.latch = latch;
+  private static void reportResults(@Nullable InteractionResponse interactionResponse) {
+    if (null == interactionResponse) {
+      // Let the local interaction, which executed instead, report its result.
+      throw new NoRemoteEspressoInstanceException(
+          "No remote Espresso instance executed the interaction.");
     }
-
-    public void setData(Bundle data) {
-      this.data = data;
-    }
-
-    public Bundle getData() {
-      return data;
-    }
-
-    public CountDownLatch getLatch() {
-      return latch;
+    if (Status.Error == interactionResponse.getStatus()) {
+      throw new RemoteEspressoException(interactionResponse.getRemoteError().getDescription());
     }
   }
 
   class IncomingHandler extends Handler {
 
-    /**
-     * Map containing latch {@link UUID}s to aid with message synchronization Note: This map should
-     * be only modified {@link #associateResponse(UUID, ResponseHolder)} or {@link
-     * #disassociateResponse(UUID)}
-     */
-    private final Map<UUID, ResponseHolder> responses = new HashMap<>();
-
     /** Target we publish for clients to send messages to IncomingHandler. */
     Messenger messengerHandler = new Messenger(this);
 
@@ -463,10 +544,6 @@ public final class EspressoRemote implements RemoteInteraction {
           logDebugWithProcess(TAG, "handleMessage: MSG_TERMINATE");
           doDie();
           break;
-        case MSG_FORWARD_TO_REMOTE_ESPRESSO:
-          logDebugWithProcess(TAG, "handleMessage: MSG_FORWARD_TO_REMOTE_ESPRESSO");
-          sendMsgToRemoteEspressos(msg.arg1, msg.getData());
-          break;
         case MSG_HANDLE_ESPRESSO_REQUEST:
           logDebugWithProcess(TAG, "handleMessage: MSG_HANDLE_ESPRESSO_REQUEST");
           handleEspressoRequest(msg.replyTo, msg.getData());
@@ -478,7 +555,7 @@ public final class EspressoRemote implements RemoteInteraction {
         case MSG_HANDLE_EMPTY_REQUEST:
           logDebugWithProcess(TAG, "handleMessage: MSG_HANDLE_EMPTY_REQUEST");
           // Nothing to do just send a response back.
-          sendMsgToRemoteEspressos(MSG_HANDLE_ESPRESSO_RESPONSE, msg.getData());
+          handleEmptyRequest(msg.replyTo, msg.getData());
           break;
         default:
           Log.w(TAG, "Unknown message code received: " + msg.what);
@@ -486,52 +563,6 @@ public final class EspressoRemote implements RemoteInteraction {
       }
     }
 
-    private void associateResponse(final UUID latchId, final ResponseHolder response) {
-      FutureTask<Void> associationTask =
-          new FutureTask<>(
-              new Callable<Void>() {
-                @Override
-                public Void call() {
-                  responses.put(latchId, response);
-                  return null;
-                }
-              });
-      post(associationTask);
-
-      try {
-        associationTask.get();
-      } catch (InterruptedException e) {
-        // Shouldn't happen, always waiting for finish
-        throw new IllegalStateException(e);
-      } catch (ExecutionException e) {
-        // Shouldn't happen, just adding (key,value) to a map
-        throw new IllegalStateException(e.getCause());
-      }
-    }
-
-    private void disassociateResponse(final UUID latchId) {
-      FutureTask<Void> disassociationTask =
-          new FutureTask<>(
-              new Callable<Void>() {
-                @Override
-                public Void call() {
-                  responses.remove(latchId);
-                  return null;
-                }
-              });
-      post(disassociationTask);
-
-      try {
-        disassociationTask.get();
-      } catch (InterruptedException e) {
-        // Shouldn't happen, always waiting for finish
-        throw new IllegalStateException(e);
-      } catch (ExecutionException e) {
-        // Shouldn't happen, just adding (key,value) to a map
-        throw new IllegalStateException(e.getCause());
-      }
-    }
-
     private void doDie() {
       instrumentationConnection.unregisterClient(TYPE, messengerHandler);
       getLooper().quit();
@@ -561,34 +592,15 @@ public final class EspressoRemote implements RemoteInteraction {
       return msg;
     }
 
-    /**
-     * Send request to remote Espresso instances (if any).
-     *
-     * @param what User-defined message code so that the recipient can identify what this message is
-     *     about.
-     * @param data A Bundle of arbitrary data associated with this message
-     */
-    private void sendMsgToRemoteEspressos(int what, Bundle data) {
-      logDebugWithProcess(TAG, "sendMsgToRemoteEspressos called");
-
-      Message msg = getEspressoMessage(what);
-      msg.setData(data);
-
-      Set<Messenger> remoteClients = instrumentationConnection.getClientsForType(TYPE);
-      for (Messenger remoteEspresso : remoteClients) {
-        if (messengerHandler.equals(remoteEspresso)) {
-          // avoid sending message to self
-          continue;
-        }
-        try {
-          remoteEspresso.send(msg);
-        } catch (RemoteException e) {
-          // In this case the remote process was terminated or crashed before we could
-          // even do anything with it; there is nothing we can do other than unregister the
-          // Espresso instance.
-          Log.w(TAG, "The remote process is terminated unexpectedly", e);
-          instrumentationConnection.unregisterClient(TYPE, remoteEspresso);
-        }
+    private void handleEmptyRequest(Messenger caller, Bundle data) {
+      Message msg = getEspressoMessage(MSG_HANDLE_ESPRESSO_RESPONSE);
+      // copy over the request UUID
+      msg.getData().putSerializable(BUNDLE_KEY_UUID, data.getSerializable(BUNDLE_KEY_UUID));
+      try {
+        caller.send(msg);
+      } catch (RemoteException e) {
+        Log.w(TAG, "The remote caller process is terminated unexpectedly", e);
+        instrumentationConnection.unregisterClient(TYPE, caller);
       }
     }
 
@@ -678,16 +690,15 @@ public final class EspressoRemote implements RemoteInteraction {
     private void handleEspressoResponse(Bundle data) {
       UUID uuid = (UUID) data.getSerializable(BUNDLE_KEY_UUID);
       logDebugWithProcess(TAG, "handleEspressoResponse for id: %s", uuid);
-      ResponseHolder response = responses.get(uuid);
-      if (null == response) {
-        // TODO(b/32968974) Decide whether logging is sufficient
-        throw new IllegalStateException("Received a response from an unknown message: " + uuid);
+      BlockingQueue<Bundle> responses = pendingResponses.get(uuid);
+      if (null == responses) {
+        // The request was already answered by another instance or its sender stopped waiting.
+        Log.w(TAG, "Received a response from an unknown message: " + uuid);
+        return;
       }
 
-      // set the response to be handled on the instrumentation thread
-      response.setData(data);
-      // notify
-      response.getLatch().countDown();
+      // set the response to be handled on the requesting thread
+      responses.offer(data);
     }
   } // close IncomingHandler
 
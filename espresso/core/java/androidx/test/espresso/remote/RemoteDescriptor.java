@@ -28,6 +28,8 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.protobuf.Parser;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Locale;
 
@@ -37,6 +39,7 @@ import java.util.Locale;
  */
 public final class RemoteDescriptor {
   private static final String TAG = "RemoteDescriptor";
+  private static final String REMOTE_FROM_FIELD_NAME = "FROM";
 
   private final Class<?> instanceType;
   private final List<FieldDescriptor> instanceFieldDescriptorList;
@@ -48,6 +51,10 @@ public final class RemoteDescriptor {
   private final Class<?> protoBuilderType;
   private final Parser<?> protoParser;
 
+  // Resolved on first use and kept for the lifetime of the descriptor
+  private volatile Constructor<?> remoteConstructor;
+  private volatile Field remoteFromField;
+
   private RemoteDescriptor(
       @NonNull Class<?> instanceType,
       @NonNull List<FieldDescriptor> instanceFieldDescriptorList,
@@ -120,6 +127,40 @@ public final class RemoteDescriptor {
     return instanceType.getName();
   }
 
+  /**
+   * Returns the public constructor of the remote message type which takes the remote constructor
+   * types. The constructor is only looked up on the first call.
+   *
+   * @return the accessible remote message constructor
+   * @throws NoSuchMethodException if the remote message type declares no such constructor
+   */
+  Constructor<?> getRemoteConstructor() throws NoSuchMethodException {
+    Constructor<?> constructor = remoteConstructor;
+    if (null == constructor) {
+      constructor = remoteType.getConstructor(getRemoteConstrTypes());
+      constructor.setAccessible(true);
+      remoteConstructor = constructor;
+    }
+    return constructor;
+  }
+
+  /**
+   * Returns the static {@code FROM} field of the remote message type, which holds its {@link
+   * EspressoRemoteMessage.From} implementation. The field is only looked up on the first call.
+   *
+   * @return the accessible {@code FROM} field
+   * @throws NoSuchFieldException if the remote message type declares no {@code FROM} field
+   */
+  Field getRemoteFromField() throws NoSuchFieldException {
+    Field fromField = remoteFromField;
+    if (null == fromField) {
+      fromField = remoteType.getDeclaredField(REMOTE_FROM_FIELD_NAME);
+      fromField.setAccessible(true);
+      remoteFromField = fromField;
+    }
+    return fromField;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
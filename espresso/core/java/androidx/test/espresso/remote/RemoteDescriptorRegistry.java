@@ -23,6 +23,8 @@ import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
 import android.text.TextUtils;
 import android.util.Log;
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -31,16 +33,17 @@ import java.util.Map;
 /**
  * A registry for registering remote descriptors. Remote descriptors are registered in the form of a
  * {@link RemoteDescriptor} object.
+ *
+ * <p>Descriptors are looked up for every message sent to or received from a remote Espresso
+ * instance, while they are only registered at startup. The lookup tables are therefore immutable
+ * and replaced as a whole by each registration, which lets lookups run without locking.
  */
 public final class RemoteDescriptorRegistry {
   private static final String TAG = "RemoteDescrRegistry";
 
   private static final RemoteDescriptorRegistry DEFAULT_INSTANCE = new RemoteDescriptorRegistry();
 
-  private final Map<Class<?>, RemoteDescriptor> instanceTypeToRemoteTargetTypeLookup =
-      new HashMap<>();
-  private final Map<Class<?>, RemoteDescriptor> protoMsgToRemoteTargetTypeLookup = new HashMap<>();
-  private final Map<String, RemoteDescriptor> remoteTypeUrlToRemoteTypeLookup = new HashMap<>();
+  private volatile LookupTables lookupTables = LookupTables.EMPTY;
 
   @VisibleForTesting
   RemoteDescriptorRegistry() {
@@ -56,18 +59,22 @@ public final class RemoteDescriptorRegistry {
     return DEFAULT_INSTANCE;
   }
 
-  private static final <K, V> void throwIfMapNotContains(
+  private static final <K, V> V getOrThrow(
       Map<K, V> map, K key, String fmtError, Object... fmtArgs) {
-    if (!map.containsKey(key)) {
+    V value = map.get(key);
+    if (null == value) {
       throw new RemoteProtocolException(String.format(Locale.ROOT, fmtError, fmtArgs));
     }
+    return value;
   }
 
-  public boolean registerRemoteTypeArgs(@NonNull List<RemoteDescriptor> remoteDescriptors) {
+  public synchronized boolean registerRemoteTypeArgs(
+      @NonNull List<RemoteDescriptor> remoteDescriptors) {
     checkNotNull(remoteDescriptors, "remoteDescriptors cannot be null!");
     boolean registerSuccessful = true;
+    LookupTables.Builder builder = lookupTables.toBuilder();
     for (RemoteDescriptor remoteDescriptor : remoteDescriptors) {
-      if (isRegistered(remoteDescriptor)) {
+      if (builder.isRegistered(remoteDescriptor)) {
         registerSuccessful = false;
         Log.w(
             TAG,
@@ -77,18 +84,18 @@ public final class RemoteDescriptorRegistry {
                     + "was already registered",
                 remoteDescriptor.getInstanceType()));
       }
-      remoteTypeUrlToRemoteTypeLookup.put(remoteDescriptor.getInstanceTypeName(), remoteDescriptor);
-      instanceTypeToRemoteTargetTypeLookup.put(
-          remoteDescriptor.getInstanceType(), remoteDescriptor);
-      protoMsgToRemoteTargetTypeLookup.put(remoteDescriptor.getProtoType(), remoteDescriptor);
+      builder.put(remoteDescriptor);
     }
+    lookupTables = builder.build();
     return registerSuccessful;
   }
 
-  public void unregisterRemoteTypeArgs(@NonNull List<RemoteDescriptor> remoteDescriptors) {
+  public synchronized void unregisterRemoteTypeArgs(
+      @NonNull List<RemoteDescriptor> remoteDescriptors) {
     checkNotNull(remoteDescriptors, "remoteDescriptors cannot be null!");
+    LookupTables.Builder builder = lookupTables.toBuilder();
     for (RemoteDescriptor remoteDescriptor : remoteDescriptors) {
-      if (!isRegistered(remoteDescriptor)) {
+      if (!builder.isRegistered(remoteDescriptor)) {
         throw new IllegalStateException(
             String.format(
                 Locale.ROOT,
@@ -96,10 +103,9 @@ public final class RemoteDescriptorRegistry {
                     + "for target type: %s, that was not registered",
                 remoteDescriptor.getInstanceType()));
       }
-      remoteTypeUrlToRemoteTypeLookup.remove(remoteDescriptor.getInstanceTypeName());
-      instanceTypeToRemoteTargetTypeLookup.remove(remoteDescriptor.getInstanceType());
-      protoMsgToRemoteTargetTypeLookup.remove(remoteDescriptor.getProtoType());
+      builder.remove(remoteDescriptor);
     }
+    lookupTables = builder.build();
   }
 
   /**
@@ -110,40 +116,37 @@ public final class RemoteDescriptorRegistry {
    */
   public RemoteDescriptor argForRemoteTypeUrl(@NonNull String typeUrl) {
     checkState(!TextUtils.isEmpty(typeUrl));
-    throwIfMapNotContains(
-        remoteTypeUrlToRemoteTypeLookup,
+    return getOrThrow(
+        lookupTables.remoteTypeUrlToRemoteTypeLookup,
         typeUrl,
         "Parser not found for type url: %s. All remote "
             + "types must be registered using "
             + "RemoteDescriptorRegistry#registerRemoteTypeArgs(List<RemoteDescriptor>",
         typeUrl);
-    return remoteTypeUrlToRemoteTypeLookup.get(typeUrl);
   }
 
   /** @return an {@link RemoteDescriptor} object by its target type. */
   public RemoteDescriptor argForInstanceType(@NonNull Class<?> targetType) {
     checkNotNull(targetType, "messageType cannot be null!");
-    throwIfMapNotContains(
-        instanceTypeToRemoteTargetTypeLookup,
+    return getOrThrow(
+        lookupTables.instanceTypeToRemoteTargetTypeLookup,
         targetType,
         "No such message type registered: %s. "
             + "All remote types must be registered using "
             + "RemoteDescriptorRegistry#registerRemoteTypeArgs(List<RemoteDescriptor>)",
         targetType);
-    return instanceTypeToRemoteTargetTypeLookup.get(targetType);
   }
 
   /** @return an {@link RemoteDescriptor} object by its proto message type. */
   public RemoteDescriptor argForMsgType(@NonNull Class<?> protoMsgType) {
     checkNotNull(protoMsgType, "protoMsgType cannot be null!");
-    throwIfMapNotContains(
-        protoMsgToRemoteTargetTypeLookup,
+    return getOrThrow(
+        lookupTables.protoMsgToRemoteTargetTypeLookup,
         protoMsgType,
         "No such message type registered: %s. All "
             + "proto msg types must be registered using "
             + "RemoteDescriptorRegistry#registerRemoteTypeArgs(List<RemoteDescriptor>)",
         protoMsgType);
-    return protoMsgToRemoteTargetTypeLookup.get(protoMsgType);
   }
 
   /**
@@ -154,19 +157,85 @@ public final class RemoteDescriptorRegistry {
    */
   public boolean hasArgForInstanceType(@NonNull Class<?> instanceType) {
     checkNotNull(instanceType, "instanceType cannot be null!");
-    return instanceTypeToRemoteTargetTypeLookup.containsKey(instanceType);
+    return lookupTables.instanceTypeToRemoteTargetTypeLookup.containsKey(instanceType);
   }
 
-  private boolean isRegistered(RemoteDescriptor remoteDescriptor) {
-    return remoteTypeUrlToRemoteTypeLookup.containsKey(remoteDescriptor.getInstanceTypeName())
-        && instanceTypeToRemoteTargetTypeLookup.containsKey(remoteDescriptor.getInstanceType())
-        && protoMsgToRemoteTargetTypeLookup.containsKey(remoteDescriptor.getProtoType());
+  /** @return all registered {@link RemoteDescriptor}s, as of the time of the call. */
+  ImmutableCollection<RemoteDescriptor> getRemoteDescriptors() {
+    return lookupTables.instanceTypeToRemoteTargetTypeLookup.values();
   }
 
   @VisibleForTesting
-  void clear() {
-    remoteTypeUrlToRemoteTypeLookup.clear();
-    instanceTypeToRemoteTargetTypeLookup.clear();
-    protoMsgToRemoteTargetTypeLookup.clear();
+  synchronized void clear() {
+    lookupTables = LookupTables.EMPTY;
+  }
+
+  /** Immutable descriptor lookup tables of a registry. */
+  private static final class LookupTables {
+    static final LookupTables EMPTY =
+        new LookupTables(
+            ImmutableMap.<Class<?>, RemoteDescriptor>of(),
+            ImmutableMap.<Class<?>, RemoteDescriptor>of(),
+            ImmutableMap.<String, RemoteDescriptor>of());
+
+    final ImmutableMap<Class<?>, RemoteDescriptor> instanceTypeToRemoteTargetTypeLookup;
+    final ImmutableMap<Class<?>, RemoteDescriptor> protoMsgToRemoteTargetTypeLookup;
+    final ImmutableMap<String, RemoteDescriptor> remoteTypeUrlToRemoteTypeLookup;
+
+    LookupTables(
+        ImmutableMap<Class<?>, RemoteDescriptor> instanceTypeToRemoteTargetTypeLookup,
+        ImmutableMap<Class<?>, RemoteDescriptor> protoMsgToRemoteTargetTypeLookup,
+        ImmutableMap<String, RemoteDescriptor> remoteTypeUrlToRemoteTypeLookup) {
+      this.instanceTypeToRemoteTargetTypeLookup = instanceTypeToRemoteTargetTypeLookup;
+      this.protoMsgToRemoteTargetTypeLookup = protoMsgToRemoteTargetTypeLookup;
+      this.remoteTypeUrlToRemoteTypeLookup = remoteTypeUrlToRemoteTypeLookup;
+    }
+
+    Builder toBuilder() {
+      return new Builder(this);
+    }
+
+    /** Mutable copy of {@link LookupTables}, used while registering descriptors. */
+    static final class Builder {
+      private final Map<Class<?>, RemoteDescriptor> instanceTypeToRemoteTargetTypeLookup;
+      private final Map<Class<?>, RemoteDescriptor> protoMsgToRemoteTargetTypeLookup;
+      private final Map<String, RemoteDescriptor> remoteTypeUrlToRemoteTypeLookup;
+
+      Builder(LookupTables lookupTables) {
+        instanceTypeToRemoteTargetTypeLookup =
+            new HashMap<>(lookupTables.instanceTypeToRemoteTargetTypeLookup);
+        protoMsgToRemoteTargetTypeLookup =
+            new HashMap<>(lookupTables.protoMsgToRemoteTargetTypeLookup);
+        remoteTypeUrlToRemoteTypeLookup =
+            new HashMap<>(lookupTables.remoteTypeUrlToRemoteTypeLookup);
+      }
+
+      boolean isRegistered(RemoteDescriptor remoteDescriptor) {
+        return remoteTypeUrlToRemoteTypeLookup.containsKey(remoteDescriptor.getInstanceTypeName())
+            && instanceTypeToRemoteTargetTypeLookup.containsKey(remoteDescriptor.getInstanceType())
+            && protoMsgToRemoteTargetTypeLookup.containsKey(remoteDescriptor.getProtoType());
+      }
+
+      void put(RemoteDescriptor remoteDescriptor) {
+        remoteTypeUrlToRemoteTypeLookup.put(
+            remoteDescriptor.getInstanceTypeName(), remoteDescriptor);
+        instanceTypeToRemoteTargetTypeLookup.put(
+            remoteDescriptor.getInstanceType(), remoteDescriptor);
+        protoMsgToRemoteTargetTypeLookup.put(remoteDescriptor.getProtoType(), remoteDescriptor);
+      }
+
+      void remove(RemoteDescriptor remoteDescriptor) {
+        remoteTypeUrlToRemoteTypeLookup.remove(remoteDescriptor.getInstanceTypeName());
+        instanceTypeToRemoteTargetTypeLookup.remove(remoteDescriptor.getInstanceType());
+        protoMsgToRemoteTargetTypeLookup.remove(remoteDescriptor.getProtoType());
+      }
+
+      LookupTables build() {
+        return new LookupTables(
+            ImmutableMap.copyOf(instanceTypeToRemoteTargetTypeLookup),
+            ImmutableMap.copyOf(protoMsgToRemoteTargetTypeLookup),
+            ImmutableMap.copyOf(remoteTypeUrlToRemoteTypeLookup));
+      }
+    }
   }
 }
@@ -36,6 +36,26 @@ public interface RemoteInteraction {
   /** @return {@code true} if the current Espresso instance running in a remote process. */
   boolean isRemoteProcess();
 
+  /**
+   * Returns whether Espresso instances are currently known to run in other processes. Called for
+   * every interaction, so it must be cheap.
+   *
+   * <p>When this returns {@code false}, the remote callables are only created once {@link
+   * #awaitRemoteInstances()} returns while the local interaction is still running.
+   */
+  default boolean hasRemoteInstances() {
+    return true;
+  }
+
+  /**
+   * Blocks until Espresso instances may be running in other processes, e.g. because one just
+   * registered, or until an implementation specific timeout passes. Returns right away by default.
+   *
+   * @throws InterruptedException if interrupted while waiting, e.g. because the local interaction
+   *     finished first.
+   */
+  default void awaitRemoteInstances() throws InterruptedException {}
+
   /**
    * Creates a callable to run Espresso check interaction on remote processes
    *
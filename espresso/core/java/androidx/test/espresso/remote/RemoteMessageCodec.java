@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package androidx.test.espresso.remote;
+
+import static androidx.test.espresso.remote.ProtoUtils.capitalizeFirstChar;
+import static androidx.test.espresso.remote.ProtoUtils.getFilteredFieldList;
+import static androidx.test.internal.util.LogUtil.logDebug;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import android.os.Parcelable;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.test.espresso.remote.annotation.RemoteMsgConstructor;
+import com.google.common.base.Optional;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serializes instances of a single registered type into their proto message and back.
+ *
+ * <p>{@link RemoteMessageSerializer} and {@link RemoteMessageDeserializer} look up the instance
+ * fields, the proto builder and getter methods and the {@link RemoteMsgConstructor} constructor by
+ * name for every message. A codec resolves all of them once, when it is first requested for a
+ * {@link RemoteDescriptor}, and afterwards only reads fields and invokes the resolved methods and
+ * constructor. It follows the same rules as the serializer and deserializer, which remain the
+ * fallback for descriptors a codec cannot be created for.
+ *
+ * <p>The annotated fields and constructors are mostly private members of private nested classes and
+ * proto types are only bound to instance types when descriptors are registered at runtime, so the
+ * members are resolved reflectively rather than called from generated code.
+ */
+final class RemoteMessageCodec {
+  private static final String TAG = "RemoteMessageCodec";
+
+  private static final String NEW_BUILDER_METHOD_NAME = "newBuilder";
+  private static final String BUILDER_BUILD_METHOD_NAME = "build";
+  private static final String BUILDER_SET_VALUE_METHOD_FTD_NAME = "set%s";
+  private static final String BUILDER_ADD_ALL_LIST_METHOD_FTD_NAME = "addAll%s";
+  private static final String PROTO_MSG_GET_ALL_LIST_METHOD_NAME_TPL = "get%sList";
+  private static final String PROTO_MSG_GET_VALUE_METHOD_NAME_TPL = "get%s";
+
+  private static final ConcurrentHashMap<RemoteDescriptor, Optional<RemoteMessageCodec>> codecs =
+      new ConcurrentHashMap<>();
+
+  private static volatile boolean enabled = true;
+
+  /** How a field is read from the proto message, decided by the declared field type. */
+  private enum FieldKind {
+    ANY_LIST,
+    SERIALIZABLE,
+    PARCELABLE,
+    ANY
+  }
+
+  private final Class<?> instanceType;
+  private final Field[] fields;
+  private final FieldKind[] fieldKinds;
+  private final Method newBuilder;
+  private final Method build;
+  // Builder setters per field, null if the proto does not declare them
+  private final Method[] addAllAnyList;
+  private final Method[] setByteString;
+  private final Method[] setAny;
+  private final Method[] getters;
+  private final Constructor<?> constructor;
+
+  private RemoteMessageCodec(RemoteDescriptor remoteDescriptor)
+      throws NoSuchFieldException, NoSuchMethodException {
+    instanceType = remoteDescriptor.getInstanceType();
+    Class<?> protoType = remoteDescriptor.getProtoType();
+    Class<?> builderType = remoteDescriptor.getProtoBuilderClass();
+    List<FieldDescriptor> fieldDescriptors = remoteDescriptor.getInstanceFieldDescriptorList();
+    int fieldCount = fieldDescriptors.size();
+
+    List<String> fieldNames = new ArrayList<>(fieldCount);
+    Class<?>[] fieldTypes = new Class<?>[fieldCount];
+    for (int i = 0; i < fieldCount; i++) {
+      fieldNames.add(fieldDescriptors.get(i).fieldName);
+      fieldTypes[i] = fieldDescriptors.get(i).fieldType;
+    }
+    fields = getFilteredFieldList(instanceType, fieldNames).toArray(new Field[fieldCount]);
+
+    fieldKinds = new FieldKind[fieldCount];
+    addAllAnyList = new Method[fieldCount];
+    setByteString = new Method[fieldCount];
+    setAny = new Method[fieldCount];
+    getters = new Method[fieldCount];
+    for (int i = 0; i < fieldCount; i++) {
+      fields[i].setAccessible(true);
+      String suffix = capitalizeFirstChar(fieldNames.get(i));
+      addAllAnyList[i] =
+          declaredMethodOrNull(
+              builderType, format(BUILDER_ADD_ALL_LIST_METHOD_FTD_NAME, suffix), Iterable.class);
+      setByteString[i] =
+          declaredMethodOrNull(
+              builderType, format(BUILDER_SET_VALUE_METHOD_FTD_NAME, suffix), ByteString.class);
+      setAny[i] =
+          declaredMethodOrNull(
+              builderType, format(BUILDER_SET_VALUE_METHOD_FTD_NAME, suffix), Any.class);
+
+      fieldKinds[i] = fieldKindOf(fieldTypes[i]);
+      getters[i] =
+          protoType.getDeclaredMethod(
+              format(
+                  FieldKind.ANY_LIST == fieldKinds[i]
+                      ? PROTO_MSG_GET_ALL_LIST_METHOD_NAME_TPL
+                      : PROTO_MSG_GET_VALUE_METHOD_NAME_TPL,
+                  suffix));
+      getters[i].setAccessible(true);
+    }
+
+    newBuilder = protoType.getMethod(NEW_BUILDER_METHOD_NAME);
+    build = builderType.getMethod(BUILDER_BUILD_METHOD_NAME);
+    constructor = findConstructor(instanceType, fieldTypes);
+    constructor.setAccessible(true);
+  }
+
+  /**
+   * Returns the codec for the given descriptor, or {@code null} if the type can only be serialized
+   * by {@link RemoteMessageSerializer} and {@link RemoteMessageDeserializer}.
+   */
+  @Nullable
+  static RemoteMessageCodec forDescriptor(@NonNull RemoteDescriptor remoteDescriptor) {
+    if (!enabled) {
+      return null;
+    }
+    Optional<RemoteMessageCodec> codec = codecs.get(remoteDescriptor);
+    if (null == codec) {
+      codec = create(remoteDescriptor);
+      Optional<RemoteMessageCodec> existing = codecs.putIfAbsent(remoteDescriptor, codec);
+      if (existing != null) {
+        codec = existing;
+      }
+    }
+    return codec.orNull();
+  }
+
+  private static Optional<RemoteMessageCodec> create(RemoteDescriptor remoteDescriptor) {
+    try {
+      return Optional.of(new RemoteMessageCodec(remoteDescriptor));
+    } catch (NoSuchFieldException | NoSuchMethodException | RuntimeException e) {
+      // The reflective serializer reports the problem whenever the type is actually used.
+      logDebug(TAG, "No codec for type: %s, %s", remoteDescriptor.getInstanceTypeName(), e);
+      return Optional.absent();
+    }
+  }
+
+  /** Turns codecs off (or back on), which makes all messages take the reflective path. */
+  @VisibleForTesting
+  static void setEnabled(boolean enabled) {
+    RemoteMessageCodec.enabled = enabled;
+  }
+
+  /**
+   * Serializes the given instance into its proto message.
+   *
+   * @param instance the instance to serialize, of this codec's instance type
+   * @param remoteDescriptorRegistry the registry used to serialize registered field types
+   * @return the proto message
+   */
+  MessageLite encode(Object instance, RemoteDescriptorRegistry remoteDescriptorRegistry) {
+    checkNotNull(instance, "instance cannot be null!");
+    try {
+      Object builder = newBuilder.invoke(null);
+      for (int i = 0; i < fields.length; i++) {
+        Object fieldValue = fields[i].get(instance);
+        checkState(
+            fieldValue != null,
+            "Serialization of field %s.%s failed, field was null!",
+            fields[i].getDeclaringClass(),
+            fields[i].getName());
+
+        if (fieldValue instanceof Iterable) {
+          List<MessageLite> messageLites = new ArrayList<>();
+          for (Object value : (Iterable<?>) fieldValue) {
+            messageLites.add(TypeProtoConverters.typeToAny(value, remoteDescriptorRegistry));
+          }
+          invokeSetter(addAllAnyList, i, builder, messageLites);
+        } else if (fieldValue instanceof Serializable) {
+          invokeSetter(
+              setByteString, i, builder, TypeProtoConverters.typeToByteString(fieldValue));
+        } else if (fieldValue instanceof Parcelable) {
+          invokeSetter(
+              setByteString,
+              i,
+              builder,
+              TypeProtoConverters.parcelableToByteString((Parcelable) fieldValue));
+        } else if (remoteDescriptorRegistry.hasArgForInstanceType(fieldValue.getClass())) {
+          invokeSetter(
+              setAny,
+              i,
+              builder,
+              TypeProtoConverters.typeToAny(fieldValue, remoteDescriptorRegistry));
+        } else {
+          throw new RemoteProtocolException(
+              String.format(
+                  Locale.ROOT,
+                  "Target field: %s#%s cannot be serialised "
+                      + "into a proto. Supported target fields can be of type: Any, Serializable "
+                      + "or an Iterable<Any/Serializable>",
+                  fieldValue.getClass().getName(),
+                  fields[i].getName()));
+        }
+      }
+      return (MessageLite) build.invoke(builder);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new RemoteProtocolException(
+          String.format(Locale.ROOT, "Cannot serialize instance of %s", instanceType.getName()), e);
+    }
+  }
+
+  /**
+   * Deserializes the given proto message into a new instance.
+   *
+   * @param messageLite the proto message, of the proto type of this codec's descriptor
+   * @param remoteDescriptorRegistry the registry used to deserialize registered field types
+   * @return the new instance
+   */
+  Object decode(MessageLite messageLite, RemoteDescriptorRegistry remoteDescriptorRegistry) {
+    checkNotNull(messageLite, "messageLite cannot be null!");
+    Object[] constructorParams = new Object[fields.length];
+    try {
+      for (int i = 0; i < fields.length; i++) {
+        Object value = getters[i].invoke(messageLite);
+        switch (fieldKinds[i]) {
+          case ANY_LIST:
+            List<?> anyList = (List<?>) value;
+            List<Object> iterable = new ArrayList<>(anyList.size());
+            for (Object any : anyList) {
+              iterable.add(TypeProtoConverters.anyToType((Any) any, remoteDescriptorRegistry));
+            }
+            constructorParams[i] = Collections.unmodifiableList(iterable);
+            break;
+          case SERIALIZABLE:
+            constructorParams[i] = TypeProtoConverters.byteStringToType((ByteString) value);
+            break;
+          case PARCELABLE:
+            @SuppressWarnings("unchecked") // kind is only used for Parcelable field types
+            Class<Parcelable> parcelableClass = (Class<Parcelable>) fields[i].getType();
+            constructorParams[i] =
+                TypeProtoConverters.byteStringToParcelable((ByteString) value, parcelableClass);
+            break;
+          case ANY:
+            constructorParams[i] =
+                TypeProtoConverters.anyToType((Any) value, remoteDescriptorRegistry);
+            break;
+        }
+      }
+      return constructor.newInstance(constructorParams);
+    } catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
+      throw new RemoteProtocolException(
+          String.format(
+              Locale.ROOT,
+              "Cannot invoke constructor %s with constructorParams [%s] on clazz %s",
+              constructor,
+              Arrays.toString(constructorParams),
+              instanceType.getName()),
+          e);
+    }
+  }
+
+  private void invokeSetter(Method[] setters, int field, Object builder, Object value)
+      throws IllegalAccessException, InvocationTargetException {
+    Method setter = setters[field];
+    if (null == setter) {
+      throw new RemoteProtocolException(
+          String.format(
+              Locale.ROOT,
+              "No builder method found for field: %s of type: %s",
+              fields[field].getName(),
+              value.getClass().getName()));
+    }
+    setter.invoke(builder, value);
+  }
+
+  private static FieldKind fieldKindOf(Class<?> fieldType) {
+    if (Iterable.class.isAssignableFrom(fieldType)) {
+      return FieldKind.ANY_LIST;
+    } else if (Serializable.class.isAssignableFrom(fieldType)
+        || Object.class == fieldType
+        || fieldType.isPrimitive()) {
+      return FieldKind.SERIALIZABLE;
+    } else if (Parcelable.class.isAssignableFrom(fieldType)) {
+      return FieldKind.PARCELABLE;
+    }
+    return FieldKind.ANY;
+  }
+
+  /** Looks up the constructor the same way as {@link ConstructorInvocation}. */
+  private static Constructor<?> findConstructor(Class<?> type, Class<?>[] parameterTypes)
+      throws NoSuchMethodException {
+    for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+      if (candidate.isAnnotationPresent(RemoteMsgConstructor.class)) {
+        return candidate;
+      }
+    }
+    return type.getConstructor(parameterTypes);
+  }
+
+  @Nullable
+  private static Method declaredMethodOrNull(
+      Class<?> type, String methodName, Class<?> parameterType) {
+    try {
+      Method method = type.getDeclaredMethod(methodName, parameterType);
+      method.setAccessible(true);
+      return method;
+    } catch (NoSuchMethodException nsme) {
+      return null;
+    }
+  }
+
+  private static String format(String methodNameTpl, String suffix) {
+    return String.format(Locale.ROOT, methodNameTpl, suffix);
+  }
+}
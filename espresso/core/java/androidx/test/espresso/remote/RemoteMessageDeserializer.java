@@ -87,6 +87,10 @@ final class RemoteMessageDeserializer implements EspressoRemoteMessage.From<Obje
               ? remoteDescriptorRegistry.argForRemoteTypeUrl(((Any) messageLite).getTypeUrl())
               // For All other msg types get remote type descriptor for proto message "runtime" type
               : remoteDescriptorRegistry.argForMsgType(messageLite.getClass());
+      RemoteMessageCodec codec = RemoteMessageCodec.forDescriptor(remoteDescriptor);
+      if (codec != null && remoteDescriptor.getProtoType().isInstance(messageLite)) {
+        return codec.decode(messageLite, remoteDescriptorRegistry);
+      }
       return fromProtoInternal(messageLite, remoteDescriptor);
     } catch (Exception e) {
       if (e.getCause() instanceof RemoteProtocolException) {
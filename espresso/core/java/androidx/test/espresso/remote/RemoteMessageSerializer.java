@@ -71,6 +71,7 @@ final class RemoteMessageSerializer implements EspressoRemoteMessage.To<MessageL
   private final List<FieldDescriptor> fieldDescriptorList;
   private final Class<?> builderType;
   private final Class<?> protoType;
+  private final RemoteDescriptor remoteDescriptor;
 
   /**
    * Creates a {@link RemoteMessageSerializer}
@@ -88,11 +89,16 @@ final class RemoteMessageSerializer implements EspressoRemoteMessage.To<MessageL
     this.fieldDescriptorList = remoteDescriptor.getInstanceFieldDescriptorList();
     this.builderType = remoteDescriptor.getProtoBuilderClass();
     this.protoType = remoteDescriptor.getProtoType();
+    this.remoteDescriptor = remoteDescriptor;
   }
 
   /** {@inheritDoc} */
   @Override
   public MessageLite toProto() {
+    RemoteMessageCodec codec = RemoteMessageCodec.forDescriptor(remoteDescriptor);
+    if (codec != null) {
+      return codec.encode(instance, remoteDescriptorRegistry);
+    }
     return toProtoInternal();
   }
 
@@ -17,6 +17,7 @@
 
 package androidx.test.espresso.remote;
 
+import static androidx.test.internal.util.LogUtil.logDebug;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import android.os.Parcelable;
@@ -26,6 +27,7 @@ import com.google.protobuf.ByteString;
 
 /** Converters from {@link Any} proto messages to their unwrapped target types. */
 public final class TypeProtoConverters {
+  private static final String TAG = "TypeProtoConverters";
 
   private static final RemoteDescriptorRegistry REGISTRY = RemoteDescriptorRegistry.getInstance();
 
@@ -33,6 +35,30 @@ public final class TypeProtoConverters {
     // no-op instance
   }
 
+  /**
+   * Resolves the reflective handles used to convert every type registered with the given registry,
+   * so that converting messages later on does not need to look up members anymore.
+   *
+   * <p>Types whose handles cannot be resolved are skipped. Converting them fails with the usual
+   * error.
+   *
+   * @param remoteDescriptorRegistry the registry containing the types to prepare
+   */
+  static void warmUp(@NonNull RemoteDescriptorRegistry remoteDescriptorRegistry) {
+    checkNotNull(remoteDescriptorRegistry, "remoteDescriptorRegistry cannot be null!");
+    for (RemoteDescriptor remoteDescriptor : remoteDescriptorRegistry.getRemoteDescriptors()) {
+      try {
+        remoteDescriptor.getRemoteConstructor();
+        remoteDescriptor.getRemoteFromField();
+      } catch (NoSuchMethodException | NoSuchFieldException | RuntimeException e) {
+        logDebug(TAG, "Cannot warm up type: %s, %s", remoteDescriptor.getInstanceTypeName(), e);
+      }
+      if (GenericRemoteMessage.class == remoteDescriptor.getRemoteType()) {
+        RemoteMessageCodec.forDescriptor(remoteDescriptor);
+      }
+    }
+  }
+
   /**
    * Performs an {@link Any} proto message to type T conversion.
    *
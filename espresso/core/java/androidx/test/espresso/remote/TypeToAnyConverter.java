@@ -23,6 +23,9 @@ import androidx.annotation.NonNull;
 import androidx.test.espresso.remote.EspressoRemoteMessage.To;
 import com.google.protobuf.Any;
 import com.google.protobuf.MessageLite;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Locale;
 
 /** Converts a type T into its {@link Any} proto message representation. */
 final class TypeToAnyConverter<T> implements Converter<T, Any> {
@@ -49,13 +52,36 @@ final class TypeToAnyConverter<T> implements Converter<T, Any> {
 
   @SuppressWarnings("unchecked") // safe covariant cast, missing type arguments for generic class
   private MessageLite createProtoMsgForInstanceType(T instance, RemoteDescriptor remoteDescriptor) {
-    Class<?> remoteType = remoteDescriptor.getRemoteType();
     To<MessageLite> remoteMessage =
-        (To<MessageLite>)
-            new ConstructorInvocation(remoteType, null, remoteDescriptor.getRemoteConstrTypes())
-                .invokeConstructor(instance);
+        (To<MessageLite>) createRemoteMessage(instance, remoteDescriptor);
     MessageLite remoteProtoMsg = remoteMessage.toProto();
     checkState(remoteDescriptor.getProtoType() == remoteProtoMsg.getClass());
     return remoteProtoMsg;
   }
+
+  private static Object createRemoteMessage(Object instance, RemoteDescriptor remoteDescriptor) {
+    Class<?> remoteType = remoteDescriptor.getRemoteType();
+    try {
+      return remoteDescriptor.getRemoteConstructor().newInstance(instance);
+    } catch (InvocationTargetException ite) {
+      throw new RemoteProtocolException(
+          String.format(
+              Locale.ROOT,
+              "Cannot invoke constructor of %s with instance of %s",
+              remoteType.getName(),
+              instance.getClass().getName()),
+          ite);
+    } catch (IllegalAccessException | InstantiationException e) {
+      throw new RemoteProtocolException(
+          String.format(Locale.ROOT, "Cannot create instance of %s", remoteType.getName()), e);
+    } catch (NoSuchMethodException nsme) {
+      throw new RemoteProtocolException(
+          String.format(
+              Locale.ROOT,
+              "No constructor found for clazz: %s. Available constructors: %s",
+              remoteType.getName(),
+              Arrays.asList(remoteType.getConstructors())),
+          nsme);
+    }
+  }
 }
@@ -16,11 +16,10 @@
 
 package androidx.test.espresso.util;
 
-import static androidx.test.espresso.util.TreeIterables.depthFirstViewTraversalWithDistance;
-
 import android.content.res.Resources;
 import android.database.Cursor;
 import android.os.Build;
+import android.util.Log;
 import android.util.Printer;
 import android.util.StringBuilderPrinter;
 import android.view.View;
@@ -29,20 +28,25 @@ import android.view.inputmethod.EditorInfo;
 import android.view.inputmethod.InputConnection;
 import android.widget.Checkable;
 import android.widget.TextView;
-import androidx.test.espresso.util.TreeIterables.ViewAndDistance;
-import com.google.common.base.Function;
-import com.google.common.base.Joiner;
+import androidx.test.espresso.util.TreeIterables.ViewVisitor;
+import androidx.test.internal.platform.util.TestOutputEmitter;
+import com.google.common.base.Charsets;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.MoreObjects.ToStringHelper;
 import com.google.common.base.Preconditions;
-import com.google.common.base.Strings;
-import com.google.common.collect.Iterables;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.List;
 import java.util.Locale;
 
 /** Text converters for various Android objects. */
 public final class HumanReadables {
 
+  private static final String TAG = "HumanReadables";
+
   private HumanReadables() {}
 
   /**
@@ -62,6 +66,36 @@ public final class HumanReadables {
       final List<View> problemViews,
       String errorHeader,
       final String problemViewSuffix) {
+    return getViewHierarchyErrorMessage(
+        rootView, problemViews, errorHeader, problemViewSuffix, Integer.MAX_VALUE, null);
+  }
+
+  /**
+   * Prints out an error message feature the view hierarchy starting at the rootView, including at
+   * most maxHierarchyLength characters of the hierarchy.
+   *
+   * <p>If the hierarchy does not fit, it is cut off after the last view which fits. If an
+   * outputName is given and the execution environment supports test output files, the complete
+   * hierarchy is written to that test output file and the message refers to it.
+   *
+   * @param rootView the root of the hierarchy tree to print out.
+   * @param problemViews list of the views that you would like to point out are causing the error
+   *     message or null, if you want to skip this feature.
+   * @param errorHeader the header of the error message (should contain the description of why the
+   *     error is happening).
+   * @param problemViewSuffix the message to append to the view description in the tree printout.
+   *     Required if problemViews is supplied. Otherwise, null is acceptable.
+   * @param maxHierarchyLength the maximum number of characters of the hierarchy in the message.
+   * @param outputName the name of the test output file for the complete hierarchy, or null.
+   * @return a string for human consumption.
+   */
+  public static String getViewHierarchyErrorMessage(
+      View rootView,
+      List<View> problemViews,
+      String errorHeader,
+      String problemViewSuffix,
+      int maxHierarchyLength,
+      String outputName) {
     Preconditions.checkArgument(problemViews == null || problemViewSuffix != null);
     StringBuilder errorMessage = new StringBuilder(errorHeader);
     if (problemViewSuffix != null) {
@@ -71,30 +105,130 @@ public final class HumanReadables {
     }
 
     errorMessage.append("\n\nView Hierarchy:\n");
+    int truncatedViews;
+    try {
+      truncatedViews =
+          appendViewHierarchy(
+              errorMessage, rootView, problemViews, problemViewSuffix, maxHierarchyLength);
+    } catch (IOException e) {
+      // StringBuilder does not throw.
+      throw new IllegalStateException(e);
+    }
+    if (truncatedViews > 0) {
+      errorMessage.append(
+          String.format(
+              Locale.ROOT,
+              "\n\nThe view hierarchy was truncated, %d views are not shown.",
+              truncatedViews));
+      if (outputName != null
+          && writeViewHierarchy(outputName, rootView, problemViews, problemViewSuffix)) {
+        errorMessage.append(
+            String.format(
+                Locale.ROOT,
+                " The complete view hierarchy was written to test output file '%s'.",
+                outputName));
+      }
+    }
+    return errorMessage.toString();
+  }
 
-    Joiner.on("\n")
-        .appendTo(
-            errorMessage,
-            Iterables.transform(
-                depthFirstViewTraversalWithDistance(rootView),
-                new Function<ViewAndDistance, String>() {
-                  @Override
-                  public String apply(ViewAndDistance viewAndDistance) {
-                    String formatString = "+%s%s ";
-                    if (problemViews != null && problemViews.contains(viewAndDistance.getView())) {
-                      formatString += problemViewSuffix;
-                    }
-                    formatString += "\n|";
-
-                    return String.format(
-                        Locale.ROOT,
-                        formatString,
-                        Strings.padStart(">", viewAndDistance.getDistanceFromRoot() + 1, '-'),
-                        HumanReadables.describe(viewAndDistance.getView()));
-                  }
-                }));
+  /**
+   * Streams the view hierarchy starting at the rootView into the given appendable, in the format
+   * used by {@link #getViewHierarchyErrorMessage}.
+   *
+   * <p>Views are appended as long as they fit into maxLength characters. The views following the
+   * first one which does not fit are only counted.
+   *
+   * @param out the appendable to write to.
+   * @param rootView the root of the hierarchy tree to print out.
+   * @param problemViews list of the views that you would like to point out, or null.
+   * @param problemViewSuffix the message to append to the problem views. Required if problemViews
+   *     is supplied.
+   * @param maxLength the maximum number of characters to append.
+   * @return the number of views which were not appended because of maxLength.
+   * @throws IOException if the appendable throws.
+   */
+  public static int appendViewHierarchy(
+      final Appendable out,
+      View rootView,
+      final List<View> problemViews,
+      final String problemViewSuffix,
+      final int maxLength)
+      throws IOException {
+    Preconditions.checkArgument(problemViews == null || problemViewSuffix != null);
+    Preconditions.checkArgument(maxLength >= 0);
+    final StringBuilder line = new StringBuilder();
+    final IOException[] failure = new IOException[1];
+    final int[] appendedLength = new int[1];
+    final int[] truncatedViews = new int[1];
+    TreeIterables.visitDepthFirst(
+        rootView,
+        new ViewVisitor() {
+          @Override
+          public boolean visit(View view, int distanceFromRoot) {
+            if (truncatedViews[0] > 0) {
+              // only count the remaining views.
+              truncatedViews[0]++;
+              return true;
+            }
+            line.setLength(0);
+            if (distanceFromRoot > 0) {
+              line.append('\n');
+            }
+            line.append('+');
+            for (int i = 0; i < distanceFromRoot; i++) {
+              line.append('-');
+            }
+            line.append('>').append(HumanReadables.describe(view)).append(' ');
+            if (problemViews != null && problemViews.contains(view)) {
+              line.append(problemViewSuffix);
+            }
+            line.append("\n|");
+            if (line.length() > maxLength - appendedLength[0]) {
+              truncatedViews[0]++;
+              return true;
+            }
+            try {
+              out.append(line);
+            } catch (IOException e) {
+              failure[0] = e;
+              return false;
+            }
+            appendedLength[0] += line.length();
+            return true;
+          }
+        });
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+    return truncatedViews[0];
+  }
 
-    return errorMessage.toString();
+  private static boolean writeViewHierarchy(
+      String outputName, View rootView, List<View> problemViews, String problemViewSuffix) {
+    Writer writer = null;
+    try {
+      OutputStream outputStream = TestOutputEmitter.openOutputFile(outputName);
+      if (outputStream == null) {
+        return false;
+      }
+      writer = new BufferedWriter(new OutputStreamWriter(outputStream, Charsets.UTF_8));
+      appendViewHierarchy(writer, rootView, problemViews, problemViewSuffix, Integer.MAX_VALUE);
+      writer.close();
+      writer = null;
+      return true;
+    } catch (IOException e) {
+      Log.w(TAG, "Could not write the view hierarchy to " + outputName, e);
+      return false;
+    } finally {
+      if (writer != null) {
+        try {
+          writer.close();
+        } catch (IOException ignored) {
+          // already failed.
+        }
+      }
+    }
   }
 
   public static String describe(Cursor c) {
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An exception message which includes a dump of the view hierarchy and is only rendered when it is
+ * first requested.
+ *
+ * <p>Exceptions such as {@code NoMatchingViewException} are frequently created and then dropped
+ * (e.g. by {@code doesNotExist()} or by retry loops), in which case rendering the hierarchy is
+ * wasted work. Since views may only be touched on the main thread, a message requested on any other
+ * thread is rendered on the main thread while the requesting thread waits. If the main thread does
+ * not get to it in time, the {@link #renderWithoutHierarchy() short form} of the message is used.
+ *
+ * <p>The hierarchy is rendered as it is when the message is first requested.
+ *
+ * @hide
+ */
+public abstract class LazyViewHierarchyMessage {
+  private static final String TAG = "LazyViewHierarchyMsg";
+  private static final long RENDER_TIMEOUT_SECONDS = 10;
+
+  // guarded by this
+  private String message;
+
+  /** Renders the full message, including the view hierarchy. Called on the main thread. */
+  protected abstract String renderWithHierarchy();
+
+  /** Renders the message without touching any view. */
+  protected abstract String renderWithoutHierarchy();
+
+  /** Returns the message, rendering it on first use. */
+  public final synchronized String get() {
+    if (message == null) {
+      message = render();
+    }
+    return message;
+  }
+
+  private String render() {
+    if (Looper.myLooper() == Looper.getMainLooper()) {
+      return renderWithHierarchy();
+    }
+    FutureTask<String> renderTask =
+        new FutureTask<String>(
+            new Callable<String>() {
+              @Override
+              public String call() {
+                return renderWithHierarchy();
+              }
+            });
+    new Handler(Looper.getMainLooper()).post(renderTask);
+    try {
+      return renderTask.get(RENDER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      renderTask.cancel(false);
+    } catch (ExecutionException | TimeoutException e) {
+      Log.w(TAG, "Could not render the view hierarchy on the main thread", e);
+      renderTask.cancel(false);
+    }
+    return renderWithoutHierarchy();
+  }
+}
@@ -21,11 +21,10 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import android.view.View;
 import android.view.ViewGroup;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Function;
 import com.google.common.collect.AbstractIterator;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -57,18 +56,98 @@ public final class TreeIterables {
    * @return An iterable of ViewAndDistance containing the view tree in a depth first order with the
    *     distance of a given node from the root.
    */
-  public static Iterable<ViewAndDistance> depthFirstViewTraversalWithDistance(View root) {
-    final DistanceRecordingTreeViewer<View> distanceRecorder =
-        new DistanceRecordingTreeViewer<View>(root, VIEW_TREE_VIEWER);
+  public static Iterable<ViewAndDistance> depthFirstViewTraversalWithDistance(final View root) {
+    checkNotNull(root);
+    return new Iterable<ViewAndDistance>() {
+      @Override
+      public Iterator<ViewAndDistance> iterator() {
+        return new DepthFirstViewAndDistanceIterator(root);
+      }
+    };
+  }
 
-    return Iterables.transform(
-        depthFirstTraversal(root, distanceRecorder),
-        new Function<View, ViewAndDistance>() {
-          @Override
-          public ViewAndDistance apply(View view) {
-            return new ViewAndDistance(view, distanceRecorder.getDistance(view));
+  /**
+   * Visits the provided view and its children in the same depth-first order as {@link
+   * #depthFirstViewTraversal(View)}, without allocating per visited view.
+   *
+   * <p>Must be called on the thread which owns the view hierarchy.
+   *
+   * @param root the non-null, root view.
+   * @param visitor receives every view and its distance from the root, until it asks to stop.
+   * @return {@code true} if every view was visited, {@code false} if the visitor stopped early.
+   */
+  public static boolean visitDepthFirst(View root, ViewVisitor visitor) {
+    checkNotNull(root);
+    checkNotNull(visitor);
+    TraversalBuffers buffers = TraversalBuffers.acquire();
+    try {
+      if (!visitor.visit(root, 0)) {
+        return false;
+      }
+      // the stack holds the view groups being walked and the index of their next child.
+      int depth = 0;
+      if (root instanceof ViewGroup) {
+        buffers.set(depth++, root, 0);
+      }
+      while (depth > 0) {
+        ViewGroup group = (ViewGroup) buffers.views[depth - 1];
+        int childIndex = buffers.ints[depth - 1];
+        if (childIndex >= group.getChildCount()) {
+          depth--;
+          continue;
+        }
+        buffers.ints[depth - 1] = childIndex + 1;
+        View child = group.getChildAt(childIndex);
+        if (!visitor.visit(child, depth)) {
+          return false;
+        }
+        if (child instanceof ViewGroup) {
+          buffers.set(depth++, child, 0);
+        }
+      }
+      return true;
+    } finally {
+      buffers.release();
+    }
+  }
+
+  /**
+   * Visits the provided view and its children in the same breadth-first order as {@link
+   * #breadthFirstViewTraversal(View)}, without allocating per visited view.
+   *
+   * <p>Must be called on the thread which owns the view hierarchy.
+   *
+   * @param root the non-null, root view.
+   * @param visitor receives every view and its distance from the root, until it asks to stop.
+   * @return {@code true} if every view was visited, {@code false} if the visitor stopped early.
+   */
+  public static boolean visitBreadthFirst(View root, ViewVisitor visitor) {
+    checkNotNull(root);
+    checkNotNull(visitor);
+    TraversalBuffers buffers = TraversalBuffers.acquire();
+    try {
+      // the queue holds the views to visit and their distance from the root.
+      int head = 0;
+      int tail = 0;
+      buffers.set(tail++, root, 0);
+      while (head < tail) {
+        View view = buffers.views[head];
+        int distance = buffers.ints[head];
+        head++;
+        if (!visitor.visit(view, distance)) {
+          return false;
+        }
+        if (view instanceof ViewGroup) {
+          ViewGroup group = (ViewGroup) view;
+          for (int i = 0, childCount = group.getChildCount(); i < childCount; i++) {
+            buffers.set(tail++, group.getChildAt(i), distance + 1);
           }
-        });
+        }
+      }
+      return true;
+    } finally {
+      buffers.release();
+    }
   }
 
   /**
@@ -256,6 +335,115 @@ public final class TreeIterables {
     Collection<T> children(T instance);
   }
 
+  /** Receives the views of {@link #visitDepthFirst} and {@link #visitBreadthFirst}. */
+  public interface ViewVisitor {
+
+    /**
+     * Visits a view.
+     *
+     * @param view the visited view.
+     * @param distanceFromRoot 0 for the root, 1 for its children and so on.
+     * @return {@code true} to continue the traversal, {@code false} to stop it.
+     */
+    boolean visit(View view, int distanceFromRoot);
+  }
+
+  /**
+   * Array backed storage for a single traversal. The buffers of a thread are reused by the next
+   * traversal on that thread, unless traversals are nested (e.g. a matcher which traverses the
+   * descendants of the view it is evaluated on), in which case fresh buffers are used.
+   */
+  private static final class TraversalBuffers {
+    private static final ThreadLocal<TraversalBuffers> threadBuffers =
+        new ThreadLocal<TraversalBuffers>() {
+          @Override
+          protected TraversalBuffers initialValue() {
+            return new TraversalBuffers();
+          }
+        };
+
+    private View[] views = new View[64];
+    private int[] ints = new int[64];
+    private int used;
+    private boolean inUse;
+
+    static TraversalBuffers acquire() {
+      TraversalBuffers buffers = threadBuffers.get();
+      if (buffers.inUse) {
+        buffers = new TraversalBuffers();
+      }
+      buffers.inUse = true;
+      return buffers;
+    }
+
+    void set(int index, View view, int value) {
+      if (index == views.length) {
+        views = Arrays.copyOf(views, index * 2);
+        ints = Arrays.copyOf(ints, index * 2);
+      }
+      views[index] = view;
+      ints[index] = value;
+      used = Math.max(used, index + 1);
+    }
+
+    void release() {
+      // don't hold on to views of a hierarchy which may go away.
+      Arrays.fill(views, 0, used, null);
+      used = 0;
+      inUse = false;
+    }
+  }
+
+  /** Walks a view hierarchy depth first with an int indexed stack instead of a distance map. */
+  private static final class DepthFirstViewAndDistanceIterator
+      extends AbstractIterator<ViewAndDistance> {
+    private ViewGroup[] groups = new ViewGroup[16];
+    private int[] nextChildIndex = new int[16];
+    private int depth = 0;
+    private View root;
+
+    private DepthFirstViewAndDistanceIterator(View root) {
+      this.root = root;
+    }
+
+    @Override
+    protected ViewAndDistance computeNext() {
+      if (root != null) {
+        View view = root;
+        root = null;
+        push(view);
+        return new ViewAndDistance(view, 0);
+      }
+      while (depth > 0) {
+        ViewGroup group = groups[depth - 1];
+        int childIndex = nextChildIndex[depth - 1];
+        if (childIndex >= group.getChildCount()) {
+          groups[--depth] = null;
+          continue;
+        }
+        nextChildIndex[depth - 1] = childIndex + 1;
+        View child = checkNotNull(group.getChildAt(childIndex), "Null items not allowed!");
+        int distance = depth;
+        push(child);
+        return new ViewAndDistance(child, distance);
+      }
+      return endOfData();
+    }
+
+    private void push(View view) {
+      if (!(view instanceof ViewGroup)) {
+        return;
+      }
+      if (depth == groups.length) {
+        groups = Arrays.copyOf(groups, depth * 2);
+        nextChildIndex = Arrays.copyOf(nextChildIndex, depth * 2);
+      }
+      groups[depth] = (ViewGroup) view;
+      nextChildIndex[depth] = 0;
+      depth++;
+    }
+  }
+
   /** Represents the distance a given view is from the root view. */
   public static class ViewAndDistance {
     private final View view;
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import android.graphics.Rect;
+import android.os.Looper;
+import android.view.View;
+import android.widget.TextView;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An immutable copy of the state of a view which assertions and matchers commonly look at.
+ *
+ * <p>Snapshots are captured on the main thread in a single pass over the subtree of a view and may
+ * then be read from any thread, which lets assertions run without holding up the main thread. A
+ * snapshot does not change when the view it was captured from does.
+ */
+public final class ViewSnapshot {
+
+  private final ViewSnapshot parent;
+  private final List<ViewSnapshot> children = new ArrayList<>();
+  private final int distanceFromRoot;
+  private final String className;
+  private final int id;
+  private final int visibility;
+  private final boolean shown;
+  private final boolean enabled;
+  private final int left;
+  private final int top;
+  private final int width;
+  private final int height;
+  private final int screenX;
+  private final int screenY;
+  private final boolean hasGlobalVisibleRect;
+  private final int visibleLeft;
+  private final int visibleTop;
+  private final int visibleRight;
+  private final int visibleBottom;
+  private final String text;
+  private final String contentDescription;
+
+  private ViewSnapshot(
+      ViewSnapshot parent, int distanceFromRoot, View view, int[] location, Rect visibleRect) {
+    this.parent = parent;
+    this.distanceFromRoot = distanceFromRoot;
+    this.className = view.getClass().getName();
+    this.id = view.getId();
+    this.visibility = view.getVisibility();
+    this.shown = view.isShown();
+    this.enabled = view.isEnabled();
+    this.left = view.getLeft();
+    this.top = view.getTop();
+    this.width = view.getWidth();
+    this.height = view.getHeight();
+    view.getLocationOnScreen(location);
+    this.screenX = location[0];
+    this.screenY = location[1];
+    this.hasGlobalVisibleRect = view.getGlobalVisibleRect(visibleRect);
+    this.visibleLeft = visibleRect.left;
+    this.visibleTop = visibleRect.top;
+    this.visibleRight = visibleRect.right;
+    this.visibleBottom = visibleRect.bottom;
+    CharSequence viewText = view instanceof TextView ? ((TextView) view).getText() : null;
+    this.text = viewText != null ? viewText.toString() : null;
+    CharSequence viewContentDescription = view.getContentDescription();
+    this.contentDescription =
+        viewContentDescription != null ? viewContentDescription.toString() : null;
+  }
+
+  /**
+   * Captures the given view and its descendants. The snapshots of the descendants are reachable
+   * through {@link #getChildren()}; the ancestors of the view are not captured.
+   *
+   * <p>Must be called on the main thread.
+   *
+   * @param view the view to capture.
+   * @return the snapshot of {@code view}.
+   */
+  public static ViewSnapshot capture(View view) {
+    checkNotNull(view);
+    checkState(
+        Looper.myLooper() == Looper.getMainLooper(), "Snapshots must be captured on main thread");
+    final List<ViewSnapshot> path = new ArrayList<>();
+    final int[] location = new int[2];
+    final Rect visibleRect = new Rect();
+    TreeIterables.visitDepthFirst(
+        view,
+        new TreeIterables.ViewVisitor() {
+          @Override
+          public boolean visit(View current, int distanceFromRoot) {
+            // path holds the snapshots of the ancestors of the current view.
+            while (path.size() > distanceFromRoot) {
+              path.remove(path.size() - 1);
+            }
+            ViewSnapshot parent = path.isEmpty() ? null : path.get(path.size() - 1);
+            ViewSnapshot snapshot =
+                new ViewSnapshot(parent, distanceFromRoot, current, location, visibleRect);
+            if (parent != null) {
+              parent.children.add(snapshot);
+            }
+            path.add(snapshot);
+            return true;
+          }
+        });
+    return path.get(0);
+  }
+
+  /**
+   * Captures the given view without its descendants, for assertions which only look at the view
+   * itself.
+   *
+   * <p>Must be called on the main thread.
+   *
+   * @param view the view to capture.
+   * @return the snapshot of {@code view}, which has no children.
+   */
+  public static ViewSnapshot captureView(View view) {
+    checkNotNull(view);
+    checkState(
+        Looper.myLooper() == Looper.getMainLooper(), "Snapshots must be captured on main thread");
+    return new ViewSnapshot(null, 0, view, new int[2], new Rect());
+  }
+
+  /** Returns the snapshot of the parent view, or {@code null} for the captured view. */
+  public ViewSnapshot getParent() {
+    return parent;
+  }
+
+  /** Returns the snapshots of the child views, in drawing order. */
+  public List<ViewSnapshot> getChildren() {
+    return Collections.unmodifiableList(children);
+  }
+
+  /** Returns the snapshot of the captured view, which is the root of the captured subtree. */
+  public ViewSnapshot getRoot() {
+    ViewSnapshot root = this;
+    while (root.parent != null) {
+      root = root.parent;
+    }
+    return root;
+  }
+
+  /** Returns 0 for the captured view, 1 for its children and so on. */
+  public int getDistanceFromRoot() {
+    return distanceFromRoot;
+  }
+
+  /** Returns the fully qualified class name of the view. */
+  public String getClassName() {
+    return className;
+  }
+
+  /** See {@link View#getId()}. */
+  public int getId() {
+    return id;
+  }
+
+  /** See {@link View#getVisibility()}. */
+  public int getVisibility() {
+    return visibility;
+  }
+
+  /** See {@link View#isShown()}. */
+  public boolean isShown() {
+    return shown;
+  }
+
+  /** See {@link View#isEnabled()}. */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** See {@link View#getLeft()}. */
+  public int getLeft() {
+    return left;
+  }
+
+  /** See {@link View#getTop()}. */
+  public int getTop() {
+    return top;
+  }
+
+  /** See {@link View#getWidth()}. */
+  public int getWidth() {
+    return width;
+  }
+
+  /** See {@link View#getHeight()}. */
+  public int getHeight() {
+    return height;
+  }
+
+  /** Returns the horizontal screen position of the view. See {@link View#getLocationOnScreen}. */
+  public int getScreenX() {
+    return screenX;
+  }
+
+  /** Returns the vertical screen position of the view. See {@link View#getLocationOnScreen}. */
+  public int getScreenY() {
+    return screenY;
+  }
+
+  /**
+   * Returns a copy of the visible part of the view in global coordinates, or {@code null} if no
+   * part of the view was visible. See {@link View#getGlobalVisibleRect(Rect)}.
+   */
+  public Rect getGlobalVisibleRect() {
+    return hasGlobalVisibleRect
+        ? new Rect(visibleLeft, visibleTop, visibleRight, visibleBottom)
+        : null;
+  }
+
+  /** Returns the text of a {@link TextView}, or {@code null} for other views. */
+  public String getText() {
+    return text;
+  }
+
+  /** See {@link View#getContentDescription()}. */
+  public String getContentDescription() {
+    return contentDescription;
+  }
+
+  /**
+   * Returns whether the view was shown and at least {@code areaPercentage} percent of its area was
+   * visible. Unlike {@code ViewMatchers.isDisplayingAtLeast}, neither the scale of the view nor the
+   * size of the screen is taken into account.
+   */
+  public boolean isDisplayingAtLeast(int areaPercentage) {
+    if (!shown || !hasGlobalVisibleRect || width <= 0 || height <= 0) {
+      return false;
+    }
+    double visibleArea =
+        (double) (visibleRight - visibleLeft) * (double) (visibleBottom - visibleTop);
+    double viewArea = (double) width * (double) height;
+    return visibleArea * 100 / viewArea >= areaPercentage;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder out =
+        new StringBuilder(className)
+            .append(String.format(Locale.ROOT, "{id=%d, visibility=%d", id, visibility))
+            .append(
+                String.format(
+                    Locale.ROOT, ", x=%d, y=%d, width=%d, height=%d", left, top, width, height));
+    if (text != null) {
+      out.append(", text=").append(text);
+    }
+    if (contentDescription != null) {
+      out.append(", desc=").append(contentDescription);
+    }
+    return out.append('}').toString();
+  }
+}
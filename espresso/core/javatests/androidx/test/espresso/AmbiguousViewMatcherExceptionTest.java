@@ -20,6 +20,7 @@ import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentat
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
 
 import android.view.View;
@@ -27,6 +28,10 @@ import android.widget.RelativeLayout;
 import android.widget.TextView;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import org.hamcrest.Matcher;
 import org.hamcrest.StringDescription;
 import org.junit.Before;
@@ -85,6 +90,16 @@ public class AmbiguousViewMatcherExceptionTest {
             containsString("{id=-1,"))); // root
   }
 
+  @Test
+  public void exceptionMessage_survivesSerialization() throws Exception {
+    AmbiguousViewMatcherException exception = createException();
+
+    AmbiguousViewMatcherException deserialized = serializeAndDeserialize(exception);
+
+    assertThat(deserialized.getMessage(), notNullValue());
+    assertThat(deserialized.getMessage(), equalTo(exception.getMessage()));
+  }
+
   private AmbiguousViewMatcherException createException() {
 
     return new AmbiguousViewMatcherException.Builder()
@@ -95,4 +110,15 @@ public class AmbiguousViewMatcherExceptionTest {
         .withOtherAmbiguousViews(child2, child3, child4)
         .build();
   }
+
+  private static <T> T serializeAndDeserialize(T object) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(object);
+    out.close();
+    @SuppressWarnings("unchecked")
+    T deserialized =
+        (T) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    return deserialized;
+  }
 }
@@ -20,11 +20,20 @@ import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 import android.view.View;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.StringDescription;
 import org.junit.Before;
@@ -69,10 +78,61 @@ public class NoMatchingViewExceptionTest {
     assertThat("wrong view matcher description", viewMatcherDescription, equalTo("null"));
   }
 
+  @Test
+  public void exceptionMessage_renderedOnlyOnDemand() {
+    final AtomicInteger descriptions = new AtomicInteger();
+    Matcher<View> countingMatcher =
+        new BaseMatcher<View>() {
+          @Override
+          public boolean matches(Object item) {
+            return false;
+          }
+
+          @Override
+          public void describeTo(Description description) {
+            descriptions.incrementAndGet();
+            description.appendText("counting");
+          }
+        };
+    NoMatchingViewException exception =
+        new NoMatchingViewException.Builder()
+            .withViewMatcher(countingMatcher)
+            .withRootView(testView)
+            .build();
+    assertThat(descriptions.get(), equalTo(0));
+
+    String message = exception.getMessage();
+    assertThat(message, containsString("counting"));
+    assertThat(exception.getMessage(), sameInstance(message));
+    assertThat(descriptions.get(), equalTo(1));
+  }
+
+  @Test
+  public void exceptionMessage_survivesSerialization() throws Exception {
+    NoMatchingViewException exception = createException();
+
+    NoMatchingViewException deserialized = serializeAndDeserialize(exception);
+
+    assertThat(deserialized.getMessage(), notNullValue());
+    assertThat(deserialized.getMessage(), equalTo(exception.getMessage()));
+    assertThat(deserialized.getViewMatcherDescription(), equalTo("null"));
+  }
+
   private NoMatchingViewException createException() {
     return new NoMatchingViewException.Builder()
         .withViewMatcher(alwaysFailingMatcher)
         .withRootView(testView)
         .build();
   }
+
+  private static <T> T serializeAndDeserialize(T object) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(object);
+    out.close();
+    @SuppressWarnings("unchecked")
+    T deserialized =
+        (T) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    return deserialized;
+  }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso;
+
+import static androidx.test.espresso.matcher.ViewMatchers.isRoot;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.hamcrest.Matchers.any;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.espresso.base.InterruptableUiController;
+import androidx.test.espresso.matcher.RootMatchers;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import androidx.test.internal.platform.os.ControlledLooper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Provider;
+import org.hamcrest.Matcher;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+
+/** Unit tests for {@link ViewInteractionBatch}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class ViewInteractionBatchTest {
+  @Mock private InterruptableUiController mockUiController;
+  @Mock private ControlledLooper mockControlledLooper;
+
+  private final List<String> events = new ArrayList<>();
+  private final List<Matcher<View>> failedMatchers = new ArrayList<>();
+  private FrameLayout root;
+  private ViewInteractionBatch batch;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    Context context = getInstrumentation().getTargetContext();
+    root = new FrameLayout(context);
+    View first = new View(context);
+    first.setId(1);
+    View second = new View(context);
+    second.setId(2);
+    root.addView(first);
+    root.addView(second);
+    batch =
+        new ViewInteractionBatch(
+            mockUiController,
+            MoreExecutors.directExecutor(),
+            new FailureHandler() {
+              @Override
+              public void handle(Throwable error, Matcher<View> viewMatcher) {
+                events.add("failed: " + error.getMessage());
+                failedMatchers.add(viewMatcher);
+              }
+            },
+            isRoot(),
+            new Provider<View>() {
+              @Override
+              public View get() {
+                return root;
+              }
+            },
+            new AtomicReference<Matcher<Root>>(RootMatchers.DEFAULT),
+            mockControlledLooper);
+  }
+
+  @Test
+  @UiThreadTest
+  public void run_idlesOnlyAtStartAndEnd() {
+    batch
+        .perform(withId(1), recordingAction("first"))
+        .perform(withId(2), recordingAction("second"), recordingAction("third"))
+        .check(withId(1), recordingAssertion("check"))
+        .run();
+
+    assertEquals(ImmutableList.of("first on 1", "second on 2", "third on 2", "check on 1"), events);
+    verify(mockUiController, times(2)).loopMainThreadUntilIdle();
+  }
+
+  @Test
+  @UiThreadTest
+  public void idleStep_idlesBetweenSteps() {
+    batch
+        .perform(withId(1), recordingAction("first"))
+        .idle()
+        .perform(withId(2), recordingAction("second"))
+        .run();
+
+    verify(mockUiController, times(3)).loopMainThreadUntilIdle();
+  }
+
+  @Test
+  @UiThreadTest
+  public void failingStep_isReportedWithItsViewMatcher() {
+    Matcher<View> missing = withId(3);
+    batch
+        .perform(withId(1), recordingAction("first"))
+        .check(missing, recordingAssertion("missing"))
+        .perform(withId(2), recordingAction("skipped"))
+        .run();
+
+    assertEquals(2, events.size());
+    assertEquals("first on 1", events.get(0));
+    assertTrue(events.get(1).startsWith("failed: "));
+    assertSame(missing, failedMatchers.get(0));
+  }
+
+  private ViewAction recordingAction(final String name) {
+    return new ViewAction() {
+      @Override
+      public Matcher<View> getConstraints() {
+        return any(View.class);
+      }
+
+      @Override
+      public String getDescription() {
+        return name;
+      }
+
+      @Override
+      public void perform(UiController uiController, View view) {
+        events.add(name + " on " + view.getId());
+      }
+    };
+  }
+
+  private ViewAssertion recordingAssertion(final String name) {
+    return new ViewAssertion() {
+      @Override
+      public void check(View view, NoMatchingViewException noViewFoundException) {
+        if (noViewFoundException != null) {
+          throw noViewFoundException;
+        }
+        events.add(name + " on " + view.getId());
+      }
+    };
+  }
+}
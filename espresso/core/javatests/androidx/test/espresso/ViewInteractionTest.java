@@ -28,10 +28,15 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -48,10 +53,13 @@ import androidx.test.filters.SmallTest;
 import androidx.test.internal.platform.os.ControlledLooper;
 import androidx.test.runner.lifecycle.ActivityLifecycleMonitor;
 import androidx.test.runner.lifecycle.ActivityLifecycleMonitorRegistry;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -300,6 +308,8 @@ public class ViewInteractionTest {
     when(mockViewFinder.getView()).thenThrow(noActivityResumed);
     // enable remote interaction
     when(mockRemoteInteraction.isRemoteProcess()).thenReturn(false);
+    // a remote instance registers while the local interaction runs.
+    when(mockRemoteInteraction.hasRemoteInstances()).thenReturn(false, true);
     // noinspection unchecked
     when(mockRemoteInteraction.createRemoteCheckCallable(
             any(Matcher.class),
@@ -335,6 +345,63 @@ public class ViewInteractionTest {
     }
   }
 
+  @Test
+  public void verifySuccessfulCheckWithoutRemoteInstances_skipsRemoteInteraction() {
+    when(mockViewFinder.getView()).thenReturn(targetView);
+    // enable remote interaction
+    when(mockRemoteInteraction.isRemoteProcess()).thenReturn(false);
+    when(mockRemoteInteraction.hasRemoteInstances()).thenReturn(false);
+    initWithViewInteraction();
+
+    testInteraction.check(mockAssertion);
+    verify(mockAssertion).check(targetView, null);
+    // noinspection unchecked
+    verify(mockRemoteInteraction, never())
+        .createRemoteCheckCallable(
+            any(Matcher.class), any(Matcher.class), anyMap(), any(ViewAssertion.class));
+  }
+
+  @Test
+  public void verifyFailingCheckWithoutRemoteInstances_skipsRemoteInteraction() throws Exception {
+    NoActivityResumedException noActivityResumed = new NoActivityResumedException("not resumed");
+    when(mockViewFinder.getView()).thenThrow(noActivityResumed);
+    // enable remote interaction
+    when(mockRemoteInteraction.isRemoteProcess()).thenReturn(false);
+    when(mockRemoteInteraction.hasRemoteInstances()).thenReturn(false);
+    initWithViewInteraction();
+
+    try {
+      testInteraction.check(mockAssertion);
+      fail("expected NoActivityResumedException");
+    } catch (NoActivityResumedException e) {
+      assertThat(e, is(noActivityResumed));
+    }
+    verify(mockRemoteInteraction).awaitRemoteInstances();
+    // noinspection unchecked
+    verify(mockRemoteInteraction, never())
+        .createRemoteCheckCallable(
+            any(Matcher.class), any(Matcher.class), anyMap(), any(ViewAssertion.class));
+  }
+
+  @Test
+  public void verifySuccessfulPerformWithRemoteInstances_interactsRemotely() {
+    when(mockViewFinder.getView()).thenReturn(targetView);
+    // enable remote interaction
+    when(mockRemoteInteraction.isRemoteProcess()).thenReturn(false);
+    when(mockRemoteInteraction.hasRemoteInstances()).thenReturn(true);
+    when(mockRemoteInteraction.createRemotePerformCallable(
+            any(Matcher.class), any(Matcher.class), anyMap(), any(ViewAction.class)))
+        .thenReturn(createSuccessfulListenableFutureStub());
+    initWithViewInteraction();
+
+    testInteraction.perform(mockAction);
+    verify(mockAction).perform(mockUiController, targetView);
+    // noinspection unchecked
+    verify(mockRemoteInteraction)
+        .createRemotePerformCallable(
+            any(Matcher.class), any(Matcher.class), anyMap(), any(ViewAction.class));
+  }
+
   @Test
   public void verifyFailingCheckWithSuccessfulRemoteInteraction() {
     initWithRunCheckWithSuccessfulRemoteInteraction();
@@ -414,7 +481,70 @@ public class ViewInteractionTest {
     verify(bindableMock).getIBinder();
   }
 
+  @Test
+  public void verifySnapshotCheck_capturesOnMainThreadAndChecksOffIt() {
+    when(mockViewFinder.getView()).thenReturn(targetView);
+    ExecutorService snapshotThread = Executors.newSingleThreadExecutor();
+    try {
+      initWithViewInteraction(MoreExecutors.listeningDecorator(snapshotThread));
+      RecordingSnapshotAssertion assertion = new RecordingSnapshotAssertion();
+      testInteraction.check(assertion);
+
+      // The test executor runs the main thread work on the calling thread.
+      assertSame(targetView, assertion.capturedView);
+      assertSame(Thread.currentThread(), assertion.captureThread);
+      assertEquals("snapshot", assertion.checkedSnapshot);
+      assertNull(assertion.checkedException);
+      assertNotNull(assertion.checkThread);
+      assertNotSame(Thread.currentThread(), assertion.checkThread);
+    } finally {
+      snapshotThread.shutdown();
+    }
+  }
+
+  @Test
+  public void verifySnapshotCheck_ViewCannotBeFound() {
+    NoMatchingViewException noViewException =
+        new NoMatchingViewException.Builder()
+            .withViewMatcher(viewMatcher)
+            .withRootView(rootView)
+            .build();
+    when(mockViewFinder.getView()).thenThrow(noViewException);
+    initWithViewInteraction();
+    RecordingSnapshotAssertion assertion = new RecordingSnapshotAssertion();
+    testInteraction.check(assertion);
+
+    assertNull(assertion.captureThread);
+    assertNull(assertion.checkedSnapshot);
+    assertSame(noViewException, assertion.checkedException);
+  }
+
+  @Test
+  public void verifySnapshotCheck_propagatesCaptureException() {
+    final RuntimeException exceptionToRaise = new RuntimeException("capture failed");
+    when(mockViewFinder.getView()).thenReturn(targetView);
+    initWithViewInteraction();
+    RecordingSnapshotAssertion assertion =
+        new RecordingSnapshotAssertion() {
+          @Override
+          protected String capture(View view) {
+            throw exceptionToRaise;
+          }
+        };
+    try {
+      testInteraction.check(assertion);
+      fail("Should propagate exception thrown while capturing!");
+    } catch (RuntimeException re) {
+      assertThat(re, is(exceptionToRaise));
+    }
+    assertNull(assertion.checkThread);
+  }
+
   private void initWithViewInteraction() {
+    initWithViewInteraction(MoreExecutors.newDirectExecutorService());
+  }
+
+  private void initWithViewInteraction(ListeningExecutorService snapshotExecutor) {
     when(mockAction.getConstraints()).thenReturn(actionConstraint);
 
     testInteraction =
@@ -435,7 +565,8 @@ public class ViewInteractionTest {
                     TimeUnit.SECONDS,
                     new LinkedBlockingQueue<Runnable>(),
                     new ThreadFactoryBuilder().setNameFormat("Espresso Remote #%d").build())),
-            mockControlledLooper);
+            mockControlledLooper,
+            snapshotExecutor);
   }
 
   private void initWithRunPerformWithSuccessfulRemoteInteraction() {
@@ -462,6 +593,8 @@ public class ViewInteractionTest {
 
     // enable remote interaction
     when(mockRemoteInteraction.isRemoteProcess()).thenReturn(false);
+    // a remote instance registers while the local interaction runs.
+    when(mockRemoteInteraction.hasRemoteInstances()).thenReturn(false, true);
   }
 
   private static final class BindableViewAction implements ViewAction, Bindable {
@@ -535,4 +668,26 @@ public class ViewInteractionTest {
       viewAssertionMock.check(view, noViewFoundException);
     }
   }
+
+  private static class RecordingSnapshotAssertion extends SnapshotViewAssertion<String> {
+    volatile View capturedView;
+    volatile Thread captureThread;
+    volatile String checkedSnapshot;
+    volatile NoMatchingViewException checkedException;
+    volatile Thread checkThread;
+
+    @Override
+    protected String capture(View view) {
+      capturedView = view;
+      captureThread = Thread.currentThread();
+      return "snapshot";
+    }
+
+    @Override
+    public void checkSnapshot(String snapshot, NoMatchingViewException noViewFoundException) {
+      checkedSnapshot = snapshot;
+      checkedException = noViewFoundException;
+      checkThread = Thread.currentThread();
+    }
+  }
 }
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso;
+
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.WindowManager;
+import android.widget.TextView;
+import androidx.test.core.app.ActivityScenario.ActivityAction;
+import androidx.test.espresso.base.ActiveRootLister;
+import androidx.test.espresso.matcher.RootMatchers;
+import androidx.test.ext.junit.rules.ActivityScenarioRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+import androidx.test.internal.platform.os.ControlledLooper;
+import androidx.test.ui.app.MainActivity;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.AssertionFailedError;
+import org.hamcrest.Matcher;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+
+/** Unit tests for {@link ViewStateWaiter}. */
+@MediumTest
+@RunWith(AndroidJUnit4.class)
+public class ViewStateWaiterTest {
+  @Rule
+  public ActivityScenarioRule<MainActivity> rule = new ActivityScenarioRule<>(MainActivity.class);
+
+  @Mock private ViewFinder mockViewFinder;
+  @Mock private ActiveRootLister mockActiveRootLister;
+  @Mock private ControlledLooper mockControlledLooper;
+
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final List<Throwable> failures = new ArrayList<>();
+  private TextView textView;
+  private ViewStateWaiter waiter;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    textView = new TextView(getInstrumentation().getTargetContext());
+    textView.setText("loading");
+    when(mockViewFinder.getView()).thenReturn(textView);
+    when(mockActiveRootLister.listActiveRoots()).thenReturn(Collections.<Root>emptyList());
+    waiter =
+        new ViewStateWaiter(
+            mockViewFinder,
+            mockActiveRootLister,
+            new Executor() {
+              @Override
+              public void execute(Runnable runnable) {
+                mainHandler.post(runnable);
+              }
+            },
+            new FailureHandler() {
+              @Override
+              public void handle(Throwable error, Matcher<View> viewMatcher) {
+                failures.add(error);
+              }
+            },
+            withId(1),
+            new AtomicReference<Matcher<Root>>(RootMatchers.DEFAULT),
+            mockControlledLooper);
+  }
+
+  @Test
+  public void until_returnsOnceStateIsReached() {
+    mainHandler.postDelayed(
+        new Runnable() {
+          @Override
+          public void run() {
+            textView.setText("done");
+          }
+        },
+        100);
+
+    int evaluations = waiter.withTimeout(5, TimeUnit.SECONDS).until(withText("done"));
+
+    assertThat(evaluations, greaterThanOrEqualTo(2));
+    assertEquals(0, failures.size());
+  }
+
+  @Test
+  public void until_reportsTimeout() {
+    waiter.withTimeout(200, TimeUnit.MILLISECONDS).until(withText("done"));
+
+    assertEquals(1, failures.size());
+    assertThat(failures.get(0), instanceOf(AssertionError.class));
+    assertThat(failures.get(0).getMessage(), containsString("was not reached"));
+    assertThat(failures.get(0).getCause(), instanceOf(AssertionFailedError.class));
+  }
+
+  @Test
+  public void until_seesChangeMadeAfterAnEvaluationBeforeIdle() {
+    final AtomicInteger checks = new AtomicInteger();
+
+    int evaluations =
+        waiter
+            .withTimeout(5, TimeUnit.SECONDS)
+            .until(
+                new ViewAssertion() {
+                  @Override
+                  public void check(View view, NoMatchingViewException noViewFoundException) {
+                    if (checks.getAndIncrement() == 0) {
+                      // runs right after this evaluation, before the main thread becomes idle,
+                      // without laying out or drawing anything.
+                      mainHandler.post(
+                          new Runnable() {
+                            @Override
+                            public void run() {
+                              textView.setText("done");
+                            }
+                          });
+                    }
+                    assertThat(((TextView) view).getText().toString(), is("done"));
+                  }
+                });
+
+    assertThat(evaluations, greaterThanOrEqualTo(2));
+    assertEquals(0, failures.size());
+  }
+
+  @Test
+  public void until_doesNotKeepIdleMainThreadBusy() {
+    int evaluations = waiter.withTimeout(500, TimeUnit.MILLISECONDS).until(withText("done"));
+
+    assertEquals(1, failures.size());
+    // the first evaluation and the one after the following idle, rather than one every frame.
+    assertThat(evaluations, lessThan(5));
+  }
+
+  @Test
+  public void until_waitsForMissingRoot() {
+    when(mockViewFinder.getView())
+        .thenThrow(new NoActivityResumedException("not yet"))
+        .thenThrow(
+            NoMatchingRootException.create(RootMatchers.DEFAULT, Collections.<Root>emptyList()))
+        .thenReturn(textView);
+    mainHandler.postDelayed(
+        new Runnable() {
+          @Override
+          public void run() {
+            textView.setText("done");
+          }
+        },
+        100);
+
+    waiter.withTimeout(5, TimeUnit.SECONDS).until(withText("done"));
+
+    assertEquals(0, failures.size());
+  }
+
+  @Test
+  public void until_seesChangeOfViewInActiveRoot() {
+    showTextViewInActiveRoot();
+    mainHandler.postDelayed(
+        new Runnable() {
+          @Override
+          public void run() {
+            textView.setText("done");
+          }
+        },
+        100);
+
+    int evaluations = waiter.withTimeout(5, TimeUnit.SECONDS).until(withText("done"));
+
+    assertThat(evaluations, greaterThanOrEqualTo(2));
+    assertThat(evaluations, lessThan(20));
+    assertEquals(0, failures.size());
+  }
+
+  @Test
+  public void until_doesNotKeepIdleMainThreadBusyWithActiveRoot() {
+    showTextViewInActiveRoot();
+
+    int evaluations = waiter.withTimeout(500, TimeUnit.MILLISECONDS).until(withText("done"));
+
+    assertEquals(1, failures.size());
+    // nothing lays out, draws or runs on the main thread, so there is nothing to evaluate.
+    assertThat(evaluations, lessThan(10));
+  }
+
+  /** Shows the text view in the activity, and lists its window as the only active root. */
+  private void showTextViewInActiveRoot() {
+    final List<Root> roots = new ArrayList<>();
+    rule.getScenario()
+        .onActivity(
+            new ActivityAction<MainActivity>() {
+              @Override
+              public void perform(MainActivity activity) {
+                textView = new TextView(activity);
+                textView.setText("loading");
+                activity.setContentView(textView);
+                roots.add(
+                    new Root.Builder()
+                        .withDecorView(activity.getWindow().getDecorView())
+                        .withWindowLayoutParams(new WindowManager.LayoutParams())
+                        .build());
+              }
+            });
+    getInstrumentation().waitForIdleSync();
+    when(mockViewFinder.getView()).thenReturn(textView);
+    when(mockActiveRootLister.listActiveRoots()).thenReturn(roots);
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.action;
+
+import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import android.widget.ArrayAdapter;
+import android.widget.ListView;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.hamcrest.Matcher;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link AdapterDataIndex}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class AdapterDataIndexTest {
+
+  private ArrayAdapter<String> adapter;
+  private ListView listView;
+
+  @Before
+  public void setUp() {
+    adapter =
+        new ArrayAdapter<String>(
+            getApplicationContext(),
+            android.R.layout.simple_list_item_1,
+            new ArrayList<String>(Arrays.asList("a", "b", "c", "b")));
+    listView = new ListView(getApplicationContext());
+    listView.setAdapter(adapter);
+  }
+
+  @UiThreadTest
+  @Test
+  public void findCandidates_looksUpPositionsOfEqualData() {
+    assertEquals(Arrays.asList(1, 3), positionsOf(is("b")));
+    assertEquals(Arrays.asList(0), positionsOf(is("a")));
+    assertEquals(Arrays.<Integer>asList(), positionsOf(is("d")));
+  }
+
+  @UiThreadTest
+  @Test
+  public void findCandidates_adapterChangeInvalidatesIndex() {
+    assertEquals(Arrays.asList(2), positionsOf(is("c")));
+
+    adapter.insert("c", 0);
+    assertEquals(Arrays.asList(0, 3), positionsOf(is("c")));
+
+    adapter.remove("a");
+    assertEquals(Arrays.asList(0, 2), positionsOf(is("c")));
+
+    adapter.setNotifyOnChange(false);
+    adapter.insert("d", 0);
+    // the item count changed, even though the observers weren't notified.
+    assertEquals(Arrays.asList(0), positionsOf(is("d")));
+  }
+
+  @UiThreadTest
+  @Test
+  public void findCandidates_dataChangedInPlaceNeedsNotification() {
+    List<String> items = new ArrayList<>(Arrays.asList("a", "b", "c", "b"));
+    adapter =
+        new ArrayAdapter<String>(
+            getApplicationContext(), android.R.layout.simple_list_item_1, items);
+    listView.setAdapter(adapter);
+    assertEquals(Arrays.asList(0), positionsOf(is("a")));
+
+    // the item count stays the same, only the notification invalidates the index.
+    items.set(2, "a");
+    adapter.notifyDataSetChanged();
+    assertEquals(Arrays.asList(0, 2), positionsOf(is("a")));
+  }
+
+  @UiThreadTest
+  @Test
+  public void findCandidates_dataWithoutValueSemanticsIsNotIndexed() {
+    ArrayAdapter<StringBuilder> builderAdapter =
+        new ArrayAdapter<StringBuilder>(
+            getApplicationContext(),
+            android.R.layout.simple_list_item_1,
+            Arrays.asList(new StringBuilder("a"), new StringBuilder("b")));
+    listView.setAdapter(builderAdapter);
+    assertNull(AdapterDataIndex.findCandidates(listView, is(builderAdapter.getItem(0))));
+  }
+
+  @UiThreadTest
+  @Test
+  public void findCandidates_otherMatchersAreNotIndexed() {
+    assertNull(AdapterDataIndex.findCandidates(listView, startsWith("b")));
+  }
+
+  private List<Integer> positionsOf(Matcher<String> dataMatcher) {
+    List<Integer> positions = new ArrayList<>();
+    for (AdapterViewProtocol.AdaptedData data :
+        AdapterDataIndex.findCandidates(listView, dataMatcher)) {
+      positions.add((Integer) data.opaqueToken);
+    }
+    return positions;
+  }
+}
@@ -21,6 +21,7 @@ import static androidx.test.espresso.action.ViewActions.click;
 import static androidx.test.espresso.matcher.ViewMatchers.isRoot;
 import static androidx.test.espresso.matcher.ViewMatchers.withId;
 import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static org.hamcrest.Matchers.containsString;
 import static org.junit.rules.ExpectedException.none;
 
 import androidx.test.espresso.NoMatchingViewException;
@@ -63,6 +64,9 @@ public class LayoutAssertionsTest {
   public void assertNoOverlaps() {
     onView(withId(R.id.length)).perform(click());
     expectedException.expect(AssertionFailedError.class);
+    // the overlapping views are described from their snapshots.
+    expectedException.expectMessage(containsString("{id="));
+    expectedException.expectMessage(containsString(" overlaps\n"));
     onView(isRoot()).check(LayoutAssertions.noOverlaps());
   }
 
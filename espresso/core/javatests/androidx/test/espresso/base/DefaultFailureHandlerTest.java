@@ -21,12 +21,17 @@ import static androidx.test.espresso.assertion.ViewAssertions.matches;
 import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
 import static androidx.test.espresso.matcher.ViewMatchers.isRoot;
 import static com.google.common.base.Throwables.getStackTraceAsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 import static org.junit.rules.ExpectedException.none;
 
 import androidx.annotation.NonNull;
 import android.view.View;
+import android.view.ViewGroup;
+import androidx.test.core.app.ActivityScenario.ActivityAction;
 import androidx.test.espresso.AmbiguousViewMatcherException;
 import androidx.test.espresso.NoMatchingViewException;
 import androidx.test.espresso.ViewAssertion;
@@ -93,6 +98,27 @@ public class DefaultFailureHandlerTest {
     onView(withMatchesThatReturns(true)).check(matches(isDisplayed()));
   }
 
+  @Test
+  public void noMatchingViewException_keepsHierarchyOfTheFailure() {
+    NoMatchingViewException failure = null;
+    try {
+      onView(withMatchesThatReturns(false)).check(matches(isDisplayed()));
+    } catch (NoMatchingViewException expected) {
+      failure = expected;
+    }
+    assertNotNull(failure);
+    rule.getScenario()
+        .onActivity(
+            new ActivityAction<MainActivity>() {
+              @Override
+              public void perform(MainActivity activity) {
+                ((ViewGroup) activity.findViewById(android.R.id.content)).removeAllViews();
+                activity.finish();
+              }
+            });
+    assertThat(failure.getMessage(), containsString("ListView"));
+  }
+
   private static Matcher<View> withMatchesThatReturns(final boolean returnValue) {
     return new BaseMatcher<View>() {
       @Override
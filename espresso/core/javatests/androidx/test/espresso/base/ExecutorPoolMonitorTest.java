@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.test.espresso.IdlingExecutorProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit test for {@link ExecutorPoolMonitor} */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class ExecutorPoolMonitorTest {
+
+  private final ThreadPoolExecutor registeredPool =
+      new ThreadPoolExecutor(2, 2, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+  private final ScheduledThreadPoolExecutor providedPool = new ScheduledThreadPoolExecutor(1);
+  private final ThreadPoolExecutor asyncTaskPool =
+      new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+
+  private final ExecutorPoolMonitor monitor =
+      new ExecutorPoolMonitor(
+          Collections.<IdlingExecutorProvider>singletonList(
+              new IdlingExecutorProvider() {
+                @Override
+                public Collection<ThreadPoolExecutor> getExecutors() {
+                  return Collections.<ThreadPoolExecutor>singletonList(providedPool);
+                }
+              }),
+          Collections.singletonList(asyncTaskPool));
+
+  @After
+  public void tearDown() throws Exception {
+    registeredPool.shutdownNow();
+    providedPool.shutdownNow();
+    asyncTaskPool.shutdownNow();
+  }
+
+  @Test
+  public void isIdle_onEmptyPools() throws Exception {
+    monitor.sync(Collections.singletonList(registeredPool));
+    assertTrue(monitor.isIdleNow());
+  }
+
+  @Test
+  public void isIdle_withRunningTaskOnRegisteredPool() throws Exception {
+    BlockingTask task = new BlockingTask();
+    registeredPool.execute(task);
+    task.awaitStarted();
+    monitor.sync(Collections.singletonList(registeredPool));
+    assertFalse(monitor.isIdleNow());
+
+    // the pool is no longer monitored once it's unregistered.
+    monitor.sync(Collections.<ThreadPoolExecutor>emptyList());
+    assertTrue(monitor.isIdleNow());
+    task.finish();
+  }
+
+  @Test
+  public void isIdle_withRunningTaskOnProvidedPool() throws Exception {
+    BlockingTask task = new BlockingTask();
+    providedPool.execute(task);
+    task.awaitStarted();
+    monitor.sync(Collections.<ThreadPoolExecutor>emptyList());
+    assertFalse(monitor.isIdleNow());
+    task.finish();
+  }
+
+  @Test
+  public void isIdle_ignoresAsyncTaskPoolsAndShutdownPools() throws Exception {
+    BlockingTask task = new BlockingTask();
+    asyncTaskPool.execute(task);
+    task.awaitStarted();
+    ThreadPoolExecutor shutdownPool =
+        new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    shutdownPool.shutdown();
+    monitor.sync(Arrays.asList(asyncTaskPool, shutdownPool));
+    assertTrue(monitor.isIdleNow());
+    task.finish();
+  }
+
+  @Test
+  public void isIdle_ignoresDelayedTasks() throws Exception {
+    @SuppressWarnings({"unused", "nullness"})
+    Future<?> possiblyIgnoredError =
+        providedPool.scheduleAtFixedRate(
+            new Runnable() {
+              @Override
+              public void run() {}
+            },
+            1,
+            1,
+            TimeUnit.HOURS);
+    monitor.sync(Collections.<ThreadPoolExecutor>emptyList());
+    assertTrue(monitor.isIdleNow());
+  }
+
+  @Test
+  public void sync_rejectsCachedThreadPools() throws Exception {
+    final ThreadPoolExecutor cachedPool = (ThreadPoolExecutor) Executors.newCachedThreadPool();
+    BlockingTask firstTask = new BlockingTask();
+    BlockingTask secondTask = new BlockingTask();
+    cachedPool.execute(firstTask);
+    cachedPool.execute(secondTask);
+    firstTask.awaitStarted();
+    secondTask.awaitStarted();
+    ExecutorPoolMonitor cachedPoolMonitor =
+        new ExecutorPoolMonitor(
+            Collections.<IdlingExecutorProvider>singletonList(
+                new IdlingExecutorProvider() {
+                  @Override
+                  public Collection<ThreadPoolExecutor> getExecutors() {
+                    return Collections.singletonList(cachedPool);
+                  }
+                }),
+            Collections.<ThreadPoolExecutor>emptyList());
+    try {
+      // a barrier task would start a third thread and report the pool as idle right away.
+      cachedPoolMonitor.sync(Collections.<ThreadPoolExecutor>emptyList());
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException expected) {
+    } finally {
+      firstTask.finish();
+      secondTask.finish();
+      cachedPool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void idleNotification() throws Exception {
+    BlockingTask registeredTask = new BlockingTask();
+    registeredPool.execute(registeredTask);
+    BlockingTask providedTask = new BlockingTask();
+    providedPool.execute(providedTask);
+    registeredTask.awaitStarted();
+    providedTask.awaitStarted();
+    monitor.sync(Collections.singletonList(registeredPool));
+
+    final CountDownLatch notificationLatch = new CountDownLatch(1);
+    monitor.notifyWhenIdle(
+        new Runnable() {
+          @Override
+          public void run() {
+            notificationLatch.countDown();
+          }
+        });
+    registeredTask.finish();
+    assertFalse(notificationLatch.await(500, TimeUnit.MILLISECONDS));
+    providedTask.finish();
+    assertTrue(notificationLatch.await(5, TimeUnit.SECONDS));
+    assertTrue(monitor.isIdleNow());
+  }
+
+  private static class BlockingTask implements Runnable {
+    private final CountDownLatch startedLatch = new CountDownLatch(1);
+    private final CountDownLatch finishLatch = new CountDownLatch(1);
+
+    @Override
+    public void run() {
+      startedLatch.countDown();
+      try {
+        finishLatch.await();
+      } catch (InterruptedException ie) {
+        throw new RuntimeException(ie);
+      }
+    }
+
+    void awaitStarted() throws InterruptedException {
+      assertTrue(startedLatch.await(1, TimeUnit.SECONDS));
+    }
+
+    void finish() {
+      finishLatch.countDown();
+    }
+  }
+}
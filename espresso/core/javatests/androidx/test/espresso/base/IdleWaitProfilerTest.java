@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import java.io.Serializable;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link IdleWaitProfiler}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class IdleWaitProfilerTest {
+
+  private final IdleWaitProfiler profiler = new IdleWaitProfiler();
+
+  @Test
+  public void disabled_recordsNothing() {
+    profiler.beginInteraction("perform 'click'");
+    profiler.recordMainLooperLoop(10, 3);
+    assertNull(profiler.finishInteraction());
+  }
+
+  @Test
+  public void finishWithoutBegin_returnsNull() {
+    profiler.setEnabled(true);
+    profiler.recordConditionWait("ASYNC_TASKS_HAVE_IDLED", 5);
+    assertNull(profiler.finishInteraction());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void enabled_aggregatesPerInteraction() {
+    profiler.setEnabled(true);
+    profiler.beginInteraction("perform 'click'");
+    profiler.recordMainLooperLoop(10, 3);
+    profiler.recordMainLooperLoop(5, 2);
+    profiler.recordConditionWait("DYNAMIC_TASKS_HAVE_IDLED", 4);
+    profiler.recordConditionWait("DYNAMIC_TASKS_HAVE_IDLED", 6);
+    profiler.recordResourceBusy("network", 7);
+
+    Map<String, Serializable> properties = profiler.finishInteraction();
+    assertEquals(1, properties.size());
+    Map<String, Serializable> profile =
+        (Map<String, Serializable>) properties.get(IdleWaitProfiler.PROPERTY_KEY_PREFIX + 0);
+    assertEquals("perform 'click'", profile.get("interaction"));
+    assertEquals(15L, profile.get("totalSyncMs"));
+    assertEquals(5L, profile.get("mainLooperMessages"));
+    assertEquals(10L, profile.get("condition.DYNAMIC_TASKS_HAVE_IDLED"));
+    assertEquals(7L, profile.get("resource.network"));
+
+    profiler.beginInteraction("check 'matches'");
+    properties = profiler.finishInteraction();
+    profile = (Map<String, Serializable>) properties.get(IdleWaitProfiler.PROPERTY_KEY_PREFIX + 1);
+    assertEquals(0L, profile.get("totalSyncMs"));
+    assertNull(profile.get("resource.network"));
+  }
+}
@@ -36,6 +36,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Before;
 import org.junit.Test;
@@ -258,6 +259,38 @@ public class IdlingResourceRegistryTest {
     }
   }
 
+  @Test
+  public void allResourcesAreIdle_doesNotPollWhileAnyResourceIsBusy() throws Exception {
+    final AtomicInteger idleChecks = new AtomicInteger();
+    OnDemandIdlingResource r1 =
+        new OnDemandIdlingResource("r1") {
+          @Override
+          public boolean isIdleNow() {
+            idleChecks.incrementAndGet();
+            return super.isIdleNow();
+          }
+        };
+    OnDemandIdlingResource r2 = new OnDemandIdlingResource("r2");
+    r1.forceIdleNow();
+    registry.registerResources(Lists.newArrayList(r1, r2));
+    idleChecks.set(0);
+
+    for (int i = 0; i < 3; i++) {
+      FutureTask<Boolean> resourcesIdle = createIdleCheckTask(registry);
+      handler.post(resourcesIdle);
+      assertFalse(resourcesIdle.get());
+    }
+    // r2 is known to be busy, r1 does not need to be asked.
+    assertEquals(0, idleChecks.get());
+
+    r2.forceIdleNow();
+    FutureTask<Boolean> resourcesIdle = createIdleCheckTask(registry);
+    handler.post(resourcesIdle);
+    assertTrue(resourcesIdle.get());
+    // once everything is marked idle, idle resources are re-verified.
+    assertEquals(1, idleChecks.get());
+  }
+
   @Test
   public void notifyWhenAllResourcesAreIdle_success() throws InterruptedException {
     final CountDownLatch busyWarningLatch = new CountDownLatch(4);
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static org.hamcrest.Matchers.any;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.WindowManager;
+import androidx.test.espresso.NoActivityResumedException;
+import androidx.test.espresso.Root;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+import androidx.test.internal.platform.os.ControlledLooper;
+import androidx.test.runner.lifecycle.ActivityLifecycleCallback;
+import androidx.test.runner.lifecycle.ActivityLifecycleMonitor;
+import androidx.test.runner.lifecycle.Stage;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hamcrest.Matcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for the wake ups of {@link RootViewPicker}. */
+@MediumTest
+@RunWith(AndroidJUnit4.class)
+public class RootViewPickerTest {
+
+  // the sum of RootViewPicker.CREATED_WAIT_TIMES.
+  private static final long CREATED_WAIT_MILLIS = 460;
+
+  private final FakeWakeableUiController uiController = new FakeWakeableUiController();
+  private final FakeLifecycleMonitor lifecycleMonitor = new FakeLifecycleMonitor();
+  private final AtomicReference<View> result = new AtomicReference<>();
+  private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+  private View decorView;
+  private RootViewPicker rootViewPicker;
+
+  @Before
+  public void setUp() {
+    decorView = mock(View.class);
+    when(decorView.isLayoutRequested()).thenReturn(false);
+    when(decorView.hasWindowFocus()).thenReturn(true);
+    final Root root =
+        new Root.Builder()
+            .withDecorView(decorView)
+            .withWindowLayoutParams(new WindowManager.LayoutParams())
+            .build();
+    ActiveRootLister rootLister =
+        new ActiveRootLister() {
+          @Override
+          public List<Root> listActiveRoots() {
+            return Collections.singletonList(root);
+          }
+        };
+    rootViewPicker =
+        new RootViewPicker(
+            uiController,
+            new RootViewPicker.RootResultFetcher(
+                rootLister, new AtomicReference<Matcher<Root>>(any(Root.class))),
+            lifecycleMonitor,
+            new AtomicReference<Boolean>(true),
+            mock(ControlledLooper.class));
+    RootViewPicker.setWakeOnRootChanges(true);
+  }
+
+  @After
+  public void tearDown() {
+    RootViewPicker.setWakeOnRootChanges(false);
+  }
+
+  @Test
+  public void activityLifecycleChange_endsWaitEarly() throws Exception {
+    CountDownLatch done = getOnMainThread();
+    assertTrue(uiController.waiting.await(5, TimeUnit.SECONDS));
+
+    Activity activity = mock(Activity.class);
+    lifecycleMonitor.resumedActivity = activity;
+    for (ActivityLifecycleCallback callback : lifecycleMonitor.callbacks) {
+      callback.onActivityLifecycleChanged(activity, Stage.RESUMED);
+    }
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertSame(decorView, result.get());
+    assertEquals(1, uiController.wokenUpWaits.get());
+    assertEquals(0, uiController.timedOutWaits.get());
+    assertTrue(lifecycleMonitor.callbacks.isEmpty());
+  }
+
+  @Test
+  public void noWakeUp_waitsForFullDelay() throws Exception {
+    long start = SystemClock.uptimeMillis();
+    CountDownLatch done = getOnMainThread();
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertTrue(failure.get() instanceof NoActivityResumedException);
+    assertTrue(SystemClock.uptimeMillis() - start >= CREATED_WAIT_MILLIS);
+    assertEquals(0, uiController.wokenUpWaits.get());
+    assertTrue(lifecycleMonitor.callbacks.isEmpty());
+  }
+
+  /** Runs the picker on the main thread without blocking the test thread. */
+  private CountDownLatch getOnMainThread() {
+    final CountDownLatch done = new CountDownLatch(1);
+    new Handler(Looper.getMainLooper())
+        .post(
+            new Runnable() {
+              @Override
+              public void run() {
+                try {
+                  result.set(rootViewPicker.get());
+                } catch (RuntimeException e) {
+                  failure.set(e);
+                }
+                done.countDown();
+              }
+            });
+    return done;
+  }
+
+  /** Blocks the main thread for the given delay, unless woken up from another thread. */
+  private static final class FakeWakeableUiController implements WakeableUiController {
+    private final Semaphore wakeUps = new Semaphore(0);
+    final CountDownLatch waiting = new CountDownLatch(1);
+    final AtomicInteger wokenUpWaits = new AtomicInteger();
+    final AtomicInteger timedOutWaits = new AtomicInteger();
+
+    @Override
+    public void loopMainThreadForAtMost(long millisDelay) {
+      wakeUps.drainPermits();
+      waiting.countDown();
+      try {
+        if (wakeUps.tryAcquire(millisDelay, TimeUnit.MILLISECONDS)) {
+          wokenUpWaits.incrementAndGet();
+        } else {
+          timedOutWaits.incrementAndGet();
+        }
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public void wakeUp() {
+      wakeUps.release();
+    }
+
+    @Override
+    public void loopMainThreadForAtLeast(long millisDelay) {
+      SystemClock.sleep(millisDelay);
+    }
+
+    @Override
+    public void loopMainThreadUntilIdle() {}
+
+    @Override
+    public boolean injectMotionEvent(MotionEvent event) {
+      return false;
+    }
+
+    @Override
+    public boolean injectKeyEvent(KeyEvent event) {
+      return false;
+    }
+
+    @Override
+    public boolean injectString(String str) {
+      return false;
+    }
+  }
+
+  private static final class FakeLifecycleMonitor implements ActivityLifecycleMonitor {
+    final List<ActivityLifecycleCallback> callbacks = new CopyOnWriteArrayList<>();
+    volatile Activity resumedActivity;
+
+    @Override
+    public void addLifecycleCallback(ActivityLifecycleCallback callback) {
+      callbacks.add(callback);
+    }
+
+    @Override
+    public void removeLifecycleCallback(ActivityLifecycleCallback callback) {
+      callbacks.remove(callback);
+    }
+
+    @Override
+    public Stage getLifecycleStageOf(Activity activity) {
+      return activity == resumedActivity ? Stage.RESUMED : Stage.DESTROYED;
+    }
+
+    @Override
+    public Collection<Activity> getActivitiesInStage(Stage stage) {
+      Activity activity = resumedActivity;
+      if (stage == Stage.RESUMED && activity != null) {
+        return Collections.singletonList(activity);
+      }
+      return Collections.emptyList();
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Dialog;
+import android.os.Looper;
+import androidx.test.core.app.ActivityScenario.ActivityAction;
+import androidx.test.espresso.Root;
+import androidx.test.ext.junit.rules.ActivityScenarioRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+import androidx.test.ui.app.MainActivity;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for the roots cache and generation of {@link RootsOracle}. */
+@MediumTest
+@RunWith(AndroidJUnit4.class)
+public class RootsOracleTest {
+
+  @Rule
+  public ActivityScenarioRule<MainActivity> rule = new ActivityScenarioRule<>(MainActivity.class);
+
+  @Test
+  public void unchangedWindows_reuseCachedRoots() {
+    rule.getScenario()
+        .onActivity(
+            new ActivityAction<MainActivity>() {
+              @Override
+              public void perform(MainActivity activity) {
+                RootsOracle rootsOracle = new RootsOracle(Looper.getMainLooper());
+                List<Root> first = rootsOracle.listActiveRoots();
+                assertFalse(first.isEmpty());
+                Root firstRoot = first.get(0);
+                int generation = rootsOracle.getRootsGeneration();
+                // the returned list belongs to the caller.
+                first.clear();
+
+                List<Root> second = rootsOracle.listActiveRoots();
+                assertNotSame(first, second);
+                assertFalse(second.isEmpty());
+                assertSame(firstRoot, second.get(0));
+                assertFalse(rootsOracle.haveRootsChangedSince(generation));
+                assertEquals(generation, rootsOracle.getRootsGeneration());
+              }
+            });
+  }
+
+  @Test
+  public void addedWindow_rebuildsRoots() {
+    rule.getScenario()
+        .onActivity(
+            new ActivityAction<MainActivity>() {
+              @Override
+              public void perform(MainActivity activity) {
+                RootsOracle rootsOracle = new RootsOracle(Looper.getMainLooper());
+                List<Root> before = rootsOracle.listActiveRoots();
+                int generation = rootsOracle.getRootsGeneration();
+
+                Dialog dialog = new Dialog(activity);
+                dialog.show();
+                try {
+                  assertTrue(rootsOracle.haveRootsChangedSince(generation));
+                  List<Root> after = rootsOracle.listActiveRoots();
+                  assertEquals(before.size() + 1, after.size());
+                  // the topmost window comes first.
+                  assertSame(dialog.getWindow().getDecorView(), after.get(0).getDecorView());
+                  assertNotSame(before.get(0), after.get(1));
+                } finally {
+                  dialog.dismiss();
+                }
+              }
+            });
+  }
+}
@@ -92,6 +92,7 @@ public class UiControllerImplIntegrationTest {
                         .getAsyncTaskThreadPool())
                 .asIdleNotifier(),
             new NoopRunnableIdleNotifier(),
+            new NoopRunnableIdleNotifier(),
             new Provider<IdleNotifier<IdleNotificationCallback>>() {
               @Override
               public IdleNotifier<IdleNotificationCallback> get() {
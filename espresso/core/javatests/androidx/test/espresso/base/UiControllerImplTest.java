@@ -25,16 +25,22 @@ import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.os.SystemClock;
 import android.util.Log;
 import androidx.test.espresso.IdlingResourceTimeoutException;
 import androidx.test.espresso.base.IdlingResourceRegistry.IdleNotificationCallback;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.LargeTest;
+import androidx.test.espresso.IdlingExecutorProvider;
 import com.google.common.collect.Lists;
+import java.util.Collections;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Provider;
 import org.junit.After;
@@ -53,6 +59,7 @@ public class UiControllerImplTest {
 
   private LooperThread testThread;
   private ThreadPoolExecutor asyncPool;
+  private ScheduledThreadPoolExecutor registeredPool;
   private IdlingResourceRegistry idlingResourceRegistry;
 
   private static class LooperThread extends Thread {
@@ -106,6 +113,12 @@ public class UiControllerImplTest {
     idlingResourceRegistry = new IdlingResourceRegistry(testThread.getLooper());
     asyncPool =
         new ThreadPoolExecutor(3, 3, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    registeredPool = new ScheduledThreadPoolExecutor(2);
+    ExecutorPoolMonitor executorPoolMonitor =
+        new ExecutorPoolMonitor(
+            Collections.<IdlingExecutorProvider>emptyList(),
+            Collections.<ThreadPoolExecutor>emptyList());
+    executorPoolMonitor.sync(Collections.<ThreadPoolExecutor>singletonList(registeredPool));
     EventInjector injector = null;
     if (Build.VERSION.SDK_INT > 15) {
       InputManagerEventInjectionStrategy strat = new InputManagerEventInjectionStrategy();
@@ -122,6 +135,7 @@ public class UiControllerImplTest {
             injector,
             new AsyncTaskPoolMonitor(asyncPool).asIdleNotifier(),
             new NoopRunnableIdleNotifier(),
+            executorPoolMonitor.asIdleNotifier(),
             new Provider<IdleNotifier<IdleNotificationCallback>>() {
               @Override
               public IdleNotifier<IdleNotificationCallback> get() {
@@ -136,6 +150,7 @@ public class UiControllerImplTest {
   public void tearDown() throws Exception {
     testThread.quitLooper();
     asyncPool.shutdown();
+    registeredPool.shutdownNow();
   }
 
   @Test
@@ -332,6 +347,55 @@ public class UiControllerImplTest {
     assertTrue("App should be idle.", latch.await(5, TimeUnit.SECONDS));
   }
 
+  @Test
+  public void loopMainThreadUntilIdle_registeredExecutorTasks() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final CountDownLatch taskStarted = new CountDownLatch(1);
+    final CountDownLatch taskShouldComplete = new CountDownLatch(1);
+    // not due yet, so it must not keep the pool busy.
+    @SuppressWarnings({"unused", "nullness"})
+    Future<?> possiblyIgnoredError =
+        registeredPool.schedule(
+            new Runnable() {
+              @Override
+              public void run() {}
+            },
+            1,
+            TimeUnit.HOURS);
+    registeredPool.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            taskStarted.countDown();
+            while (true) {
+              try {
+                taskShouldComplete.await();
+                return;
+              } catch (InterruptedException ie) {
+                // cant interrupt me. ignore.
+              }
+            }
+          }
+        });
+    assertTrue("executor task is not starting!", taskStarted.await(2, TimeUnit.SECONDS));
+
+    assertTrue(
+        testThread
+            .getHandler()
+            .post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    uiController.get().loopMainThreadUntilIdle();
+                    latch.countDown();
+                  }
+                }));
+    assertFalse(
+        "Should not have stopped looping the main thread yet!", latch.await(2, TimeUnit.SECONDS));
+    taskShouldComplete.countDown();
+    assertTrue("App should be idle.", latch.await(5, TimeUnit.SECONDS));
+  }
+
   @Test
   public void loopMainThreadUntilIdle_emptyQueue() {
     final CountDownLatch latch = new CountDownLatch(1);
@@ -509,4 +573,96 @@ public class UiControllerImplTest {
         "UiController tasks never interrupted",
         latch.await(timeToWaitForIdle - 100, TimeUnit.MILLISECONDS));
   }
+
+  @Test
+  public void loopMainThreadUntilIdle_nestedLoopFailsWithoutBreakingOuterLoop() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(2);
+    final AtomicReference<Throwable> nestedFailure = new AtomicReference<>();
+    assertTrue(
+        testThread
+            .getHandler()
+            .post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    testThread
+                        .getHandler()
+                        .post(
+                            new Runnable() {
+                              @Override
+                              public void run() {
+                                try {
+                                  uiController.get().loopMainThreadUntilIdle();
+                                } catch (IllegalStateException expected) {
+                                  nestedFailure.set(expected);
+                                }
+                                latch.countDown();
+                              }
+                            });
+                    uiController.get().loopMainThreadForAtLeast(500);
+                    latch.countDown();
+                  }
+                }));
+    assertTrue(
+        "Outer loop never returned after the nested loop failed",
+        latch.await(5, TimeUnit.SECONDS));
+    assertEquals("Already interrogating!", nestedFailure.get().getMessage());
+  }
+
+  @Test
+  public void loopMainThreadForAtMost_wakeUpEndsDelayEarly() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicLong elapsed = new AtomicLong();
+    assertTrue(
+        testThread
+            .getHandler()
+            .post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    testThread
+                        .getHandler()
+                        .postDelayed(
+                            new Runnable() {
+                              @Override
+                              public void run() {
+                                uiController.get().wakeUp();
+                              }
+                            },
+                            100);
+                    long start = SystemClock.uptimeMillis();
+                    uiController.get().loopMainThreadForAtMost(5000);
+                    elapsed.set(SystemClock.uptimeMillis() - start);
+                    latch.countDown();
+                  }
+                }));
+    assertTrue("Wake up never ended the delay", latch.await(4, TimeUnit.SECONDS));
+    assertTrue("Returned after " + elapsed.get() + "ms", elapsed.get() >= 100);
+  }
+
+  @Test
+  public void loopMainThreadForAtMost_noWakeUpWaitsForFullDelay() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicLong elapsed = new AtomicLong();
+    // a wake up while nothing is waiting must not end the next delay.
+    uiController.get().wakeUp();
+    assertTrue(
+        testThread
+            .getHandler()
+            .post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    uiController.get().loopMainThreadUntilIdle();
+                    // also posts a wake up task, which runs once the delay below has started.
+                    uiController.get().wakeUp();
+                    long start = SystemClock.uptimeMillis();
+                    uiController.get().loopMainThreadForAtMost(500);
+                    elapsed.set(SystemClock.uptimeMillis() - start);
+                    latch.countDown();
+                  }
+                }));
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertTrue("Returned after " + elapsed.get() + "ms", elapsed.get() >= 500);
+  }
 }
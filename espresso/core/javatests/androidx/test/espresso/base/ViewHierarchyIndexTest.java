@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.base;
+
+import static androidx.test.espresso.matcher.ViewMatchers.withContentDescription;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.matcher.ViewMatchers.withTagValue;
+import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+import androidx.test.core.app.ActivityScenario.ActivityAction;
+import androidx.test.espresso.AmbiguousViewMatcherException;
+import androidx.test.espresso.NoMatchingViewException;
+import androidx.test.ext.junit.rules.ActivityScenarioRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+import androidx.test.ui.app.MainActivity;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import javax.inject.Provider;
+import org.hamcrest.Matcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link ViewHierarchyIndex} and its use by {@link ViewFinderImpl}. */
+@MediumTest
+@RunWith(AndroidJUnit4.class)
+public class ViewHierarchyIndexTest {
+
+  @Rule
+  public ActivityScenarioRule<MainActivity> rule = new ActivityScenarioRule<>(MainActivity.class);
+
+  private final ViewHierarchyIndex index = new ViewHierarchyIndex();
+  private LinearLayout root;
+  private TextView unique;
+  private TextView firstDuplicate;
+  private TextView secondDuplicate;
+
+  @Before
+  public void setUp() {
+    index.setEnabled(true);
+    rule.getScenario()
+        .onActivity(
+            new ActivityAction<MainActivity>() {
+              @Override
+              public void perform(MainActivity activity) {
+                root = new LinearLayout(activity);
+                unique = new TextView(activity);
+                unique.setId(1);
+                unique.setTag("tag");
+                unique.setText("unique");
+                firstDuplicate = new TextView(activity);
+                firstDuplicate.setId(7);
+                firstDuplicate.setContentDescription("desc");
+                secondDuplicate = new TextView(activity);
+                secondDuplicate.setId(7);
+                FrameLayout nesting = new FrameLayout(activity);
+                nesting.addView(secondDuplicate);
+                root.addView(unique);
+                root.addView(firstDuplicate);
+                root.addView(nesting);
+                activity.setContentView(root);
+              }
+            });
+  }
+
+  @After
+  public void tearDown() {
+    ViewHierarchyIndex.getInstance().setEnabled(false);
+  }
+
+  @Test
+  public void equalityMatchers_lookUpTheirKey() {
+    onMainThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            assertEquals(Arrays.<View>asList(unique), index.findCandidates(root, withId(1)));
+            assertEquals(
+                new HashSet<View>(Arrays.<View>asList(firstDuplicate, secondDuplicate)),
+                new HashSet<View>(index.findCandidates(root, withId(7))));
+            assertTrue(index.findCandidates(root, withId(99)).isEmpty());
+            assertEquals(
+                Arrays.<View>asList(firstDuplicate),
+                index.findCandidates(root, withContentDescription("desc")));
+            assertEquals(
+                Arrays.<View>asList(unique),
+                index.findCandidates(root, withTagValue(is((Object) "tag"))));
+            // the most selective key matcher of an allOf is used.
+            assertEquals(
+                Arrays.<View>asList(firstDuplicate),
+                index.findCandidates(root, allOf(withId(7), withContentDescription("desc"))));
+          }
+        });
+  }
+
+  @Test
+  public void otherValueMatchers_scanTheKeys() {
+    onMainThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            List<View> candidates = index.findCandidates(root, withId(greaterThan(5)));
+            assertEquals(
+                new HashSet<View>(Arrays.<View>asList(firstDuplicate, secondDuplicate)),
+                new HashSet<View>(candidates));
+          }
+        });
+  }
+
+  @Test
+  public void unindexableMatchersAndDisabledIndex_returnNoCandidates() {
+    onMainThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            assertNull(index.findCandidates(root, withText("unique")));
+            // detached views never get the layout pass which would invalidate their index.
+            assertNull(index.findCandidates(new FrameLayout(root.getContext()), withId(1)));
+            index.setEnabled(false);
+            assertNull(index.findCandidates(root, withId(1)));
+          }
+        });
+  }
+
+  @Test
+  public void viewFinder_findsIndexedViews() {
+    ViewHierarchyIndex.getInstance().setEnabled(true);
+    onMainThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            assertSame(unique, find(withId(1)));
+            assertSame(firstDuplicate, find(allOf(withId(7), withContentDescription("desc"))));
+            assertSame(unique, find(withText("unique")));
+          }
+        });
+  }
+
+  @Test
+  public void viewFinder_reportsAmbiguousIds() {
+    ViewHierarchyIndex.getInstance().setEnabled(true);
+    onMainThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            try {
+              find(withId(7));
+              fail("Expected an AmbiguousViewMatcherException");
+            } catch (AmbiguousViewMatcherException expected) {
+            }
+            try {
+              find(withId(99));
+              fail("Expected a NoMatchingViewException");
+            } catch (NoMatchingViewException expected) {
+            }
+          }
+        });
+  }
+
+  @Test
+  public void viewFinder_reportsViewsMatchingWithoutLayoutPass() {
+    ViewHierarchyIndex.getInstance().setEnabled(true);
+    onMainThread(
+        new Runnable() {
+          @Override
+          public void run() {
+            assertSame(firstDuplicate, find(withContentDescription("desc")));
+            // changing the content description doesn't lay out, so the index is stale.
+            unique.setContentDescription("desc");
+            try {
+              find(withContentDescription("desc"));
+              fail("Expected an AmbiguousViewMatcherException");
+            } catch (AmbiguousViewMatcherException expected) {
+            }
+          }
+        });
+  }
+
+  private View find(Matcher<View> viewMatcher) {
+    return new ViewFinderImpl(
+            viewMatcher,
+            new Provider<View>() {
+              @Override
+              public View get() {
+                return root;
+              }
+            })
+        .getView();
+  }
+
+  private void onMainThread(final Runnable assertions) {
+    rule.getScenario()
+        .onActivity(
+            new ActivityAction<MainActivity>() {
+              @Override
+              public void perform(MainActivity activity) {
+                assertions.run();
+              }
+            });
+  }
+}
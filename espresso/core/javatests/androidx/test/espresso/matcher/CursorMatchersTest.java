@@ -25,12 +25,14 @@ import static androidx.test.espresso.matcher.CursorMatchers.withRowShort;
 import static androidx.test.espresso.matcher.CursorMatchers.withRowString;
 import static junit.framework.TestCase.assertFalse;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.rules.ExpectedException.none;
 
 import android.database.Cursor;
+import android.database.CursorWrapper;
 import android.database.MatrixCursor;
 import android.database.MergeCursor;
 import android.os.Build;
@@ -39,7 +41,9 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import org.hamcrest.Description;
 import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -361,6 +365,52 @@ public class CursorMatchersTest {
     assertFalse(withRowInt(3, 3).withStrictColumnChecks(false).matches(mergeCursor));
   }
 
+  @Test
+  public void columnName_isOnlyMatchedOncePerCursor() {
+    MatrixCursor rows = new MatrixCursor(new String[] {"one", "two"});
+    rows.addRow(new Object[] {1, 2});
+    rows.addRow(new Object[] {3, 4});
+    CountingNameMatcher nameMatcher = new CountingNameMatcher("two");
+    CursorMatchers.CursorMatcher rowMatcher = withRowInt(nameMatcher, is(4));
+
+    rows.moveToFirst();
+    assertFalse(rowMatcher.matches(rows));
+    rows.moveToNext();
+    assertTrue(rowMatcher.matches(rows));
+    assertEquals(2, nameMatcher.matchCount);
+
+    // a different cursor picks the column again.
+    assertFalse(rowMatcher.matches(cursor));
+    assertEquals(2 + COLUMN_NAMES.length, nameMatcher.matchCount);
+  }
+
+  @Test
+  public void columnName_isMatchedForEveryRowOfMergeCursor() {
+    Cursor c1 = makeCursor(new String[] {"one", "two"}, new Object[] {1, 2});
+    Cursor c2 = makeCursor(new String[] {"three"}, new Object[] {3});
+    MergeCursor mergeCursor = new MergeCursor(new Cursor[] {c1, c2});
+    CursorMatchers.CursorMatcher rowMatcher =
+        withRowInt("three", 3).withStrictColumnChecks(false);
+
+    mergeCursor.moveToFirst();
+    assertFalse(rowMatcher.matches(mergeCursor));
+    mergeCursor.moveToLast();
+    assertTrue(rowMatcher.matches(mergeCursor));
+  }
+
+  @Test
+  public void columnName_isMatchedAgainWhenWrappedCursorChangesColumns() {
+    Cursor c1 = makeCursor(new String[] {"three", "one"}, new Object[] {1, 3});
+    Cursor c2 = makeCursor(new String[] {"one", "three"}, new Object[] {1, 3});
+    Cursor rows = new CursorWrapper(new MergeCursor(new Cursor[] {c1, c2}));
+    CursorMatchers.CursorMatcher rowMatcher = withRowInt("three", 3);
+
+    rows.moveToFirst();
+    assertFalse(rowMatcher.matches(rows));
+    rows.moveToLast();
+    assertTrue(rowMatcher.matches(rows));
+  }
+
   @After
   public void tearDown() throws Exception {
     cursor.close();
@@ -387,6 +437,26 @@ public class CursorMatchersTest {
     return new MatrixCursor(columnNames);
   }
 
+  private static class CountingNameMatcher extends TypeSafeMatcher<String> {
+    private final String name;
+    int matchCount;
+
+    CountingNameMatcher(String name) {
+      this.name = name;
+    }
+
+    @Override
+    protected boolean matchesSafely(String columnName) {
+      matchCount++;
+      return name.equals(columnName);
+    }
+
+    @Override
+    public void describeTo(Description description) {
+      description.appendText("is " + name);
+    }
+  }
+
   /**
    * This test uses {@link MatrixCursor} as data source. {@link MatrixCursor#getBlob(int)} support
    * was added in ICS. This class enabled getBlob() for API levels < 14.
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.matcher;
+
+import static androidx.test.espresso.matcher.CursorMatchers.withRowBlob;
+import static androidx.test.espresso.matcher.CursorMatchers.withRowInt;
+import static androidx.test.espresso.matcher.CursorMatchers.withRowString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.database.MatrixCursor;
+import androidx.test.espresso.matcher.IndexableDataMatchers.KeyLookup;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link IndexableDataMatchers}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class IndexableDataMatchersTest {
+
+  @Test
+  public void isAndEqualTo_keyDataByItself() {
+    KeyLookup keyLookup = IndexableDataMatchers.findKeyLookup(is("item"));
+    assertEquals("item", keyLookup.getValue());
+    assertEquals("item", keyLookup.getDataKey().keyOf("item"));
+    assertEquals(
+        keyLookup.getDataKey(), IndexableDataMatchers.findKeyLookup(equalTo(1)).getDataKey());
+  }
+
+  @Test
+  public void hasEntry_keysMapsByEntryValue() {
+    KeyLookup keyLookup = IndexableDataMatchers.findKeyLookup(hasEntry("name", "value"));
+    assertEquals("value", keyLookup.getValue());
+    assertEquals("other", keyLookup.getDataKey().keyOf(Collections.singletonMap("name", "other")));
+    assertSame(
+        IndexableDataMatchers.NO_KEY,
+        keyLookup.getDataKey().keyOf(Collections.singletonMap("key", "value")));
+    assertSame(IndexableDataMatchers.NO_KEY, keyLookup.getDataKey().keyOf("value"));
+    assertEquals(
+        keyLookup.getDataKey(),
+        IndexableDataMatchers.findKeyLookup(hasEntry("name", "other")).getDataKey());
+    assertNotEquals(
+        keyLookup.getDataKey(),
+        IndexableDataMatchers.findKeyLookup(hasEntry("key", "value")).getDataKey());
+  }
+
+  @Test
+  public void cursorMatchers_keyRowsByColumnValue() {
+    MatrixCursor cursor = new MatrixCursor(new String[] {"_id", "name"});
+    cursor.addRow(new Object[] {7, "seven"});
+    cursor.moveToFirst();
+
+    KeyLookup byName = IndexableDataMatchers.findKeyLookup(withRowString("name", "seven"));
+    assertEquals("seven", byName.getValue());
+    assertEquals("seven", byName.getDataKey().keyOf(cursor));
+
+    KeyLookup byIndex = IndexableDataMatchers.findKeyLookup(withRowInt(0, 7));
+    assertEquals(7, byIndex.getValue());
+    assertEquals(7, byIndex.getDataKey().keyOf(cursor));
+    assertNotEquals(byName.getDataKey(), byIndex.getDataKey());
+  }
+
+  @Test
+  public void otherMatchers_areNotIndexable() {
+    assertNull(IndexableDataMatchers.findKeyLookup(startsWith("item")));
+    assertNull(IndexableDataMatchers.findKeyLookup(hasEntry(is("name"), greaterThan(1))));
+    assertNull(IndexableDataMatchers.findKeyLookup(withRowInt(0, greaterThan(1))));
+    assertNull(IndexableDataMatchers.findKeyLookup(withRowBlob(0, new byte[] {1})));
+    assertNull(
+        IndexableDataMatchers.findKeyLookup(
+            withRowString("name", "seven").withStrictColumnChecks(false)));
+  }
+
+  @Test
+  public void scanCursorRows_returnsMatchingRowsAndRestoresPosition() {
+    MatrixCursor cursor = new MatrixCursor(new String[] {"_id", "name"});
+    cursor.addRow(new Object[] {1, "item 1"});
+    cursor.addRow(new Object[] {2, "other"});
+    cursor.addRow(new Object[] {3, "item 3"});
+    cursor.moveToPosition(1);
+
+    assertEquals(
+        Arrays.asList(0, 2),
+        IndexableDataMatchers.scanCursorRows(withRowString("name", startsWith("item")), cursor));
+    assertEquals(1, cursor.getPosition());
+    assertTrue(
+        IndexableDataMatchers.scanCursorRows(withRowString("name", "none"), cursor).isEmpty());
+    assertNull(IndexableDataMatchers.scanCursorRows(startsWith("item"), cursor));
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.matcher;
+
+import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
+import static androidx.test.espresso.matcher.ViewMatchers.withContentDescription;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.matcher.ViewMatchers.withTagValue;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.espresso.matcher.IndexableViewMatchers.Key;
+import androidx.test.espresso.matcher.IndexableViewMatchers.KeyMatcher;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link IndexableViewMatchers}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class IndexableViewMatchersTest {
+
+  @Test
+  public void withId_isIndexable() {
+    List<KeyMatcher> keyMatchers = IndexableViewMatchers.findKeyMatchers(withId(42));
+    assertEquals(1, keyMatchers.size());
+    assertEquals(Key.ID, keyMatchers.get(0).getKey());
+    assertTrue(keyMatchers.get(0).getValueMatcher().matches(42));
+    assertTrue(keyMatchers.get(0).hasExpectedValue());
+    assertEquals(42, keyMatchers.get(0).getExpectedValue());
+  }
+
+  @Test
+  public void withIdMatcher_hasNoExpectedValue() {
+    List<KeyMatcher> keyMatchers = IndexableViewMatchers.findKeyMatchers(withId(greaterThan(1)));
+    assertEquals(1, keyMatchers.size());
+    assertFalse(keyMatchers.get(0).hasExpectedValue());
+  }
+
+  @Test
+  public void allOf_collectsEveryIndexableMatcher() {
+    List<KeyMatcher> keyMatchers =
+        IndexableViewMatchers.findKeyMatchers(
+            allOf(withTagValue(is((Object) "tag")), isDisplayed(), withContentDescription("desc")));
+    assertEquals(2, keyMatchers.size());
+    assertEquals(Key.TAG, keyMatchers.get(0).getKey());
+    assertEquals(Key.CONTENT_DESCRIPTION, keyMatchers.get(1).getKey());
+    assertTrue(keyMatchers.get(1).getValueMatcher().matches("desc"));
+  }
+
+  @Test
+  public void anyOf_isNotIndexable() {
+    assertTrue(IndexableViewMatchers.findKeyMatchers(anyOf(withId(1), withId(2))).isEmpty());
+    assertTrue(IndexableViewMatchers.findKeyMatchers(isDisplayed()).isEmpty());
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package androidx.test.espresso.matcher;
+
+import static androidx.test.espresso.matcher.SnapshotMatchers.isAssignableFrom;
+import static androidx.test.espresso.matcher.SnapshotMatchers.isDisplayed;
+import static androidx.test.espresso.matcher.SnapshotMatchers.isDisplayingAtLeast;
+import static androidx.test.espresso.matcher.SnapshotMatchers.isEnabled;
+import static androidx.test.espresso.matcher.SnapshotMatchers.withContentDescription;
+import static androidx.test.espresso.matcher.SnapshotMatchers.withId;
+import static androidx.test.espresso.matcher.SnapshotMatchers.withText;
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+import androidx.test.espresso.util.ViewSnapshot;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Unit tests for {@link SnapshotMatchers}. The snapshots are captured on the main thread and
+ * matched on the test thread.
+ */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class SnapshotMatchersTest {
+
+  private ViewSnapshot textSnapshot;
+  private ViewSnapshot disabledSnapshot;
+
+  @Before
+  public void setUp() {
+    getInstrumentation()
+        .runOnMainSync(
+            new Runnable() {
+              @Override
+              public void run() {
+                Context context = getInstrumentation().getTargetContext();
+                TextView text = new TextView(context);
+                text.setId(7);
+                text.setText("hello");
+                text.setContentDescription("greeting");
+                textSnapshot = ViewSnapshot.captureView(text);
+                View disabled = new View(context);
+                disabled.setEnabled(false);
+                disabledSnapshot = ViewSnapshot.captureView(disabled);
+              }
+            });
+  }
+
+  @Test
+  public void withId_matchesId() {
+    assertTrue(withId(7).matches(textSnapshot));
+    assertFalse(withId(8).matches(textSnapshot));
+  }
+
+  @Test
+  public void withText_matchesTextOfTextViews() {
+    assertTrue(withText("hello").matches(textSnapshot));
+    assertTrue(withText(containsString("ell")).matches(textSnapshot));
+    assertFalse(withText("bye").matches(textSnapshot));
+    assertFalse(withText("hello").matches(disabledSnapshot));
+  }
+
+  @Test
+  public void withContentDescription_matchesContentDescription() {
+    assertTrue(withContentDescription(is("greeting")).matches(textSnapshot));
+    assertFalse(withContentDescription(is("hello")).matches(textSnapshot));
+    assertFalse(withContentDescription(is("greeting")).matches(disabledSnapshot));
+  }
+
+  @Test
+  public void isAssignableFrom_matchesClassAndSuperclasses() {
+    assertTrue(isAssignableFrom(TextView.class).matches(textSnapshot));
+    assertTrue(isAssignableFrom(View.class).matches(textSnapshot));
+    assertFalse(isAssignableFrom(Button.class).matches(textSnapshot));
+    assertFalse(isAssignableFrom(TextView.class).matches(disabledSnapshot));
+  }
+
+  @Test
+  public void isEnabled_matchesEnabledViews() {
+    assertTrue(isEnabled().matches(textSnapshot));
+    assertFalse(isEnabled().matches(disabledSnapshot));
+  }
+
+  @Test
+  public void isDisplayed_doesNotMatchDetachedViews() {
+    assertFalse(isDisplayed().matches(textSnapshot));
+    assertFalse(isDisplayingAtLeast(1).matches(textSnapshot));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void isDisplayingAtLeast_rejectsZero() {
+    isDisplayingAtLeast(0);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void isDisplayingAtLeast_rejectsOverHundred() {
+    isDisplayingAtLeast(101);
+  }
+
+  @Test
+  public void doesNotMatchNull() {
+    assertFalse(withId(7).matches(null));
+  }
+}
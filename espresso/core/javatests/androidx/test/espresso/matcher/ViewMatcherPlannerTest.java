@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.matcher;
+
+import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
+import static androidx.test.espresso.matcher.ViewMatchers.isDescendantOfA;
+import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
+import static androidx.test.espresso.matcher.ViewMatchers.isEnabled;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.matcher.ViewMatchers.withParent;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.anyOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link ViewMatcherPlanner}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class ViewMatcherPlannerTest {
+
+  private FrameLayout outer;
+  private FrameLayout inner;
+  private TextView first;
+  private TextView second;
+
+  @Before
+  public void setUp() {
+    Context context = getApplicationContext();
+    outer = new FrameLayout(context);
+    outer.setId(1);
+    inner = new FrameLayout(context);
+    inner.setId(2);
+    first = new TextView(context);
+    first.setId(3);
+    second = new TextView(context);
+    second.setId(4);
+    outer.addView(inner);
+    inner.addView(first);
+    inner.addView(second);
+  }
+
+  @Test
+  public void leafMatcher_isNotWrapped() {
+    Matcher<View> matcher = withId(3);
+    assertSame(matcher, ViewMatcherPlanner.plan(matcher));
+  }
+
+  @Test
+  @UiThreadTest
+  public void planned_matchesAndDescribesLikeOriginal() {
+    Matcher<View> original =
+        allOf(isEnabled(), anyOf(withId(4), withParent(withId(1))), isDescendantOfA(withId(1)));
+    Matcher<View> planned = ViewMatcherPlanner.plan(original);
+
+    for (View view : new View[] {outer, inner, first, second}) {
+      assertEquals(original.matches(view), planned.matches(view));
+    }
+    assertEquals(original.toString(), planned.toString());
+  }
+
+  @Test
+  @UiThreadTest
+  public void planned_doesNotChangeDescriptionOfWithId() {
+    Matcher<View> original = allOf(isDisplayed(), withId(android.R.id.text1));
+    Matcher<View> planned = ViewMatcherPlanner.plan(original);
+
+    for (View view : new View[] {outer, inner, first, second}) {
+      // none of the views is displayed, so the original never evaluates withId.
+      assertFalse(planned.matches(view));
+    }
+    assertEquals(
+        allOf(isDisplayed(), withId(android.R.id.text1)).toString(), original.toString());
+  }
+
+  @Test
+  @UiThreadTest
+  public void descendantOf_evaluatesEachAncestorOnce() {
+    final AtomicInteger evaluations = new AtomicInteger();
+    Matcher<View> countingOuter =
+        new TypeSafeMatcher<View>() {
+          @Override
+          public void describeTo(Description description) {
+            description.appendText("counting");
+          }
+
+          @Override
+          protected boolean matchesSafely(View view) {
+            evaluations.incrementAndGet();
+            return view == outer;
+          }
+        };
+    Matcher<View> planned = ViewMatcherPlanner.plan(isDescendantOfA(countingOuter));
+
+    assertTrue(planned.matches(first));
+    assertTrue(planned.matches(second));
+    assertFalse(planned.matches(outer));
+    // inner and outer are each evaluated once for both text views.
+    assertEquals(2, evaluations.get());
+  }
+
+  @Test
+  @UiThreadTest
+  public void unknownMatcher_keepsItsPosition() {
+    final AtomicInteger evaluations = new AtomicInteger();
+    Matcher<View> guard =
+        new TypeSafeMatcher<View>() {
+          @Override
+          public void describeTo(Description description) {
+            description.appendText("guard");
+          }
+
+          @Override
+          protected boolean matchesSafely(View view) {
+            evaluations.incrementAndGet();
+            return false;
+          }
+        };
+    Matcher<View> planned = ViewMatcherPlanner.plan(allOf(guard, withId(3)));
+
+    assertFalse(planned.matches(first));
+    assertFalse(planned.matches(second));
+    assertEquals(2, evaluations.get());
+  }
+}
@@ -53,6 +53,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.UnsupportedEncodingException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -158,6 +159,56 @@ public class EspressoRemoteTest {
     espressoRemote.initiateRemoteCall("TBDProto".getBytes(), null);
   }
 
+  @Test
+  public void verifyRequestFansOutAndSkipsDecliningRemoteEspresso() {
+    final EspressoRemote espressoRemote = new EspressoRemote(mockedInstrumentation);
+    espressoRemote.init();
+
+    // two "other" remote Espresso instances, only one of them executes the interaction
+    HandlerThread decliningThread = new HandlerThread("DecliningEspresso");
+    decliningThread.start();
+    HandlerThread executingThread = new HandlerThread("ExecutingEspresso");
+    executingThread.start();
+    Set<Messenger> clients = new HashSet<>();
+    clients.add(
+        new Messenger(respondingHandler(espressoRemote, decliningThread, /* executed= */ false)));
+    clients.add(
+        new Messenger(respondingHandler(espressoRemote, executingThread, /* executed= */ true)));
+    clients.add(espressoRemote.incomingHandler.messengerHandler);
+    when(mockedInstrumentation.getClientsForType(EspressoRemote.TYPE)).thenReturn(clients);
+
+    // returns normally since the executing instance reported success
+    espressoRemote.initiateRemoteCall("TBDProto".getBytes(), null);
+
+    // a response after the request completed is ignored
+    Message late =
+        espressoRemote.incomingHandler.obtainMessage(EspressoRemote.MSG_HANDLE_ESPRESSO_RESPONSE);
+    late.replyTo = espressoRemote.incomingHandler.messengerHandler;
+    late.getData().putString(EspressoRemote.BUNDLE_KEY_TYPE, EspressoRemote.TYPE);
+    late.getData().putSerializable(EspressoRemote.BUNDLE_KEY_UUID, UUID.randomUUID());
+    espressoRemote.incomingHandler.handleMessage(late);
+  }
+
+  private static Handler respondingHandler(
+      final EspressoRemote espressoRemote, HandlerThread thread, final boolean executed) {
+    return new Handler(thread.getLooper()) {
+      @Override
+      public void handleMessage(Message msg) {
+        assertEquals(EspressoRemote.MSG_HANDLE_ESPRESSO_REQUEST, msg.what);
+        // mimic a response, declining instances report an error without a description
+        Message response = Message.obtain(msg);
+        response.what = EspressoRemote.MSG_HANDLE_ESPRESSO_RESPONSE;
+        response
+            .getData()
+            .putByteArray(
+                BUNDLE_KEY_PROTO,
+                InteractionResultProto.newBuilder().setOk(executed).build().toByteArray());
+        espressoRemote.incomingHandler.handleMessage(response);
+        getLooper().quit();
+      }
+    };
+  }
+
   @Test
   public void verifyExceptionResultReturnedBackToTheCaller() {
     final EspressoRemote espressoRemote = new EspressoRemote(mockedInstrumentation);
@@ -225,6 +276,8 @@ public class EspressoRemoteTest {
     clients.add(otherEspressoMessenger);
     clients.add(espressoRemote.incomingHandler.messengerHandler);
     when(mockedInstrumentation.getClientsForType(EspressoRemote.TYPE)).thenReturn(clients);
+    when(mockedInstrumentation.getClientCountForType(EspressoRemote.TYPE))
+        .thenReturn(clients.size());
 
     // send out an interaction request to remote espresso
     ListenableFuture<Void> future =
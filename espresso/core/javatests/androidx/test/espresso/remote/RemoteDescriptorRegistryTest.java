@@ -18,6 +18,8 @@
 package androidx.test.espresso.remote;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -86,6 +88,16 @@ public class RemoteDescriptorRegistryTest {
         remoteDescriptor.getInstanceType(), is(CoreMatchers.<Class<?>>equalTo(TestType.class)));
   }
 
+  @Test
+  public void getRemoteDescriptors_reflectsRegistrations() {
+    assertThat(typeRegistry.getRemoteDescriptors(), is(empty()));
+    typeRegistry.registerRemoteTypeArgs(Arrays.asList(REMOTE_TYPE_ARG));
+    assertThat(typeRegistry.getRemoteDescriptors(), contains(REMOTE_TYPE_ARG));
+    typeRegistry.unregisterRemoteTypeArgs(Arrays.asList(REMOTE_TYPE_ARG));
+    assertThat(typeRegistry.getRemoteDescriptors(), is(empty()));
+    assertThat(typeRegistry.hasArgForInstanceType(TestType.class), is(false));
+  }
+
   @Test
   public void getRemoteTypeArg_ThatDoesNotExist_Throws() {
     try {
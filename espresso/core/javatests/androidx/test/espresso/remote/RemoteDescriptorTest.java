@@ -22,6 +22,7 @@ import static org.hamcrest.CoreMatchers.isA;
 import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import androidx.test.espresso.proto.TestProtos.RemoteMsgFieldAnnotatedFieldsClassProto;
@@ -32,6 +33,8 @@ import androidx.test.espresso.remote.TestTypes.TestType;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
 import com.google.protobuf.Parser;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -167,4 +170,24 @@ public class RemoteDescriptorTest {
 
     assertThat(remoteDescriptor.getProtoParser(), allOf(notNullValue(), isA(Parser.class)));
   }
+
+  @Test
+  public void remoteConstructorAndFromField_areResolvedOnce() throws Exception {
+    RemoteDescriptor remoteDescriptor =
+        new Builder()
+            .setInstanceType(TestType.class)
+            .setRemoteType(TestTypeRemoteMessage.class)
+            .setProtoType(TestProto.class)
+            .build();
+
+    Constructor<?> remoteConstructor = remoteDescriptor.getRemoteConstructor();
+    Field remoteFromField = remoteDescriptor.getRemoteFromField();
+
+    assertThat(
+        remoteConstructor,
+        equalTo((Object) TestTypeRemoteMessage.class.getConstructor(TestType.class)));
+    assertThat(remoteFromField.get(null), sameInstance((Object) TestTypeRemoteMessage.FROM));
+    assertThat(remoteDescriptor.getRemoteConstructor(), sameInstance((Object) remoteConstructor));
+    assertThat(remoteDescriptor.getRemoteFromField(), sameInstance(remoteFromField));
+  }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package androidx.test.espresso.remote;
+
+import static androidx.test.espresso.action.ViewActions.closeSoftKeyboard;
+import static androidx.test.espresso.action.ViewActions.replaceText;
+import static androidx.test.espresso.action.ViewActions.typeText;
+import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static org.hamcrest.Matchers.allOf;
+
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.test.espresso.action.RemoteViewActions;
+import androidx.test.espresso.matcher.RemoteHamcrestCoreMatchers13;
+import androidx.test.espresso.matcher.RemoteViewMatchers;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares the throughput of {@link RemoteMessageCodec} with the reflective serializer for common
+ * actions and matchers, and measures the cost of setting up a {@link RemoteDescriptorRegistry}.
+ * Results are written to logcat.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class RemoteMessageCodecBenchmark {
+  private static final String TAG = "RemoteMessageCodecBenchmark";
+
+  private static final int WARM_UP_ROUNDS = 200;
+  private static final int ROUNDS = 2000;
+
+  private final List<Object> messages =
+      Arrays.<Object>asList(
+          typeText("Espresso"),
+          closeSoftKeyboard(),
+          replaceText("Cortado"),
+          withId(android.R.id.text1),
+          withText("Macchiato"),
+          isDisplayed(),
+          allOf(withId(android.R.id.text1), withText("Ristretto"), isDisplayed()));
+
+  @Before
+  public void initRegistry() {
+    RemoteDescriptorRegistry remoteDescriptorRegistry = RemoteDescriptorRegistry.getInstance();
+    RemoteViewActions.init(remoteDescriptorRegistry);
+    RemoteViewMatchers.init(remoteDescriptorRegistry);
+    RemoteHamcrestCoreMatchers13.init(remoteDescriptorRegistry);
+  }
+
+  @After
+  public void enableCodecs() {
+    RemoteMessageCodec.setEnabled(true);
+  }
+
+  @Test
+  public void roundTripThroughput() {
+    RemoteMessageCodec.setEnabled(false);
+    long reflectiveNanos = measureRoundTrips();
+    RemoteMessageCodec.setEnabled(true);
+    long codecNanos = measureRoundTrips();
+
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d messages x %d rounds: reflective %.1f us/msg, codec %.1f us/msg (%.2fx)",
+            messages.size(),
+            ROUNDS,
+            perMessageMicros(reflectiveNanos),
+            perMessageMicros(codecNanos),
+            reflectiveNanos / (double) codecNanos));
+  }
+
+  @Test
+  public void registrationAndWarmUpCost() {
+    long start = SystemClock.elapsedRealtimeNanos();
+    RemoteDescriptorRegistry remoteDescriptorRegistry = new RemoteDescriptorRegistry();
+    RemoteViewActions.init(remoteDescriptorRegistry);
+    RemoteViewMatchers.init(remoteDescriptorRegistry);
+    RemoteHamcrestCoreMatchers13.init(remoteDescriptorRegistry);
+    long registered = SystemClock.elapsedRealtimeNanos();
+    TypeProtoConverters.warmUp(remoteDescriptorRegistry);
+    long warmedUp = SystemClock.elapsedRealtimeNanos();
+
+    // handles are cached per process, so only the first run after process start sees a cold cache
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d types: registration %.2f ms, warm up %.2f ms",
+            remoteDescriptorRegistry.getRemoteDescriptors().size(),
+            (registered - start) / 1e6,
+            (warmedUp - registered) / 1e6));
+  }
+
+  private long measureRoundTrips() {
+    for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+      roundTripAll();
+    }
+    long start = SystemClock.elapsedRealtimeNanos();
+    for (int i = 0; i < ROUNDS; i++) {
+      roundTripAll();
+    }
+    return SystemClock.elapsedRealtimeNanos() - start;
+  }
+
+  private void roundTripAll() {
+    for (Object message : messages) {
+      TypeProtoConverters.anyToType(TypeProtoConverters.typeToAny(message));
+    }
+  }
+
+  private double perMessageMicros(long nanos) {
+    return nanos / 1000.0 / ROUNDS / messages.size();
+  }
+}
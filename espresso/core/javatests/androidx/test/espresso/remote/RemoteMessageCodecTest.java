@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package androidx.test.espresso.remote;
+
+import static androidx.test.espresso.action.ViewActions.closeSoftKeyboard;
+import static androidx.test.espresso.action.ViewActions.replaceText;
+import static androidx.test.espresso.action.ViewActions.typeText;
+import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static androidx.test.espresso.remote.TestTypes.ANY_TYPE_ITERABLE;
+import static androidx.test.espresso.remote.TestTypes.AN_INT;
+import static androidx.test.espresso.remote.TestTypes.A_BYTE;
+import static androidx.test.espresso.remote.TestTypes.A_LONG;
+import static androidx.test.espresso.remote.TestTypes.A_STRING;
+import static androidx.test.espresso.remote.TestTypes.A_TEST_TYPE1;
+import static androidx.test.espresso.remote.TestTypes.A_TEST_TYPE2;
+import static androidx.test.espresso.remote.TestTypes.A_TEST_TYPE3;
+import static androidx.test.espresso.remote.TestTypes.A_TEST_TYPE4;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+import androidx.test.espresso.action.RemoteViewActions;
+import androidx.test.espresso.matcher.RemoteHamcrestCoreMatchers13;
+import androidx.test.espresso.matcher.RemoteViewMatchers;
+import androidx.test.espresso.remote.TestTypes.MultipleFieldClass;
+import androidx.test.espresso.remote.TestTypes.NoArgClass;
+import androidx.test.espresso.remote.TestTypes.RemoteMsgFieldAnnotatedFieldsClass;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import com.google.protobuf.Any;
+import com.google.protobuf.MessageLite;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Tests for {@link RemoteMessageCodec} */
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public class RemoteMessageCodecTest {
+
+  private RemoteDescriptorRegistry remoteDescriptorRegistry;
+
+  @Before
+  public void initRegistry() {
+    remoteDescriptorRegistry = RemoteDescriptorRegistryInitializer.init();
+  }
+
+  @After
+  public void enableCodecs() {
+    RemoteMessageCodec.setEnabled(true);
+  }
+
+  @Test
+  public void encodeMultipleFieldClass_sameAsReflectiveSerializer() {
+    MultipleFieldClass instance =
+        new MultipleFieldClass(A_BYTE, AN_INT, A_LONG, A_STRING, A_TEST_TYPE1, ANY_TYPE_ITERABLE);
+
+    MessageLite encoded =
+        codecFor(MultipleFieldClass.class).encode(instance, remoteDescriptorRegistry);
+    RemoteMessageCodec.setEnabled(false);
+    MessageLite serialized =
+        new RemoteMessageSerializer(instance, remoteDescriptorRegistry).toProto();
+
+    assertThat(encoded, equalTo(serialized));
+  }
+
+  @Test
+  public void decodeMultipleFieldClass_roundTrips() {
+    RemoteMessageCodec codec = codecFor(MultipleFieldClass.class);
+    MultipleFieldClass instance =
+        new MultipleFieldClass(A_BYTE, AN_INT, A_LONG, A_STRING, A_TEST_TYPE1, ANY_TYPE_ITERABLE);
+
+    Object decoded =
+        codec.decode(codec.encode(instance, remoteDescriptorRegistry), remoteDescriptorRegistry);
+
+    assertThat(decoded, instanceOf(MultipleFieldClass.class));
+    MultipleFieldClass multipleFieldClass = (MultipleFieldClass) decoded;
+    assertThat(multipleFieldClass.aByte, equalTo(A_BYTE));
+    assertThat(multipleFieldClass.anInt, equalTo(AN_INT));
+    assertThat(multipleFieldClass.aLong, equalTo(A_LONG));
+    assertThat(multipleFieldClass.aString, equalTo(A_STRING));
+    assertThat(multipleFieldClass.anyRegisteredType, equalTo(A_TEST_TYPE1));
+    assertThat(
+        multipleFieldClass.anyTypeIterable,
+        contains(A_TEST_TYPE1, A_TEST_TYPE2, A_TEST_TYPE3, A_TEST_TYPE4));
+  }
+
+  @Test
+  public void decodeRemoteMsgFieldAnnotatedClass_roundTrips() {
+    RemoteMessageCodec codec = codecFor(RemoteMsgFieldAnnotatedFieldsClass.class);
+    RemoteMsgFieldAnnotatedFieldsClass instance =
+        new RemoteMsgFieldAnnotatedFieldsClass(A_STRING, A_TEST_TYPE1, ANY_TYPE_ITERABLE);
+
+    Object decoded =
+        codec.decode(codec.encode(instance, remoteDescriptorRegistry), remoteDescriptorRegistry);
+
+    assertThat(decoded, instanceOf(RemoteMsgFieldAnnotatedFieldsClass.class));
+    assertThat(((RemoteMsgFieldAnnotatedFieldsClass) decoded).aString, equalTo(A_STRING));
+  }
+
+  @Test
+  public void noArgClass_roundTrips() {
+    RemoteMessageCodec codec = codecFor(NoArgClass.class);
+
+    Object decoded =
+        codec.decode(
+            codec.encode(new NoArgClass(), remoteDescriptorRegistry), remoteDescriptorRegistry);
+
+    assertThat(decoded, instanceOf(NoArgClass.class));
+  }
+
+  @Test
+  public void disabledCodecs_fallBackToReflection() {
+    RemoteMessageCodec.setEnabled(false);
+
+    assertThat(
+        RemoteMessageCodec.forDescriptor(
+            remoteDescriptorRegistry.argForInstanceType(MultipleFieldClass.class)),
+        nullValue());
+  }
+
+  @Test
+  public void commonActionsAndMatchers_sameAsReflectiveSerializer() {
+    RemoteDescriptorRegistry globalRegistry = RemoteDescriptorRegistry.getInstance();
+    RemoteViewActions.init(globalRegistry);
+    RemoteViewMatchers.init(globalRegistry);
+    RemoteHamcrestCoreMatchers13.init(globalRegistry);
+
+    for (Object message :
+        Arrays.<Object>asList(
+            typeText("Espresso"),
+            closeSoftKeyboard(),
+            replaceText("Cortado"),
+            withId(android.R.id.text1),
+            withText("Macchiato"),
+            isDisplayed(),
+            allOf(withId(android.R.id.text1), withText("Ristretto"), isDisplayed()))) {
+      RemoteMessageCodec.setEnabled(false);
+      Any reflective = TypeProtoConverters.typeToAny(message);
+      RemoteMessageCodec.setEnabled(true);
+      Any encoded = TypeProtoConverters.typeToAny(message);
+
+      assertThat(encoded, equalTo(reflective));
+      // decoding must not fail either, and encodes to the same message again
+      assertThat(
+          TypeProtoConverters.typeToAny(TypeProtoConverters.anyToType(encoded)), equalTo(encoded));
+    }
+  }
+
+  private RemoteMessageCodec codecFor(Class<?> instanceType) {
+    RemoteMessageCodec codec =
+        RemoteMessageCodec.forDescriptor(remoteDescriptorRegistry.argForInstanceType(instanceType));
+    assertThat(codec, notNullValue());
+    return codec;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for the view hierarchy rendering of {@link HumanReadables}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class HumanReadablesTest {
+
+  private FrameLayout root;
+
+  @Before
+  public void setUp() {
+    Context context = getInstrumentation().getTargetContext();
+    root = new FrameLayout(context);
+    for (int i = 0; i < 10; i++) {
+      View child = new View(context);
+      child.setId(i + 1);
+      root.addView(child);
+    }
+  }
+
+  @Test
+  public void appendViewHierarchy_unbounded() throws Exception {
+    StringBuilder out = new StringBuilder();
+    int truncated = HumanReadables.appendViewHierarchy(out, root, null, null, Integer.MAX_VALUE);
+    assertThat(truncated, is(0));
+    assertThat(
+        out.toString(),
+        is(
+            HumanReadables.getViewHierarchyErrorMessage(root, null, "", null)
+                .substring("\n\nView Hierarchy:\n".length())));
+  }
+
+  @Test
+  public void appendViewHierarchy_stopsAtMaxLength() throws Exception {
+    StringBuilder out = new StringBuilder();
+    int truncated = HumanReadables.appendViewHierarchy(out, root, null, null, 1000);
+    assertThat(truncated > 0, is(true));
+    assertThat(out.length(), lessThanOrEqualTo(1000));
+  }
+
+  @Test
+  public void getViewHierarchyErrorMessage_reportsTruncation() {
+    String message =
+        HumanReadables.getViewHierarchyErrorMessage(root, null, "header", null, 1000, null);
+    assertThat(message, containsString("views are not shown"));
+    assertThat(message, not(containsString("test output file")));
+  }
+}
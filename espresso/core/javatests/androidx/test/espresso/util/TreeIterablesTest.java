@@ -16,6 +16,7 @@
 
 package androidx.test.espresso.util;
 
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
@@ -23,8 +24,13 @@ import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.is;
 import static org.junit.rules.ExpectedException.none;
 
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
 import androidx.test.espresso.util.TreeIterables.DistanceRecordingTreeViewer;
 import androidx.test.espresso.util.TreeIterables.TreeViewer;
+import androidx.test.espresso.util.TreeIterables.ViewAndDistance;
+import androidx.test.espresso.util.TreeIterables.ViewVisitor;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
 import com.google.common.base.Function;
@@ -242,4 +248,64 @@ public class TreeIterablesTest {
         allOf(hasEntry("a", 0), hasEntry("b", 1), hasEntry("c", 2), hasEntry("d", 3)));
     assertThat(distancesByData.size(), is(4));
   }
+
+  @Test
+  public void visitDepthFirst_reportsOrderAndDistance() {
+    View root = createViewTree();
+    final List<String> visited = Lists.newArrayList();
+    boolean completed =
+        TreeIterables.visitDepthFirst(
+            root,
+            new ViewVisitor() {
+              @Override
+              public boolean visit(View view, int distanceFromRoot) {
+                visited.add(view.getTag() + ":" + distanceFromRoot);
+                return true;
+              }
+            });
+    assertThat(completed, is(true));
+    assertThat(visited, is((List<String>) Lists.newArrayList("a:0", "b:1", "c:2", "d:1")));
+
+    List<String> viaIterable = Lists.newArrayList();
+    Iterable<ViewAndDistance> viewsAndDistances =
+        TreeIterables.depthFirstViewTraversalWithDistance(root);
+    for (ViewAndDistance viewAndDistance : viewsAndDistances) {
+      viaIterable.add(
+          viewAndDistance.getView().getTag() + ":" + viewAndDistance.getDistanceFromRoot());
+    }
+    assertThat(viaIterable, is(visited));
+  }
+
+  @Test
+  public void visitBreadthFirst_stopsEarly() {
+    final List<String> visited = Lists.newArrayList();
+    boolean completed =
+        TreeIterables.visitBreadthFirst(
+            createViewTree(),
+            new ViewVisitor() {
+              @Override
+              public boolean visit(View view, int distanceFromRoot) {
+                visited.add(view.getTag() + ":" + distanceFromRoot);
+                return visited.size() < 3;
+              }
+            });
+    assertThat(completed, is(false));
+    assertThat(visited, is((List<String>) Lists.newArrayList("a:0", "b:1", "d:1")));
+  }
+
+  private static View createViewTree() {
+    Context context = getInstrumentation().getTargetContext();
+    FrameLayout a = new FrameLayout(context);
+    a.setTag("a");
+    FrameLayout b = new FrameLayout(context);
+    b.setTag("b");
+    View c = new View(context);
+    c.setTag("c");
+    View d = new View(context);
+    d.setTag("d");
+    b.addView(c);
+    a.addView(b);
+    a.addView(d);
+    return a;
+  }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.util;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/** Unit tests for {@link ViewSnapshot}. */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class ViewSnapshotTest {
+
+  private FrameLayout root;
+  private TextView text;
+  private View hidden;
+
+  @Before
+  public void setUp() {
+    Context context = getInstrumentation().getTargetContext();
+    root = new FrameLayout(context);
+    root.setId(1);
+    text = new TextView(context);
+    text.setId(2);
+    text.setText("hello");
+    text.setContentDescription("greeting");
+    hidden = new View(context);
+    hidden.setId(3);
+    hidden.setVisibility(View.GONE);
+    root.addView(text);
+    root.addView(hidden);
+  }
+
+  @Test
+  @UiThreadTest
+  public void capture_returnsSnapshotOfView() {
+    ViewSnapshot snapshot = ViewSnapshot.capture(text);
+
+    assertEquals(2, snapshot.getId());
+    assertEquals(TextView.class.getName(), snapshot.getClassName());
+    assertEquals("hello", snapshot.getText());
+    assertEquals("greeting", snapshot.getContentDescription());
+  }
+
+  @Test
+  @UiThreadTest
+  public void capture_includesSubtreeOfView() {
+    ViewSnapshot rootSnapshot = ViewSnapshot.capture(root);
+
+    assertSame(rootSnapshot, rootSnapshot.getRoot());
+    assertEquals(1, rootSnapshot.getId());
+    assertEquals(0, rootSnapshot.getDistanceFromRoot());
+    assertNull(rootSnapshot.getParent());
+    assertEquals(2, rootSnapshot.getChildren().size());
+    assertEquals(2, rootSnapshot.getChildren().get(0).getId());
+    ViewSnapshot hiddenSnapshot = rootSnapshot.getChildren().get(1);
+    assertSame(rootSnapshot, hiddenSnapshot.getParent());
+    assertEquals(1, hiddenSnapshot.getDistanceFromRoot());
+    assertEquals(View.GONE, hiddenSnapshot.getVisibility());
+    assertNull(hiddenSnapshot.getText());
+  }
+
+  @Test
+  @UiThreadTest
+  public void capture_doesNotIncludeAncestors() {
+    ViewSnapshot snapshot = ViewSnapshot.capture(hidden);
+
+    assertNull(snapshot.getParent());
+    assertSame(snapshot, snapshot.getRoot());
+    assertEquals(0, snapshot.getDistanceFromRoot());
+  }
+
+  @Test
+  @UiThreadTest
+  public void captureView_doesNotIncludeDescendants() {
+    ViewSnapshot snapshot = ViewSnapshot.captureView(root);
+
+    assertEquals(1, snapshot.getId());
+    assertNull(snapshot.getParent());
+    assertTrue(snapshot.getChildren().isEmpty());
+  }
+
+  @Test
+  @UiThreadTest
+  public void snapshot_doesNotFollowView() {
+    ViewSnapshot snapshot = ViewSnapshot.capture(text);
+    text.setText("changed");
+    text.setVisibility(View.INVISIBLE);
+
+    assertEquals("hello", snapshot.getText());
+    assertEquals(View.VISIBLE, snapshot.getVisibility());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  @UiThreadTest
+  public void children_areNotModifiable() {
+    ViewSnapshot.capture(root).getChildren().clear();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void capture_offMainThread_throws() {
+    ViewSnapshot.capture(root);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void captureView_offMainThread_throws() {
+    ViewSnapshot.captureView(root);
+  }
+}
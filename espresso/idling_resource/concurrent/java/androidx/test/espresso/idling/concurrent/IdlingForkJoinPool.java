@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.idling.concurrent;
+
+import android.util.Log;
+import androidx.annotation.RequiresApi;
+import androidx.test.espresso.IdlingRegistry;
+import androidx.test.espresso.IdlingResource;
+import androidx.test.espresso.idling.StripedCountingIdlingResource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A {@link ForkJoinPool} that can be registered as an {@link IdlingResource} with Espresso.
+ *
+ * <p>Every task submitted to the pool from outside, through {@code execute}, {@code submit}, {@code
+ * invoke} or {@code invokeAll}, counts as active until it completes. The pool is idle when no such
+ * task is active. Subtasks which a task forks and joins, like those of parallel streams and
+ * recursive tasks, finish before the task itself does. The pool is therefore idle when it would be
+ * {@link #isQuiescent() quiescent} once its worker threads stop scanning for more work. Subtasks
+ * which are forked but never joined are not tracked.
+ *
+ * <p>Parallel streams run in the pool of the task which starts them, and {@link
+ * java.util.concurrent.CompletableFuture} runs asynchronous stages in {@link
+ * ForkJoinPool#commonPool()} unless given an executor. Start streams from a task submitted to this
+ * pool, and pass this pool to the asynchronous {@code CompletableFuture} methods, for Espresso to
+ * wait for them.
+ *
+ * <p><b>This API is currently in beta.</b>
+ */
+@RequiresApi(21)
+public class IdlingForkJoinPool extends ForkJoinPool implements IdlingResource {
+
+  private static final String LOG_TAG = "IdlingForkJoinPool";
+
+  private final StripedCountingIdlingResource countingIdlingResource;
+
+  /**
+   * Creates a new {@code IdlingForkJoinPool} with parallelism equal to the number of available
+   * processors.
+   *
+   * @param resourceName the name of the pool (used for logging and idempotency of registration).
+   */
+  public IdlingForkJoinPool(String resourceName) {
+    this(resourceName, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a new {@code IdlingForkJoinPool} with the given parallelism.
+   *
+   * @param resourceName the name of the pool (used for logging and idempotency of registration).
+   * @param parallelism the parallelism level of the pool.
+   */
+  public IdlingForkJoinPool(String resourceName, int parallelism) {
+    super(parallelism);
+    countingIdlingResource = new StripedCountingIdlingResource(resourceName);
+    Log.i(LOG_TAG, "Register idling resource for fork join pool " + resourceName);
+    IdlingRegistry.getInstance().register(this);
+  }
+
+  @Override
+  public String getName() {
+    return countingIdlingResource.getName();
+  }
+
+  @Override
+  public boolean isIdleNow() {
+    return countingIdlingResource.isIdleNow();
+  }
+
+  @Override
+  public void registerIdleTransitionCallback(ResourceCallback callback) {
+    countingIdlingResource.registerIdleTransitionCallback(callback);
+  }
+
+  @Override
+  public void execute(ForkJoinTask<?> task) {
+    countingIdlingResource.increment();
+    try {
+      super.execute(new TrackedTask(task));
+    } catch (RejectedExecutionException ree) {
+      onTaskDone();
+      throw ree;
+    }
+  }
+
+  @Override
+  public void execute(final Runnable task) {
+    if (task instanceof ForkJoinTask) {
+      execute((ForkJoinTask<?>) task);
+      return;
+    }
+    countingIdlingResource.increment();
+    try {
+      // keeps the parent behavior of reporting exceptions to the worker's uncaught handler.
+      super.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              try {
+                task.run();
+              } finally {
+                onTaskDone();
+              }
+            }
+          });
+    } catch (RejectedExecutionException ree) {
+      onTaskDone();
+      throw ree;
+    }
+  }
+
+  @Override
+  public <T> T invoke(ForkJoinTask<T> task) {
+    execute(task);
+    return task.join();
+  }
+
+  @Override
+  public <T> ForkJoinTask<T> submit(ForkJoinTask<T> task) {
+    execute(task);
+    return task;
+  }
+
+  @Override
+  public <T> ForkJoinTask<T> submit(Callable<T> task) {
+    return submit(ForkJoinTask.adapt(task));
+  }
+
+  @Override
+  public <T> ForkJoinTask<T> submit(Runnable task, T result) {
+    return submit(ForkJoinTask.adapt(task, result));
+  }
+
+  @Override
+  public ForkJoinTask<?> submit(Runnable task) {
+    return submit(ForkJoinTask.adapt(task));
+  }
+
+  @Override
+  public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) {
+    List<ForkJoinTask<T>> submitted = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      submitted.add(submit(task));
+    }
+    for (ForkJoinTask<T> task : submitted) {
+      task.quietlyJoin();
+    }
+    return new ArrayList<Future<T>>(submitted);
+  }
+
+  @Override
+  public void shutdown() {
+    super.shutdown();
+    unregisterIfDone();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> neverExecuted = super.shutdownNow();
+    // cancelled tasks never report back, so stop waiting for the pool right away.
+    Log.i(LOG_TAG, "Fork join pool shut down, unregistering " + getName());
+    IdlingRegistry.getInstance().unregister(this);
+    return neverExecuted;
+  }
+
+  private void onTaskDone() {
+    countingIdlingResource.decrement();
+    unregisterIfDone();
+  }
+
+  private void unregisterIfDone() {
+    if (isShutdown() && countingIdlingResource.isIdleNow()) {
+      Log.i(LOG_TAG, "Fork join pool terminated, unregistering " + getName());
+      IdlingRegistry.getInstance().unregister(this);
+    }
+  }
+
+  /** Runs a task submitted from outside the pool and marks it as done once it completed. */
+  private final class TrackedTask extends RecursiveAction {
+    private final ForkJoinTask<?> task;
+
+    TrackedTask(ForkJoinTask<?> task) {
+      this.task = task;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        // the outcome of the task is reported through the task itself.
+        task.quietlyInvoke();
+      } finally {
+        onTaskDone();
+      }
+    }
+  }
+}
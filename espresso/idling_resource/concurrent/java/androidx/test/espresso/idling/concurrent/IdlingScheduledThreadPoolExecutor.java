@@ -18,8 +18,11 @@ package androidx.test.espresso.idling.concurrent;
 import android.util.Log;
 import androidx.test.espresso.IdlingRegistry;
 import androidx.test.espresso.IdlingResource;
-import androidx.test.espresso.idling.CountingIdlingResource;
+import androidx.test.espresso.idling.StripedCountingIdlingResource;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
@@ -29,8 +32,12 @@ import java.util.concurrent.TimeUnit;
  * A {@link ScheduledThreadPoolExecutor} that can be registered as an {@link IdlingResource} with
  * Espresso.
  *
- * <p>Overrides parent methods to monitor threads starting, and finishing execution. Uses {@link
- * CountingIdlingResource} to track number of active tasks.
+ * <p>Overrides parent methods to monitor tasks being scheduled and finishing execution. A one-shot
+ * task counts as active from the moment it is scheduled, including its delay, until {@link
+ * #afterExecute(Runnable, Throwable)} runs for it or it is removed from the queue. Periodic tasks
+ * never finish and are therefore not counted. Uses a {@link StripedCountingIdlingResource} to
+ * track the number of active tasks, so that scheduling threads do not contend with each other or
+ * with the pool threads.
  *
  * <p><b>This API is currently in beta.</b>
  */
@@ -39,7 +46,7 @@ public class IdlingScheduledThreadPoolExecutor extends ScheduledThreadPoolExecut
 
   private static final String LOG_TAG = "IdlingThreadPoolExec";
 
-  private CountingIdlingResource countingIdlingResource;
+  private final StripedCountingIdlingResource countingIdlingResource;
 
   /**
    * Creates a new {@code IdlingScheduledThreadPoolExecutor} with the given initial parameters.
@@ -68,7 +75,7 @@ public class IdlingScheduledThreadPoolExecutor extends ScheduledThreadPoolExecut
   public IdlingScheduledThreadPoolExecutor(
       String resourceName, int corePoolSize, ThreadFactory threadFactory, boolean debugCounting) {
     super(corePoolSize, threadFactory);
-    countingIdlingResource = new CountingIdlingResource(resourceName, debugCounting);
+    countingIdlingResource = new StripedCountingIdlingResource(resourceName, debugCounting);
     Log.i(LOG_TAG, "Register idling resource for scheduled thread pool " + resourceName);
     IdlingRegistry.getInstance().register(this);
   }
@@ -91,21 +98,57 @@ public class IdlingScheduledThreadPoolExecutor extends ScheduledThreadPoolExecut
   @Override
   public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
     countingIdlingResource.increment();
-    return super.schedule(command, delay, unit);
+    try {
+      return super.schedule(command, delay, unit);
+    } catch (RejectedExecutionException ree) {
+      countingIdlingResource.decrement();
+      throw ree;
+    }
   }
 
   @Override
   public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
     countingIdlingResource.increment();
-    return super.schedule(callable, delay, unit);
+    try {
+      return super.schedule(callable, delay, unit);
+    } catch (RejectedExecutionException ree) {
+      countingIdlingResource.decrement();
+      throw ree;
+    }
   }
 
   @Override
-  protected void beforeExecute(Thread t, Runnable r) {}
+  protected void afterExecute(Runnable r, Throwable t) {
+    super.afterExecute(r, t);
+    if (isCounted(r)) {
+      countingIdlingResource.decrement();
+    }
+  }
 
   @Override
-  protected void afterExecute(Runnable r, Throwable t) {
-    countingIdlingResource.decrement();
+  public boolean remove(Runnable task) {
+    // also called when a task is cancelled while the remove on cancel policy is set.
+    boolean removed = super.remove(task);
+    if (removed && isCounted(task)) {
+      countingIdlingResource.decrement();
+    }
+    return removed;
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> neverExecuted = super.shutdownNow();
+    for (Runnable r : neverExecuted) {
+      if (isCounted(r)) {
+        countingIdlingResource.decrement();
+      }
+    }
+    return neverExecuted;
+  }
+
+  private static boolean isCounted(Runnable r) {
+    return !(r instanceof RunnableScheduledFuture)
+        || !((RunnableScheduledFuture<?>) r).isPeriodic();
   }
 
   @Override
@@ -18,8 +18,10 @@ package androidx.test.espresso.idling.concurrent;
 import android.util.Log;
 import androidx.test.espresso.IdlingRegistry;
 import androidx.test.espresso.IdlingResource;
-import androidx.test.espresso.idling.CountingIdlingResource;
+import androidx.test.espresso.idling.StripedCountingIdlingResource;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -27,8 +29,11 @@ import java.util.concurrent.TimeUnit;
 /**
  * A {@link ThreadPoolExecutor} that can be registered as an {@link IdlingResource} with Espresso.
  *
- * <p>Overrides parent methods to monitor threads starting, and finishing execution. Uses {@link
- * CountingIdlingResource} to track number of active tasks.
+ * <p>Overrides parent methods to monitor tasks being submitted and finishing execution. A task
+ * counts as active from its submission, so that queued tasks keep the executor busy, until {@link
+ * #afterExecute(Runnable, Throwable)} runs for it. Uses a {@link StripedCountingIdlingResource} to
+ * track the number of active tasks, so that submitting threads do not contend with each other or
+ * with the pool threads.
  *
  * <p><b>This API is currently in beta.</b>
  */
@@ -36,7 +41,7 @@ public class IdlingThreadPoolExecutor extends ThreadPoolExecutor implements Idli
 
   private static final String LOG_TAG = "IdlingThreadPoolExec";
 
-  private CountingIdlingResource countingIdlingResource;
+  private final StripedCountingIdlingResource countingIdlingResource;
 
   /**
    * Creates a new {@code IdlingThreadPoolExecutor} with the given initial parameters and default
@@ -63,7 +68,7 @@ public class IdlingThreadPoolExecutor extends ThreadPoolExecutor implements Idli
       BlockingQueue<Runnable> workQueue,
       ThreadFactory threadFactory) {
     super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory);
-    countingIdlingResource = new CountingIdlingResource(resourceName);
+    countingIdlingResource = new StripedCountingIdlingResource(resourceName);
     Log.i(LOG_TAG, "Register idling resource for thread pool " + resourceName);
     IdlingRegistry.getInstance().register(this);
   }
@@ -84,16 +89,31 @@ public class IdlingThreadPoolExecutor extends ThreadPoolExecutor implements Idli
   }
 
   @Override
-  public synchronized void execute(Runnable command) {
+  public void execute(Runnable command) {
     countingIdlingResource.increment();
-    super.execute(command);
+    try {
+      super.execute(command);
+    } catch (RejectedExecutionException ree) {
+      countingIdlingResource.decrement();
+      throw ree;
+    }
   }
 
   @Override
   protected void afterExecute(Runnable r, Throwable t) {
+    super.afterExecute(r, t);
     countingIdlingResource.decrement();
   }
 
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> neverExecuted = super.shutdownNow();
+    for (int i = 0; i < neverExecuted.size(); i++) {
+      countingIdlingResource.decrement();
+    }
+    return neverExecuted;
+  }
+
   @Override
   protected void terminated() {
     super.terminated();
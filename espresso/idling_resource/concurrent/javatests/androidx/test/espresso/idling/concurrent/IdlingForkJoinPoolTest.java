@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.idling.concurrent;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import androidx.test.espresso.IdlingResource;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+
+/** Unit tests for {@link IdlingForkJoinPool}. */
+@RunWith(AndroidJUnit4.class)
+public class IdlingForkJoinPoolTest {
+
+  private IdlingForkJoinPool pool;
+  @Mock private IdlingResource.ResourceCallback mockCallback;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    this.pool = new IdlingForkJoinPool("resource", 2);
+    this.pool.registerIdleTransitionCallback(mockCallback);
+  }
+
+  @After
+  public void tearDown() {
+    this.pool.shutdownNow();
+  }
+
+  @Test
+  public void testGetName() {
+    assertThat(this.pool.getName()).isEqualTo("resource");
+  }
+
+  @Test
+  public void testIsIdleNow_initial() {
+    assertThat(this.pool.isIdleNow()).isTrue();
+  }
+
+  /** Test idle transition for a single runnable. */
+  @Test
+  public void testIsIdleNow_simpleExecution() {
+    LatchRunnable r = new LatchRunnable();
+    this.pool.execute(r);
+    assertThat(this.pool.isIdleNow()).isFalse();
+    r.waitForExecution();
+    assertThat(this.pool.isIdleNow()).isFalse();
+    r.release();
+    verify(mockCallback, timeout(100)).onTransitionToIdle();
+    assertThat(this.pool.isIdleNow()).isTrue();
+  }
+
+  /** Test idle transition for a submitted runnable which is still waiting to be joined. */
+  @Test
+  public void testIsIdleNow_submit() throws Exception {
+    LatchRunnable r = new LatchRunnable();
+    Future<?> future = this.pool.submit(r);
+    r.waitForExecution();
+    assertThat(this.pool.isIdleNow()).isFalse();
+    r.release();
+    future.get();
+    verify(mockCallback, timeout(100)).onTransitionToIdle();
+    assertThat(this.pool.isIdleNow()).isTrue();
+  }
+
+  /** Test that subtasks forked by an invoked task complete before the pool goes idle. */
+  @Test
+  public void testInvoke_recursiveTask() {
+    assertThat(this.pool.invoke(new Fibonacci(15))).isEqualTo(610);
+    verify(mockCallback, timeout(100)).onTransitionToIdle();
+    assertThat(this.pool.isIdleNow()).isTrue();
+  }
+
+  /** Test idle transition for a failing task. */
+  @Test
+  public void testIsIdleNow_failedTask() throws Exception {
+    Future<?> future = this.pool.submit(new ErrorRunnable());
+    try {
+      future.get();
+      fail("Should throw execution exception!");
+    } catch (ExecutionException expected) {
+    }
+    verify(mockCallback, timeout(100)).onTransitionToIdle();
+    assertThat(this.pool.isIdleNow()).isTrue();
+  }
+
+  /** Test that rejected tasks do not keep the pool busy. */
+  @Test
+  public void testIsIdleNow_rejectedExecution() {
+    this.pool.shutdown();
+    try {
+      this.pool.execute(new LatchRunnable());
+      fail("Should throw rejected execution exception!");
+    } catch (RejectedExecutionException expected) {
+    }
+    assertThat(this.pool.isIdleNow()).isTrue();
+  }
+
+  private static class Fibonacci extends RecursiveTask<Integer> {
+    private final int n;
+
+    Fibonacci(int n) {
+      this.n = n;
+    }
+
+    @Override
+    protected Integer compute() {
+      if (n <= 1) {
+        return n;
+      }
+      Fibonacci f1 = new Fibonacci(n - 1);
+      f1.fork();
+      return new Fibonacci(n - 2).compute() + f1.join();
+    }
+  }
+
+  private static class LatchRunnable implements Runnable {
+
+    private CountDownLatch finishedLatch = new CountDownLatch(1);
+    private CountDownLatch executingLatch = new CountDownLatch(1);
+
+    @Override
+    public void run() {
+      executingLatch.countDown();
+      awaitLatch(finishedLatch);
+    }
+
+    private void awaitLatch(CountDownLatch latch) {
+      try {
+        latch.await();
+      } catch (InterruptedException e) {
+        throw new RuntimeException("interrupted");
+      }
+    }
+
+    public void waitForExecution() {
+      awaitLatch(executingLatch);
+    }
+
+    public void release() {
+      finishedLatch.countDown();
+    }
+  }
+
+  private static class ErrorRunnable implements Runnable {
+    @Override
+    public void run() {
+      throw new RuntimeException();
+    }
+  }
+}
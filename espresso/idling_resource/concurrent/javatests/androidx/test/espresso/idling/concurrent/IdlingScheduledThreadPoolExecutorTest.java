@@ -122,6 +122,37 @@ public class IdlingScheduledThreadPoolExecutorTest {
     assertThat(this.executor.isIdleNow()).isTrue();
   }
 
+  /** Test that periodic tasks do not keep the executor busy. */
+  @Test
+  public void testScheduleAtFixedRate_staysIdle() throws Exception {
+    final CountDownLatch runs = new CountDownLatch(3);
+    Future<?> future =
+        this.executor.scheduleAtFixedRate(
+            new Runnable() {
+              @Override
+              public void run() {
+                runs.countDown();
+              }
+            },
+            0,
+            10,
+            TimeUnit.MILLISECONDS);
+    runs.await();
+    assertThat(this.executor.isIdleNow()).isTrue();
+    future.cancel(false);
+  }
+
+  /** Test idle transition when a scheduled task is cancelled and removed from the queue. */
+  @Test
+  public void testSchedule_cancelledWithRemoveOnCancel() {
+    this.executor.setRemoveOnCancelPolicy(true);
+    Future<?> future = this.executor.schedule(new LatchRunnable(), 1, TimeUnit.HOURS);
+    assertThat(this.executor.isIdleNow()).isFalse();
+    future.cancel(false);
+    verify(mockCallback, timeout(100)).onTransitionToIdle();
+    assertThat(this.executor.isIdleNow()).isTrue();
+  }
+
   private static class LatchRunnable implements Runnable {
 
     private CountDownLatch finishedLatch = new CountDownLatch(1);
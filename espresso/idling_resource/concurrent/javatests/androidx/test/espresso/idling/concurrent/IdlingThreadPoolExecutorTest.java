@@ -17,16 +17,22 @@
 package androidx.test.espresso.idling.concurrent;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import androidx.test.espresso.IdlingResource;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -116,6 +122,94 @@ public class IdlingThreadPoolExecutorTest {
     this.executor.terminated();
   }
 
+  /** Test that rejected runnables do not keep the executor busy. */
+  @Test
+  public void testIsIdleNow_rejectedExecution() {
+    this.executor.shutdown();
+    try {
+      this.executor.execute(new LatchRunnable());
+      fail("Should throw rejected execution exception!");
+    } catch (RejectedExecutionException expected) {
+    }
+    assertThat(this.executor.isIdleNow()).isTrue();
+  }
+
+  /** Test that runnables dropped by shutdownNow do not keep the executor busy. */
+  @Test
+  public void testIsIdleNow_shutdownNow() {
+    IdlingThreadPoolExecutor singleThreadExecutor =
+        new IdlingThreadPoolExecutor(
+            "single_thread_resource",
+            1 /* corePoolSize */,
+            1 /* maxPoolSize */,
+            5 /* keepAliveTime */,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            Executors.defaultThreadFactory());
+    LatchRunnable running = new LatchRunnable();
+    singleThreadExecutor.execute(running);
+    singleThreadExecutor.execute(new LatchRunnable());
+    running.waitForExecution();
+
+    singleThreadExecutor.registerIdleTransitionCallback(mockCallback);
+
+    // interrupts the running runnable and drops the queued one
+    assertThat(singleThreadExecutor.shutdownNow()).hasSize(1);
+    verify(mockCallback, timeout(100)).onTransitionToIdle();
+    assertThat(singleThreadExecutor.isIdleNow()).isTrue();
+  }
+
+  /**
+   * Test that the executor is never idle while a task runs, even though tasks are counted on the
+   * submitting threads and uncounted on the pool threads.
+   */
+  @Test
+  public void testIsIdleNow_neverIdleWhileTaskRuns() throws InterruptedException {
+    final IdlingThreadPoolExecutor busyExecutor =
+        new IdlingThreadPoolExecutor(
+            "busy_resource",
+            4 /* corePoolSize */,
+            4 /* maxPoolSize */,
+            5 /* keepAliveTime */,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            Executors.defaultThreadFactory());
+    final int tasksPerSubmitter = 5000;
+    final AtomicInteger idleWhileRunning = new AtomicInteger();
+    final CountDownLatch finished = new CountDownLatch(4 * tasksPerSubmitter);
+    final Runnable task =
+        new Runnable() {
+          @Override
+          public void run() {
+            if (busyExecutor.isIdleNow()) {
+              idleWhileRunning.incrementAndGet();
+            }
+            finished.countDown();
+          }
+        };
+    List<Thread> submitters = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      submitters.add(
+          new Thread() {
+            @Override
+            public void run() {
+              for (int j = 0; j < tasksPerSubmitter; j++) {
+                busyExecutor.execute(task);
+              }
+            }
+          });
+    }
+    for (Thread submitter : submitters) {
+      submitter.start();
+    }
+    finished.await();
+
+    assertThat(idleWhileRunning.get()).isEqualTo(0);
+    busyExecutor.shutdown();
+    assertThat(busyExecutor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(busyExecutor.isIdleNow()).isTrue();
+  }
+
   private static class LatchRunnable implements Runnable {
 
     private CountDownLatch finishedLatch = new CountDownLatch(1);
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Discovers {@link ThreadPoolExecutor}s which Espresso should wait for, in addition to the ones
+ * registered through {@link IdlingRegistry#registerExecutorAsIdlingResource(ThreadPoolExecutor)}.
+ *
+ * <p>Implementations are loaded with {@link java.util.ServiceLoader}: list the implementing class
+ * in a {@code META-INF/services/androidx.test.espresso.IdlingExecutorProvider} resource of the test
+ * or the application under test. They need a public no-argument constructor.
+ *
+ * <p>This is useful for executors which are created by libraries, e.g. the thread pools behind
+ * RxJava schedulers or coroutine dispatchers, which are easier to look up than to register
+ * wherever they are created. The executors must queue new tasks once their core threads are busy,
+ * see {@link IdlingRegistry#registerExecutorAsIdlingResource(ThreadPoolExecutor)}.
+ */
+public interface IdlingExecutorProvider {
+
+  /**
+   * Returns the executors Espresso should currently wait for.
+   *
+   * <p>This is called on the main thread before every Espresso interaction, so executors created
+   * after the test started are picked up as well. Implementations should return quickly.
+   */
+  Collection<ThreadPoolExecutor> getExecutors();
+}
@@ -23,6 +23,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Handles registering and unregistering of {@link IdlingResource}s with Espresso from within your
@@ -41,6 +43,8 @@ public final class IdlingRegistry {
   private static final IdlingRegistry instance = new IdlingRegistry();
   private final Set<IdlingResource> resources = synchronizedSet(new HashSet<IdlingResource>());
   private final Set<Looper> loopers = synchronizedSet(new HashSet<Looper>());
+  private final Set<ThreadPoolExecutor> executors =
+      synchronizedSet(new HashSet<ThreadPoolExecutor>());
 
   // VisibleForTesting
   IdlingRegistry() {}
@@ -110,6 +114,55 @@ public final class IdlingRegistry {
     return loopers.remove(looper);
   }
 
+  /**
+   * Registers a {@link ThreadPoolExecutor}, e.g. a {@link
+   * java.util.concurrent.ScheduledThreadPoolExecutor}, for idle checking with the framework.
+   * Espresso waits until no task is executing on the executor and no task is waiting in its queue.
+   * Delayed tasks of a {@link java.util.concurrent.ScheduledThreadPoolExecutor} are only waited for
+   * once they are due.
+   *
+   * <p>This is intended for executors the application under test creates itself. Executors can
+   * also be provided by an {@link IdlingExecutorProvider}.
+   *
+   * <p>Espresso waits for an executor by queueing tasks behind the running ones, so the executor
+   * must queue new tasks once its core threads are busy. Executors without core threads, or which
+   * start more threads instead of queueing, like {@link
+   * java.util.concurrent.Executors#newCachedThreadPool()}, can't be waited for this way. Use an
+   * {@code IdlingThreadPoolExecutor} from espresso-idling-concurrent for those instead.
+   *
+   * @throws IllegalArgumentException if the executor does not queue tasks once its core threads
+   *     are busy.
+   * @throws NullPointerException if executor is null.
+   */
+  public void registerExecutorAsIdlingResource(ThreadPoolExecutor executor) {
+    if (null == executor) {
+      throw new NullPointerException("executor cannot be null!");
+    }
+    if (0 == executor.getCorePoolSize()
+        || (executor.getCorePoolSize() < executor.getMaximumPoolSize()
+            && executor.getQueue() instanceof SynchronousQueue)) {
+      throw new IllegalArgumentException(
+          "Executor does not queue tasks once its core threads are busy, use an"
+              + " IdlingThreadPoolExecutor instead: "
+              + executor);
+    }
+    executors.add(executor);
+  }
+
+  /**
+   * Unregisters a {@link ThreadPoolExecutor}.
+   *
+   * <p>Attempting to unregister an executor that is not registered is a no-op.
+   *
+   * @return {@code true} if the executor was successfully removed from the registry
+   */
+  public boolean unregisterExecutorAsIdlingResource(ThreadPoolExecutor executor) {
+    if (null == executor) {
+      throw new NullPointerException("executor cannot be null!");
+    }
+    return executors.remove(executor);
+  }
+
   /** Returns a set of all currently registered {@link IdlingResource}s. */
   public Collection<IdlingResource> getResources() {
     return new HashSet<>(resources);
@@ -119,4 +172,9 @@ public final class IdlingRegistry {
   public Collection<Looper> getLoopers() {
     return new HashSet<>(loopers);
   }
+
+  /** @return a set of all currently registered {@link ThreadPoolExecutor}s. */
+  public Collection<ThreadPoolExecutor> getExecutors() {
+    return new HashSet<>(executors);
+  }
 }
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.idling;
+
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+import androidx.test.espresso.IdlingResource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A {@link CountingIdlingResource} for counters which are incremented and decremented from many
+ * threads at once, e.g. by the dispatcher threads of a networking library.
+ *
+ * <p>Instead of a single counter, the in-flight count is spread over several stripes. A thread
+ * increments the stripe it maps to and decrements its own stripe, or any other stripe with a
+ * non-zero count if its own one is empty. Stripe counts therefore never become negative and the
+ * resource is idle exactly when all stripes are empty. A shared counter keeps track of the number
+ * of non-empty stripes and is only touched when a stripe becomes empty or non-empty, which rarely
+ * happens while the resource is busy. A stripe is counted before it becomes non-empty and is only
+ * uncounted after it has become empty, so the counter may briefly be too high but never misses a
+ * non-empty stripe: the resource is never reported idle while a transaction is in flight.
+ *
+ * <p>The idle transition callback is invoked every time the counter drops to zero. Like {@link
+ * CountingIdlingResource}, decrementing more often than incrementing raises an {@link
+ * IllegalStateException}.
+ *
+ * <p>Callers may optionally pass a tag to {@link #increment(String)} and {@link
+ * #decrement(String)}. The in-flight count of each tag is then available through {@link
+ * #getInFlightCountsByTag()} and {@link #dumpStateToLogs()}, which helps to find the operation
+ * that keeps the resource busy.
+ */
+public final class StripedCountingIdlingResource implements IdlingResource {
+  private static final String TAG = "StripedCountingIR";
+
+  // every stripe takes up a 64 byte cache line, so that threads don't slow each other down.
+  private static final int STRIPE_PADDING = 16;
+  private static final int MAX_STRIPES = 64;
+
+  private final String resourceName;
+  private final boolean debugCounting;
+  private final int stripeMask;
+  private final AtomicIntegerArray stripes;
+  private final AtomicInteger busyStripes = new AtomicInteger(0);
+  private final ConcurrentHashMap<String, AtomicInteger> countsByTag = new ConcurrentHashMap<>();
+
+  // written from main thread, read from any thread.
+  private volatile ResourceCallback resourceCallback;
+
+  // read/written from any thread - used for debugging messages.
+  private volatile long becameBusyAt = 0;
+  private volatile long becameIdleAt = 0;
+
+  /**
+   * Creates a StripedCountingIdlingResource without debug tracing.
+   *
+   * @param resourceName the resource name this resource should report to Espresso.
+   */
+  public StripedCountingIdlingResource(String resourceName) {
+    this(resourceName, false);
+  }
+
+  /**
+   * Creates a StripedCountingIdlingResource.
+   *
+   * @param resourceName the resource name this resource should report to Espresso.
+   * @param debugCounting if true busy and idle transitions will print trace information to logs.
+   */
+  public StripedCountingIdlingResource(String resourceName, boolean debugCounting) {
+    if (TextUtils.isEmpty(resourceName)) {
+      throw new IllegalArgumentException("resourceName cannot be empty or null!");
+    }
+    this.resourceName = resourceName;
+    this.debugCounting = debugCounting;
+    int stripeCount = 1;
+    while (stripeCount < MAX_STRIPES
+        && stripeCount < 2 * Runtime.getRuntime().availableProcessors()) {
+      stripeCount <<= 1;
+    }
+    this.stripeMask = stripeCount - 1;
+    this.stripes = new AtomicIntegerArray(stripeCount * STRIPE_PADDING);
+  }
+
+  @Override
+  public String getName() {
+    return resourceName;
+  }
+
+  @Override
+  public boolean isIdleNow() {
+    return busyStripes.get() == 0;
+  }
+
+  @Override
+  public void registerIdleTransitionCallback(ResourceCallback resourceCallback) {
+    this.resourceCallback = resourceCallback;
+  }
+
+  /**
+   * Increments the count of in-flight transactions to the resource being monitored.
+   *
+   * <p>This method can be called from any thread.
+   */
+  public void increment() {
+    int index = homeStripe() * STRIPE_PADDING;
+    while (true) {
+      int count = stripes.get(index);
+      if (0 != count) {
+        if (stripes.compareAndSet(index, count, count + 1)) {
+          return;
+        }
+      } else {
+        onStripeBusy();
+        if (stripes.compareAndSet(index, 0, 1)) {
+          return;
+        }
+        // another thread changed the stripe first, it was counted by whoever made it non-empty.
+        onStripeIdle();
+      }
+    }
+  }
+
+  /**
+   * Increments the count of in-flight transactions and the count of the given tag.
+   *
+   * <p>This method can be called from any thread.
+   *
+   * @param tag identifies the caller, e.g. the kind of request that is started.
+   */
+  public void increment(String tag) {
+    AtomicInteger tagCount = countsByTag.get(tag);
+    if (null == tagCount) {
+      AtomicInteger newTagCount = new AtomicInteger(0);
+      tagCount = countsByTag.putIfAbsent(tag, newTagCount);
+      if (null == tagCount) {
+        tagCount = newTagCount;
+      }
+    }
+    tagCount.incrementAndGet();
+    increment();
+  }
+
+  /**
+   * Decrements the count of in-flight transactions to the resource being monitored.
+   *
+   * <p>This method can be called from any thread, not necessarily the one which incremented the
+   * count.
+   *
+   * @throws IllegalStateException if the count of in-flight transactions is already 0.
+   */
+  public void decrement() {
+    int homeStripe = homeStripe();
+    do {
+      for (int i = 0; i <= stripeMask; i++) {
+        if (tryDecrement(((homeStripe + i) & stripeMask) * STRIPE_PADDING)) {
+          return;
+        }
+      }
+      // the count may have moved to a stripe which was already looked at. As the counter never
+      // misses a non-empty stripe, only give up once it is zero.
+    } while (0 != busyStripes.get());
+    throw new IllegalStateException(
+        "Counter has been corrupted! Resource: " + resourceName + " was decremented below 0");
+  }
+
+  /**
+   * Decrements the count of in-flight transactions and the count of the given tag.
+   *
+   * @param tag the tag passed to the matching {@link #increment(String)} call.
+   * @throws IllegalStateException if the count of the tag is already 0.
+   */
+  public void decrement(String tag) {
+    AtomicInteger tagCount = countsByTag.get(tag);
+    if (null == tagCount || tagCount.decrementAndGet() < 0) {
+      throw new IllegalStateException(
+          "Counter has been corrupted! Tag: " + tag + " was decremented below 0");
+    }
+    decrement();
+  }
+
+  /**
+   * Returns the in-flight count of every tag passed to {@link #increment(String)}. The counts of
+   * concurrently changing tags may be off by the changes in progress.
+   */
+  public Map<String, Integer> getInFlightCountsByTag() {
+    Map<String, Integer> counts = new HashMap<>();
+    for (Map.Entry<String, AtomicInteger> tagCount : countsByTag.entrySet()) {
+      counts.put(tagCount.getKey(), tagCount.getValue().get());
+    }
+    return counts;
+  }
+
+  /** Prints the current state of this resource to the logcat at info level. */
+  public void dumpStateToLogs() {
+    StringBuilder message =
+        new StringBuilder("Resource: ")
+            .append(resourceName)
+            .append(" inflight transaction count: ")
+            .append(getInFlightCount());
+    for (Map.Entry<String, Integer> tagCount : getInFlightCountsByTag().entrySet()) {
+      if (tagCount.getValue() != 0) {
+        message.append(", ").append(tagCount.getKey()).append(": ").append(tagCount.getValue());
+      }
+    }
+    if (0 == becameBusyAt) {
+      Log.i(TAG, message.append(" and has never been busy!").toString());
+    } else {
+      message.append(" and was last busy at: ").append(becameBusyAt);
+      if (0 == becameIdleAt) {
+        Log.w(TAG, message.append(" AND NEVER WENT IDLE!").toString());
+      } else {
+        message.append(" and last went idle at: ").append(becameIdleAt);
+        Log.i(TAG, message.toString());
+      }
+    }
+  }
+
+  private int getInFlightCount() {
+    int count = 0;
+    for (int i = 0; i <= stripeMask; i++) {
+      count += stripes.get(i * STRIPE_PADDING);
+    }
+    return count;
+  }
+
+  private boolean tryDecrement(int index) {
+    while (true) {
+      int count = stripes.get(index);
+      if (0 == count) {
+        return false;
+      }
+      if (stripes.compareAndSet(index, count, count - 1)) {
+        if (1 == count) {
+          onStripeIdle();
+        }
+        return true;
+      }
+    }
+  }
+
+  private void onStripeBusy() {
+    if (1 == busyStripes.incrementAndGet()) {
+      becameBusyAt = SystemClock.uptimeMillis();
+      if (debugCounting) {
+        Log.i(TAG, "Resource: " + resourceName + " went busy");
+      }
+    }
+  }
+
+  private void onStripeIdle() {
+    if (0 == busyStripes.decrementAndGet()) {
+      onIdle();
+    }
+  }
+
+  private void onIdle() {
+    becameIdleAt = SystemClock.uptimeMillis();
+    ResourceCallback callback = resourceCallback;
+    if (null != callback) {
+      callback.onTransitionToIdle();
+    }
+    if (debugCounting) {
+      Log.i(
+          TAG,
+          "Resource: "
+              + resourceName
+              + " went idle! (Time spent not idle: "
+              + (becameIdleAt - becameBusyAt)
+              + ")");
+    }
+  }
+
+  private int homeStripe() {
+    long id = Thread.currentThread().getId();
+    int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & stripeMask;
+  }
+}
@@ -24,6 +24,10 @@ import static junit.framework.Assert.fail;
 import android.os.Looper;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -99,6 +103,32 @@ public class IdlingRegistryTest {
     }
   }
 
+  @Test
+  public void verifyRegisterAndUnregisterExecutor() {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    idlingRegistry.registerExecutorAsIdlingResource(executor);
+    idlingRegistry.registerExecutorAsIdlingResource(executor);
+    assertEquals(1, idlingRegistry.getExecutors().size());
+    assertTrue(idlingRegistry.unregisterExecutorAsIdlingResource(executor));
+    assertFalse(idlingRegistry.unregisterExecutorAsIdlingResource(executor));
+    assertEquals(0, idlingRegistry.getExecutors().size());
+  }
+
+  @Test
+  public void verifyAttemptingToRegisterCachedThreadPoolThrows() {
+    ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newCachedThreadPool();
+    try {
+      idlingRegistry.registerExecutorAsIdlingResource(executor);
+      fail("Expected to throw IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(0, idlingRegistry.getExecutors().size());
+  }
+
   private IdlingResource getDummyIdlingResource(String name) {
     return new IdlingResourceFixture(name, true);
   }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.idling;
+
+import static org.junit.Assert.assertTrue;
+
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares {@link CountingIdlingResource} and {@link StripedCountingIdlingResource} while many
+ * threads increment and decrement them at once. Results are written to logcat.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class CountingIdlingResourceBenchmark {
+  private static final String TAG = "CountingIRBenchmark";
+
+  private static final int THREADS = 64;
+  private static final int OPERATIONS_PER_THREAD = 20000;
+
+  /** The counting methods shared by both resources. */
+  private interface Counter {
+    void increment();
+
+    void decrement();
+
+    boolean isIdleNow();
+  }
+
+  @Test
+  public void contendedIncrementDecrement() throws Exception {
+    final CountingIdlingResource counting = new CountingIdlingResource("counting");
+    final StripedCountingIdlingResource striped = new StripedCountingIdlingResource("striped");
+    Counter countingCounter =
+        new Counter() {
+          @Override
+          public void increment() {
+            counting.increment();
+          }
+
+          @Override
+          public void decrement() {
+            counting.decrement();
+          }
+
+          @Override
+          public boolean isIdleNow() {
+            return counting.isIdleNow();
+          }
+        };
+    Counter stripedCounter =
+        new Counter() {
+          @Override
+          public void increment() {
+            striped.increment();
+          }
+
+          @Override
+          public void decrement() {
+            striped.decrement();
+          }
+
+          @Override
+          public boolean isIdleNow() {
+            return striped.isIdleNow();
+          }
+        };
+
+    // warm up
+    run(countingCounter);
+    run(stripedCounter);
+
+    long countingNanos = run(countingCounter);
+    long stripedNanos = run(stripedCounter);
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%d threads x %d increment/decrement pairs: CountingIdlingResource %.1f ms, "
+                + "StripedCountingIdlingResource %.1f ms (%.2fx)",
+            THREADS,
+            OPERATIONS_PER_THREAD,
+            countingNanos / 1e6,
+            stripedNanos / 1e6,
+            countingNanos / (double) stripedNanos));
+  }
+
+  /** Runs all threads and returns the time until all of them are done. */
+  private static long run(final Counter counter) throws InterruptedException {
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(THREADS);
+    for (int i = 0; i < THREADS; i++) {
+      new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+              counter.increment();
+              counter.decrement();
+            }
+          } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+          } finally {
+            done.countDown();
+          }
+        }
+      }.start();
+    }
+    long startNanos = SystemClock.elapsedRealtimeNanos();
+    start.countDown();
+    done.await();
+    long elapsed = SystemClock.elapsedRealtimeNanos() - startNanos;
+    assertTrue(counter.isIdleNow());
+    return elapsed;
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.idling;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import androidx.test.espresso.IdlingResource.ResourceCallback;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+
+/** Unit tests for {@link StripedCountingIdlingResource}. */
+@RunWith(AndroidJUnit4.class)
+public class StripedCountingIdlingResourceTest {
+
+  private static final String RESOURCE_NAME = "test_resource";
+  private StripedCountingIdlingResource resource;
+
+  @Mock private ResourceCallback mockCallback;
+
+  @Before
+  public void setUp() throws Exception {
+    initMocks(this);
+    resource = new StripedCountingIdlingResource(RESOURCE_NAME, true);
+  }
+
+  @Test
+  public void testResourceName() {
+    assertEquals(RESOURCE_NAME, resource.getName());
+  }
+
+  @Test
+  public void testInvalidStateDetected() throws Exception {
+    resource.increment();
+    resource.decrement();
+    try {
+      resource.decrement();
+      fail("Should throw illegal state exception!");
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  @Test
+  public void testIdleNotification() throws Exception {
+    registerIdleCallback();
+    assertTrue(callIsIdle());
+
+    resource.increment();
+    resource.increment();
+    assertFalse(callIsIdle());
+
+    resource.decrement();
+    verify(mockCallback, never()).onTransitionToIdle();
+    assertFalse(callIsIdle());
+
+    resource.decrement();
+    verify(mockCallback).onTransitionToIdle();
+    assertTrue(callIsIdle());
+  }
+
+  @Test
+  public void testDecrementOnOtherThread() throws Exception {
+    registerIdleCallback();
+    final int threadCount = 8;
+    final CountDownLatch incremented = new CountDownLatch(threadCount);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < threadCount; i++) {
+      threads.add(
+          new Thread() {
+            @Override
+            public void run() {
+              resource.increment();
+              incremented.countDown();
+            }
+          });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    incremented.await();
+    assertFalse(callIsIdle());
+
+    // all increments happened on other threads, this thread's stripe is empty.
+    for (int i = 0; i < threadCount; i++) {
+      resource.decrement();
+    }
+    verify(mockCallback, atLeastOnce()).onTransitionToIdle();
+    assertTrue(callIsIdle());
+  }
+
+  @Test
+  public void testNeverIdleWhileTransactionInFlight() throws Exception {
+    // without debug logs, which would serialize the threads.
+    resource = new StripedCountingIdlingResource(RESOURCE_NAME);
+    registerIdleCallback();
+    // more threads than stripes, so that threads share stripes and empty each other's.
+    final int threadCount = 4 * Runtime.getRuntime().availableProcessors();
+    final int iterations = 5000;
+    final AtomicInteger idleWhileInFlight = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < threadCount; i++) {
+      threads.add(
+          new Thread() {
+            @Override
+            public void run() {
+              try {
+                start.await();
+              } catch (InterruptedException e) {
+                return;
+              }
+              for (int j = 0; j < iterations; j++) {
+                // another thread may empty this thread's stripe and make its own one non-empty
+                // while this thread is still about to count its stripe as non-empty.
+                resource.increment();
+                if (resource.isIdleNow()) {
+                  idleWhileInFlight.incrementAndGet();
+                }
+                resource.decrement();
+              }
+            }
+          });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(0, idleWhileInFlight.get());
+    verify(mockCallback, atLeastOnce()).onTransitionToIdle();
+    assertTrue(callIsIdle());
+  }
+
+  @Test
+  public void testTaggedCounts() {
+    resource.increment("fetch");
+    resource.increment("fetch");
+    resource.increment("upload");
+    resource.decrement("fetch");
+
+    assertEquals(Integer.valueOf(1), resource.getInFlightCountsByTag().get("fetch"));
+    assertEquals(Integer.valueOf(1), resource.getInFlightCountsByTag().get("upload"));
+    try {
+      resource.decrement("unknown");
+      fail("Should throw illegal state exception!");
+    } catch (IllegalStateException expected) {
+    }
+    resource.dumpStateToLogs();
+  }
+
+  private void registerIdleCallback() throws Exception {
+    FutureTask<Void> registerTask =
+        new FutureTask<Void>(
+            new Callable<Void>() {
+              @Override
+              public Void call() throws Exception {
+                resource.registerIdleTransitionCallback(mockCallback);
+                return null;
+              }
+            });
+    getInstrumentation().runOnMainSync(registerTask);
+    try {
+      registerTask.get();
+    } catch (ExecutionException ee) {
+      throw new RuntimeException(ee.getCause());
+    }
+  }
+
+  private boolean callIsIdle() throws Exception {
+    FutureTask<Boolean> isIdleTask =
+        new FutureTask<Boolean>(
+            new Callable<Boolean>() {
+              @Override
+              public Boolean call() throws Exception {
+                return resource.isIdleNow();
+              }
+            });
+    getInstrumentation().runOnMainSync(isIdleTask);
+    try {
+      return isIdleTask.get();
+    } catch (ExecutionException ee) {
+      throw new RuntimeException(ee.getCause());
+    }
+  }
+}
@@ -18,10 +18,16 @@ package androidx.test.espresso.idling.net;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import androidx.annotation.VisibleForTesting;
+import android.text.TextUtils;
 import android.util.Log;
 import androidx.test.espresso.IdlingResource;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
@@ -38,6 +44,14 @@ import java.util.regex.Pattern;
  * loading is complete. The counter will go from 0->1->0->1->0->1..., but we don't want to report
  * the webview as idle each time this happens.
  *
+ * <p>The idle timeout is only scheduled when the counter drops to 0 and no check is pending yet.
+ * Loads that start and finish while the check is pending move the check back instead of posting
+ * another one, so bursts of short requests don't flood the main thread with messages.
+ *
+ * <p>URIs which are currently loading are tracked individually and can be listed with {@link
+ * #getInFlightUris()} or {@link #dumpStateToLogs()}, e.g. to find the request which keeps the
+ * resource busy.
+ *
  * <p><b>This API is currently in beta.</b>
  */
 public class UriIdlingResource implements IdlingResource {
@@ -49,9 +63,18 @@ public class UriIdlingResource implements IdlingResource {
 
   // Read and modified from multiple threads
   private final AtomicInteger counter = new AtomicInteger(0);
-  private final CopyOnWriteArrayList<Pattern> ignoredRegexes = new CopyOnWriteArrayList<>();
+  private final ConcurrentHashMap<String, AtomicInteger> inFlightUris = new ConcurrentHashMap<>();
   private final AtomicBoolean idle = new AtomicBoolean(true);
+  private final AtomicBoolean idleCheckPosted = new AtomicBoolean(false);
+  private volatile long lastEndLoadAt = 0;
+  private volatile UriIgnoreMatcher ignoreMatcher = UriIgnoreMatcher.EMPTY;
   private final Runnable transitionToIdle;
+  private final Runnable idleCheck;
+
+  // Only modified while holding the lock of this resource, compiled into ignoreMatcher.
+  private final List<String> ignoredPrefixes = new ArrayList<>();
+  private final List<Pattern> ignoredPatterns = new ArrayList<>();
+
   private volatile ResourceCallback resourceCallback;
   private final HandlerIntf handler;
 
@@ -79,6 +102,13 @@ public class UriIdlingResource implements IdlingResource {
             }
           }
         };
+    idleCheck =
+        new Runnable() {
+          @Override
+          public void run() {
+            checkIdle();
+          }
+        };
   }
 
   @Override
@@ -104,11 +134,33 @@ public class UriIdlingResource implements IdlingResource {
    *
    * <p>Ignored patterns can only be added when the webview is idle.
    */
-  public void ignoreUri(Pattern pattern) {
+  public synchronized void ignoreUri(Pattern pattern) {
     if (!isIdleNow()) {
       Log.e(TAG, "Ignored patterns can only be added when the resource is idle.");
     } else {
-      ignoredRegexes.add(pattern);
+      ignoredPatterns.add(pattern);
+      ignoreMatcher = UriIgnoreMatcher.compile(ignoredPrefixes, ignoredPatterns);
+    }
+  }
+
+  /**
+   * Add a URI prefix to the ignore list, e.g. {@code "https://ads.example.com/"}.
+   *
+   * <p>All request URIs starting with the prefix are ignored for the purposes of detecting when the
+   * webview is idle. Prefixes are cheaper to check than regex patterns, so prefer them for ignoring
+   * whole hosts or paths.
+   *
+   * <p>Ignored prefixes can only be added when the webview is idle.
+   */
+  public synchronized void ignoreUriPrefix(String uriPrefix) {
+    if (TextUtils.isEmpty(uriPrefix)) {
+      throw new IllegalArgumentException("uriPrefix cannot be empty or null!");
+    }
+    if (!isIdleNow()) {
+      Log.e(TAG, "Ignored prefixes can only be added when the resource is idle.");
+    } else {
+      ignoredPrefixes.add(uriPrefix);
+      ignoreMatcher = UriIgnoreMatcher.compile(ignoredPrefixes, ignoredPatterns);
     }
   }
 
@@ -121,11 +173,10 @@ public class UriIdlingResource implements IdlingResource {
     if (uriIsIgnored(uri)) {
       return;
     }
-    idle.set(false);
+    // counted before marked busy, so that a concurrent idle check can't mark it idle again.
     long count = counter.getAndIncrement();
-    if (count == 0) {
-      handler.removeCallbacks(transitionToIdle);
-    }
+    idle.set(false);
+    trackBeginLoad(uri);
     if (debug) {
       Log.i(TAG, "Resource " + resourceName + " counter increased to " + (count + 1));
     }
@@ -141,27 +192,135 @@ public class UriIdlingResource implements IdlingResource {
     if (uriIsIgnored(uri)) {
       return;
     }
+    lastEndLoadAt = SystemClock.uptimeMillis();
     int count = counter.decrementAndGet();
     if (count < 0) {
       throw new IllegalStateException("Counter has been corrupted! Count=" + count);
-    } else if (count == 0) {
-      handler.postDelayed(transitionToIdle, timeoutMs);
+    }
+    trackEndLoad(uri);
+    if (count == 0) {
+      postIdleCheck(timeoutMs);
     }
     if (debug) {
       Log.i(TAG, "Resource " + resourceName + " counter decreased to " + count);
     }
   }
 
+  /**
+   * Returns the number of loads in progress for every URI which is currently loading.
+   *
+   * <p>This method can be called from any thread. Loads which end with a different URI than they
+   * began with, e.g. after a redirect, are listed until a load with the same URI ends.
+   */
+  public Map<String, Integer> getInFlightUris() {
+    Map<String, Integer> loads = new HashMap<>();
+    for (Map.Entry<String, AtomicInteger> uriLoads : inFlightUris.entrySet()) {
+      int count = uriLoads.getValue().get();
+      if (count > 0) {
+        loads.put(uriLoads.getKey(), count);
+      }
+    }
+    return loads;
+  }
+
+  /** Prints the current state of this resource to the logcat at info level. */
+  public void dumpStateToLogs() {
+    StringBuilder message =
+        new StringBuilder("Resource: ")
+            .append(resourceName)
+            .append(" inflight load count: ")
+            .append(counter.get())
+            .append(" idle: ")
+            .append(isIdleNow());
+    for (Map.Entry<String, Integer> uriLoads : getInFlightUris().entrySet()) {
+      message.append("\n  <").append(uriLoads.getKey()).append(">");
+      if (uriLoads.getValue() > 1) {
+        message.append(" x").append(uriLoads.getValue());
+      }
+    }
+    Log.i(TAG, message.toString());
+  }
+
   private boolean uriIsIgnored(String uri) {
-    for (Pattern pattern : ignoredRegexes) {
-      if (pattern.matcher(uri).matches()) {
+    if (ignoreMatcher.matches(uri)) {
+      if (debug) {
         Log.i(TAG, "Resource " + resourceName + " ignored URI: <" + uri + ">");
-        return true;
       }
+      return true;
     }
     return false;
   }
 
+  private void trackBeginLoad(String uri) {
+    while (true) {
+      AtomicInteger loads = inFlightUris.get(uri);
+      if (loads == null) {
+        if (inFlightUris.putIfAbsent(uri, new AtomicInteger(1)) == null) {
+          return;
+        }
+      } else {
+        int count = loads.get();
+        if (count == 0) {
+          // the last load of this URI just ended, help to remove its entry and add a new one.
+          inFlightUris.remove(uri, loads);
+        } else if (loads.compareAndSet(count, count + 1)) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void trackEndLoad(String uri) {
+    AtomicInteger loads = inFlightUris.get(uri);
+    while (loads != null) {
+      int count = loads.get();
+      if (count == 0) {
+        break;
+      }
+      if (loads.compareAndSet(count, count - 1)) {
+        if (count == 1) {
+          inFlightUris.remove(uri, loads);
+        }
+        return;
+      }
+    }
+    if (debug) {
+      Log.i(TAG, "Resource " + resourceName + " ended unknown URI: <" + uri + ">");
+    }
+  }
+
+  private void postIdleCheck(long delayMs) {
+    if (idleCheckPosted.compareAndSet(false, true)) {
+      handler.postDelayed(idleCheck, delayMs);
+    }
+  }
+
+  /**
+   * Runs on the main thread once the counter has dropped to 0 and marks the resource as idle if no
+   * load has ended within the timeout.
+   */
+  private void checkIdle() {
+    // cleared first, so that a load ending from now on posts a new check.
+    idleCheckPosted.set(false);
+    if (counter.get() != 0) {
+      return;
+    }
+    long remainingMs = lastEndLoadAt + timeoutMs - SystemClock.uptimeMillis();
+    if (remainingMs > 0) {
+      postIdleCheck(remainingMs);
+      return;
+    }
+    idle.set(true);
+    if (counter.get() != 0) {
+      // a load began in the meantime, it'll post another check once it ends.
+      idle.set(false);
+      return;
+    }
+    if (resourceCallback != null) {
+      resourceCallback.onTransitionToIdle();
+    }
+  }
+
   @VisibleForTesting
   void forceIdleTransition() {
     transitionToIdle.run();
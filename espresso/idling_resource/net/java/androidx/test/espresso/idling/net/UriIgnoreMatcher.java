@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.idling.net;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable set of rules deciding which URIs a {@link UriIdlingResource} ignores.
+ *
+ * <p>Ignored URI prefixes, like a host or a path below it, are stored in a trie, so checking them
+ * only takes a single pass over the start of the URI. Ignored regex patterns are joined into one
+ * alternation, which is evaluated with a single {@link java.util.regex.Matcher}. Patterns which
+ * can't be joined without changing their meaning, because of flags, back references, quoting or
+ * comments, or which may clash with each other, because of named groups, are evaluated one by one.
+ */
+final class UriIgnoreMatcher {
+
+  static final UriIgnoreMatcher EMPTY = new UriIgnoreMatcher(null, null, new Pattern[0]);
+
+  // constructs which depend on their position in the pattern or on the rest of the pattern, and
+  // named groups, whose names must be unique within the combined pattern.
+  private static final Pattern NOT_COMBINABLE =
+      Pattern.compile("\\\\[1-9]|\\\\k<|\\\\Q|#|\\(\\?<[a-zA-Z]");
+
+  private final PrefixNode prefixTrie;
+  private final Pattern combinedPattern;
+  private final Pattern[] separatePatterns;
+
+  private UriIgnoreMatcher(
+      PrefixNode prefixTrie, Pattern combinedPattern, Pattern[] separatePatterns) {
+    this.prefixTrie = prefixTrie;
+    this.combinedPattern = combinedPattern;
+    this.separatePatterns = separatePatterns;
+  }
+
+  /**
+   * Compiles the given rules.
+   *
+   * @param prefixes URIs starting with any of these are ignored.
+   * @param patterns URIs which entirely match any of these are ignored.
+   */
+  static UriIgnoreMatcher compile(Collection<String> prefixes, Collection<Pattern> patterns) {
+    if (prefixes.isEmpty() && patterns.isEmpty()) {
+      return EMPTY;
+    }
+    PrefixNode prefixTrie = null;
+    if (!prefixes.isEmpty()) {
+      prefixTrie = buildTrie(new ArrayList<String>(new TreeSet<String>(prefixes)), 0);
+    }
+
+    StringBuilder combined = new StringBuilder();
+    List<Pattern> separatePatterns = new ArrayList<>();
+    for (Pattern pattern : patterns) {
+      if (pattern.flags() != 0 || NOT_COMBINABLE.matcher(pattern.pattern()).find()) {
+        separatePatterns.add(pattern);
+      } else {
+        if (combined.length() > 0) {
+          combined.append('|');
+        }
+        combined.append("(?:").append(pattern.pattern()).append(')');
+      }
+    }
+    return new UriIgnoreMatcher(
+        prefixTrie,
+        combined.length() > 0 ? Pattern.compile(combined.toString()) : null,
+        separatePatterns.toArray(new Pattern[0]));
+  }
+
+  /** Returns true if the given URI is ignored by any of the rules. */
+  boolean matches(String uri) {
+    if (prefixTrie != null && startsWithPrefix(uri)) {
+      return true;
+    }
+    if (combinedPattern != null && combinedPattern.matcher(uri).matches()) {
+      return true;
+    }
+    for (Pattern pattern : separatePatterns) {
+      if (pattern.matcher(uri).matches()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean startsWithPrefix(String uri) {
+    PrefixNode node = prefixTrie;
+    for (int i = 0; node != null; i++) {
+      if (node.terminal) {
+        return true;
+      }
+      if (i == uri.length()) {
+        return false;
+      }
+      int child = Arrays.binarySearch(node.keys, uri.charAt(i));
+      node = child < 0 ? null : node.children[child];
+    }
+    return false;
+  }
+
+  /**
+   * Builds the trie of the given sorted prefixes, which all share their first {@code depth}
+   * characters.
+   */
+  private static PrefixNode buildTrie(List<String> sortedPrefixes, int depth) {
+    if (sortedPrefixes.get(0).length() == depth) {
+      // the shortest prefix ends here and already covers all longer ones.
+      return new PrefixNode(new char[0], new PrefixNode[0], true);
+    }
+    List<Character> keys = new ArrayList<>();
+    List<PrefixNode> children = new ArrayList<>();
+    int start = 0;
+    while (start < sortedPrefixes.size()) {
+      char key = sortedPrefixes.get(start).charAt(depth);
+      int end = start + 1;
+      while (end < sortedPrefixes.size() && sortedPrefixes.get(end).charAt(depth) == key) {
+        end++;
+      }
+      keys.add(key);
+      children.add(buildTrie(sortedPrefixes.subList(start, end), depth + 1));
+      start = end;
+    }
+    char[] keyArray = new char[keys.size()];
+    for (int i = 0; i < keyArray.length; i++) {
+      keyArray[i] = keys.get(i);
+    }
+    return new PrefixNode(keyArray, children.toArray(new PrefixNode[0]), false);
+  }
+
+  private static final class PrefixNode {
+    // sorted, so that children can be looked up by binary search.
+    final char[] keys;
+    final PrefixNode[] children;
+    final boolean terminal;
+
+    PrefixNode(char[] keys, PrefixNode[] children, boolean terminal) {
+      this.keys = keys;
+      this.children = children;
+      this.terminal = terminal;
+    }
+  }
+}
@@ -21,6 +21,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -30,6 +31,7 @@ import androidx.test.espresso.IdlingResource.ResourceCallback;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.MediumTest;
 import androidx.test.platform.app.InstrumentationRegistry;
+import java.util.Collections;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
@@ -37,6 +39,7 @@ import java.util.regex.Pattern;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
 @RunWith(AndroidJUnit4.class)
@@ -46,10 +49,12 @@ public class UriIdlingResourceTest {
   private static final String RESOURCE_NAME = "test_resource";
   private UriIdlingResource resource;
   private static final String GOOD_URL = "good_url";
+  private static final String OTHER_URL = "other_url";
   private static final String BAD_URL_1 = "bad_url_1";
   private static final String BAD_URL_2 = "bad_url_2";
   private static final Pattern BAD_PATTERN_1 = Pattern.compile(".*1.*");
   private static final Pattern BAD_PATTERN_2 = Pattern.compile(".*2.*");
+  private static final String BAD_PREFIX = "bad_";
   private static final int NETWORK_IDLE_TIME_MS = 100;
 
   @Mock private ResourceCallback mockCallback;
@@ -81,16 +86,75 @@ public class UriIdlingResourceTest {
 
   @Test
   public void testIsIdle() throws Exception {
-    assertHandlerCounts(0, 0);
+    assertHandlerCounts(0);
     assertThat(callIsIdle(), is(true));
     resource.beginLoad(GOOD_URL);
-    assertHandlerCounts(0, 1);
+    assertHandlerCounts(0);
     assertThat(callIsIdle(), is(false));
     resource.endLoad(GOOD_URL);
-    assertHandlerCounts(1, 1);
+    assertHandlerCounts(1);
     // Implicit transition to idle after postDelayed called
   }
 
+  @Test
+  public void testBurstOfLoadsPostsSingleIdleCheck() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      resource.beginLoad(GOOD_URL);
+      resource.endLoad(GOOD_URL);
+    }
+    assertHandlerCounts(1);
+    assertThat(callIsIdle(), is(false));
+  }
+
+  @Test
+  public void testIdleCheckWaitsForTimeout() throws Exception {
+    registerIdleCallback();
+    resource.beginLoad(GOOD_URL);
+    resource.endLoad(GOOD_URL);
+    ArgumentCaptor<Runnable> idleCheck = ArgumentCaptor.forClass(Runnable.class);
+    verify(handler).postDelayed(idleCheck.capture(), eq((long) NETWORK_IDLE_TIME_MS));
+
+    // the timeout hasn't passed yet, so the check is posted again for the remaining time.
+    InstrumentationRegistry.getInstrumentation().runOnMainSync(idleCheck.getValue());
+    assertHandlerCounts(2);
+    assertThat(callIsIdle(), is(false));
+
+    Thread.sleep(NETWORK_IDLE_TIME_MS);
+    InstrumentationRegistry.getInstrumentation().runOnMainSync(idleCheck.getValue());
+    assertThat(callIsIdle(), is(true));
+    verify(mockCallback).onTransitionToIdle();
+  }
+
+  @Test
+  public void testIdleCheckWhileBusy() throws Exception {
+    resource.beginLoad(GOOD_URL);
+    resource.endLoad(GOOD_URL);
+    ArgumentCaptor<Runnable> idleCheck = ArgumentCaptor.forClass(Runnable.class);
+    verify(handler).postDelayed(idleCheck.capture(), anyLong());
+    resource.beginLoad(GOOD_URL);
+    Thread.sleep(NETWORK_IDLE_TIME_MS);
+    InstrumentationRegistry.getInstrumentation().runOnMainSync(idleCheck.getValue());
+    assertThat(callIsIdle(), is(false));
+    // the next load to end posts a new check.
+    resource.endLoad(GOOD_URL);
+    assertHandlerCounts(2);
+  }
+
+  @Test
+  public void testInFlightUris() throws Exception {
+    resource.beginLoad(GOOD_URL);
+    resource.beginLoad(GOOD_URL);
+    resource.beginLoad(OTHER_URL);
+    assertThat(resource.getInFlightUris().get(GOOD_URL), equalTo(2));
+    assertThat(resource.getInFlightUris().get(OTHER_URL), equalTo(1));
+    resource.endLoad(GOOD_URL);
+    resource.endLoad(OTHER_URL);
+    assertThat(resource.getInFlightUris(), equalTo(Collections.singletonMap(GOOD_URL, 1)));
+    resource.dumpStateToLogs();
+    resource.endLoad(GOOD_URL);
+    assertThat(resource.getInFlightUris().isEmpty(), is(true));
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testInvalidStateDetected() throws Exception {
     resource.beginLoad(GOOD_URL);
@@ -120,17 +184,35 @@ public class UriIdlingResourceTest {
     assertThat(callIsIdle(), is(false));
     resource.endLoad(BAD_URL_1);
     resource.endLoad(BAD_URL_2);
-    assertHandlerCounts(0, 1);
+    assertHandlerCounts(0);
     resource.endLoad(GOOD_URL);
-    assertHandlerCounts(1, 1);
+    assertHandlerCounts(1);
     // Implicit transition to idle after postDelayed called
   }
 
+  @Test
+  public void testUrlPrefixBlockList() throws Exception {
+    resource.ignoreUriPrefix(BAD_PREFIX);
+    resource.beginLoad(BAD_URL_1);
+    assertThat(callIsIdle(), is(true));
+    resource.beginLoad(GOOD_URL);
+    assertThat(callIsIdle(), is(false));
+    resource.endLoad(BAD_URL_1);
+    assertHandlerCounts(0);
+    resource.endLoad(GOOD_URL);
+    assertHandlerCounts(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyUrlPrefix() throws Exception {
+    resource.ignoreUriPrefix("");
+  }
+
   // Test helper methods
 
-  private void assertHandlerCounts(int posted, int removed) {
+  private void assertHandlerCounts(int posted) {
     verify(handler, times(posted)).postDelayed(any(Runnable.class), anyLong());
-    verify(handler, times(removed)).removeCallbacks(any(Runnable.class));
+    verify(handler, never()).removeCallbacks(any(Runnable.class));
   }
 
   private void registerIdleCallback() throws Exception {
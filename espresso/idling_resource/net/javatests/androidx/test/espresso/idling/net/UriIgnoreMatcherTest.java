@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.idling.net;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.filters.SmallTest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public class UriIgnoreMatcherTest {
+
+  @Test
+  public void testEmpty() {
+    UriIgnoreMatcher matcher =
+        UriIgnoreMatcher.compile(Collections.<String>emptyList(), Collections.<Pattern>emptyList());
+    assertThat(matcher.matches("https://example.com/"), is(false));
+    assertThat(matcher.matches(""), is(false));
+  }
+
+  @Test
+  public void testPrefixes() {
+    UriIgnoreMatcher matcher =
+        UriIgnoreMatcher.compile(
+            Arrays.asList(
+                "https://ads.example.com/",
+                "https://example.com/static/",
+                "https://example.com/static/img/",
+                "https://cdn.example.com/"),
+            Collections.<Pattern>emptyList());
+    assertThat(matcher.matches("https://ads.example.com/banner.js"), is(true));
+    assertThat(matcher.matches("https://ads.example.com/"), is(true));
+    assertThat(matcher.matches("https://example.com/static/img/logo.png"), is(true));
+    assertThat(matcher.matches("https://cdn.example.com/lib.js"), is(true));
+    assertThat(matcher.matches("https://ads.example.com"), is(false));
+    assertThat(matcher.matches("https://example.com/api/user"), is(false));
+    assertThat(matcher.matches("http://ads.example.com/banner.js"), is(false));
+  }
+
+  @Test
+  public void testPatterns() {
+    UriIgnoreMatcher matcher =
+        UriIgnoreMatcher.compile(
+            Collections.<String>emptyList(),
+            Arrays.asList(
+                Pattern.compile(".*\\.png"),
+                Pattern.compile("https://a|https://b"),
+                Pattern.compile(".*/track", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("https://(\\w+)\\.example\\.com/\\1")));
+    assertThat(matcher.matches("https://example.com/logo.png"), is(true));
+    assertThat(matcher.matches("https://example.com/logo.png?size=2"), is(false));
+    // alternations of different patterns don't mix.
+    assertThat(matcher.matches("https://a"), is(true));
+    assertThat(matcher.matches("https://b"), is(true));
+    assertThat(matcher.matches("https://ab"), is(false));
+    // flags and back references still apply.
+    assertThat(matcher.matches("https://example.com/TRACK"), is(true));
+    assertThat(matcher.matches("https://www.example.com/www"), is(true));
+    assertThat(matcher.matches("https://www.example.com/api"), is(false));
+  }
+
+  @Test
+  @SdkSuppress(minSdkVersion = 26) // named groups
+  public void testPatternsWithNamedGroups() {
+    UriIgnoreMatcher matcher =
+        UriIgnoreMatcher.compile(
+            Collections.<String>emptyList(),
+            Arrays.asList(
+                Pattern.compile("https://(?<host>[a-z]+)\\.example\\.com/.*"),
+                Pattern.compile("http://(?<host>[a-z]+)\\.test/.*"),
+                Pattern.compile("(?<!x).*\\.css")));
+    assertThat(matcher.matches("https://cdn.example.com/app.js"), is(true));
+    assertThat(matcher.matches("http://cdn.test/app.js"), is(true));
+    assertThat(matcher.matches("https://example.com/app.css"), is(true));
+    assertThat(matcher.matches("https://example.com/app.js"), is(false));
+  }
+
+  @Test
+  public void testPrefixesAndPatterns() {
+    UriIgnoreMatcher matcher =
+        UriIgnoreMatcher.compile(
+            Collections.singletonList("https://ads."),
+            Collections.singletonList(Pattern.compile(".*\\.woff2")));
+    assertThat(matcher.matches("https://ads.example.com/banner.js"), is(true));
+    assertThat(matcher.matches("https://example.com/font.woff2"), is(true));
+    assertThat(matcher.matches("https://example.com/index.html"), is(false));
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.intent;
+
+import android.content.Intent;
+
+/**
+ * Implemented by {@link Intent} matchers which only match intents with a certain action,
+ * component, package or resolution. Recorded intents and stubbing rules are looked up by these keys
+ * before the matcher itself is evaluated, so the keys must never exclude an intent the matcher
+ * would match.
+ *
+ * <p>Every method returns {@code null} if matched intents may have any value for its key.
+ */
+public interface IndexableIntentMatcher {
+
+  /** Returns the {@link Intent#getAction() action} of all matched intents. */
+  String getAction();
+
+  /** Returns the class name of the {@link Intent#getComponent() component} of matched intents. */
+  String getComponentClassName();
+
+  /** Returns the {@link Intent#getPackage() package} of all matched intents. */
+  String getPackage();
+
+  /** Returns a package all matched intents can be handled by, see {@link ResolvedIntent}. */
+  String getResolvedPackage();
+}
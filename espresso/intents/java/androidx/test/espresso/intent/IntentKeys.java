@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.intent;
+
+import android.content.ComponentName;
+import android.content.Intent;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import java.lang.reflect.Field;
+import org.hamcrest.Matcher;
+import org.hamcrest.core.AllOf;
+
+/**
+ * Checks intents against the keys of {@link IndexableIntentMatcher}s.
+ *
+ * <p>The keys of an {@code allOf} matcher are the keys of the indexable matchers it combines, since
+ * matched intents have to satisfy all of them.
+ */
+final class IntentKeys {
+  private static final String TAG = IntentKeys.class.getSimpleName();
+
+  private static final Field ALL_OF_MATCHERS = getAllOfMatchersField();
+
+  /**
+   * Returns the keys all intents matched by the given matcher have, or {@code null} if the matcher
+   * may match intents with any keys.
+   */
+  @Nullable
+  static IndexableIntentMatcher keysOf(Matcher<?> matcher) {
+    if (matcher instanceof IndexableIntentMatcher) {
+      return (IndexableIntentMatcher) matcher;
+    }
+    if (!(matcher instanceof AllOf)) {
+      return null;
+    }
+    Iterable<Matcher<?>> matchers = allOfMatchers(matcher);
+    if (matchers == null) {
+      return null;
+    }
+    Keys keys = null;
+    for (Matcher<?> combined : matchers) {
+      IndexableIntentMatcher combinedKeys = keysOf(combined);
+      if (combinedKeys != null) {
+        keys = keys == null ? new Keys(combinedKeys) : keys.with(combinedKeys);
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Returns false if the given matcher can't match the intent because of its action, component or
+   * package. The resolution of the intent isn't checked.
+   */
+  static boolean mayMatch(Matcher<?> matcher, Intent intent) {
+    IndexableIntentMatcher keys = keysOf(matcher);
+    if (keys == null) {
+      return true;
+    }
+    ComponentName component = intent.getComponent();
+    return matchesKey(keys.getAction(), intent.getAction())
+        && matchesKey(
+            keys.getComponentClassName(), component == null ? null : component.getClassName())
+        && matchesKey(keys.getPackage(), intent.getPackage());
+  }
+
+  private static boolean matchesKey(String key, String value) {
+    return key == null || key.equals(value);
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private static Iterable<Matcher<?>> allOfMatchers(Matcher<?> allOf) {
+    if (ALL_OF_MATCHERS == null) {
+      return null;
+    }
+    try {
+      return (Iterable<Matcher<?>>) ALL_OF_MATCHERS.get(allOf);
+    } catch (IllegalAccessException | RuntimeException e) {
+      Log.w(TAG, "Could not access the matchers of " + allOf.getClass().getName(), e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Field getAllOfMatchersField() {
+    try {
+      Field field = AllOf.class.getDeclaredField("matchers");
+      field.setAccessible(true);
+      return field;
+    } catch (NoSuchFieldException | RuntimeException e) {
+      Log.w(TAG, "No reflective access to " + AllOf.class.getName() + ".matchers", e);
+      return null;
+    }
+  }
+
+  /**
+   * The keys of several matchers which all have to match. Where more than one matcher has a key,
+   * the first one is used: any of them narrows down the intents correctly.
+   */
+  private static final class Keys implements IndexableIntentMatcher {
+    private final String action;
+    private final String componentClassName;
+    private final String packageName;
+    private final String resolvedPackage;
+
+    Keys(IndexableIntentMatcher keys) {
+      this(
+          keys.getAction(),
+          keys.getComponentClassName(),
+          keys.getPackage(),
+          keys.getResolvedPackage());
+    }
+
+    private Keys(
+        String action, String componentClassName, String packageName, String resolvedPackage) {
+      this.action = action;
+      this.componentClassName = componentClassName;
+      this.packageName = packageName;
+      this.resolvedPackage = resolvedPackage;
+    }
+
+    Keys with(IndexableIntentMatcher keys) {
+      return new Keys(
+          action != null ? action : keys.getAction(),
+          componentClassName != null ? componentClassName : keys.getComponentClassName(),
+          packageName != null ? packageName : keys.getPackage(),
+          resolvedPackage != null ? resolvedPackage : keys.getResolvedPackage());
+    }
+
+    @Override
+    public String getAction() {
+      return action;
+    }
+
+    @Override
+    public String getComponentClassName() {
+      return componentClassName;
+    }
+
+    @Override
+    public String getPackage() {
+      return packageName;
+    }
+
+    @Override
+    public String getResolvedPackage() {
+      return resolvedPackage;
+    }
+  }
+
+  private IntentKeys() {}
+}
@@ -95,7 +95,7 @@ public final class Intents {
   }
 
   // Should be accessed only from main thread
-  private static final List<VerifiableIntent> recordedIntents = new ArrayList<VerifiableIntent>();
+  private static final RecordedIntents recordedIntents = new RecordedIntents();
 
   private static boolean isInitialized = false;
 
@@ -104,9 +104,7 @@ public final class Intents {
       new IntentCallback() {
         @Override
         public void onIntentSent(Intent intent) {
-          recordedIntents.add(
-              new VerifiableIntentImpl(
-                  ((ResettingStubberImpl) resettingStubber).resolveIntent(intent)));
+          recordedIntents.record(((ResettingStubberImpl) resettingStubber).resolveIntent(intent));
         }
       };
   private IntentMonitor intentMonitor;
@@ -347,6 +345,19 @@ public final class Intents {
   void internalIntended(
       Matcher<Intent> matcher, VerificationMode verificationMode, List<VerifiableIntent> intents) {
     checkState(isInitialized, "init() must be called prior to using this method.");
+    if (intents instanceof RecordedIntents
+        && VerificationModes.onlyInspectsMatchingIntents(verificationMode)) {
+      List<VerifiableIntent> candidates = ((RecordedIntents) intents).getCandidates(matcher);
+      if (candidates != intents) {
+        try {
+          verificationMode.verify(matcher, candidates);
+          return;
+        } catch (AssertionError e) {
+          // verify again, so that the failure lists all recorded intents. Intents are only marked
+          // as verified if verification succeeds.
+        }
+      }
+    }
     verificationMode.verify(matcher, intents);
   }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.espresso.intent;
+
+import android.content.ComponentName;
+import android.content.Intent;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import org.hamcrest.Matcher;
+
+/**
+ * The intents recorded by {@link Intents}, in the order they were sent.
+ *
+ * <p>Besides the full list, the intents are indexed by action, component class, package and the
+ * packages which can handle them. {@link #getCandidates} uses these indexes to narrow down the
+ * intents an {@link IndexableIntentMatcher} has to be evaluated against.
+ *
+ * <p>Should be accessed only from main thread.
+ */
+final class RecordedIntents extends AbstractList<VerifiableIntent> {
+  private final List<VerifiableIntent> intents = new ArrayList<>();
+  private final Map<String, List<VerifiableIntent>> byAction = new HashMap<>();
+  private final Map<String, List<VerifiableIntent>> byComponentClassName = new HashMap<>();
+  private final Map<String, List<VerifiableIntent>> byPackage = new HashMap<>();
+  private final Map<String, List<VerifiableIntent>> byResolvedPackage = new HashMap<>();
+
+  /** Records the given intent and returns it as a {@link VerifiableIntent}. */
+  VerifiableIntent record(ResolvedIntentImpl resolvedIntent) {
+    VerifiableIntent verifiableIntent = new VerifiableIntentImpl(resolvedIntent);
+    intents.add(verifiableIntent);
+    Intent intent = resolvedIntent.getIntent();
+    ComponentName component = intent.getComponent();
+    addTo(byAction, intent.getAction(), verifiableIntent);
+    addTo(
+        byComponentClassName,
+        component == null ? null : component.getClassName(),
+        verifiableIntent);
+    addTo(byPackage, intent.getPackage(), verifiableIntent);
+    // an intent may resolve to several activities of the same package.
+    for (String pkg : new LinkedHashSet<>(resolvedIntent.getPossibleResolutionPackages())) {
+      addTo(byResolvedPackage, pkg, verifiableIntent);
+    }
+    return verifiableIntent;
+  }
+
+  /**
+   * Returns the recorded intents the given matcher may match, in the order they were sent. All
+   * recorded intents are returned unless the matcher is an {@link IndexableIntentMatcher} or an
+   * {@code allOf} of one, see {@link IntentKeys#keysOf}.
+   */
+  List<VerifiableIntent> getCandidates(Matcher<?> matcher) {
+    IndexableIntentMatcher keys = IntentKeys.keysOf(matcher);
+    if (keys == null) {
+      return this;
+    }
+    List<VerifiableIntent> candidates = null;
+    candidates = smaller(candidates, byAction, keys.getAction());
+    candidates = smaller(candidates, byComponentClassName, keys.getComponentClassName());
+    candidates = smaller(candidates, byPackage, keys.getPackage());
+    candidates = smaller(candidates, byResolvedPackage, keys.getResolvedPackage());
+    return candidates == null ? this : Collections.unmodifiableList(candidates);
+  }
+
+  @Override
+  public VerifiableIntent get(int index) {
+    return intents.get(index);
+  }
+
+  @Override
+  public int size() {
+    return intents.size();
+  }
+
+  @Override
+  public void clear() {
+    intents.clear();
+    byAction.clear();
+    byComponentClassName.clear();
+    byPackage.clear();
+    byResolvedPackage.clear();
+  }
+
+  private static void addTo(
+      Map<String, List<VerifiableIntent>> index, String key, VerifiableIntent intent) {
+    if (key == null) {
+      return;
+    }
+    List<VerifiableIntent> postings = index.get(key);
+    if (postings == null) {
+      postings = new ArrayList<>();
+      index.put(key, postings);
+    }
+    postings.add(intent);
+  }
+
+  private static List<VerifiableIntent> smaller(
+      List<VerifiableIntent> candidates, Map<String, List<VerifiableIntent>> index, String key) {
+    if (key == null) {
+      return candidates;
+    }
+    List<VerifiableIntent> postings = index.get(key);
+    if (postings == null) {
+      return Collections.emptyList();
+    }
+    return candidates == null || postings.size() < candidates.size() ? postings : candidates;
+  }
+}
@@ -20,31 +20,58 @@ import static androidx.test.espresso.intent.Checks.checkNotNull;
 import static androidx.test.espresso.intent.Checks.checkState;
 
 import android.app.Instrumentation.ActivityResult;
+import android.content.BroadcastReceiver;
+import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 import android.os.Looper;
-import android.util.Pair;
 import androidx.test.platform.app.InstrumentationRegistry;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.ConcurrentHashMap;
 import org.hamcrest.Matcher;
 
 /** Implementation of {@link ResettingStubber} */
 public final class ResettingStubberImpl implements ResettingStubber {
 
+  // Tests usually send a handful of distinct intents, this only bounds pathological cases.
+  private static final int MAX_CACHED_RESOLUTIONS = 256;
+
   // Should be accessed only from main thread
-  private List<Pair<Matcher<Intent>, ActivityResultFunction>> intentResponsePairs =
-      new ArrayList<Pair<Matcher<Intent>, ActivityResultFunction>>();
+  private final List<StubbingRule> stubbingRules = new ArrayList<StubbingRule>();
+
+  // Resolutions by intent filter signature, dropped whenever a package is (un)installed or changed.
+  private final ConcurrentHashMap<FilterKey, List<ResolveInfo>> resolutionCache =
+      new ConcurrentHashMap<FilterKey, List<ResolveInfo>>();
+  private final BroadcastReceiver packageChangeReceiver =
+      new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+          resolutionCache.clear();
+        }
+      };
 
+  private Context context;
   private PackageManager packageManager;
   private boolean isInitialized;
 
   @Override
   public void initialize() {
-    packageManager =
-        InstrumentationRegistry.getInstrumentation().getTargetContext().getPackageManager();
+    Context targetContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    packageManager = targetContext.getPackageManager();
+    if (context == null) {
+      IntentFilter packageChanges = new IntentFilter();
+      packageChanges.addAction(Intent.ACTION_PACKAGE_ADDED);
+      packageChanges.addAction(Intent.ACTION_PACKAGE_CHANGED);
+      packageChanges.addAction(Intent.ACTION_PACKAGE_REMOVED);
+      packageChanges.addAction(Intent.ACTION_PACKAGE_REPLACED);
+      packageChanges.addDataScheme("package");
+      targetContext.registerReceiver(packageChangeReceiver, packageChanges);
+      context = targetContext;
+    }
     isInitialized = true;
   }
 
@@ -56,7 +83,12 @@ public final class ResettingStubberImpl implements ResettingStubber {
   @Override
   public void reset() {
     checkMain();
-    intentResponsePairs.clear();
+    stubbingRules.clear();
+    if (context != null) {
+      context.unregisterReceiver(packageChangeReceiver);
+      context = null;
+    }
+    resolutionCache.clear();
     isInitialized = false;
   }
 
@@ -71,7 +103,7 @@ public final class ResettingStubberImpl implements ResettingStubber {
     checkState(isInitialized, "ResettingStubber must be initialized before calling this method");
     checkNotNull(matcher);
     checkMain();
-    intentResponsePairs.add(new Pair<Matcher<Intent>, ActivityResultFunction>(matcher, result));
+    stubbingRules.add(new StubbingRule(matcher, result));
   }
 
   @Override
@@ -79,34 +111,91 @@ public final class ResettingStubberImpl implements ResettingStubber {
     checkState(isInitialized, "ResettingStubber must be initialized before calling this method");
     checkNotNull(intent);
     checkMain();
-    ListIterator<Pair<Matcher<Intent>, ActivityResultFunction>> reverseIterator =
-        intentResponsePairs.listIterator(intentResponsePairs.size());
+    ResolvedIntent resolvedIntent = null;
+    ListIterator<StubbingRule> reverseIterator = stubbingRules.listIterator(stubbingRules.size());
     while (reverseIterator.hasPrevious()) {
-      Pair<Matcher<Intent>, ActivityResultFunction> pair = reverseIterator.previous();
-      // We resolve the intent so that the toPackage matcher has the necessary information to match
-      // the intent.
-      if (pair.first.matches(resolveIntent(intent))) {
-        return pair.second.apply(intent);
+      StubbingRule rule = reverseIterator.previous();
+      // Rules keyed by a different action, component or package are skipped without resolving.
+      if (!IntentKeys.mayMatch(rule.matcher, intent)) {
+        continue;
+      }
+      if (resolvedIntent == null) {
+        // We resolve the intent so that the toPackage matcher has the necessary information to
+        // match the intent.
+        resolvedIntent = resolveIntent(intent);
+      }
+      if (rule.matcher.matches(resolvedIntent)) {
+        return rule.result.apply(intent);
       }
     }
     return null;
   }
 
   // package private, so that Intents can use this to resolve intents as it records them.
-  ResolvedIntent resolveIntent(Intent intent) {
-    // Android API is setting flags param to zero per discussion here:
-    // http://stackoverflow.com/questions/9623079/
-    // why-does-the-flag-specified-in-queryintentactivities-method-is-set-to-zero and
-    // http://developer.android.com/training/basics/intents/sending.html
-    List<ResolveInfo> resolveInfos = packageManager.queryIntentActivities(intent, 0);
-    if (null == resolveInfos) {
-      // Gingerbread returns null here if nothing resolves, other APIs return an empty list.
-      resolveInfos = new ArrayList<ResolveInfo>();
+  ResolvedIntentImpl resolveIntent(Intent intent) {
+    // the filter signature doesn't cover selectors, which take part in resolution.
+    FilterKey key = intent.getSelector() == null ? new FilterKey(intent) : null;
+    List<ResolveInfo> resolveInfos = key == null ? null : resolutionCache.get(key);
+    if (resolveInfos == null) {
+      // Android API is setting flags param to zero per discussion here:
+      // http://stackoverflow.com/questions/9623079/
+      // why-does-the-flag-specified-in-queryintentactivities-method-is-set-to-zero and
+      // http://developer.android.com/training/basics/intents/sending.html
+      resolveInfos = packageManager.queryIntentActivities(intent, 0);
+      if (null == resolveInfos) {
+        // Gingerbread returns null here if nothing resolves, other APIs return an empty list.
+        resolveInfos = new ArrayList<ResolveInfo>();
+      }
+      if (key != null) {
+        if (resolutionCache.size() >= MAX_CACHED_RESOLUTIONS) {
+          resolutionCache.clear();
+        }
+        resolutionCache.put(key, resolveInfos);
+      }
     }
     return new ResolvedIntentImpl(intent, resolveInfos);
   }
 
+  // VisibleForTesting
+  int getCachedResolutionCount() {
+    return resolutionCache.size();
+  }
+
   private static void checkMain() {
     checkState(Looper.myLooper() == Looper.getMainLooper(), "Must be called on main thread.");
   }
+
+  private static final class StubbingRule {
+    final Matcher<Intent> matcher;
+    final ActivityResultFunction result;
+
+    StubbingRule(Matcher<Intent> matcher, ActivityResultFunction result) {
+      this.matcher = matcher;
+      this.result = result;
+    }
+  }
+
+  /**
+   * Wraps the parts of an intent which are considered when resolving it, i.e. its action, data,
+   * type, identifier, package, component and categories.
+   */
+  private static final class FilterKey {
+    private final Intent filter;
+    private final int hashCode;
+
+    FilterKey(Intent intent) {
+      this.filter = intent.cloneFilter();
+      this.hashCode = filter.filterHashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof FilterKey && filter.filterEquals(((FilterKey) o).filter);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
 }
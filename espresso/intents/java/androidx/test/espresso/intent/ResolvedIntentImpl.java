@@ -64,7 +64,7 @@ class ResolvedIntentImpl extends Intent implements ResolvedIntent {
     return sb.toString();
   }
 
-  private List<String> getPossibleResolutionPackages() {
+  List<String> getPossibleResolutionPackages() {
     List<String> packages = new ArrayList<String>();
     for (ResolveInfo info : possibleResolutions) {
       packages.add(info.activityInfo.packageName);
@@ -38,6 +38,14 @@ public final class VerificationModes {
     return new Times(times);
   }
 
+  /**
+   * Returns true if the given mode only looks at the intents its matcher matches, so that intents
+   * the matcher can't match may be left out when verifying.
+   */
+  static boolean onlyInspectsMatchingIntents(VerificationMode verificationMode) {
+    return verificationMode instanceof NoUnverifiedIntents || verificationMode instanceof Times;
+  }
+
   /**
    * A {@link VerificationMode} in which all matching intents must have been previously verified.
    */
@@ -30,6 +30,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import androidx.test.espresso.intent.IndexableIntentMatcher;
 import androidx.test.espresso.intent.ResolvedIntent;
 import java.util.Set;
 import org.hamcrest.Description;
@@ -56,7 +57,7 @@ public final class IntentMatchers {
   }
 
   public static Matcher<Intent> hasAction(String action) {
-    return hasAction(is(action));
+    return new KeyedIntentMatcher(hasAction(is(action)), action, null, null, null);
   }
 
   public static Matcher<Intent> hasAction(final Matcher<String> actionMatcher) {
@@ -105,7 +106,8 @@ public final class IntentMatchers {
    * @param className complete class path
    */
   public static Matcher<Intent> hasComponent(String className) {
-    return hasComponent(hasClassName(className));
+    return new KeyedIntentMatcher(
+        hasComponent(hasClassName(className)), null, className, null, null);
   }
 
   /**
@@ -117,7 +119,7 @@ public final class IntentMatchers {
    * @param componentName a componentName that has the target class specified
    */
   public static Matcher<Intent> hasComponent(ComponentName componentName) {
-    return hasComponent(hasClassName(componentName.getClassName()));
+    return hasComponent(componentName.getClassName());
   }
 
   /**
@@ -257,7 +259,7 @@ public final class IntentMatchers {
 
   public static Matcher<Intent> hasPackage(final String packageName) {
     checkNotNull(packageName);
-    return hasPackage(equalTo(packageName));
+    return new KeyedIntentMatcher(hasPackage(equalTo(packageName)), null, null, packageName, null);
   }
 
   /**
@@ -268,27 +270,31 @@ public final class IntentMatchers {
   public static Matcher<Intent> toPackage(final String packageName) {
     checkNotNull(packageName);
 
-    return new TypeSafeMatcher<Intent>() {
-      @Override
-      public void describeTo(Description description) {
-        description.appendText("resolvesTo: " + packageName);
-      }
-
-      @Override
-      public boolean matchesSafely(Intent intent) {
-        // Ideally, this would be a Matcher<ResolvedIntent> and we would not need this runtime
-        // check. However, this matcher would then not work in combination with other matchers of
-        // type Matcher<Intent> (as in the case with allOf(toPackage(...), hasType(...)).
-        if (!(intent instanceof ResolvedIntent)) {
-          throw new RuntimeException(
-              String.format(
-                  "toPackage.matches was given an intent that is not of type %s. This"
-                      + " should not happen as this method is only invoked internally by Intents.",
-                  ResolvedIntent.class.getSimpleName()));
-        }
-        return ((ResolvedIntent) intent).canBeHandledBy(packageName);
-      }
-    };
+    Matcher<Intent> resolvesToPackage =
+        new TypeSafeMatcher<Intent>() {
+          @Override
+          public void describeTo(Description description) {
+            description.appendText("resolvesTo: " + packageName);
+          }
+
+          @Override
+          public boolean matchesSafely(Intent intent) {
+            // Ideally, this would be a Matcher<ResolvedIntent> and we would not need this
+            // runtime check. However, this matcher would then not work in combination with other
+            // matchers of type Matcher<Intent> (as in the case with
+            // allOf(toPackage(...), hasType(...)).
+            if (!(intent instanceof ResolvedIntent)) {
+              throw new RuntimeException(
+                  String.format(
+                      "toPackage.matches was given an intent that is not of type %s. This"
+                          + " should not happen as this method is only invoked internally by"
+                          + " Intents.",
+                      ResolvedIntent.class.getSimpleName()));
+            }
+            return ((ResolvedIntent) intent).canBeHandledBy(packageName);
+          }
+        };
+    return new KeyedIntentMatcher(resolvesToPackage, null, null, null, packageName);
   }
 
   public static Matcher<Intent> hasFlag(int flag) {
@@ -357,4 +363,62 @@ public final class IntentMatchers {
       }
     };
   }
+
+  /** Delegates to a matcher which only matches intents with the given keys. */
+  private static final class KeyedIntentMatcher extends TypeSafeMatcher<Intent>
+      implements IndexableIntentMatcher {
+    private final Matcher<Intent> delegate;
+    private final String action;
+    private final String componentClassName;
+    private final String packageName;
+    private final String resolvedPackage;
+
+    KeyedIntentMatcher(
+        Matcher<Intent> delegate,
+        String action,
+        String componentClassName,
+        String packageName,
+        String resolvedPackage) {
+      this.delegate = delegate;
+      this.action = action;
+      this.componentClassName = componentClassName;
+      this.packageName = packageName;
+      this.resolvedPackage = resolvedPackage;
+    }
+
+    @Override
+    public void describeTo(Description description) {
+      delegate.describeTo(description);
+    }
+
+    @Override
+    public boolean matchesSafely(Intent intent) {
+      return delegate.matches(intent);
+    }
+
+    @Override
+    protected void describeMismatchSafely(Intent intent, Description mismatchDescription) {
+      delegate.describeMismatch(intent, mismatchDescription);
+    }
+
+    @Override
+    public String getAction() {
+      return action;
+    }
+
+    @Override
+    public String getComponentClassName() {
+      return componentClassName;
+    }
+
+    @Override
+    public String getPackage() {
+      return packageName;
+    }
+
+    @Override
+    public String getResolvedPackage() {
+      return resolvedPackage;
+    }
+  }
 }
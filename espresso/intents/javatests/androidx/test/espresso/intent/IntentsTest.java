@@ -18,8 +18,11 @@ package androidx.test.espresso.intent;
 
 import static androidx.test.espresso.intent.Intents.times;
 import static androidx.test.espresso.intent.matcher.IntentMatchers.anyIntent;
+import static androidx.test.espresso.intent.matcher.IntentMatchers.hasAction;
 import static androidx.test.espresso.intent.matcher.IntentMatchers.toPackage;
 import static org.hamcrest.CoreMatchers.allOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.rules.ExpectedException.none;
 
@@ -293,9 +296,55 @@ public class IntentsTest {
     this.intents.internalIntended(anyIntent(), VerificationModes.noUnverifiedIntents(), intents);
   }
 
+  @Test
+  public void intended_RecordedIntents() {
+    RecordedIntents intents = new RecordedIntents();
+    intents.record(buildResolvedIntent(Intent.ACTION_VIEW, "com.google.android.A"));
+    intents.record(buildResolvedIntent(Intent.ACTION_SEND, "com.google.android.B"));
+    intents.record(
+        buildResolvedIntent(Intent.ACTION_VIEW, "com.google.android.A", "com.google.android.B"));
+
+    this.intents.internalIntended(toPackage("com.google.android.A"), times(2), intents);
+    this.intents.internalIntended(
+        allOf(hasAction(Intent.ACTION_VIEW), toPackage("com.google.android.B")), times(1), intents);
+    this.intents.internalIntended(hasAction(Intent.ACTION_SEND), times(1), intents);
+    this.intents.internalIntended(anyIntent(), VerificationModes.noUnverifiedIntents(), intents);
+  }
+
+  @Test
+  public void getCandidates_unwrapsAllOf() {
+    RecordedIntents intents = new RecordedIntents();
+    intents.record(buildResolvedIntent(Intent.ACTION_VIEW, "com.google.android.A"));
+    intents.record(buildResolvedIntent(Intent.ACTION_SEND, "com.google.android.B"));
+    intents.record(
+        buildResolvedIntent(Intent.ACTION_VIEW, "com.google.android.A", "com.google.android.B"));
+
+    assertEquals(
+        1,
+        intents
+            .getCandidates(allOf(anyIntent(), allOf(hasAction(Intent.ACTION_SEND), anyIntent())))
+            .size());
+    assertSame(intents, intents.getCandidates(allOf(anyIntent(), anyIntent())));
+  }
+
+  @Test
+  public void intended_RecordedIntentsFailureListsAllIntents() {
+    RecordedIntents intents = new RecordedIntents();
+    intents.record(buildResolvedIntent(Intent.ACTION_VIEW, "com.google.android.A"));
+    intents.record(buildResolvedIntent(Intent.ACTION_SEND, "com.google.android.B"));
+
+    expectedException.expect(AssertionFailedError.class);
+    expectedException.expectMessage(Intent.ACTION_VIEW);
+    expectedException.expectMessage(Intent.ACTION_SEND);
+    this.intents.internalIntended(toPackage("com.google.android.C"), times(1), intents);
+  }
+
   private static VerifiableIntent buildVerifiableIntent(String action, String... packages) {
-    return new VerifiableIntentImpl(
-        new ResolvedIntentImpl(new Intent(action), buildResolveInfoList(packages)));
+    return new VerifiableIntentImpl(buildResolvedIntent(action, packages));
+  }
+
+  private static ResolvedIntentImpl buildResolvedIntent(String action, String... packages) {
+    return new ResolvedIntentImpl(new Intent(action), buildResolveInfoList(packages));
   }
 
   private static List<ResolveInfo> buildResolveInfoList(String... resolvePackage) {
@@ -18,12 +18,14 @@ package androidx.test.espresso.intent;
 
 import static androidx.test.espresso.intent.matcher.IntentMatchers.hasAction;
 import static androidx.test.espresso.intent.matcher.IntentMatchers.hasData;
+import static androidx.test.espresso.intent.matcher.IntentMatchers.hasExtra;
 import static androidx.test.espresso.intent.matcher.UriMatchers.hasHost;
 import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.CoreMatchers.any;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import android.app.Instrumentation.ActivityResult;
@@ -42,7 +44,7 @@ import org.junit.runner.RunWith;
 @RunWith(AndroidJUnit4.class)
 public class ResettingStubberImplTest {
 
-  private ResettingStubber resettingStubber;
+  private ResettingStubberImpl resettingStubber;
 
   @Before
   public void setUp() throws Exception {
@@ -153,4 +155,39 @@ public class ResettingStubberImplTest {
         resettingStubber.getActivityResultForIntent(intent),
         duplicateResult);
   }
+
+  @UiThreadTest
+  @Test
+  public void getActivityResultForIntent_skipsRulesForOtherActions() {
+    Intent intent = new Intent(Intent.ACTION_VIEW, Uri.parse("http://www.android.com"));
+    ActivityResult result = new ActivityResult(10, intent);
+    resettingStubber.setActivityResultForIntent(any(Intent.class), result);
+    resettingStubber.setActivityResultForIntent(
+        hasAction(Intent.ACTION_SEND), new ActivityResult(100, null));
+    assertEquals(result, resettingStubber.getActivityResultForIntent(intent));
+
+    resettingStubber.reset();
+    resettingStubber.initialize();
+    resettingStubber.setActivityResultForIntent(
+        hasAction(Intent.ACTION_SEND), new ActivityResult(100, null));
+    assertNull(resettingStubber.getActivityResultForIntent(intent));
+  }
+
+  @UiThreadTest
+  @Test
+  public void resolveIntent_cachesResolutionByFilter() {
+    Intent intent = new Intent(Intent.ACTION_VIEW, Uri.parse("http://www.android.com"));
+    resettingStubber.resolveIntent(intent);
+    // extras don't take part in resolution.
+    ResolvedIntent resolvedIntent =
+        resettingStubber.resolveIntent(new Intent(intent).putExtra("key", "value"));
+    assertEquals(1, resettingStubber.getCachedResolutionCount());
+    assertTrue(hasExtra("key", "value").matches(resolvedIntent.getIntent()));
+
+    resettingStubber.resolveIntent(new Intent(Intent.ACTION_SEND));
+    assertEquals(2, resettingStubber.getCachedResolutionCount());
+
+    resettingStubber.reset();
+    assertEquals(0, resettingStubber.getCachedResolutionCount());
+  }
 }
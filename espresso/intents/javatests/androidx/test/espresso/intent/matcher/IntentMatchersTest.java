@@ -40,6 +40,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.rules.ExpectedException.none;
@@ -53,6 +54,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
 import java.util.HashSet;
 import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -231,6 +233,16 @@ public class IntentMatchersTest {
     assertFalse(hasAction(equalTo(Intent.ACTION_DIAL)).matches(intent));
   }
 
+  @Test
+  public void hasActionDescribesMismatchOfDelegate() {
+    Intent intent = new Intent(Intent.ACTION_VIEW);
+    StringDescription expected = new StringDescription();
+    hasAction(equalTo(Intent.ACTION_DIAL)).describeMismatch(intent, expected);
+    StringDescription actual = new StringDescription();
+    hasAction(Intent.ACTION_DIAL).describeMismatch(intent, actual);
+    assertEquals(expected.toString(), actual.toString());
+  }
+
   @Test
   public void hasCategoriesTesting() {
     Intent intent = new Intent(Intent.ACTION_VIEW);
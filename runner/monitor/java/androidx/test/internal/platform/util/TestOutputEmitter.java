@@ -16,6 +16,8 @@
 package androidx.test.internal.platform.util;
 
 import androidx.test.internal.platform.ServiceLoaderWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Map;
 
@@ -68,4 +70,12 @@ public class TestOutputEmitter {
   public static boolean addOutputProperties(Map<String, Serializable> properties) {
     return debugHandler.addOutputProperties(properties);
   }
+
+  /**
+   * Opens a file in the test outputs for writing, or returns {@code null} if the execution
+   * environment does not support test output files. The caller must close the returned stream.
+   */
+  public static OutputStream openOutputFile(String outputName) throws IOException {
+    return debugHandler.openOutputFile(outputName);
+  }
 }
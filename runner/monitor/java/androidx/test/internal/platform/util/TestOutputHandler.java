@@ -15,6 +15,8 @@
  */
 package androidx.test.internal.platform.util;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Map;
 
@@ -36,4 +38,12 @@ public interface TestOutputHandler {
 
   /** Add output properties for the test. */
   boolean addOutputProperties(Map<String, Serializable> properties);
+
+  /**
+   * Opens a file in the test outputs for writing, or returns {@code null} if test output files are
+   * not supported. The caller is responsible for closing the stream.
+   */
+  default OutputStream openOutputFile(String outputName) throws IOException {
+    return null;
+  }
 }
@@ -44,6 +44,7 @@ import androidx.test.platform.app.InstrumentationRegistry;
 import androidx.test.runner.MonitoringInstrumentation;
 import androidx.test.runner.MonitoringInstrumentation.ActivityFinisher;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -106,6 +107,18 @@ public class InstrumentationConnection {
   private static final int MSG_PERFORM_CLEANUP = 11;
   private static final int MSG_PERFORM_CLEANUP_FINISHED = 12;
 
+  /**
+   * Guards writes of {@link #clientsVersion} and is notified whenever the registered clients
+   * change, so that callers can learn about new clients without polling the handler thread.
+   */
+  private static final Object clientsLock = new Object();
+
+  // only written while holding clientsLock, read without it.
+  private static volatile long clientsVersion;
+
+  /** An immutable copy of the registered clients of each type. */
+  private static volatile Map<String, Set<Messenger>> clientsByType = Collections.emptyMap();
+
   private Context targetContext;
   private static Instrumentation instrumentation;
   private static MonitoringInstrumentation.ActivityFinisher activityFinisher;
@@ -247,14 +260,68 @@ public class InstrumentationConnection {
   }
 
   /**
-   * Helper method to obtain a set of clients of the same type.
+   * Helper method to obtain a set of clients of the same type. This neither locks nor waits for the
+   * handler thread.
    *
    * @param type the type of the client
-   * @return a Set of Messengers of the desired client type, {@code null} is returned if client type
-   *     is unknown
+   * @return an unmodifiable snapshot of the set of Messengers of the desired client type, {@code
+   *     null} is returned if client type is unknown
+   */
+  public Set<Messenger> getClientsForType(String type) {
+    return clientsByType.get(type);
+  }
+
+  /** Returns a number which changes whenever a client is registered or unregistered. */
+  public long getClientsVersion() {
+    return clientsVersion;
+  }
+
+  /**
+   * Returns the number of registered clients of the given type.
+   *
+   * @param type the type of the client
+   */
+  public int getClientCountForType(String type) {
+    Set<Messenger> clients = clientsByType.get(type);
+    return clients != null ? clients.size() : 0;
+  }
+
+  /**
+   * Waits until the registered clients change.
+   *
+   * @param version the version returned by a previous call to {@link #getClientsVersion()} or to
+   *     this method
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout
+   * @return the current version, which equals {@code version} if the wait timed out
+   * @throws InterruptedException if interrupted while waiting
    */
-  public synchronized Set<Messenger> getClientsForType(final String type) {
-    return incomingHandler.getClientsForType(type);
+  public long awaitClientsChange(long version, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (clientsLock) {
+      while (clientsVersion == version) {
+        long remainingNanos = deadline - System.nanoTime();
+        if (remainingNanos <= 0) {
+          break;
+        }
+        TimeUnit.NANOSECONDS.timedWait(clientsLock, remainingNanos);
+      }
+      return clientsVersion;
+    }
+  }
+
+  /** Publishes the registered clients to callers which do not run on the handler thread. */
+  private static void publishClients(Map<String, Set<Messenger>> typedClients) {
+    Map<String, Set<Messenger>> snapshot = new HashMap<>();
+    for (Map.Entry<String, Set<Messenger>> entry : typedClients.entrySet()) {
+      snapshot.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<>(entry.getValue())));
+    }
+    clientsByType = Collections.unmodifiableMap(snapshot);
+    synchronized (clientsLock) {
+      clientsVersion++;
+      clientsLock.notifyAll();
+    }
   }
 
   /**
@@ -491,6 +558,7 @@ public class InstrumentationConnection {
       sendMessageToOtherInstr(MSG_REMOVE_INSTRUMENTATION, null);
       otherInstrumentations.clear();
       typedClients.clear();
+      publishClients(typedClients);
       logDebugWithProcess(TAG, "quitting looper...");
       getLooper().quit();
       logDebugWithProcess(TAG, "finishing instrumentation...");
@@ -499,28 +567,6 @@ public class InstrumentationConnection {
       activityFinisher = null;
     }
 
-    private Set<Messenger> getClientsForType(final String type) {
-      FutureTask<Set<Messenger>> associationTask =
-          new FutureTask<>(
-              new Callable<Set<Messenger>>() {
-                @Override
-                public Set<Messenger> call() {
-                  return typedClients.get(type);
-                }
-              });
-      post(associationTask);
-
-      try {
-        return associationTask.get();
-      } catch (InterruptedException e) {
-        // Shouldn't happen, always waiting for finish
-        throw new IllegalStateException(e);
-      } catch (ExecutionException e) {
-        // Shouldn't happen, just adding (key,value) to a map
-        throw new IllegalStateException(e.getCause());
-      }
-    }
-
     /**
      * Helper method to send a message to a given Instrumentation Messenger. The message will have
      * the msg.replyTo field set to this {@link IncomingHandler} and it will also include the map of
@@ -625,11 +671,13 @@ public class InstrumentationConnection {
         clientSet = new HashSet<>();
         clientSet.add(client);
         typedClients.put(type, clientSet);
+        publishClients(typedClients);
         return;
       }
 
       // Add the new client
       clientSet.add(client);
+      publishClients(typedClients);
     }
 
     private void unregisterClient(String type, Messenger client) {
@@ -660,6 +708,7 @@ public class InstrumentationConnection {
       if (clientSet.isEmpty()) {
         typedClients.remove(type);
       }
+      publishClients(typedClients);
     }
 
     private void instrBinderDied(Messenger instrMessenger) {
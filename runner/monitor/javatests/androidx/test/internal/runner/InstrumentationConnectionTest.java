@@ -367,6 +367,30 @@ public class InstrumentationConnectionTest {
     assertNull(instrumentationConnection.incomingHandler);
   }
 
+  @Test
+  public void verifyClientRegistrationBumpsVersionAndCount() throws InterruptedException {
+    instrumentationConnection.init(mockedInstrumentation, mockedFinisher);
+    String clientType = "6";
+    long version = instrumentationConnection.getClientsVersion();
+    assertEquals(0, instrumentationConnection.getClientCountForType(clientType));
+
+    instrumentationConnection.registerClient(
+        clientType, new Messenger(new Handler(Looper.getMainLooper())));
+
+    // the waiting caller is woken up by the handler thread
+    long newVersion =
+        instrumentationConnection.awaitClientsChange(version, 1, TimeUnit.SECONDS);
+    assertTrue(newVersion != version);
+    assertEquals(1, instrumentationConnection.getClientCountForType(clientType));
+    // no further change, so the wait times out with the same version
+    assertEquals(
+        newVersion,
+        instrumentationConnection.awaitClientsChange(newVersion, 10, TimeUnit.MILLISECONDS));
+
+    instrumentationConnection.terminate();
+    assertEquals(0, instrumentationConnection.getClientCountForType(clientType));
+  }
+
   @Test
   public void verifyActivityFinisher() {
     instrumentationConnection.init(mockedInstrumentation, mockedFinisher);
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.test.multiprocess.app;
+
+import static androidx.test.espresso.Espresso.onView;
+import static androidx.test.espresso.assertion.ViewAssertions.matches;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+import android.os.IBinder;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import androidx.test.espresso.ViewAssertion;
+import androidx.test.espresso.matcher.RootMatchers;
+import androidx.test.espresso.remote.EspressoRemote;
+import androidx.test.espresso.remote.IInteractionExecutionStatus;
+import androidx.test.espresso.remote.RemoteInteraction;
+import androidx.test.InstrumentationRegistry;
+import androidx.test.filters.LargeTest;
+import androidx.test.internal.runner.InstrumentationConnection;
+import androidx.test.rule.ActivityTestRule;
+import androidx.test.runner.AndroidJUnit4;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.hamcrest.Matcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures the latency of remote Espresso interactions, one at a time and several at once, while
+ * the activity under test runs in a private process. Each interaction fans out to the Espresso
+ * instances of {@link #REMOTE_PROCESSES} remote processes, of which only the one of the resumed
+ * activity executes it. Results are written to logcat.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class RemoteFanOutBenchmark {
+  private static final String TAG = "RemoteFanOutBenchmark";
+
+  private static final String PRIVATE_PROC_NAME = "androidx.test.multiprocess.app:PID2";
+  private static final int WARM_UP_ROUNDS = 5;
+  private static final int ROUNDS = 50;
+  private static final int CONCURRENT_REQUESTS = 4;
+  private static final int REMOTE_PROCESSES = 3;
+  private static final long REGISTRATION_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  // the type EspressoRemote registers its instances with.
+  private static final String ESPRESSO_REMOTE_TYPE = EspressoRemote.class.getCanonicalName();
+
+  @Rule
+  public ActivityTestRule<DefaultProcessActivity> rule =
+      new ActivityTestRule<>(DefaultProcessActivity.class);
+
+  private ExecutorService requestExecutor;
+
+  @Before
+  public void setUp() throws InterruptedException {
+    requestExecutor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+    // the private process is started last, so that its activity is the resumed one.
+    startActivityInNewTask(GlobalProcessActivity.class);
+    startActivityInNewTask(IdlingActivity.class);
+    startActivityInNewTask(PrivateProcessActivity.class);
+    onView(withId(R.id.textPrivateProcessName)).check(matches(withText(is(PRIVATE_PROC_NAME))));
+    awaitRemoteInstances(REMOTE_PROCESSES);
+  }
+
+  @After
+  public void tearDown() {
+    requestExecutor.shutdownNow();
+  }
+
+  @Test
+  public void sequentialRemoteChecks() throws Exception {
+    for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+      newRemoteCheck().call();
+    }
+    long[] latencies = new long[ROUNDS];
+    for (int i = 0; i < ROUNDS; i++) {
+      Callable<Void> remoteCheck = newRemoteCheck();
+      long start = SystemClock.elapsedRealtimeNanos();
+      remoteCheck.call();
+      latencies[i] = SystemClock.elapsedRealtimeNanos() - start;
+    }
+    report("sequential, per request", latencies);
+  }
+
+  @Test
+  public void concurrentRemoteChecks() throws Exception {
+    for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+      runConcurrently();
+    }
+    long[] latencies = new long[ROUNDS];
+    for (int i = 0; i < ROUNDS; i++) {
+      latencies[i] = runConcurrently();
+    }
+    report(String.format(Locale.ROOT, "%d concurrent requests", CONCURRENT_REQUESTS), latencies);
+  }
+
+  private static void startActivityInNewTask(Class<? extends Activity> activityClass) {
+    Context context = InstrumentationRegistry.getTargetContext();
+    context.startActivity(
+        new Intent(context, activityClass).addFlags(Intent.FLAG_ACTIVITY_NEW_TASK));
+  }
+
+  /** Waits until the Espresso instances of the given number of remote processes registered. */
+  private static void awaitRemoteInstances(int remoteProcesses) throws InterruptedException {
+    InstrumentationConnection connection = InstrumentationConnection.getInstance();
+    long deadline = SystemClock.elapsedRealtime() + REGISTRATION_TIMEOUT_MILLIS;
+    long version = connection.getClientsVersion();
+    // the local instance is registered as well.
+    while (connection.getClientCountForType(ESPRESSO_REMOTE_TYPE) < remoteProcesses + 1) {
+      long remainingMillis = deadline - SystemClock.elapsedRealtime();
+      assertTrue("remote Espresso instances didn't register in time", remainingMillis > 0);
+      version = connection.awaitClientsChange(version, remainingMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** Sends {@link #CONCURRENT_REQUESTS} remote checks at once and waits for all of them. */
+  private long runConcurrently() throws Exception {
+    List<Callable<Void>> remoteChecks = new ArrayList<>();
+    for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+      remoteChecks.add(newRemoteCheck());
+    }
+    long start = SystemClock.elapsedRealtimeNanos();
+    List<Future<Void>> results = requestExecutor.invokeAll(remoteChecks);
+    long elapsed = SystemClock.elapsedRealtimeNanos() - start;
+    for (Future<Void> result : results) {
+      // rethrows remote failures
+      result.get();
+    }
+    return elapsed;
+  }
+
+  private static Callable<Void> newRemoteCheck() {
+    Matcher<View> viewMatcher = withId(R.id.textPrivateProcessName);
+    ViewAssertion viewAssertion = matches(withText(is(PRIVATE_PROC_NAME)));
+    return EspressoRemote.getInstance()
+        .createRemoteCheckCallable(
+            RootMatchers.DEFAULT, viewMatcher, newExecutionStatus(), viewAssertion);
+  }
+
+  /** Lets exactly one remote instance execute an interaction, like {@code ViewInteraction}. */
+  private static Map<String, IBinder> newExecutionStatus() {
+    final AtomicBoolean run = new AtomicBoolean(true);
+    IInteractionExecutionStatus.Stub executionStatus =
+        new IInteractionExecutionStatus.Stub() {
+          @Override
+          public boolean canExecute() {
+            return run.getAndSet(false);
+          }
+        };
+    return Collections.<String, IBinder>singletonMap(
+        RemoteInteraction.BUNDLE_EXECUTION_STATUS, executionStatus);
+  }
+
+  private static void report(String name, long[] latenciesNanos) {
+    long[] sorted = latenciesNanos.clone();
+    Arrays.sort(sorted);
+    Log.i(
+        TAG,
+        String.format(
+            Locale.ROOT,
+            "%s: median %.2f ms, p90 %.2f ms, max %.2f ms (%d rounds)",
+            name,
+            toMillis(sorted[sorted.length / 2]),
+            toMillis(sorted[sorted.length * 9 / 10]),
+            toMillis(sorted[sorted.length - 1]),
+            sorted.length));
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}